@@ -74,6 +74,26 @@ public abstract class PlatformUtils {
 	 */
 	public abstract StackTraceElement getCaller(int level);
 	
+	/**
+	 * Captures the current stack trace, so that it can be resolved later
+	 * by {@link #resolveStackTrace(Object)}, only when it is really needed.
+	 * The returned object is platform dependent.
+	 * By default, the stack trace is retrieved immediately by {@link #getCurrentStackTrace()},
+	 * but platforms may defer the expensive parts of this work.
+	 */
+	public Object captureStackTrace() {
+		return getCurrentStackTrace();
+	}
+	
+	/**
+	 * Gets the stack trace which was captured by {@link #captureStackTrace()}.
+	 * If this platform is not able to retrieve a stack trace, null is returned.
+	 */
+	@SuppressWarnings("unchecked") public List<StackTraceElement> resolveStackTrace(
+		Object capturedStackTrace) {
+		return (List<StackTraceElement>) capturedStackTrace;
+	}
+	
 	/**
 	 * Returns the {@link TextMeasurer}.
 	 */
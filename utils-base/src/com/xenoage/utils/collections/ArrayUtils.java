@@ -17,6 +17,7 @@ public class ArrayUtils {
 	 * into an <code>int</code> array.
 	 * @param a  the collection, which may not contain null.
 	 *           if null, an empty array is returned.
+	 * To avoid boxing, collect the values in an {@link IntList} instead.
 	 */
 	public static int[] toIntArray(Collection<Integer> a) {
 		if (a == null)
@@ -1,7 +1,5 @@
 package com.xenoage.utils.collections;
 
-import static com.xenoage.utils.collections.CollectionUtils.map;
-
 import java.util.Map;
 
 import com.xenoage.utils.annotations.MaybeNull;
@@ -11,54 +9,130 @@ import com.xenoage.utils.annotations.NonNull;
  * A bidirectional map, with constant lookup time in both directions.
  * A default value for non-existent entries may be provided, otherwise it is null.
  * 
+ * The pairs are stored in two parallel arrays, and each direction has a hash table with
+ * open addressing (see {@link HashIndex}), which contains only the indices of the pairs.
+ * Thus, no objects are created for the entries. See {@link IntObjectBiMap}
+ * for pairs with primitive <code>int</code> values.
+ * 
  * @author Andreas Wenger
  */
 public class BiMap<T1, T2> {
 	
-	private Map<T1, T2> map1 = map();
-	private Map<T2, T1> map2 = map();
+	//pairs, in the first size elements of these arrays
+	private Object[] values1;
+	private Object[] values2;
+	//spread hash codes of the values
+	private int[] hashes1;
+	private int[] hashes2;
+	private int size = 0;
+	//hash tables for both directions
+	private int[] table1;
+	private int[] table2;
+	
 	private T1 defaultValue1 = null;
 	private T2 defaultValue2 = null;
 	
+	
+	public BiMap() {
+		this(8);
+	}
+	
+	/**
+	 * Creates an empty map for the given number of pairs.
+	 */
+	public BiMap(int expectedSize) {
+		allocate(Math.max(expectedSize, 4));
+	}
+	
 	public static <T1, T2> BiMap<T1, T2> biMap() {
 		return new BiMap<T1, T2>();
 	}
 	
 	public int size() {
-		return map1.size();
+		return size;
 	}
 
 	public boolean isEmpty() {
-		return map1.isEmpty();
+		return size == 0;
 	}
 	
-	@MaybeNull public T1 get1(@MaybeNull T2 value2) {
+	@SuppressWarnings("unchecked") @MaybeNull public T1 get1(@MaybeNull T2 value2) {
 		if (value2 == null)
 			return defaultValue1;
-		T1 ret = map2.get(value2);
-		return (ret != null ? ret : defaultValue1);
+		int i = find2(value2);
+		return (i > -1 ? (T1) values1[i] : defaultValue1);
 	}
 
-	@MaybeNull public T2 get2(@MaybeNull T1 value1) {
+	@SuppressWarnings("unchecked") @MaybeNull public T2 get2(@MaybeNull T1 value1) {
 		if (value1 == null)
 			return defaultValue2;
-		T2 ret = map1.get(value1);
-		return (ret != null ? ret : defaultValue2);
+		int i = find1(value1);
+		return (i > -1 ? (T2) values2[i] : defaultValue2);
 	}
 
+	/**
+	 * Adds the given pair. Existing pairs which contain one of the
+	 * given values are removed.
+	 */
 	public void put(@NonNull T1 value1, @NonNull T2 value2) {
-		removeOldValues(value1, value2);
-		map1.put(value1, value2);
-		map2.put(value2, value1);
+		int hash1 = HashIndex.spread(value1.hashCode());
+		int hash2 = HashIndex.spread(value2.hashCode());
+		//remove old pairs
+		int i = find1(value1, hash1);
+		if (i > -1) {
+			if (values2[i].equals(value2))
+				return; //pair is already contained
+			remove(i);
+		}
+		i = find2(value2, hash2);
+		if (i > -1)
+			remove(i);
+		//add new pair
+		if (size == values1.length)
+			resize(size * 2);
+		values1[size] = value1;
+		values2[size] = value2;
+		hashes1[size] = hash1;
+		hashes2[size] = hash2;
+		HashIndex.insert(table1, hash1, size);
+		HashIndex.insert(table2, hash2, size);
+		size++;
 	}
 
-	private void removeOldValues(T1 value1, T2 value2) {
-		T1 oldValue1 = map2.get(value2);
-		if (oldValue1 != null)
-			map1.remove(oldValue1);
-		T2 oldValue2 = map1.get(value1);
-		if (oldValue2 != null)
-			map2.remove(oldValue2);
+	/**
+	 * Adds all pairs of the given map. The map is resized only once.
+	 */
+	public void putAll(Map<? extends T1, ? extends T2> map) {
+		ensureCapacity(size + map.size());
+		for (Map.Entry<? extends T1, ? extends T2> e : map.entrySet())
+			put(e.getKey(), e.getValue());
+	}
+
+	/**
+	 * Adds all pairs of the given map. The map is resized only once.
+	 */
+	@SuppressWarnings("unchecked") public void putAll(BiMap<? extends T1, ? extends T2> map) {
+		ensureCapacity(size + map.size);
+		for (int i = 0; i < map.size; i++)
+			put((T1) map.values1[i], (T2) map.values2[i]);
+	}
+
+	/**
+	 * Removes the pair with the given first value, if there is one.
+	 */
+	public void remove1(T1 value1) {
+		int i = find1(value1);
+		if (i > -1)
+			remove(i);
+	}
+
+	/**
+	 * Removes the pair with the given second value, if there is one.
+	 */
+	public void remove2(T2 value2) {
+		int i = find2(value2);
+		if (i > -1)
+			remove(i);
 	}
 	
 	public T1 getDefaultValue1() {
@@ -76,5 +150,81 @@ public class BiMap<T1, T2> {
 	public void setDefaultValue2(T2 defaultValue2) {
 		this.defaultValue2 = defaultValue2;
 	}
+	
+	private int find1(Object value1) {
+		return find1(value1, HashIndex.spread(value1.hashCode()));
+	}
+	
+	private int find1(Object value1, int hash1) {
+		int mask = table1.length - 1;
+		for (int slot = hash1 & mask; table1[slot] != 0; slot = (slot + 1) & mask) {
+			int i = table1[slot] - 1;
+			if (hashes1[i] == hash1 && values1[i].equals(value1))
+				return i;
+		}
+		return -1;
+	}
+	
+	private int find2(Object value2) {
+		return find2(value2, HashIndex.spread(value2.hashCode()));
+	}
+	
+	private int find2(Object value2, int hash2) {
+		int mask = table2.length - 1;
+		for (int slot = hash2 & mask; table2[slot] != 0; slot = (slot + 1) & mask) {
+			int i = table2[slot] - 1;
+			if (hashes2[i] == hash2 && values2[i].equals(value2))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the pair at the given index. The last pair is moved to this index.
+	 */
+	private void remove(int i) {
+		HashIndex.remove(table1, HashIndex.slotOf(table1, hashes1[i], i), hashes1);
+		HashIndex.remove(table2, HashIndex.slotOf(table2, hashes2[i], i), hashes2);
+		int last = size - 1;
+		if (i < last) {
+			table1[HashIndex.slotOf(table1, hashes1[last], last)] = i + 1;
+			table2[HashIndex.slotOf(table2, hashes2[last], last)] = i + 1;
+			values1[i] = values1[last];
+			values2[i] = values2[last];
+			hashes1[i] = hashes1[last];
+			hashes2[i] = hashes2[last];
+		}
+		values1[last] = null;
+		values2[last] = null;
+		size--;
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > values1.length)
+			resize(Math.max(capacity, values1.length * 2));
+	}
+
+	private void allocate(int capacity) {
+		values1 = new Object[capacity];
+		values2 = new Object[capacity];
+		hashes1 = new int[capacity];
+		hashes2 = new int[capacity];
+		table1 = HashIndex.create(capacity);
+		table2 = HashIndex.create(capacity);
+	}
+
+	private void resize(int capacity) {
+		Object[] oldValues1 = values1, oldValues2 = values2;
+		int[] oldHashes1 = hashes1, oldHashes2 = hashes2;
+		allocate(capacity);
+		System.arraycopy(oldValues1, 0, values1, 0, size);
+		System.arraycopy(oldValues2, 0, values2, 0, size);
+		System.arraycopy(oldHashes1, 0, hashes1, 0, size);
+		System.arraycopy(oldHashes2, 0, hashes2, 0, size);
+		for (int i = 0; i < size; i++) {
+			HashIndex.insert(table1, hashes1[i], i);
+			HashIndex.insert(table2, hashes2[i], i);
+		}
+	}
 
 }
@@ -22,6 +22,12 @@ import java.util.ListIterator;
  * operation is performed. At this point, a full copy of the data memory is made.
  * Thus, if the list is not modified later, branching the list is very fast.
  * 
+ * The data memory counts its owners (see {@link SharedData}), so a copy is only made
+ * when memory which is still shared is written, also when the original list is written
+ * after it was branched. Branches of the same list may be created and written in
+ * different threads. A closed list can be passed to other threads without
+ * further synchronization, and all threads will see its complete content.
+ * 
  * As long as the class is used as an {@link CList}, there are no compiler
  * warnings for the write methods. As soon as it is used as a {@link IList},
  * compiler warnings for the write methods will show up.
@@ -34,9 +40,9 @@ import java.util.ListIterator;
 public final class CList<T>
 	implements IList<T> {
 
-	private List<T> array;
+	//volatile, so that the content is visible to other threads after closing
+	private volatile SharedData<List<T>> data;
 	private boolean closed = false;
-	private boolean sharedMemory = false; //true, when array is shared with another instance
 
 
 	/**
@@ -51,7 +57,7 @@ public final class CList<T>
 	 * given initial capacity.
 	 */
 	public CList(int initialCapacity) {
-		array = new ArrayList<T>(initialCapacity);
+		data = new SharedData<List<T>>(new ArrayList<T>(initialCapacity), 1);
 	}
 
 	/**
@@ -59,14 +65,14 @@ public final class CList<T>
 	 * collection. A shallow copy of the given collection is created.
 	 */
 	public CList(Collection<T> mutableCollection) {
-		array = new ArrayList<T>(mutableCollection);
+		data = new SharedData<List<T>>(new ArrayList<T>(mutableCollection), 1);
 	}
 
 	private CList(boolean init) {
 		if (init)
-			array = new ArrayList<T>();
+			data = new SharedData<List<T>>(new ArrayList<T>(), 1);
 		else
-			array = null;
+			data = null;
 	}
 
 	/**
@@ -99,11 +105,10 @@ public final class CList<T>
 	 */
 	public static <T2> CList<T2> clist(IList<T2> v) {
 		CList<T2> ret = new CList<T2>(false);
-		ret.sharedMemory = true;
 		if (v instanceof CList)
-			ret.array = ((CList<T2>) v).array; //avoid a stack of redirections. use array directly
+			ret.data = ((CList<T2>) v).data.share(); //avoid a stack of redirections. use array directly
 		else
-			ret.array = v; //no choice, we must use the public interface
+			ret.data = new SharedData<List<T2>>(v, 2); //no choice, we must use the public interface. never write it
 		return ret;
 	}
 
@@ -150,6 +155,8 @@ public final class CList<T>
 	 */
 	public IList<T> close() {
 		closed = true;
+		//write the volatile field again, so that all previous writes are visible to other threads
+		data = data;
 		return this;
 	}
 
@@ -158,82 +165,87 @@ public final class CList<T>
 		if (closed)
 			throw new IllegalStateException("list is closed");
 		//if shared memory is used, create full copy instead
-		if (sharedMemory) {
-			array = new ArrayList<T>(array);
-			sharedMemory = false;
+		SharedData<List<T>> data = this.data;
+		if (false == data.isExclusive()) {
+			this.data = new SharedData<List<T>>(new ArrayList<T>(data.data), 1);
+			data.release();
 		}
 	}
 
+	private List<T> array() {
+		return data.data;
+	}
+
 	@Override public T getFirst() {
-		return array.get(0);
+		return array().get(0);
 	}
 
 	@Override public T getLast() {
-		return array.get(array.size() - 1);
+		return array().get(array().size() - 1);
 	}
 
 	@Override public boolean add(T e) {
 		requestWrite();
-		array.add(e);
+		array().add(e);
 		return true;
 	}
 
 	@Override public void add(int index, T element) {
 		requestWrite();
-		array.add(index, element);
+		array().add(index, element);
 	}
 
 	@Override public boolean addAll(Collection<? extends T> c) {
 		requestWrite();
-		return array.addAll(c);
+		return array().addAll(c);
 	}
 
 	@Override public boolean addAll(int index, Collection<? extends T> c) {
 		requestWrite();
-		return array.addAll(index, c);
+		return array().addAll(index, c);
 	}
 
 	@Override public void clear() {
 		requestWrite();
-		array.clear();
+		array().clear();
 	}
 
 	@Override public boolean contains(Object o) {
-		return array.contains(o);
+		return array().contains(o);
 	}
 
 	@Override public boolean containsAll(Collection<?> c) {
-		return array.containsAll(c);
+		return array().containsAll(c);
 	}
 
 	@Override public T get(int index) {
-		return array.get(index);
+		return array().get(index);
 	}
 
 	@Override public int indexOf(Object o) {
-		return array.indexOf(o);
+		return array().indexOf(o);
 	}
 
 	@Override public boolean isEmpty() {
-		return array.isEmpty();
+		return array().isEmpty();
 	}
 
 	@Override public Iterator<T> iterator() {
 		if (closed)
-			return it(array);
+			return it(array());
 		else
-			return array.iterator();
+			return array().iterator();
 	}
 
 	@Override public int lastIndexOf(Object o) {
-		return array.lastIndexOf(o);
+		return array().lastIndexOf(o);
 	}
 
 	@Override public ListIterator<T> listIterator() {
 		if (closed)
-			return listIt(array.listIterator());
+			return listIt(array().listIterator());
 		else
-			return array.listIterator();
+			return array().listIterator();
 	}
 
 	@Override public ListIterator<T> listIterator(int index) {
@@ -242,43 +254,43 @@ public final class CList<T>
 
 	@Override public boolean remove(Object o) {
 		requestWrite();
-		return array.remove(o);
+		return array().remove(o);
 	}
 
 	@Override public T remove(int index) {
 		requestWrite();
-		return array.remove(index);
+		return array().remove(index);
 	}
 
 	@Override public boolean removeAll(Collection<?> c) {
 		requestWrite();
-		return array.retainAll(c);
+		return array().retainAll(c);
 	}
 
 	@Override public boolean retainAll(Collection<?> c) {
 		requestWrite();
-		return array.retainAll(c);
+		return array().retainAll(c);
 	}
 
 	@Override public T set(int index, T element) {
 		requestWrite();
-		return array.set(index, element);
+		return array().set(index, element);
 	}
 
 	@Override public int size() {
-		return array.size();
+		return array().size();
 	}
 
 	@Override public IList<T> subList(int fromIndex, int toIndex) {
-		return clist(array.subList(fromIndex, toIndex)).close();
+		return clist(array().subList(fromIndex, toIndex)).close();
 	}
 
 	@Override public Object[] toArray() {
-		return array.toArray();
+		return array().toArray();
 	}
 
 	@Override public <T2> T2[] toArray(T2[] a) {
-		return array.toArray(a);
+		return array().toArray(a);
 	}
 
 	/**
@@ -286,15 +298,15 @@ public final class CList<T>
 	 * otherwise false.
 	 */
 	@Override public boolean equals(Object o) {
-		return array.equals(o);
+		return array().equals(o);
 	}
 
 	@Override public int hashCode() {
-		return array.hashCode();
+		return array().hashCode();
 	}
 
 	@Override public String toString() {
-		return "{size:" + array.size() + ", data:" + array.toString() + "}";
+		return "{size:" + array().size() + ", data:" + array().toString() + "}";
 	}
 
 }
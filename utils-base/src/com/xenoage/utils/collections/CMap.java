@@ -18,6 +18,12 @@ import java.util.Set;
  * operation is performed. At this point, a full copy of the data memory is made.
  * Thus, if the map is not modified later, branching the map is very fast.
  * 
+ * The data memory counts its owners (see {@link SharedData}), so a copy is only made
+ * when memory which is still shared is written, also when the original map is written
+ * after it was branched. Branches of the same map may be created and written in
+ * different threads. A closed map can be passed to other threads without
+ * further synchronization, and all threads will see its complete content.
+ * 
  * As long as the class is used as an {@link CMap}, there are no compiler
  * warnings for the write methods. As soon as it is used as a {@link IMap},
  * compiler warnings for the write methods will show up.
@@ -30,9 +36,9 @@ import java.util.Set;
 public final class CMap<K, V>
 	implements IMap<K, V> {
 
-	private Map<K, V> map;
+	//volatile, so that the content is visible to other threads after closing
+	private volatile SharedData<Map<K, V>> data;
 	private boolean closed = false;
-	private boolean sharedMemory = false; //true, when map is shared with another instance
 
 
 	/**
@@ -47,14 +53,14 @@ public final class CMap<K, V>
 	 * map. A shallow copy of the given map is created.
 	 */
 	public CMap(java.util.Map<K, V> mutableMap) {
-		map = new HashMap<K, V>(mutableMap);
+		data = new SharedData<Map<K, V>>(new HashMap<K, V>(mutableMap), 1);
 	}
 
 	private CMap(boolean init) {
 		if (init)
-			map = new HashMap<K, V>();
+			data = new SharedData<Map<K, V>>(new HashMap<K, V>(), 1);
 		else
-			map = null;
+			data = null;
 	}
 
 	/**
@@ -79,11 +85,10 @@ public final class CMap<K, V>
 	 */
 	public static <K2, V2> CMap<K2, V2> cmap(IMap<K2, V2> m) {
 		CMap<K2, V2> ret = new CMap<K2, V2>(false);
-		ret.sharedMemory = true;
 		if (m instanceof CMap)
-			ret.map = ((CMap<K2, V2>) m).map; //avoid a stack of redirections. use map directly
+			ret.data = ((CMap<K2, V2>) m).data.share(); //avoid a stack of redirections. use map directly
 		else
-			ret.map = m; //no choice, we must use the public interface
+			ret.data = new SharedData<Map<K2, V2>>(m, 2); //no choice, we must use the public interface. never write it
 		return ret;
 	}
 
@@ -93,6 +98,8 @@ public final class CMap<K, V>
 	 */
 	public CMap<K, V> close() {
 		closed = true;
+		//write the volatile field again, so that all previous writes are visible to other threads
+		data = data;
 		return this;
 	}
 
@@ -101,62 +108,67 @@ public final class CMap<K, V>
 		if (closed)
 			throw new IllegalStateException("map is closed");
 		//if shared memory is used, create full copy instead
-		if (sharedMemory) {
-			map = new HashMap<K, V>(map);
-			sharedMemory = false;
+		SharedData<Map<K, V>> data = this.data;
+		if (false == data.isExclusive()) {
+			this.data = new SharedData<Map<K, V>>(new HashMap<K, V>(data.data), 1);
+			data.release();
 		}
 	}
 
+	private Map<K, V> map() {
+		return data.data;
+	}
+
 	@Override public int size() {
-		return map.size();
+		return map().size();
 	}
 
 	@Override public boolean isEmpty() {
-		return map.isEmpty();
+		return map().isEmpty();
 	}
 
 	@Override public boolean containsKey(Object key) {
-		return map.containsKey(key);
+		return map().containsKey(key);
 	}
 
 	@Override public boolean containsValue(Object value) {
-		return map.containsValue(value);
+		return map().containsValue(value);
 	}
 
 	@Override public V get(Object key) {
-		return map.get(key);
+		return map().get(key);
 	}
 
 	@Override public Set<K> keySet() {
-		return map.keySet();
+		return map().keySet();
 	}
 
 	@Override public Collection<V> values() {
-		return map.values();
+		return map().values();
 	}
 
 	@Override public Set<java.util.Map.Entry<K, V>> entrySet() {
-		return map.entrySet();
+		return map().entrySet();
 	}
 
 	@Override public V put(K key, V value) {
 		requestWrite();
-		return map.put(key, value);
+		return map().put(key, value);
 	}
 
 	@Override public V remove(Object key) {
 		requestWrite();
-		return map.remove(key);
+		return map().remove(key);
 	}
 
 	@Override public void putAll(java.util.Map<? extends K, ? extends V> m) {
 		requestWrite();
-		map.putAll(m);
+		map().putAll(m);
 	}
 
 	@Override public void clear() {
 		requestWrite();
-		map.clear();
+		map().clear();
 	}
 
 }
@@ -199,6 +199,7 @@ public final class CollectionUtils {
 
 	/**
 	 * Returns the sum of the items of the given collection.
+	 * To avoid boxing, use a {@link FloatList} instead.
 	 */
 	public static float sum(Collection<Float> c) {
 		float ret = 0;
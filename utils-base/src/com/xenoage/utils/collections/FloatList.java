@@ -0,0 +1,222 @@
+package com.xenoage.utils.collections;
+
+/**
+ * Closeable list of primitive <code>float</code> values.
+ * 
+ * Like {@link CList}, the list is unclosed at the beginning and can be written.
+ * After the {@link #close()} method is called, all calls to write methods
+ * will throw an {@link IllegalStateException}.
+ * 
+ * In contrast to a list of {@link Float}s, no objects are created
+ * for the values. The values are stored in an array, which grows when needed.
+ * 
+ * @author Andreas Wenger
+ */
+public final class FloatList {
+
+	private float[] values;
+	private int size = 0;
+	private boolean closed = false;
+
+
+	/**
+	 * Creates an empty and unclosed {@link FloatList}.
+	 */
+	public FloatList() {
+		this(10);
+	}
+
+	/**
+	 * Creates an empty and unclosed {@link FloatList} with the
+	 * given initial capacity.
+	 */
+	public FloatList(int initialCapacity) {
+		values = new float[initialCapacity];
+	}
+
+	/**
+	 * Creates an unclosed {@link FloatList} with the given values.
+	 */
+	public static FloatList floatList(float... values) {
+		FloatList ret = new FloatList(values.length);
+		ret.addAll(values);
+		return ret;
+	}
+
+	/**
+	 * Creates a closed {@link FloatList} with the given values.
+	 */
+	public static FloatList iFloatList(float... values) {
+		return floatList(values).close();
+	}
+
+	/**
+	 * Closes the list. All future calls to write methods will fail.
+	 * Returns this list for convenience.
+	 */
+	public FloatList close() {
+		closed = true;
+		return this;
+	}
+
+	/**
+	 * Returns true, if this list is closed.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	public void add(float value) {
+		requestWrite(size + 1);
+		values[size++] = value;
+	}
+
+	public void add(int index, float value) {
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		requestWrite(size + 1);
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+
+	public void addAll(float... values) {
+		requestWrite(size + values.length);
+		System.arraycopy(values, 0, this.values, size, values.length);
+		size += values.length;
+	}
+
+	public void addAll(FloatList list) {
+		requestWrite(size + list.size);
+		System.arraycopy(list.values, 0, values, size, list.size);
+		size += list.size;
+	}
+
+	public float get(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * Sets the value at the given index and returns the old one.
+	 */
+	public float set(int index, float value) {
+		checkIndex(index);
+		requestWrite(size);
+		float ret = values[index];
+		values[index] = value;
+		return ret;
+	}
+
+	/**
+	 * Removes the value at the given index and returns it.
+	 */
+	public float removeAt(int index) {
+		checkIndex(index);
+		requestWrite(size);
+		float ret = values[index];
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		return ret;
+	}
+
+	public void clear() {
+		requestWrite(0);
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the index of the first occurrence of the given value, or -1.
+	 */
+	public int indexOf(float value) {
+		for (int i = 0; i < size; i++)
+			if (values[i] == value)
+				return i;
+		return -1;
+	}
+
+	public boolean contains(float value) {
+		return indexOf(value) > -1;
+	}
+
+	/**
+	 * Returns the sum of the values.
+	 */
+	public float sum() {
+		float ret = 0;
+		for (int i = 0; i < size; i++)
+			ret += values[i];
+		return ret;
+	}
+
+	/**
+	 * Returns a copy of the values as an array.
+	 */
+	public float[] toArray() {
+		float[] ret = new float[size];
+		System.arraycopy(values, 0, ret, 0, size);
+		return ret;
+	}
+
+	private void requestWrite(int minCapacity) {
+		//if closed, further write operations are forbidden
+		if (closed)
+			throw new IllegalStateException("list is closed");
+		if (minCapacity > values.length) {
+			float[] newValues = new float[Math.max(minCapacity, values.length * 3 / 2 + 1)];
+			System.arraycopy(values, 0, newValues, 0, size);
+			values = newValues;
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	/**
+	 * Returns true, if the given object is an {@link FloatList}
+	 * with the same values as this one, otherwise false.
+	 */
+	@Override public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (false == o instanceof FloatList)
+			return false;
+		FloatList other = (FloatList) o;
+		if (size != other.size)
+			return false;
+		for (int i = 0; i < size; i++)
+			if (Float.floatToIntBits(values[i]) != Float.floatToIntBits(other.values[i]))
+				return false;
+		return true;
+	}
+
+	@Override public int hashCode() {
+		int ret = 1;
+		for (int i = 0; i < size; i++)
+			ret = 31 * ret + Float.floatToIntBits(values[i]);
+		return ret;
+	}
+
+	@Override public String toString() {
+		StringBuilder ret = new StringBuilder();
+		ret.append("{size:").append(size).append(", data:[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				ret.append(", ");
+			ret.append(values[i]);
+		}
+		ret.append("]}");
+		return ret.toString();
+	}
+
+}
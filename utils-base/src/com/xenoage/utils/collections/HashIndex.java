@@ -0,0 +1,80 @@
+package com.xenoage.utils.collections;
+
+/**
+ * Static helper methods for hash tables with open addressing and linear probing,
+ * which store the indices of entries in separate arrays.
+ * 
+ * A table is an <code>int</code> array, whose length is a power of 2. Each slot
+ * contains the index of an entry plus 1, or 0 if the slot is empty.
+ * The hashes of the entries are stored by the owner of the table.
+ * 
+ * @author Andreas Wenger
+ */
+final class HashIndex {
+
+	private HashIndex() {
+	}
+
+	/**
+	 * Creates an empty table, which is at most half full with the given number of entries.
+	 */
+	static int[] create(int entries) {
+		int capacity = 8;
+		while (capacity < entries * 2)
+			capacity *= 2;
+		return new int[capacity];
+	}
+
+	/**
+	 * Spreads the bits of the given hash code, so that also hash codes
+	 * with regular patterns are distributed over the whole table.
+	 */
+	static int spread(int hashCode) {
+		int h = hashCode * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Inserts the given entry with the given (spread) hash.
+	 */
+	static void insert(int[] table, int hash, int entry) {
+		int mask = table.length - 1;
+		int i = hash & mask;
+		while (table[i] != 0)
+			i = (i + 1) & mask;
+		table[i] = entry + 1;
+	}
+
+	/**
+	 * Gets the slot of the given entry with the given (spread) hash.
+	 * The entry must be in the table.
+	 */
+	static int slotOf(int[] table, int hash, int entry) {
+		int mask = table.length - 1;
+		int i = hash & mask;
+		while (table[i] != entry + 1)
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Removes the entry at the given slot. The following entries of the same
+	 * cluster are moved back, if they would not be found anymore otherwise.
+	 * The (spread) hashes of all entries are given.
+	 */
+	static void remove(int[] table, int slot, int[] hashes) {
+		int mask = table.length - 1;
+		int free = slot;
+		int j = (slot + 1) & mask;
+		while (table[j] != 0) {
+			int home = hashes[table[j] - 1] & mask;
+			if (((j - home) & mask) >= ((j - free) & mask)) {
+				table[free] = table[j];
+				free = j;
+			}
+			j = (j + 1) & mask;
+		}
+		table[free] = 0;
+	}
+
+}
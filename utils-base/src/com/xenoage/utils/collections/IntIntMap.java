@@ -0,0 +1,219 @@
+package com.xenoage.utils.collections;
+
+/**
+ * Closeable hash map from primitive <code>int</code> keys to
+ * primitive <code>int</code> values.
+ * 
+ * Like {@link CList}, the map is unclosed at the beginning and can be written.
+ * After the {@link #close()} method is called, all calls to write methods
+ * will throw an {@link IllegalStateException}.
+ * 
+ * In contrast to a map of {@link Integer}s, no objects are created
+ * for the keys, values or entries. The keys and values are stored in arrays with open
+ * addressing and linear probing, which are at most half full.
+ * 
+ * @author Andreas Wenger
+ */
+public final class IntIntMap {
+
+	/**
+	 * Operation on the entries of an {@link IntIntMap}.
+	 */
+	public interface EntryConsumer {
+
+		public void accept(int key, int value);
+
+	}
+
+
+	private int[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int size = 0;
+	private boolean closed = false;
+
+
+	/**
+	 * Creates an empty and unclosed {@link IntIntMap}.
+	 */
+	public IntIntMap() {
+		this(8);
+	}
+
+	/**
+	 * Creates an empty and unclosed {@link IntIntMap} for the
+	 * given number of entries.
+	 */
+	public IntIntMap(int expectedSize) {
+		int capacity = 4;
+		while (capacity < expectedSize * 2)
+			capacity *= 2;
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+	}
+
+	/**
+	 * Closes the map. All future calls to write methods will fail.
+	 * Returns this map for convenience.
+	 */
+	public IntIntMap close() {
+		closed = true;
+		return this;
+	}
+
+	/**
+	 * Returns true, if this map is closed.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Gets the value for the given key, or the given default value if there is none.
+	 */
+	public int get(int key, int defaultValue) {
+		int i = find(key);
+		return i > -1 ? values[i] : defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		return find(key) > -1;
+	}
+
+	/**
+	 * Sets the value for the given key.
+	 */
+	public void put(int key, int value) {
+		requestWrite();
+		int mask = keys.length - 1;
+		int i = HashIndex.spread(key) & mask;
+		while (used[i]) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		used[i] = true;
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if (size * 2 > keys.length)
+			rehash(keys.length * 2);
+	}
+
+	/**
+	 * Removes the entry with the given key.
+	 * Returns true, if there was such an entry.
+	 */
+	public boolean remove(int key) {
+		requestWrite();
+		int i = find(key);
+		if (i == -1)
+			return false;
+		//move the following entries of the same cluster back, if they would not be found anymore
+		int mask = keys.length - 1;
+		int free = i;
+		int j = (i + 1) & mask;
+		while (used[j]) {
+			int home = HashIndex.spread(keys[j]) & mask;
+			if (((j - home) & mask) >= ((j - free) & mask)) {
+				keys[free] = keys[j];
+				values[free] = values[j];
+				free = j;
+			}
+			j = (j + 1) & mask;
+		}
+		used[free] = false;
+		size--;
+		return true;
+	}
+
+	public void clear() {
+		requestWrite();
+		for (int i = 0; i < used.length; i++)
+			used[i] = false;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Calls the given consumer for each entry, in no specific order.
+	 */
+	public void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++)
+			if (used[i])
+				consumer.accept(keys[i], values[i]);
+	}
+
+	/**
+	 * Returns the keys, in no specific order.
+	 */
+	public IntList getKeys() {
+		IntList ret = new IntList(size);
+		for (int i = 0; i < keys.length; i++)
+			if (used[i])
+				ret.add(keys[i]);
+		return ret;
+	}
+
+	private int find(int key) {
+		int mask = keys.length - 1;
+		int i = HashIndex.spread(key) & mask;
+		while (used[i]) {
+			if (keys[i] == key)
+				return i;
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys, oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		int mask = capacity - 1;
+		for (int iOld = 0; iOld < oldKeys.length; iOld++) {
+			if (oldUsed[iOld]) {
+				int i = HashIndex.spread(oldKeys[iOld]) & mask;
+				while (used[i])
+					i = (i + 1) & mask;
+				used[i] = true;
+				keys[i] = oldKeys[iOld];
+				values[i] = oldValues[iOld];
+			}
+		}
+	}
+
+	private void requestWrite() {
+		//if closed, further write operations are forbidden
+		if (closed)
+			throw new IllegalStateException("map is closed");
+	}
+
+	@Override public String toString() {
+		final StringBuilder ret = new StringBuilder();
+		ret.append("{size:").append(size).append(", data:{");
+		forEach(new EntryConsumer() {
+
+			@Override public void accept(int key, int value) {
+				if (ret.charAt(ret.length() - 1) != '{')
+					ret.append(", ");
+				ret.append(key).append("=").append(value);
+			}
+		});
+		ret.append("}}");
+		return ret.toString();
+	}
+
+}
@@ -0,0 +1,232 @@
+package com.xenoage.utils.collections;
+
+import com.xenoage.utils.kernel.IntConsumer;
+
+/**
+ * Closeable list of primitive <code>int</code> values.
+ * 
+ * Like {@link CList}, the list is unclosed at the beginning and can be written.
+ * After the {@link #close()} method is called, all calls to write methods
+ * will throw an {@link IllegalStateException}.
+ * 
+ * In contrast to a list of {@link Integer}s, no objects are created
+ * for the values. The values are stored in an array, which grows when needed.
+ * 
+ * @author Andreas Wenger
+ */
+public final class IntList {
+
+	private int[] values;
+	private int size = 0;
+	private boolean closed = false;
+
+
+	/**
+	 * Creates an empty and unclosed {@link IntList}.
+	 */
+	public IntList() {
+		this(10);
+	}
+
+	/**
+	 * Creates an empty and unclosed {@link IntList} with the
+	 * given initial capacity.
+	 */
+	public IntList(int initialCapacity) {
+		values = new int[initialCapacity];
+	}
+
+	/**
+	 * Creates an unclosed {@link IntList} with the given values.
+	 */
+	public static IntList intList(int... values) {
+		IntList ret = new IntList(values.length);
+		ret.addAll(values);
+		return ret;
+	}
+
+	/**
+	 * Creates a closed {@link IntList} with the given values.
+	 */
+	public static IntList iIntList(int... values) {
+		return intList(values).close();
+	}
+
+	/**
+	 * Closes the list. All future calls to write methods will fail.
+	 * Returns this list for convenience.
+	 */
+	public IntList close() {
+		closed = true;
+		return this;
+	}
+
+	/**
+	 * Returns true, if this list is closed.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	public void add(int value) {
+		requestWrite(size + 1);
+		values[size++] = value;
+	}
+
+	public void add(int index, int value) {
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		requestWrite(size + 1);
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+
+	public void addAll(int... values) {
+		requestWrite(size + values.length);
+		System.arraycopy(values, 0, this.values, size, values.length);
+		size += values.length;
+	}
+
+	public void addAll(IntList list) {
+		requestWrite(size + list.size);
+		System.arraycopy(list.values, 0, values, size, list.size);
+		size += list.size;
+	}
+
+	public int get(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * Sets the value at the given index and returns the old one.
+	 */
+	public int set(int index, int value) {
+		checkIndex(index);
+		requestWrite(size);
+		int ret = values[index];
+		values[index] = value;
+		return ret;
+	}
+
+	/**
+	 * Removes the value at the given index and returns it.
+	 */
+	public int removeAt(int index) {
+		checkIndex(index);
+		requestWrite(size);
+		int ret = values[index];
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		return ret;
+	}
+
+	public void clear() {
+		requestWrite(0);
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the index of the first occurrence of the given value, or -1.
+	 */
+	public int indexOf(int value) {
+		for (int i = 0; i < size; i++)
+			if (values[i] == value)
+				return i;
+		return -1;
+	}
+
+	public boolean contains(int value) {
+		return indexOf(value) > -1;
+	}
+
+	/**
+	 * Returns the sum of the values.
+	 */
+	public int sum() {
+		int ret = 0;
+		for (int i = 0; i < size; i++)
+			ret += values[i];
+		return ret;
+	}
+
+	/**
+	 * Calls the given consumer for each value.
+	 */
+	public void forEach(IntConsumer consumer) {
+		for (int i = 0; i < size; i++)
+			consumer.accept(values[i]);
+	}
+
+	/**
+	 * Returns a copy of the values as an array.
+	 */
+	public int[] toArray() {
+		int[] ret = new int[size];
+		System.arraycopy(values, 0, ret, 0, size);
+		return ret;
+	}
+
+	private void requestWrite(int minCapacity) {
+		//if closed, further write operations are forbidden
+		if (closed)
+			throw new IllegalStateException("list is closed");
+		if (minCapacity > values.length) {
+			int[] newValues = new int[Math.max(minCapacity, values.length * 3 / 2 + 1)];
+			System.arraycopy(values, 0, newValues, 0, size);
+			values = newValues;
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	/**
+	 * Returns true, if the given object is an {@link IntList}
+	 * with the same values as this one, otherwise false.
+	 */
+	@Override public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (false == o instanceof IntList)
+			return false;
+		IntList other = (IntList) o;
+		if (size != other.size)
+			return false;
+		for (int i = 0; i < size; i++)
+			if (values[i] != other.values[i])
+				return false;
+		return true;
+	}
+
+	@Override public int hashCode() {
+		int ret = 1;
+		for (int i = 0; i < size; i++)
+			ret = 31 * ret + values[i];
+		return ret;
+	}
+
+	@Override public String toString() {
+		StringBuilder ret = new StringBuilder();
+		ret.append("{size:").append(size).append(", data:[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				ret.append(", ");
+			ret.append(values[i]);
+		}
+		ret.append("]}");
+		return ret.toString();
+	}
+
+}
@@ -0,0 +1,229 @@
+package com.xenoage.utils.collections;
+
+import com.xenoage.utils.annotations.MaybeNull;
+import com.xenoage.utils.annotations.NonNull;
+
+/**
+ * A bidirectional map between primitive <code>int</code> values and objects,
+ * with constant lookup time in both directions, e.g. for IDs of objects.
+ * A default value for non-existent entries may be provided, otherwise it is
+ * -1 for the <code>int</code> values and null for the objects.
+ * 
+ * Like {@link BiMap}, the pairs are stored in two parallel arrays, and no
+ * objects are created for the entries or the <code>int</code> values.
+ * 
+ * @author Andreas Wenger
+ */
+public class IntObjectBiMap<T2> {
+	
+	//pairs, in the first size elements of these arrays
+	private int[] values1;
+	private Object[] values2;
+	//spread hash codes of the values
+	private int[] hashes1;
+	private int[] hashes2;
+	private int size = 0;
+	//hash tables for both directions
+	private int[] table1;
+	private int[] table2;
+	
+	private int defaultValue1 = -1;
+	private T2 defaultValue2 = null;
+	
+	
+	public IntObjectBiMap() {
+		this(8);
+	}
+	
+	/**
+	 * Creates an empty map for the given number of pairs.
+	 */
+	public IntObjectBiMap(int expectedSize) {
+		allocate(Math.max(expectedSize, 4));
+	}
+	
+	public static <T2> IntObjectBiMap<T2> intObjectBiMap() {
+		return new IntObjectBiMap<T2>();
+	}
+	
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public int get1(@MaybeNull T2 value2) {
+		if (value2 == null)
+			return defaultValue1;
+		int i = find2(value2);
+		return (i > -1 ? values1[i] : defaultValue1);
+	}
+
+	@SuppressWarnings("unchecked") @MaybeNull public T2 get2(int value1) {
+		int i = find1(value1);
+		return (i > -1 ? (T2) values2[i] : defaultValue2);
+	}
+
+	/**
+	 * Adds the given pair. Existing pairs which contain one of the
+	 * given values are removed.
+	 */
+	public void put(int value1, @NonNull T2 value2) {
+		int hash1 = HashIndex.spread(value1);
+		int hash2 = HashIndex.spread(value2.hashCode());
+		//remove old pairs
+		int i = find1(value1, hash1);
+		if (i > -1) {
+			if (values2[i].equals(value2))
+				return; //pair is already contained
+			remove(i);
+		}
+		i = find2(value2, hash2);
+		if (i > -1)
+			remove(i);
+		//add new pair
+		if (size == values1.length)
+			resize(size * 2);
+		values1[size] = value1;
+		values2[size] = value2;
+		hashes1[size] = hash1;
+		hashes2[size] = hash2;
+		HashIndex.insert(table1, hash1, size);
+		HashIndex.insert(table2, hash2, size);
+		size++;
+	}
+
+	/**
+	 * Adds the pairs with the same indices in the given arrays,
+	 * which must have the same length. The map is resized only once.
+	 */
+	public void putAll(int[] values1, T2[] values2) {
+		if (values1.length != values2.length)
+			throw new IllegalArgumentException("arrays must have the same length");
+		ensureCapacity(size + values1.length);
+		for (int i = 0; i < values1.length; i++)
+			put(values1[i], values2[i]);
+	}
+
+	/**
+	 * Adds all pairs of the given map. The map is resized only once.
+	 */
+	@SuppressWarnings("unchecked") public void putAll(IntObjectBiMap<? extends T2> map) {
+		ensureCapacity(size + map.size);
+		for (int i = 0; i < map.size; i++)
+			put(map.values1[i], (T2) map.values2[i]);
+	}
+
+	/**
+	 * Removes the pair with the given first value, if there is one.
+	 */
+	public void remove1(int value1) {
+		int i = find1(value1);
+		if (i > -1)
+			remove(i);
+	}
+
+	/**
+	 * Removes the pair with the given second value, if there is one.
+	 */
+	public void remove2(T2 value2) {
+		int i = find2(value2);
+		if (i > -1)
+			remove(i);
+	}
+	
+	public int getDefaultValue1() {
+		return defaultValue1;
+	}
+
+	public void setDefaultValue1(int defaultValue1) {
+		this.defaultValue1 = defaultValue1;
+	}
+
+	public T2 getDefaultValue2() {
+		return defaultValue2;
+	}
+
+	public void setDefaultValue2(T2 defaultValue2) {
+		this.defaultValue2 = defaultValue2;
+	}
+	
+	private int find1(int value1) {
+		return find1(value1, HashIndex.spread(value1));
+	}
+	
+	private int find1(int value1, int hash1) {
+		int mask = table1.length - 1;
+		for (int slot = hash1 & mask; table1[slot] != 0; slot = (slot + 1) & mask) {
+			int i = table1[slot] - 1;
+			if (values1[i] == value1)
+				return i;
+		}
+		return -1;
+	}
+	
+	private int find2(Object value2) {
+		return find2(value2, HashIndex.spread(value2.hashCode()));
+	}
+	
+	private int find2(Object value2, int hash2) {
+		int mask = table2.length - 1;
+		for (int slot = hash2 & mask; table2[slot] != 0; slot = (slot + 1) & mask) {
+			int i = table2[slot] - 1;
+			if (hashes2[i] == hash2 && values2[i].equals(value2))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the pair at the given index. The last pair is moved to this index.
+	 */
+	private void remove(int i) {
+		HashIndex.remove(table1, HashIndex.slotOf(table1, hashes1[i], i), hashes1);
+		HashIndex.remove(table2, HashIndex.slotOf(table2, hashes2[i], i), hashes2);
+		int last = size - 1;
+		if (i < last) {
+			table1[HashIndex.slotOf(table1, hashes1[last], last)] = i + 1;
+			table2[HashIndex.slotOf(table2, hashes2[last], last)] = i + 1;
+			values1[i] = values1[last];
+			values2[i] = values2[last];
+			hashes1[i] = hashes1[last];
+			hashes2[i] = hashes2[last];
+		}
+		values2[last] = null;
+		size--;
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > values1.length)
+			resize(Math.max(capacity, values1.length * 2));
+	}
+
+	private void allocate(int capacity) {
+		values1 = new int[capacity];
+		values2 = new Object[capacity];
+		hashes1 = new int[capacity];
+		hashes2 = new int[capacity];
+		table1 = HashIndex.create(capacity);
+		table2 = HashIndex.create(capacity);
+	}
+
+	private void resize(int capacity) {
+		int[] oldValues1 = values1;
+		Object[] oldValues2 = values2;
+		int[] oldHashes1 = hashes1, oldHashes2 = hashes2;
+		allocate(capacity);
+		System.arraycopy(oldValues1, 0, values1, 0, size);
+		System.arraycopy(oldValues2, 0, values2, 0, size);
+		System.arraycopy(oldHashes1, 0, hashes1, 0, size);
+		System.arraycopy(oldHashes2, 0, hashes2, 0, size);
+		for (int i = 0; i < size; i++) {
+			HashIndex.insert(table1, hashes1[i], i);
+			HashIndex.insert(table2, hashes2[i], i);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.xenoage.utils.collections;
+
+/**
+ * Data memory of a {@link CList} or {@link CMap}, which may be shared
+ * by several instances, which are branched from each other.
+ * 
+ * The number of owners is counted. An owner may only write the data,
+ * when it is the only owner. Otherwise, it has to copy the data
+ * and release its share of this instance afterwards.
+ * The counter is thread-safe, so branches of the same data may be
+ * created and written in different threads.
+ * 
+ * @author Andreas Wenger
+ */
+final class SharedData<D> {
+
+	final D data;
+	//changed only in synchronized methods, read without locking
+	private volatile int owners;
+
+
+	/**
+	 * Creates a new instance with the given data and number of owners.
+	 * To prevent the owner from writing data which belongs to someone else,
+	 * a number greater than 1 may be used.
+	 */
+	SharedData(D data, int owners) {
+		this.data = data;
+		this.owners = owners;
+	}
+
+	/**
+	 * Adds an owner and returns this instance.
+	 */
+	synchronized SharedData<D> share() {
+		owners++;
+		return this;
+	}
+
+	/**
+	 * Removes an owner. Must be called after the data was copied, so that the
+	 * last owner can not change the data while it is copied.
+	 */
+	synchronized void release() {
+		owners--;
+	}
+
+	/**
+	 * Returns true, if there is only a single owner, which may write the data.
+	 */
+	boolean isExclusive() {
+		return owners == 1;
+	}
+
+}
@@ -1,20 +1,27 @@
 package com.xenoage.utils.collections;
 
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.ListIterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
- * Sorted list, based on a {@link LinkedList}.
+ * Sorted list, based on a balanced binary tree (AVL tree), where
+ * each node knows the size of its subtree.
  * The list may contain duplicate entries or not.
  * Null values are not allowed.
- * 
+ *
+ * Adding, lookup and indexed access need logarithmic time.
+ *
  * @author Andreas Wenger
  */
 public class SortedList<T extends Comparable<T>>
 	implements Iterable<T> {
 
-	private LinkedList<T> list = new LinkedList<T>();
+	private Node<T> root = null;
 	private final boolean duplicates;
 
 
@@ -37,55 +44,83 @@ public class SortedList<T extends Comparable<T>>
 	/**
 	 * Creates a new sorted list from presorted elements.
 	 * If they are not sorted, an {@link IllegalArgumentException} is thown.
+	 *
+	 * Runtime: O(n)
 	 */
 	public SortedList(T[] entries, boolean duplicates) {
 		this.duplicates = duplicates;
 		T last = null;
 		for (T e : entries) {
+			notNull(e);
 			if (last != null) {
 				if ((duplicates && last.compareTo(e) > 0) || (!duplicates && last.compareTo(e) >= 0)) {
 					throw new IllegalArgumentException("Elements are not presorted!");
 				}
 			}
-			list.addLast(e);
 			last = e;
 		}
+		root = build(entries, 0, entries.length);
 	}
 
 	/**
 	 * Merges this list with the given list and returns the result.
+	 *
+	 * Runtime: O(n)
 	 */
 	public SortedList<T> merge(SortedList<T> sortedList, boolean duplicates) {
-		SortedList<T> ret = new SortedList<T>(duplicates);
-		Iterator<T> l1 = this.list.iterator();
-		Iterator<T> l2 = sortedList.list.iterator();
-		T e1 = (l1.hasNext() ? l1.next() : null);
-		T e2 = (l2.hasNext() ? l2.next() : null);
-		while (e1 != null || e2 != null) {
-			if (e1 == null) //l1 queue is empty
-			{
-				ret.addLast(e2);
-				e2 = (l2.hasNext() ? l2.next() : null);
+		List<SortedList<T>> lists = alist(2);
+		lists.add(this);
+		lists.add(sortedList);
+		return merge(lists, duplicates);
+	}
+
+	/**
+	 * Merges the given lists and returns the result.
+	 * Equal entries are sorted in the order of the given lists.
+	 *
+	 * Runtime: O(n log k), where n is the number of all entries
+	 * and k the number of lists
+	 */
+	@SuppressWarnings("unchecked") public static <T2 extends Comparable<T2>> SortedList<T2> merge(
+		List<SortedList<T2>> lists, boolean duplicates) {
+		int k = lists.size();
+		int total = 0;
+		for (SortedList<T2> list : lists)
+			total += list.getSize();
+		//min-heap of the indices of the lists, ordered by their current entries
+		List<Iterator<T2>> iterators = alist(k);
+		T2[] heads = (T2[]) new Comparable<?>[k];
+		int[] heap = new int[k];
+		int heapSize = 0;
+		for (int i = 0; i < k; i++) {
+			Iterator<T2> it = lists.get(i).iterator();
+			iterators.add(it);
+			if (it.hasNext()) {
+				heads[i] = it.next();
+				heap[heapSize++] = i;
 			}
-			else if (e2 == null) //l2 queue is empty
-			{
-				ret.addLast(e1);
-				e1 = (l1.hasNext() ? l1.next() : null);
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; i--)
+			siftDown(heap, heapSize, i, heads);
+		//collect entries in sorted order
+		T2[] entries = (T2[]) new Comparable<?>[total];
+		int count = 0;
+		while (heapSize > 0) {
+			int i = heap[0];
+			T2 e = heads[i];
+			if (duplicates || count == 0 || e.compareTo(entries[count - 1]) > 0)
+				entries[count++] = e;
+			if (iterators.get(i).hasNext()) {
+				heads[i] = iterators.get(i).next();
 			}
 			else {
-				//both queues are non-empty, choose the lower one
-				if (e1.compareTo(e2) <= 0) {
-					//e1 first
-					ret.addLast(e1);
-					e1 = (l1.hasNext() ? l1.next() : null);
-				}
-				else {
-					//e2 first
-					ret.addLast(e2);
-					e2 = (l2.hasNext() ? l2.next() : null);
-				}
+				heads[i] = null;
+				heap[0] = heap[--heapSize];
 			}
+			siftDown(heap, heapSize, 0, heads);
 		}
+		SortedList<T2> ret = new SortedList<T2>(duplicates);
+		ret.root = build(entries, 0, count);
 		return ret;
 	}
 
@@ -93,124 +128,327 @@ public class SortedList<T extends Comparable<T>>
 	 * Adds the given entry at the correct position.
 	 * If duplicates are not allowed but the given entry is a duplicate,
 	 * it is not inserted.
-	 * 
-	 * Runtime: O(n)
+	 *
+	 * Runtime: O(log n)
 	 */
 	public void add(T entry) {
 		notNull(entry);
-		add(entry, false);
+		root = add(root, entry, false);
 	}
 
 	/**
 	 * Adds the given entry at the correct position.
 	 * If duplicates are not allowed but the given entry is a duplicate,
 	 * it is not replaced.
-	 * 
-	 * Runtime: O(n)
+	 *
+	 * Runtime: O(log n)
 	 */
 	public void addOrReplace(T entry) {
 		notNull(entry);
-		add(entry, true);
+		root = add(root, entry, true);
 	}
 
 	/**
-	 * Adds the given entry at the correct position.
+	 * Adds the given entry at the correct position into the given subtree
+	 * and returns the new root of the subtree.
+	 * Duplicates are inserted after the existing equal entries.
 	 * If duplicates are not allowed but the given entry is a duplicate,
 	 * it is not inserted if <code>replace</code> is false, otherwise
 	 * it is replaced.
-	 * 
-	 * Runtime: O(n)
 	 */
-	private void add(T entry, boolean replace) {
-		notNull(entry);
-		ListIterator<T> iterator = list.listIterator();
-		while (iterator.hasNext()) {
-			T e = iterator.next();
-			int compare = e.compareTo(entry);
-			if (compare > 0) {
-				//add before this entry
-				iterator.previous();
-				iterator.add(entry);
-				return;
-			}
-			else if (compare == 0 && !duplicates) {
-				if (replace)
-					iterator.set(entry);
-				return;
-			}
+	private Node<T> add(Node<T> node, T entry, boolean replace) {
+		if (node == null)
+			return new Node<T>(entry);
+		int compare = node.value.compareTo(entry);
+		if (compare == 0 && !duplicates) {
+			if (replace)
+				node.value = entry;
+			return node;
 		}
-		list.addLast(entry);
+		if (compare > 0)
+			node.left = add(node.left, entry, replace);
+		else
+			node.right = add(node.right, entry, replace);
+		return balance(node);
 	}
 
 	/**
 	 * Gets an iterator for this list.
 	 */
 	@Override public Iterator<T> iterator() {
-		return list.iterator();
+		return new Iterator<T>() {
+
+			//path to the next node
+			private ArrayList<Node<T>> stack = alist();
+
+			{
+				pushLeft(root);
+			}
+
+			@Override public boolean hasNext() {
+				return stack.size() > 0;
+			}
+
+			@Override public T next() {
+				if (stack.size() == 0)
+					throw new NoSuchElementException();
+				Node<T> node = stack.remove(stack.size() - 1);
+				pushLeft(node.right);
+				return node.value;
+			}
+
+			@Override public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+			private void pushLeft(Node<T> node) {
+				while (node != null) {
+					stack.add(node);
+					node = node.left;
+				}
+			}
+		};
 	}
 
 	/**
 	 * Gets the entry at the given index.
-	 * 
-	 * Runtime: O(n)
+	 *
+	 * Runtime: O(log n)
 	 */
 	public T get(int index) {
-		return list.get(index);
+		if (index < 0 || index >= getSize())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+		Node<T> node = root;
+		while (true) {
+			int leftSize = size(node.left);
+			if (index < leftSize) {
+				node = node.left;
+			}
+			else if (index == leftSize) {
+				return node.value;
+			}
+			else {
+				index -= leftSize + 1;
+				node = node.right;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of entries which are less than the given one,
+	 * i.e. the index where the given entry would be inserted
+	 * before the existing equal entries.
+	 *
+	 * Runtime: O(log n)
+	 */
+	public int getRank(T entry) {
+		notNull(entry);
+		int rank = 0;
+		Node<T> node = root;
+		while (node != null) {
+			if (node.value.compareTo(entry) < 0) {
+				rank += size(node.left) + 1;
+				node = node.right;
+			}
+			else {
+				node = node.left;
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Gets the index of the first entry which is equal to the given one
+	 * (according to its compareTo method), or -1 if there is none.
+	 *
+	 * Runtime: O(log n)
+	 */
+	public int indexOf(T entry) {
+		int rank = getRank(entry);
+		if (rank < getSize() && get(rank).compareTo(entry) == 0)
+			return rank;
+		return -1;
+	}
+
+	/**
+	 * Returns true, if there is an entry which is equal to the given one
+	 * (according to its compareTo method).
+	 *
+	 * Runtime: O(log n)
+	 */
+	public boolean contains(T entry) {
+		return indexOf(entry) > -1;
 	}
 
 	/**
 	 * Gets the first entry.
-	 * 
-	 * Runtime: O(1)
+	 *
+	 * Runtime: O(log n)
 	 */
 	public T getFirst() {
-		return list.getFirst();
+		if (root == null)
+			throw new NoSuchElementException();
+		Node<T> node = root;
+		while (node.left != null)
+			node = node.left;
+		return node.value;
 	}
 
 	/**
 	 * Gets the last entry.
-	 * 
-	 * Runtime: O(1)
+	 *
+	 * Runtime: O(log n)
 	 */
 	public T getLast() {
-		return list.getLast();
+		if (root == null)
+			throw new NoSuchElementException();
+		Node<T> node = root;
+		while (node.right != null)
+			node = node.right;
+		return node.value;
 	}
 
 	/**
-	 * Gets the {@link LinkedList} behind this sorted list
+	 * Gets a {@link LinkedList} with the entries of this sorted list
 	 * for further computation.
-	 * Changing this list may destroy this instance of a sorted list,
-	 * which has unpredictable results.
+	 * This is a copy, so changing it has no effect on this list.
+	 *
+	 * Runtime: O(n)
 	 */
 	public LinkedList<T> getLinkedList() {
-		return list;
+		LinkedList<T> ret = new LinkedList<T>();
+		for (T e : this)
+			ret.add(e);
+		return ret;
 	}
 
 	/**
 	 * Gets the number of entries.
 	 */
 	public int getSize() {
-		return list.size();
+		return size(root);
+	}
+
+	@Override public String toString() {
+		return getLinkedList().toString();
 	}
 
+	private void notNull(T entry) {
+		if (entry == null)
+			throw new IllegalArgumentException("null values are not allowed");
+	}
+
+
 	/**
-	 * Adds the given element as the last one, but only if it is
-	 * greater than the last element.
+	 * Node of the tree.
 	 */
-	private void addLast(T e) {
-		notNull(e);
-		if (duplicates || list.size() == 0 || e.compareTo(list.getLast()) > 0) {
-			list.addLast(e);
+	private static final class Node<T> {
+
+		T value;
+		Node<T> left = null, right = null;
+		int height = 1;
+		//number of entries in this subtree
+		int size = 1;
+
+
+		Node(T value) {
+			this.value = value;
 		}
+
 	}
 
-	@Override public String toString() {
-		return list.toString();
+
+	private static int size(Node<?> node) {
+		return node != null ? node.size : 0;
 	}
 
-	private void notNull(T entry) {
-		if (entry == null)
-			throw new IllegalArgumentException("null values are not allowed");
+	private static int height(Node<?> node) {
+		return node != null ? node.height : 0;
+	}
+
+	private static void update(Node<?> node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+		node.size = size(node.left) + size(node.right) + 1;
+	}
+
+	private static <T> Node<T> rotateLeft(Node<T> node) {
+		Node<T> right = node.right;
+		node.right = right.left;
+		right.left = node;
+		update(node);
+		update(right);
+		return right;
+	}
+
+	private static <T> Node<T> rotateRight(Node<T> node) {
+		Node<T> left = node.left;
+		node.left = left.right;
+		left.right = node;
+		update(node);
+		update(left);
+		return left;
+	}
+
+	/**
+	 * Updates the given node and rotates it, if its subtrees differ
+	 * in height by more than 1. Returns the new root of the subtree.
+	 */
+	private static <T> Node<T> balance(Node<T> node) {
+		update(node);
+		int diff = height(node.left) - height(node.right);
+		if (diff > 1) {
+			if (height(node.left.left) < height(node.left.right))
+				node.left = rotateLeft(node.left);
+			return rotateRight(node);
+		}
+		else if (diff < -1) {
+			if (height(node.right.right) < height(node.right.left))
+				node.right = rotateRight(node.right);
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Creates a balanced tree from the given sorted entries, from the
+	 * given start index (inclusive) to the given end index (exclusive).
+	 */
+	private static <T> Node<T> build(T[] entries, int start, int end) {
+		if (start >= end)
+			return null;
+		int middle = (start + end) >>> 1;
+		Node<T> node = new Node<T>(entries[middle]);
+		node.left = build(entries, start, middle);
+		node.right = build(entries, middle + 1, end);
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Restores the min-heap property of the given heap of list indices,
+	 * beginning at the given position. Equal entries are ordered by their list index.
+	 */
+	private static <T extends Comparable<T>> void siftDown(int[] heap, int heapSize, int pos,
+		T[] heads) {
+		while (true) {
+			int min = pos;
+			int left = 2 * pos + 1, right = left + 1;
+			if (left < heapSize && isLess(heap[left], heap[min], heads))
+				min = left;
+			if (right < heapSize && isLess(heap[right], heap[min], heads))
+				min = right;
+			if (min == pos)
+				return;
+			int swap = heap[pos];
+			heap[pos] = heap[min];
+			heap[min] = swap;
+			pos = min;
+		}
+	}
+
+	private static <T extends Comparable<T>> boolean isLess(int list1, int list2, T[] heads) {
+		int compare = heads[list1].compareTo(heads[list2]);
+		return compare < 0 || (compare == 0 && list1 < list2);
 	}
 
 }
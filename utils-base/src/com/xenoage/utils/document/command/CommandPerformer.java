@@ -1,7 +1,7 @@
 package com.xenoage.utils.document.command;
 
+import static com.xenoage.utils.log.Level.Remark;
 import static com.xenoage.utils.log.Log.log;
-import static com.xenoage.utils.log.Report.remark;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,7 +48,7 @@ public class CommandPerformer {
 	 * its {@link Undoability}.
 	 */
 	public void execute(Command command) {
-		log(remark(command.getClass().getName() + " is executed..."));
+		log(Remark, "{} is executed...", command.getClass().getName());
 		try {
 			command.execute();
 			//non-transparent commands break the chain of redoable commands
@@ -70,13 +70,13 @@ public class CommandPerformer {
 				l.commandExecuted(document, command);
 		} catch (CancelledException ex) {
 			//user cancelled the action.
-			log(remark("Command cancelled."));
+			log(Remark, "Command cancelled.");
 		} catch (UselessException ex) {
 			//the action was cancelled because it has no effect.
-			log(remark("Command was cancelled, because it has no effect."));
+			log(Remark, "Command was cancelled, because it has no effect.");
 		} catch (PropertyAlreadySetException ex) {
 			//no problem. we just ignore that exception.
-			log(remark("Command was cancelled, because property was already set."));
+			log(Remark, "Command was cancelled, because property was already set.");
 		}
 	}
 
@@ -93,7 +93,7 @@ public class CommandPerformer {
 	public void undo() {
 		if (isUndoPossible()) {
 			Command command = history.getLastCommand();
-			log(remark(command.getClass().getName() + " is undone..."));
+			log(Remark, "{} is undone...", command.getClass().getName());
 			//undo the command
 			command.undo();
 			//go back in history
@@ -110,11 +110,11 @@ public class CommandPerformer {
 	public void undoMultipleSteps(int steps) {
 		if (steps < 1)
 			return;
-		log(remark("Multiple undo (" + steps + " steps)..."));
+		log(Remark, "Multiple undo ({} steps)...", steps);
 		Command command = null;
 		for (int i = 0; i < steps && isUndoPossible(); i++) {
 			command = history.getLastCommand();
-			log(remark(command.getClass().getName() + " is undone..."));
+			log(Remark, "{} is undone...", command.getClass().getName());
 			//undo the command
 			command.undo();
 			//go back in history
@@ -138,7 +138,7 @@ public class CommandPerformer {
 	public void redo() {
 		if (isRedoPossible()) {
 			Command command = history.getLastUndoneCommand();
-			log(remark(command.getClass().getName() + " is redone..."));
+			log(Remark, "{} is redone...", command.getClass().getName());
 			//execute the command
 			command.execute();
 			//go forward in history
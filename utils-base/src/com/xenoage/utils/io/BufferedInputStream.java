@@ -4,67 +4,95 @@ import java.io.IOException;
 
 /**
  * {@link BufferedInputStream} similar to the BufferedInputStream from Java SE,
- * but simpler (e.g. not tuned for performance, no buffer limit, no concurrency support)
- * and platform independent. 
+ * but simpler (e.g. no concurrency support) and platform independent.
+ * 
+ * The data is read in blocks from the underlying stream into a ring buffer.
+ * While a position is marked, all data from this position on is kept,
+ * so the buffer grows as long as needed (there is no buffer limit).
  *
  * @author Andreas Wenger
  */
 public class BufferedInputStream
 	implements InputStream {
 
-	private static int defaultBufferSize = 1024;
+	private static int defaultBufferSize = 8192;
 
 	private InputStream stream;
 
 	//true, when mark was set
 	private boolean marked = false;
-	//buffered bytes
+	//ring buffer. the length is a power of 2
 	private byte buffer[];
-	//number of buffered bytes
-	private int bufferSize = 0;
-	//position within the buffer
-	private int bufferPos = 0;
+	private int mask;
+	//positions within the stream: the oldest kept byte (the marked byte, if marked),
+	//the current byte and the position after the last buffered byte
+	private long start = 0;
+	private long pos = 0;
+	private long end = 0;
+	//true, when the end of the stream was reached
+	private boolean eof = false;
 	
 	
 	public BufferedInputStream(InputStream stream) {
+		this(stream, defaultBufferSize);
+	}
+	
+	/**
+	 * Creates a {@link BufferedInputStream} with the given initial buffer size,
+	 * which is rounded up to the next power of 2.
+	 */
+	public BufferedInputStream(InputStream stream, int bufferSize) {
 		this.stream = stream;
-		this.buffer = new byte[defaultBufferSize];
+		int size = 16;
+		while (size < bufferSize)
+			size <<= 1;
+		this.buffer = new byte[size];
+		this.mask = size - 1;
 	}
 
 	@Override public int read()
 		throws IOException {
 		//if there is remaining data in the buffer, use it
-		if (bufferPos < bufferSize) {
-			return buffer[bufferPos++] & 0xFF;
-		}
-		//read from stream
-		int data = stream.read();
-		if (data == -1)
-			return -1;
-		//remember data, if marked
-		if (marked) {
-			if (bufferSize == buffer.length) {
-				//buffer is too small. extend it.
-				byte[] newBuffer = new byte[buffer.length + defaultBufferSize];
-				System.arraycopy(buffer, 0, newBuffer, 0, buffer.length);
-				buffer = newBuffer;
-			}
-			//save data in the buffer
-			buffer[bufferSize] = (byte) data;
-			bufferPos++;
-			bufferSize++;
-		}
-		return data;
+		if (pos < end || fill() > 0)
+			return buffer[(int) (pos++ & mask)] & 0xFF;
+		return -1;
 	}
 	
 	@Override public int read(byte[] b)
 		throws IOException {
-		return StreamUtils.read(this, b);
+		return read(b, 0, b.length);
 	}
 
 	@Override public int read(byte[] b, int off, int len)
 		throws IOException {
-		return StreamUtils.read(this, b, off, len);
+		if (len == 0)
+			return 0;
+		if (pos == end) {
+			//large reads bypass the buffer, if no data must be kept
+			if (false == marked && len >= buffer.length && false == eof) {
+				int n = stream.read(b, off, len);
+				if (n > 0) {
+					pos += n;
+					start = end = pos;
+				}
+				else if (n == -1) {
+					eof = true;
+				}
+				return n;
+			}
+			if (fill() < 1)
+				return -1;
+		}
+		//copy available data, in up to two parts because of the ring buffer
+		int ret = 0;
+		while (ret < len && pos < end) {
+			int index = (int) (pos & mask);
+			int n = (int) Math.min(len - ret, Math.min(end - pos, buffer.length - index));
+			System.arraycopy(buffer, index, b, off + ret, n);
+			pos += n;
+			ret += n;
+		}
+		return ret;
 	}
 	
 	/**
@@ -73,9 +101,7 @@ public class BufferedInputStream
 	public void mark() {
 		this.marked = true;
 		//delete data before new position
-		bufferSize = bufferSize - bufferPos;
-		System.arraycopy(buffer, bufferPos, buffer, 0, bufferSize);
-		bufferPos = 0;
+		start = pos;
 	}
 	
 	/**
@@ -85,23 +111,67 @@ public class BufferedInputStream
 	public void unmark() {
 		this.marked = false;
 		//delete data before current position
-		bufferSize = bufferSize - bufferPos;
-		System.arraycopy(buffer, bufferPos, buffer, 0, bufferSize);
-		bufferPos = 0;
+		start = pos;
 	}
 	
 	/**
 	 * Resets the cursor to the last marked position (if any).
 	 */
 	public void reset() {
-		//move position back to 0
-		bufferPos = 0;
+		if (marked)
+			pos = start;
 	}
 
 	@Override public void close() {
 		//clear buffer immediately
 		buffer = new byte[0];
-		bufferSize = bufferPos = 0;
+		mask = 0;
+		start = pos = end = 0;
+		eof = true;
+	}
+	
+	/**
+	 * Reads the next block from the stream into the buffer.
+	 * Returns the number of read bytes, or -1 at the end of the stream.
+	 */
+	private int fill()
+		throws IOException {
+		if (eof)
+			return -1;
+		if (false == marked)
+			start = pos;
+		if (end - start == buffer.length)
+			grow();
+		//read into the free contiguous range after the end
+		int index = (int) (end & mask);
+		int free = buffer.length - (int) (end - start);
+		int n;
+		do {
+			n = stream.read(buffer, index, Math.min(free, buffer.length - index));
+		} while (n == 0);
+		if (n == -1) {
+			eof = true;
+			return -1;
+		}
+		end += n;
+		return n;
+	}
+	
+	/**
+	 * Doubles the size of the buffer, keeping the buffered data.
+	 */
+	private void grow() {
+		byte[] newBuffer = new byte[buffer.length * 2];
+		int newMask = newBuffer.length - 1;
+		for (long p = start; p < end;) {
+			int index = (int) (p & mask);
+			int newIndex = (int) (p & newMask);
+			int n = (int) Math.min(end - p, Math.min(buffer.length - index, newBuffer.length - newIndex));
+			System.arraycopy(buffer, index, newBuffer, newIndex, n);
+			p += n;
+		}
+		buffer = newBuffer;
+		mask = newMask;
 	}
 
 }
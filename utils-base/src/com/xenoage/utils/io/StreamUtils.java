@@ -22,6 +22,7 @@ public class StreamUtils {
 	 * Default implementation of {@link InputStream#read(byte[], int, int)}.
 	 * Reads byte after byte (uses {@link InputStream#read()}), which is very slow.
 	 * Use a better implementation when possible.
+	 * Returns -1, if no byte could be read because the end of the stream was reached.
 	 */
 	public static int read(InputStream stream, byte[] b, int off, int len)
 		throws IOException {
@@ -29,6 +30,8 @@ public class StreamUtils {
 		for (; i < len; i++) {
 			int c = stream.read();
 			if (c == -1) {
+				if (i == 0)
+					return -1;
 				break;
 			}
 			b[off + i] = (byte) c;
@@ -56,5 +59,40 @@ public class StreamUtils {
     	stream.write(b[off + i]);
     }
 	}
+	
+	/**
+	 * Reads up to <code>len</code> bytes from the given stream into the given array,
+	 * using the bulk {@link InputStream#read(byte[], int, int)} method of the stream.
+	 * Unlike this method, it only returns less than <code>len</code> bytes when the end
+	 * of the stream is reached. Returns the number of read bytes, or -1 when the
+	 * stream was already at the end.
+	 */
+	public static int readFully(InputStream stream, byte[] b, int off, int len)
+		throws IOException {
+		int ret = 0;
+		while (ret < len) {
+			int n = stream.read(b, off + ret, len - ret);
+			if (n == -1)
+				return (ret > 0 ? ret : -1);
+			ret += n;
+		}
+		return ret;
+	}
+	
+	/**
+	 * Copies the remaining data of the given input stream into the given output stream
+	 * in blocks, and returns the number of copied bytes. The streams are not closed.
+	 */
+	public static long copy(InputStream in, OutputStream out)
+		throws IOException {
+		byte[] buffer = new byte[8192];
+		long ret = 0;
+		int n;
+		while ((n = in.read(buffer, 0, buffer.length)) > -1) {
+			out.write(buffer, 0, n);
+			ret += n;
+		}
+		return ret;
+	}
 
 }
@@ -8,7 +8,6 @@ import com.xenoage.utils.collections.CList;
 import com.xenoage.utils.io.Directory;
 import com.xenoage.utils.io.File;
 import com.xenoage.utils.io.FileFilter;
-import com.xenoage.utils.io.FileUtils;
 import com.xenoage.utils.io.FilesystemItem;
 
 /**
@@ -34,17 +33,24 @@ public class FilesystemIndex {
 
 
 	/**
-	 * Creates an index from the given index file data.
-	 * @param indexFileContent  the complete content of the index file
+	 * Creates an index from the given items of the root directory.
 	 */
 	public FilesystemIndex(List<FilesystemItem> items) {
 		this.root = new IndexedDirectory("", items);
 	}
 	
+	/**
+	 * Creates an empty index. For subclasses which use another
+	 * representation of the items and override {@link #findItem(CharSequence)}.
+	 */
+	protected FilesystemIndex() {
+		this.root = new IndexedDirectory("");
+	}
+	
 	/**
 	 * Returns the file at the given path, or null if not found.
 	 */
-	public File findFile(String filePath) {
+	public File findFile(CharSequence filePath) {
 		FilesystemItem item = findItem(filePath);
 		if (item instanceof File)
 			return (File) item;
@@ -55,7 +61,7 @@ public class FilesystemIndex {
 	/**
 	 * Returns the directory at the given path, or null if not found.
 	 */
-	public Directory findDirectory(String dirPath) {
+	public Directory findDirectory(CharSequence dirPath) {
 		FilesystemItem item = findItem(dirPath);
 		if (item instanceof Directory)
 			return (Directory) item;
@@ -65,51 +71,73 @@ public class FilesystemIndex {
 	
 	/**
 	 * Returns the item at the given path, or null if not found.
+	 * 
+	 * Both "/" and "\" are accepted as delimiters, leading and trailing
+	 * delimiters and whitespace are ignored.
+	 * The path is resolved in place, i.e. without splitting it into
+	 * new strings, and each directory level is found in constant time.
+	 * So the runtime is linear in the length of the path, independent
+	 * of the number of items in the index.
 	 */
-	public FilesystemItem findItem(String path) {
-		path = cleanPath(path);
-		String[] pathItems = path.split("/");
-		if (pathItems[0].length() == 0)
-			return root;
-		else
-			return findItem(pathItems, 0, root);
+	public FilesystemItem findItem(CharSequence path) {
+		//ignore leading and trailing whitespace
+		int start = 0, end = path.length();
+		while (start < end && path.charAt(start) <= ' ')
+			start++;
+		while (end > start && path.charAt(end - 1) <= ' ')
+			end--;
+		//resolve name after name
+		FilesystemItem current = root;
+		int nameStart = start;
+		while (nameStart < end) {
+			int nameEnd = nameStart;
+			while (nameEnd < end && false == isDelimiter(path.charAt(nameEnd)))
+				nameEnd++;
+			//empty names (leading, trailing or double delimiters) are ignored
+			if (nameEnd > nameStart) {
+				if (false == current instanceof Directory)
+					return null;
+				current = findChild((Directory) current, path, nameStart, nameEnd);
+				if (current == null)
+					return null;
+			}
+			nameStart = nameEnd + 1;
+		}
+		return current;
 	}
 	
-	private String cleanPath(String path) {
-		//clean file path (e.g. "\" -> "/")
-		path = path.trim();
-		path = FileUtils.cleanPath(path);
-		//remove leading "/"
-		if (path.startsWith("/"))
-			path = path.substring(1);
-		return path;
+	private static boolean isDelimiter(char c) {
+		return c == '/' || c == '\\';
 	}
 	
-	private FilesystemItem findItem(String[] pathItems, int currentIndex, Directory currentDir) {
-		//find current item
-		String currentName = pathItems[currentIndex];
-		FilesystemItem nextItem = null;
-		for (FilesystemItem currentItem : currentDir.getChildren()) {
-			if (currentItem.getName().equals(currentName)) {
-				nextItem = currentItem;
-			}
+	private static FilesystemItem findChild(Directory dir, CharSequence path, int start, int end) {
+		if (dir instanceof IndexedDirectory) {
+			//constant time lookup
+			return ((IndexedDirectory) dir).getChild(path, start, end);
 		}
-		//finished or next level
-		if (currentIndex == pathItems.length - 1)
-			return nextItem;
-		else if (false == nextItem instanceof Directory)
+		else {
+			//other implementation: linear search
+			for (FilesystemItem child : dir.getChildren())
+				if (regionEquals(child.getName(), path, start, end))
+					return child;
 			return null;
-		else
-			return findItem(pathItems, currentIndex + 1, (Directory)nextItem);
+		}
 	}
 	
+	private static boolean regionEquals(String name, CharSequence s, int start, int end) {
+		if (name.length() != end - start)
+			return false;
+		for (int i = 0; i < name.length(); i++)
+			if (name.charAt(i) != s.charAt(start + i))
+				return false;
+		return true;
+	}
 	
-	public boolean existsFile(String filepath) {
+	public boolean existsFile(CharSequence filepath) {
 		return (findItem(filepath) instanceof File);
 	}
 	
-	
-	public boolean existsDirectory(String dirpath) {
+	public boolean existsDirectory(CharSequence dirpath) {
 		return (findItem(dirpath) instanceof Directory);
 	}
 
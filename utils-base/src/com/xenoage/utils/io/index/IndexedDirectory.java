@@ -2,6 +2,7 @@ package com.xenoage.utils.io.index;
 
 import static com.xenoage.utils.collections.CollectionUtils.alist;
 
+import java.util.AbstractList;
 import java.util.List;
 
 import com.xenoage.utils.io.Directory;
@@ -10,41 +11,124 @@ import com.xenoage.utils.io.FilesystemItem;
 /**
  * A {@link Directory} in the {@link FilesystemIndex}.
  * 
+ * The children are also indexed by their names, so that a child
+ * can be found in constant time (see {@link #getChild(CharSequence, int, int)}).
+ * 
  * @author Andreas Wenger
  */
 public class IndexedDirectory
 	implements Directory {
 	
 	private String name;
-	private List<FilesystemItem> children = alist();
+	private final List<FilesystemItem> children;
+	//modifiable view on the children, which counts the modifications
+	private final ChildList childList = new ChildList();
+	private int modCount = 0;
+	//children by name. rebuilt on demand, when the list of children was modified directly
+	private NameTable childrenByName = null;
+	private int childrenByNameModCount = 0;
 	
 
 	public IndexedDirectory(String name) {
 		this.name = name;
+		this.children = alist();
 	}
 
+	/**
+	 * Creates a directory with a copy of the given list of children.
+	 */
 	public IndexedDirectory(String name, List<FilesystemItem> children) {
 		this.name = name;
-		this.children = children;
+		this.children = alist(children);
 	}
-	
+
 	@Override public String getName() {
 		return name;
 	}
-
+	
+	/**
+	 * Gets the children. The returned list may be modified.
+	 */
 	@Override public List<FilesystemItem> getChildren() {
-		return children;
+		return childList;
+	}
+	
+	/**
+	 * Gets the child with the given name, or null if there is none.
+	 */
+	public FilesystemItem getChild(CharSequence name) {
+		return getChild(name, 0, name.length());
+	}
+	
+	/**
+	 * Gets the child whose name is the given region of the given
+	 * {@link CharSequence}, or null if there is none.
+	 * No objects are created for the lookup.
+	 * @param start  the index of the first character (inclusive)
+	 * @param end    the index of the last character (exclusive)
+	 */
+	public FilesystemItem getChild(CharSequence s, int start, int end) {
+		return getChildrenByName().get(s, start, end);
 	}
 	
 	public void addChild(FilesystemItem child) {
-		assertNoDuplicate(child.getName());
+		NameTable childrenByName = getChildrenByName();
+		if (childrenByName.get(child.getName()) != null)
+			throw new IllegalStateException("Duplicate item: " + child.getName());
+		childrenByName.put(child);
 		children.add(child);
+		//the table is still up to date
+		modCount++;
+		childrenByNameModCount = modCount;
 	}
 	
-	private void assertNoDuplicate(String name) {
-		for (FilesystemItem child : children)
-			if (child.getName().equals(name))
-				throw new IllegalStateException("Duplicate item: " + name);
+	private NameTable getChildrenByName() {
+		//the list of children may have been modified without using addChild.
+		//in this case, rebuild the table
+		if (childrenByName == null || childrenByNameModCount != modCount) {
+			childrenByName = new NameTable(children.size());
+			for (FilesystemItem child : children)
+				childrenByName.put(child);
+			childrenByNameModCount = modCount;
+		}
+		return childrenByName;
+	}
+
+
+	/**
+	 * The list of children returned by {@link IndexedDirectory#getChildren()}.
+	 * Each modification makes the table of the children by name outdated.
+	 */
+	private class ChildList
+		extends AbstractList<FilesystemItem> {
+
+		@Override public FilesystemItem get(int index) {
+			return children.get(index);
+		}
+
+		@Override public int size() {
+			return children.size();
+		}
+
+		@Override public FilesystemItem set(int index, FilesystemItem element) {
+			IndexedDirectory.this.modCount++;
+			return children.set(index, element);
+		}
+
+		@Override public void add(int index, FilesystemItem element) {
+			children.add(index, element);
+			IndexedDirectory.this.modCount++;
+			//for fail-fast iterators
+			this.modCount++;
+		}
+
+		@Override public FilesystemItem remove(int index) {
+			FilesystemItem ret = children.remove(index);
+			IndexedDirectory.this.modCount++;
+			this.modCount++;
+			return ret;
+		}
+
 	}
 
 }
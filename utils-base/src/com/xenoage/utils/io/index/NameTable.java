@@ -0,0 +1,117 @@
+package com.xenoage.utils.io.index;
+
+import com.xenoage.utils.io.FilesystemItem;
+
+/**
+ * Hash table of {@link FilesystemItem}s, using their names as the keys.
+ * 
+ * In contrast to a {@link java.util.HashMap}, a name can be
+ * looked up from any region of a {@link CharSequence}, so no
+ * substrings have to be created when a path is resolved.
+ * The hash codes are the same as {@link String#hashCode()}, so
+ * the cached hash codes of the names can be reused.
+ * 
+ * Open addressing with linear probing is used.
+ * 
+ * @author Andreas Wenger
+ */
+final class NameTable {
+
+	private static final int minCapacity = 8;
+
+	private String[] names;
+	private FilesystemItem[] items;
+	private int size = 0;
+
+
+	/**
+	 * Creates an empty table with enough room for the given number of items.
+	 */
+	public NameTable(int expectedSize) {
+		int capacity = minCapacity;
+		while (capacity < expectedSize * 2)
+			capacity <<= 1;
+		names = new String[capacity];
+		items = new FilesystemItem[capacity];
+	}
+
+	/**
+	 * Gets the number of items.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the given item. An existing item with the same name is replaced.
+	 * Returns true, if an item with the same name was already in the table.
+	 */
+	public boolean put(FilesystemItem item) {
+		if ((size + 1) * 2 > names.length)
+			grow();
+		String name = item.getName();
+		int mask = names.length - 1;
+		int i = name.hashCode() & mask;
+		while (names[i] != null) {
+			if (names[i].equals(name)) {
+				items[i] = item;
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		names[i] = name;
+		items[i] = item;
+		size++;
+		return false;
+	}
+
+	/**
+	 * Gets the item with the given name, or null if not found.
+	 */
+	public FilesystemItem get(CharSequence name) {
+		return get(name, 0, name.length());
+	}
+
+	/**
+	 * Gets the item whose name is the given region of the given
+	 * {@link CharSequence}, or null if not found.
+	 * @param start  the index of the first character (inclusive)
+	 * @param end    the index of the last character (exclusive)
+	 */
+	public FilesystemItem get(CharSequence s, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + s.charAt(i);
+		int mask = names.length - 1;
+		int i = hash & mask;
+		String name;
+		while ((name = names[i]) != null) {
+			if (name.hashCode() == hash && equals(name, s, start, end))
+				return items[i];
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	private static boolean equals(String name, CharSequence s, int start, int end) {
+		int length = end - start;
+		if (name.length() != length)
+			return false;
+		for (int i = 0; i < length; i++)
+			if (name.charAt(i) != s.charAt(start + i))
+				return false;
+		return true;
+	}
+
+	private void grow() {
+		String[] oldNames = names;
+		FilesystemItem[] oldItems = items;
+		names = new String[oldNames.length * 2];
+		items = new FilesystemItem[oldNames.length * 2];
+		size = 0;
+		for (int i = 0; i < oldNames.length; i++)
+			if (oldNames[i] != null)
+				put(oldItems[i]);
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.xenoage.utils.lang;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import com.xenoage.utils.iterators.It;
 import com.xenoage.utils.kernel.Tuple2;
@@ -8,6 +9,10 @@ import com.xenoage.utils.kernel.Tuple2;
 /**
  * This class manages a single language pack for
  * non-verbose and quick access.
+ * 
+ * The entries with the replaced tokens are compiled into {@link MessageTemplate}s
+ * when they are requested for the first time, so that later requests
+ * only need a lookup and a single pass for filling the placeholders.
  *
  * @author Andreas Wenger
  */
@@ -17,12 +22,17 @@ public class Lang {
 
 	private static ArrayList<Tuple2<String, String>> tokens = new ArrayList<Tuple2<String, String>>();
 
+	//maps vocabulary id to the original entry and its compiled text with replaced tokens
+	private static final HashMap<String, Tuple2<String, MessageTemplate>> templates =
+		new HashMap<String, Tuple2<String, MessageTemplate>>();
+
 
 	/**
 	 * Sets the current language to the given language.
 	 */
 	public static void setCurrentLanguage(Language language) {
 		currentLanguage = language;
+		clearTemplates();
 	}
 
 	/**
@@ -53,9 +63,7 @@ public class Lang {
 		String s = getWithNull(id);
 		if (s == null)
 			return id.getDefaultValue();
-		for (Tuple2<String, String> token : tokens)
-			s = s.replace(token.get1(), token.get2());
-		return s;
+		return getTemplate(id.getID(), s).getText();
 	}
 
 	/**
@@ -82,12 +90,12 @@ public class Lang {
 	 * by the given Strings.
 	 */
 	public static String get(VocID id, String... replacements) {
-		String ret = get(id);
-		//search for {n}-tokens and replace them
-		for (int i = 0; i < replacements.length; i++) {
-			ret = ret.replace("{" + (i + 1) + "}", replacements[i]);
-		}
-		return ret;
+		if (id == null)
+			return "";
+		String s = getWithNull(id);
+		if (s == null)
+			return MessageTemplate.compile(id.getDefaultValue()).render(replacements);
+		return getTemplate(id.getID(), s).render(replacements);
 	}
 
 	/**
@@ -95,6 +103,31 @@ public class Lang {
 	 */
 	public static void registerToken(String symbol, String value) {
 		tokens.add(new Tuple2<String, String>(symbol, value));
+		clearTemplates();
+	}
+
+	/**
+	 * Gets the compiled template for the given entry with replaced tokens.
+	 */
+	private static MessageTemplate getTemplate(String id, String entry) {
+		synchronized (templates) {
+			Tuple2<String, MessageTemplate> ret = templates.get(id);
+			//entry may have been changed in the language pack
+			if (ret == null || ret.get1() != entry) {
+				String s = entry;
+				for (Tuple2<String, String> token : tokens)
+					s = s.replace(token.get1(), token.get2());
+				ret = new Tuple2<String, MessageTemplate>(entry, MessageTemplate.compile(s));
+				templates.put(id, ret);
+			}
+			return ret.get2();
+		}
+	}
+
+	private static void clearTemplates() {
+		synchronized (templates) {
+			templates.clear();
+		}
 	}
 
 	/**
@@ -4,11 +4,15 @@ import static com.xenoage.utils.NullUtils.notNull;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Language pack, containing vocabularies.
  * 
+ * The entries are compiled into {@link MessageTemplate}s when they are added,
+ * so that the tokens {1}, {2}, ... {n} can be replaced quickly.
+ * 
  * For non-verbose and quick access to a language pack
  * in the program, use the {@link Lang} class instead of this class.
  *
@@ -20,12 +24,16 @@ public class Language {
 
 	//maps vocabulary id to translated text
 	public HashMap<String, String> entries = new HashMap<String, String>();
+	//maps vocabulary id to compiled text, for entries which may contain placeholders
+	private final HashMap<String, MessageTemplate> templates = new HashMap<String, MessageTemplate>();
 
 
 	public Language(String id, HashMap<String, String> entries) {
 		super();
 		this.id = id;
 		this.entries = entries;
+		for (Map.Entry<String, String> entry : entries.entrySet())
+			compile(entry.getKey(), entry.getValue());
 	}
 
 	/**
@@ -33,6 +41,14 @@ public class Language {
 	 */
 	public void add(String id, String value) {
 		entries.put(id, value);
+		compile(id, value);
+	}
+
+	private void compile(String id, String value) {
+		if (value.indexOf('{') > -1)
+			templates.put(id, MessageTemplate.compile(value));
+		else
+			templates.remove(id);
 	}
 
 	/**
@@ -91,12 +107,40 @@ public class Language {
 	 * by the given Strings.
 	 */
 	public String get(VocID id, String... replacements) {
-		String ret = get(id);
-		//search for {n}-tokens and replace them
-		for (int i = 0; i < replacements.length; i++) {
-			ret = ret.replaceAll("\\{" + (i + 1) + "\\}", replacements[i]);
-		}
-		return ret;
+		String value = entries.get(id.getID());
+		if (value == null)
+			return id.toString();
+		MessageTemplate template = getTemplate(id.getID(), value);
+		if (template == null)
+			return value;
+		return template.render(replacements);
+	}
+
+	/**
+	 * Gets the compiled entry from the language pack.
+	 * If no value is found, null is returned.
+	 */
+	public MessageTemplate getTemplate(String id) {
+		String value = entries.get(id);
+		if (value == null)
+			return null;
+		MessageTemplate template = getTemplate(id, value);
+		return (template != null ? template : MessageTemplate.compile(value));
+	}
+
+	/**
+	 * Gets the compiled template for the given entry, or null if it
+	 * contains no placeholders.
+	 */
+	private MessageTemplate getTemplate(String id, String value) {
+		MessageTemplate template = templates.get(id);
+		if (template != null && template.getText() == value)
+			return template;
+		//not compiled yet, since the entries were changed directly.
+		//the template is not cached, because reading must not modify this language
+		if (value.indexOf('{') == -1)
+			return null;
+		return MessageTemplate.compile(value);
 	}
 
 	/**
@@ -0,0 +1,114 @@
+package com.xenoage.utils.lang;
+
+import java.util.ArrayList;
+
+/**
+ * Vocabulary text, which is compiled into literal parts and the placeholders
+ * {1}, {2}, ... {n} between them, so that it can be rendered with the given
+ * replacements in a single pass.
+ * 
+ * Placeholders for which no replacement is given are kept.
+ * All other text, including other braces, is literal.
+ * 
+ * @author Andreas Wenger
+ */
+public final class MessageTemplate {
+
+	private static final int[] noPlaceholders = new int[0];
+
+	private final String text;
+	//literal parts. there is one literal part more than placeholders
+	private final String[] literals;
+	//numbers of the placeholders (1-based)
+	private final int[] placeholders;
+
+
+	private MessageTemplate(String text, String[] literals, int[] placeholders) {
+		this.text = text;
+		this.literals = literals;
+		this.placeholders = placeholders;
+	}
+
+	/**
+	 * Compiles the given text.
+	 */
+	public static MessageTemplate compile(String text) {
+		if (text.indexOf('{') == -1)
+			return new MessageTemplate(text, new String[] { text }, noPlaceholders);
+		ArrayList<String> literals = new ArrayList<String>();
+		ArrayList<Integer> placeholders = new ArrayList<Integer>();
+		int literalStart = 0;
+		int pos = text.indexOf('{');
+		while (pos > -1) {
+			//parse "{n}", where n is a positive number without leading zeros
+			int number = 0;
+			int end = pos + 1;
+			while (end < text.length() && end - pos <= 9) {
+				char c = text.charAt(end);
+				if (c < '0' || c > '9' || (c == '0' && number == 0))
+					break;
+				number = number * 10 + (c - '0');
+				end++;
+			}
+			if (number > 0 && end < text.length() && text.charAt(end) == '}') {
+				literals.add(text.substring(literalStart, pos));
+				placeholders.add(number);
+				literalStart = end + 1;
+				pos = text.indexOf('{', literalStart);
+			}
+			else {
+				pos = text.indexOf('{', pos + 1);
+			}
+		}
+		if (placeholders.size() == 0)
+			return new MessageTemplate(text, new String[] { text }, noPlaceholders);
+		literals.add(text.substring(literalStart));
+		int[] placeholdersArray = new int[placeholders.size()];
+		for (int i = 0; i < placeholdersArray.length; i++)
+			placeholdersArray[i] = placeholders.get(i);
+		return new MessageTemplate(text, literals.toArray(new String[literals.size()]),
+			placeholdersArray);
+	}
+
+	/**
+	 * Gets the text this template was compiled from.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Returns true, if this template contains placeholders.
+	 */
+	public boolean hasPlaceholders() {
+		return placeholders.length > 0;
+	}
+
+	/**
+	 * Returns the text, where the placeholders {1}, {2}, ... {n}
+	 * are replaced by the given strings.
+	 */
+	public String render(String... replacements) {
+		if (placeholders.length == 0)
+			return text;
+		int length = text.length();
+		for (String replacement : replacements)
+			length += (replacement != null ? replacement.length() : 4);
+		StringBuilder ret = new StringBuilder(length);
+		ret.append(literals[0]);
+		for (int i = 0; i < placeholders.length; i++) {
+			int number = placeholders[i];
+			if (number <= replacements.length)
+				ret.append(replacements[number - 1]);
+			else
+				ret.append('{').append(number).append('}');
+			ret.append(literals[i + 1]);
+		}
+		return ret.toString();
+	}
+
+	@Override public String toString() {
+		return text;
+	}
+
+}
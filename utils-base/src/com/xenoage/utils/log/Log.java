@@ -8,6 +8,11 @@ import com.xenoage.utils.annotations.NonNull;
  * This class manages a single logging handler for
  * non-verbose and quick access.
  * 
+ * For messages which are expensive to build, use the parameterized methods like
+ * {@link #log(Level, String, Object)}, which fill the "{}" placeholders in the given
+ * pattern, or {@link #log(Level, MessageSupplier)}. They do not create anything
+ * when the given level is not logged, so they can be used on hot paths.
+ * 
  * @author Andreas Wenger
  */
 public class Log {
@@ -43,11 +48,88 @@ public class Log {
 		return minLogLevel;
 	}
 
+	/**
+	 * Returns true, if messages with the given level are logged.
+	 */
+	public static boolean isLoggable(Level level) {
+		return level.isIncludedIn(minLogLevel);
+	}
+
 	public static void log(Report report) {
 		if (report.level.isIncludedIn(minLogLevel))
 			instance.log(report);
 	}
 
+	/**
+	 * Logs the given message with the given level.
+	 */
+	public static void log(Level level, String message) {
+		if (level.isIncludedIn(minLogLevel))
+			logMessage(level, message);
+	}
+
+	/**
+	 * Logs the given message with the given level, where the placeholder "{}"
+	 * is replaced by the given argument. The message is only built
+	 * if the level is logged.
+	 */
+	public static void log(Level level, String pattern, Object arg) {
+		if (level.isIncludedIn(minLogLevel))
+			logMessage(level, format(pattern, arg));
+	}
+
+	/**
+	 * Logs the given message with the given level, where the placeholders "{}"
+	 * are replaced by the given arguments. The message is only built
+	 * if the level is logged.
+	 */
+	public static void log(Level level, String pattern, Object arg1, Object arg2) {
+		if (level.isIncludedIn(minLogLevel))
+			logMessage(level, format(pattern, arg1, arg2));
+	}
+
+	/**
+	 * Logs the given message with the given level, where the placeholders "{}"
+	 * are replaced by the given arguments. The message is only built
+	 * if the level is logged.
+	 */
+	public static void log(Level level, String pattern, Object... args) {
+		if (level.isIncludedIn(minLogLevel))
+			logMessage(level, format(pattern, args));
+	}
+
+	/**
+	 * Logs the message from the given supplier with the given level.
+	 * The supplier is only called if the level is logged.
+	 */
+	public static void log(Level level, MessageSupplier message) {
+		if (level.isIncludedIn(minLogLevel))
+			logMessage(level, message.get());
+	}
+
+	private static void logMessage(Level level, String message) {
+		//like in the Report factory methods, remarks have no caller
+		instance.log(Report.createReport(level, level != Level.Remark, null, message, null, null));
+	}
+
+	/**
+	 * Replaces the placeholders "{}" in the given pattern by the given arguments.
+	 * Missing arguments are left as placeholders, additional arguments are ignored.
+	 */
+	static String format(String pattern, Object... args) {
+		StringBuilder ret = new StringBuilder(pattern.length() + 16 * args.length);
+		int start = 0;
+		for (Object arg : args) {
+			int pos = pattern.indexOf("{}", start);
+			if (pos == -1)
+				break;
+			ret.append(pattern, start, pos).append(arg);
+			start = pos + 2;
+		}
+		ret.append(pattern, start, pattern.length());
+		return ret.toString();
+	}
+
 	/**
 	 * Flushes and closes the log file.
 	 */
@@ -0,0 +1,16 @@
+package com.xenoage.utils.log;
+
+/**
+ * Creates a log message, when it is really needed.
+ * See {@link Log#log(Level, MessageSupplier)}.
+ * 
+ * @author Andreas Wenger
+ */
+public interface MessageSupplier {
+
+	/**
+	 * Creates the message.
+	 */
+	public String get();
+
+}
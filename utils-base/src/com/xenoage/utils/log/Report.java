@@ -13,6 +13,13 @@ import com.xenoage.utils.lang.VocID;
 /**
  * A logging or error report.
  * 
+ * The stack trace, where the report was made, is captured when the report
+ * is created (see {@link com.xenoage.utils.PlatformUtils#captureStackTrace()}),
+ * but the caller is only resolved when {@link #getCaller()} is called,
+ * e.g. when the report is formatted.
+ * Reports are only created when their level is logged, so when using the methods
+ * in {@link Log}, a disabled level does not cost anything.
+ * 
  * @author Andreas Wenger
  */
 public class Report {
@@ -23,8 +30,14 @@ public class Report {
 	@MaybeNull public final VocID messageID;
 	/** The raw text message. */
 	@MaybeNull public final String message;
-	/** The stack trace element where the report was made. */
-	@MaybeNull public final StackTraceElement caller;
+	/**
+	 * The stack trace element where the report was made.
+	 * @deprecated When the report was created by {@link #createReport}, the caller is
+	 *             only known after {@link #getCaller()} was called. Use this method instead.
+	 */
+	@Deprecated @MaybeNull public StackTraceElement caller;
+	/** The unresolved stack trace, where the report was made, or null. */
+	@MaybeNull private Object callerTrace;
 	/** The error object. */
 	@MaybeNull public final Throwable error;
 	/** The paths of the files which belong to this report. */
@@ -47,12 +60,41 @@ public class Report {
 		//only find caller, if log level is high enough
 		if (level.isIncludedIn(Log.getLoggingLevel()) == false)
 			findCaller = false;
-		//get stack trace, if requested and if possible
-		StackTraceElement caller = null;
-		if (findCaller) {
-			caller = platformUtils().getCaller(1);
+		//capture the stack trace, if requested. it is resolved later when needed
+		Report ret = new Report(level, messageID, message, null, error, filePaths);
+		if (findCaller)
+			ret.callerTrace = platformUtils().captureStackTrace();
+		return ret;
+	}
+
+	/**
+	 * Gets the stack trace element where the report was made, i.e. the first one
+	 * outside of the logging classes, or null if unknown.
+	 * It is resolved when this method is called for the first time.
+	 */
+	@MaybeNull public StackTraceElement getCaller() {
+		Object trace = callerTrace;
+		if (caller == null && trace != null) {
+			List<StackTraceElement> elements = platformUtils().resolveStackTrace(trace);
+			if (elements != null) {
+				//skip the frames of the platform, until the logging classes are found.
+				//the first frame after them is the caller
+				boolean logging = false;
+				for (StackTraceElement element : elements) {
+					String className = element.getClassName();
+					if (className.equals(Report.class.getName()) ||
+						className.equals(Log.class.getName())) {
+						logging = true;
+					}
+					else if (logging) {
+						caller = element;
+						break;
+					}
+				}
+			}
+			callerTrace = null;
 		}
-		return new Report(level, messageID, message, caller, error, filePaths);
+		return caller;
 	}
 
 	@Override public String toString() {
@@ -65,6 +107,7 @@ public class Report {
 			ret.append("message: <" + message + ">; ");
 		if (filePaths != null)
 			ret.append("filePaths: " + filePaths + "; ");
+		StackTraceElement caller = getCaller();
 		if (caller != null)
 			ret.append("caller: <" + caller + ">; ");
 		if (error != null)
@@ -7,6 +7,13 @@ import java.util.Comparator;
  * 
  * It can for example be used to represent durations.
  * When possible, the fraction is cancelled automatically.
+ * 
+ * Like {@link Integer#valueOf(int)}, the fractions with small nonnegative
+ * numerators and denominators, like common musical durations, are cached, so
+ * the same instances are returned again. The arithmetic is computed with
+ * <code>long</code> values. If the cancelled result does not fit into
+ * <code>int</code> values, an {@link ArithmeticException} is thrown.
+ * To sum up many fractions, use a {@link FractionAccumulator}.
  *
  * @author Andreas Wenger
  * @author Uli Teschemacher
@@ -14,6 +21,12 @@ import java.util.Comparator;
 public final class Fraction
 	implements Comparable<Fraction> {
 
+	//cache for fractions with numerators from 0 to 255 and denominators from 1 to 64,
+	//filled when needed. since fractions are immutable, this is thread-safe
+	private static final int cacheNumerators = 256;
+	private static final int cacheDenominators = 64;
+	private static final Fraction[] cache = new Fraction[cacheNumerators * cacheDenominators];
+
 	public static final Fraction _0 = fr(0);
 	public static final Fraction _1 = fr(1);
 	public static final Fraction _1$2 = fr(1, 2);
@@ -34,53 +47,65 @@ public final class Fraction
 	};
 
 
-	/**
-	 * Creates a new fraction with the given numerator.
-	 * The denominator is 1.
-	 */
-	private Fraction(int number) {
-		this.numerator = number;
-		this.denominator = 1;
-	}
-
 	/**
 	 * Creates a new fraction with the given numerator
-	 * and denominator.
+	 * and denominator, which must already be cancelled.
+	 * The denominator must be positive.
 	 */
 	private Fraction(int numerator, int denominator) {
-		if (denominator == 0)
-			throw new IllegalArgumentException("Denominator may not be 0");
-		//if fraction is negative, always the numerator is negative
-		int absNum = Math.abs(numerator);
-		int absDen = Math.abs(denominator);
-		if (numerator < 0 || denominator < 0) {
-			if (numerator < 0 && denominator < 0) {
-				numerator = absNum;
-			}
-			else {
-				numerator = -1 * absNum;
-			}
-			denominator = absDen;
-		}
-		int gcd = MathUtils.clampMin(MathUtils.gcd(absNum, absDen), 1);
-		this.numerator = numerator / gcd;
-		this.denominator = denominator / gcd;
+		this.numerator = numerator;
+		this.denominator = denominator;
 	}
 
 	/**
-	 * Creates a new fraction with the given numerator
+	 * Gets the fraction with the given numerator
 	 * and denominator.
 	 */
 	public static Fraction fr(int numerator, int denominator) {
-		return new Fraction(numerator, denominator);
+		return valueOf(numerator, denominator);
 	}
 
 	/**
-	 * Creates a new fraction with the given numerator.
+	 * Gets the fraction with the given numerator.
 	 * The denominator is 1.
 	 */
 	public static Fraction fr(int number) {
-		return new Fraction(number);
+		return valueOf(number, 1);
+	}
+
+	/**
+	 * Gets the cancelled fraction with the given numerator and denominator.
+	 * If the denominator is 0, an {@link IllegalArgumentException} is thrown.
+	 * If the cancelled fraction does not fit into <code>int</code> values,
+	 * an {@link ArithmeticException} is thrown.
+	 */
+	static Fraction valueOf(long numerator, long denominator) {
+		if (denominator == 0)
+			throw new IllegalArgumentException("Denominator may not be 0");
+		//if fraction is negative, always the numerator is negative
+		if (denominator < 0) {
+			numerator = -numerator;
+			denominator = -denominator;
+		}
+		if (denominator != 1) {
+			long gcd = MathUtils.gcd(numerator, denominator);
+			if (gcd > 1) {
+				numerator /= gcd;
+				denominator /= gcd;
+			}
+		}
+		if (numerator < Integer.MIN_VALUE || numerator > Integer.MAX_VALUE ||
+			denominator > Integer.MAX_VALUE)
+			throw new ArithmeticException("Fraction overflow: " + numerator + "/" + denominator);
+		int n = (int) numerator, d = (int) denominator;
+		if (n >= 0 && n < cacheNumerators && d <= cacheDenominators) {
+			int index = (d - 1) * cacheNumerators + n;
+			Fraction ret = cache[index];
+			if (ret == null)
+				cache[index] = ret = new Fraction(n, d);
+			return ret;
+		}
+		return new Fraction(n, d);
 	}
 
 	/**
@@ -122,9 +147,10 @@ public final class Fraction
 	public Fraction add(Fraction fraction) {
 		if (fraction == null)
 			return this;
-		int numerator = this.numerator * fraction.denominator + this.denominator * fraction.numerator;
-		int denominator = this.denominator * fraction.denominator;
-		return fr(numerator, denominator);
+		if (this.denominator == fraction.denominator)
+			return valueOf((long) this.numerator + fraction.numerator, denominator);
+		return valueOf((long) this.numerator * fraction.denominator + (long) this.denominator *
+			fraction.numerator, (long) this.denominator * fraction.denominator);
 	}
 
 	/**
@@ -133,16 +159,17 @@ public final class Fraction
 	public Fraction sub(Fraction fraction) {
 		if (fraction == null)
 			return this;
-		int numerator = this.numerator * fraction.denominator - this.denominator * fraction.numerator;
-		int denominator = this.denominator * fraction.denominator;
-		return fr(numerator, denominator);
+		if (this.denominator == fraction.denominator)
+			return valueOf((long) this.numerator - fraction.numerator, denominator);
+		return valueOf((long) this.numerator * fraction.denominator - (long) this.denominator *
+			fraction.numerator, (long) this.denominator * fraction.denominator);
 	}
 
 	/**
 	 * Inverts this fraction and returns the result.
 	 */
 	public Fraction invert() {
-		return fr(-numerator, denominator);
+		return valueOf(-(long) numerator, denominator);
 	}
 
 	/**
@@ -153,10 +180,11 @@ public final class Fraction
 	 *    greater than the given one.
 	 */
 	@Override public int compareTo(Fraction fraction) {
-		Fraction compare = this.sub(fraction);
-		if (compare.numerator < 0)
+		long left = (long) this.numerator * fraction.denominator;
+		long right = (long) fraction.numerator * this.denominator;
+		if (left < right)
 			return -1;
-		else if (compare.numerator == 0)
+		else if (left == right)
 			return 0;
 		else
 			return 1;
@@ -221,14 +249,16 @@ public final class Fraction
 	 * Divides this {@link Fraction} by the given one.
 	 */
 	public Fraction divideBy(Fraction fraction) {
-		return fr(this.numerator * fraction.denominator, this.denominator * fraction.numerator);
+		return valueOf((long) this.numerator * fraction.denominator,
+			(long) this.denominator * fraction.numerator);
 	}
 
 	/**
 	 * Multiplies this {@link Fraction} with the given one.
 	 */
 	public Fraction mult(Fraction fraction) {
-		return fr(this.numerator * fraction.numerator, this.denominator * fraction.denominator);
+		return valueOf((long) this.numerator * fraction.numerator,
+			(long) this.denominator * fraction.denominator);
 	}
 
 	/**
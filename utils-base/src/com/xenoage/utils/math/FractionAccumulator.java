@@ -0,0 +1,125 @@
+package com.xenoage.utils.math;
+
+import static com.xenoage.utils.math.MathUtils.addExact;
+import static com.xenoage.utils.math.MathUtils.multiplyExact;
+
+/**
+ * Mutable sum of {@link Fraction}s.
+ * 
+ * Adding a fraction creates no objects. The sum is stored as a
+ * <code>long</code> numerator and denominator, which is only cancelled
+ * when the denominator gets large, so that most additions of fractions with
+ * the same denominator are a single addition. If the sum does not fit into
+ * <code>long</code> values, an {@link ArithmeticException} is thrown.
+ * 
+ * @author Andreas Wenger
+ */
+public final class FractionAccumulator {
+
+	//the sum is cancelled, when the denominator exceeds this value
+	private static final long cancelDenominator = 1L << 24;
+
+	private long numerator = 0;
+	private long denominator = 1;
+
+
+	/**
+	 * Creates a new accumulator with the sum 0.
+	 */
+	public FractionAccumulator() {
+	}
+
+	/**
+	 * Creates a new accumulator with the given start value.
+	 */
+	public FractionAccumulator(Fraction start) {
+		set(start);
+	}
+
+	/**
+	 * Adds the given fraction to the sum.
+	 * Null values are ignored.
+	 */
+	public FractionAccumulator add(Fraction fraction) {
+		if (fraction != null)
+			add(fraction.getNumerator(), fraction.getDenominator());
+		return this;
+	}
+
+	/**
+	 * Subtracts the given fraction from the sum.
+	 * Null values are ignored.
+	 */
+	public FractionAccumulator sub(Fraction fraction) {
+		if (fraction != null)
+			add(-(long) fraction.getNumerator(), fraction.getDenominator());
+		return this;
+	}
+
+	/**
+	 * Sets the sum to the given value.
+	 */
+	public FractionAccumulator set(Fraction value) {
+		numerator = value.getNumerator();
+		denominator = value.getDenominator();
+		return this;
+	}
+
+	/**
+	 * Sets the sum to 0.
+	 */
+	public FractionAccumulator reset() {
+		numerator = 0;
+		denominator = 1;
+		return this;
+	}
+
+	/**
+	 * Gets the sum as a {@link Fraction}. If it does not fit into
+	 * <code>int</code> values, an {@link ArithmeticException} is thrown.
+	 */
+	public Fraction get() {
+		cancel();
+		return Fraction.valueOf(numerator, denominator);
+	}
+
+	/**
+	 * Compares the sum with the given fraction, like {@link Fraction#compareTo(Fraction)}.
+	 */
+	public int compareTo(Fraction fraction) {
+		long left = multiplyExact(numerator, fraction.getDenominator());
+		long right = multiplyExact(fraction.getNumerator(), denominator);
+		return (left < right ? -1 : (left == right ? 0 : 1));
+	}
+
+	/**
+	 * Adds the given fraction with a positive denominator.
+	 */
+	private void add(long numerator, long denominator) {
+		if (denominator == this.denominator) {
+			this.numerator = addExact(this.numerator, numerator);
+		}
+		else {
+			long gcd = MathUtils.gcd(this.denominator, denominator);
+			long factor = denominator / gcd;
+			this.numerator = addExact(multiplyExact(this.numerator, factor),
+				multiplyExact(numerator, this.denominator / gcd));
+			this.denominator = multiplyExact(this.denominator, factor);
+			if (this.denominator > cancelDenominator)
+				cancel();
+		}
+	}
+
+	private void cancel() {
+		long gcd = MathUtils.gcd(numerator, denominator);
+		if (gcd > 1) {
+			numerator /= gcd;
+			denominator /= gcd;
+		}
+	}
+
+	@Override public String toString() {
+		return numerator + "/" + denominator;
+	}
+
+}
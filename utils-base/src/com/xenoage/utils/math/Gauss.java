@@ -5,6 +5,10 @@ package com.xenoage.utils.math;
  * It is based on the class developed in the scope of the lecture
  * "Numerisches Programmieren" at the TUM in the winter semester 07/08.
  * 
+ * For solving many systems, or systems with the same matrix but different
+ * right-hand sides, use the {@link LUSolver}, which works on a reusable
+ * flat workspace.
+ * 
  * @author Andreas Wenger
  */
 public class Gauss {
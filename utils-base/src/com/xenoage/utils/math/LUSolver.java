@@ -0,0 +1,207 @@
+package com.xenoage.utils.math;
+
+/**
+ * Reusable solver for systems of linear equations <code>A * x = b</code>
+ * with a n * n matrix A.
+ * 
+ * The matrix is given as a flat array in row-major order, i.e. the element
+ * in row i and column j is at index <code>i * n + j</code>.
+ * It is decomposed into <code>P * A = L * U</code> by using Gauss elimination
+ * with partial pivoting. The decomposition can then be used to solve the system
+ * for any number of right-hand sides in O(n²) each, instead of O(n³) like {@link Gauss}.
+ * 
+ * The workspace is allocated only once, so the same instance can be used
+ * again for other matrices of the same size. The inner loops run over contiguous
+ * parts of the flat array, which allows the JIT compiler to vectorize them.
+ * Instances are not thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public class LUSolver {
+
+	protected final int n;
+	//L (below diagonal, unit diagonal not stored) and U (diagonal and above), row-major
+	protected final double[] lu;
+	//index of the row which was swapped with row i in step i
+	private final int[] pivots;
+	private boolean decomposed = false;
+
+
+	/**
+	 * Creates a solver for n * n matrices.
+	 */
+	public LUSolver(int n) {
+		if (n < 1)
+			throw new IllegalArgumentException("Size must be at least 1");
+		this.n = n;
+		this.lu = new double[n * n];
+		this.pivots = new int[n];
+	}
+
+	/**
+	 * Gets the number of rows and columns of the matrix.
+	 */
+	public int getSize() {
+		return n;
+	}
+
+	/**
+	 * Decomposes the given invertible n * n matrix in row-major order.
+	 * The given array is not modified.
+	 * If the matrix is singular, an {@link ArithmeticException} is thrown.
+	 */
+	public LUSolver decompose(double[] a) {
+		if (a.length != n * n)
+			throw new IllegalArgumentException("Matrix must have " + (n * n) + " elements");
+		System.arraycopy(a, 0, lu, 0, n * n);
+		decompose();
+		return this;
+	}
+
+	/**
+	 * Decomposes the given invertible n * n matrix [row, column].
+	 * The given array is not modified.
+	 * If the matrix is singular, an {@link ArithmeticException} is thrown.
+	 */
+	public LUSolver decompose(double[][] a) {
+		if (a.length != n)
+			throw new IllegalArgumentException("Matrix must have " + n + " rows");
+		for (int i = 0; i < n; i++) {
+			if (a[i].length != n)
+				throw new IllegalArgumentException("Matrix must have " + n + " columns");
+			System.arraycopy(a[i], 0, lu, i * n, n);
+		}
+		decompose();
+		return this;
+	}
+
+	private void decompose() {
+		decomposed = false;
+		//j: current column, from where on all rows beginning with j+1 are eliminated
+		for (int j = 0; j < n; j++) {
+			//find maximum in the rows j to n-1
+			int max = j;
+			double maxValue = Math.abs(lu[j * n + j]);
+			for (int i = j + 1; i < n; i++) {
+				double value = Math.abs(lu[i * n + j]);
+				if (value > maxValue) {
+					max = i;
+					maxValue = value;
+				}
+			}
+			if (maxValue == 0)
+				throw new ArithmeticException("Matrix is singular");
+			pivots[j] = max;
+			//switch rows, if a better pivot was found
+			if (max != j) {
+				int row1 = j * n, row2 = max * n;
+				for (int k = 0; k < n; k++) {
+					double swap = lu[row1 + k];
+					lu[row1 + k] = lu[row2 + k];
+					lu[row2 + k] = swap;
+				}
+			}
+			eliminate(j);
+		}
+		decomposed = true;
+	}
+
+	/**
+	 * Eliminates the column j in the rows j+1 to n-1, using row j as the pivot row.
+	 * Subclasses may distribute the work by calling {@link #eliminate(int, int, int)}
+	 * for independent ranges of rows.
+	 */
+	protected void eliminate(int j) {
+		eliminate(j, j + 1, n);
+	}
+
+	/**
+	 * Eliminates the column j in the rows from <code>rowStart</code> (inclusive)
+	 * to <code>rowEnd</code> (exclusive), using row j as the pivot row.
+	 * The factors are stored in column j, where they form the matrix L.
+	 */
+	protected final void eliminate(int j, int rowStart, int rowEnd) {
+		int pivotRow = j * n;
+		double pivot = lu[pivotRow + j];
+		for (int i = rowStart; i < rowEnd; i++) {
+			int row = i * n;
+			double factor = lu[row + j] / pivot;
+			lu[row + j] = factor;
+			if (factor != 0) {
+				for (int k = j + 1; k < n; k++)
+					lu[row + k] -= factor * lu[pivotRow + k];
+			}
+		}
+	}
+
+	/**
+	 * Solves the SLE <code>A * x = b</code> for the last decomposed matrix A
+	 * and returns the solution in a new array.
+	 * @param b  vector with n elements. It is not modified.
+	 */
+	public double[] solve(double[] b) {
+		return solve(b, null);
+	}
+
+	/**
+	 * Solves the SLE <code>A * x = b</code> for the last decomposed matrix A.
+	 * @param b  vector with n elements. It is not modified, unless it is also used as x.
+	 * @param x  vector with n elements where the solution is written to.
+	 *           It may be the same instance as b. If null, a new array is created.
+	 * @return  the solution vector x
+	 */
+	public double[] solve(double[] b, double[] x) {
+		if (false == decomposed)
+			throw new IllegalStateException("No matrix decomposed");
+		if (b.length != n)
+			throw new IllegalArgumentException("Vector must have " + n + " elements");
+		if (x == null)
+			x = new double[n];
+		else if (x.length != n)
+			throw new IllegalArgumentException("Vector must have " + n + " elements");
+		if (x != b)
+			System.arraycopy(b, 0, x, 0, n);
+		//apply row swaps
+		for (int i = 0; i < n; i++) {
+			int p = pivots[i];
+			if (p != i) {
+				double swap = x[i];
+				x[i] = x[p];
+				x[p] = swap;
+			}
+		}
+		//forward substitution with L
+		for (int i = 1; i < n; i++) {
+			int row = i * n;
+			double sum = x[i];
+			for (int k = 0; k < i; k++)
+				sum -= lu[row + k] * x[k];
+			x[i] = sum;
+		}
+		//backward substitution with U
+		for (int i = n - 1; i >= 0; i--) {
+			int row = i * n;
+			double sum = x[i];
+			for (int k = i + 1; k < n; k++)
+				sum -= lu[row + k] * x[k];
+			x[i] = sum / lu[row + i];
+		}
+		return x;
+	}
+
+	/**
+	 * Gets the determinant of the last decomposed matrix.
+	 */
+	public double getDeterminant() {
+		if (false == decomposed)
+			throw new IllegalStateException("No matrix decomposed");
+		double ret = 1;
+		for (int i = 0; i < n; i++) {
+			ret *= lu[i * n + i];
+			if (pivots[i] != i)
+				ret = -ret;
+		}
+		return ret;
+	}
+
+}
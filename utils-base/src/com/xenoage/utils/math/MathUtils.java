@@ -92,6 +92,42 @@ public class MathUtils {
 			return gcd(n2, n1 % n2);
 	}
 
+	/**
+	 * Returns the greatest common divisor of the absolute values of the given numbers.
+	 */
+	public static long gcd(long n1, long n2) {
+		n1 = Math.abs(n1);
+		n2 = Math.abs(n2);
+		while (n2 != 0) {
+			long t = n1 % n2;
+			n1 = n2;
+			n2 = t;
+		}
+		return n1;
+	}
+
+	/**
+	 * Returns the sum of the given numbers, or throws an {@link ArithmeticException}
+	 * if the result overflows a long.
+	 */
+	public static long addExact(long n1, long n2) {
+		long ret = n1 + n2;
+		if (((n1 ^ ret) & (n2 ^ ret)) < 0)
+			throw new ArithmeticException("long overflow");
+		return ret;
+	}
+
+	/**
+	 * Returns the product of the given numbers, or throws an {@link ArithmeticException}
+	 * if the result overflows a long.
+	 */
+	public static long multiplyExact(long n1, long n2) {
+		long ret = n1 * n2;
+		if (n1 != 0 && (ret / n1 != n2 || (n1 == -1 && n2 == Long.MIN_VALUE)))
+			throw new ArithmeticException("long overflow");
+		return ret;
+	}
+
 	/**
 	 * Returns the least common multiple of the given numbers.
 	 */
@@ -0,0 +1,258 @@
+package com.xenoage.utils.math.geom;
+
+/**
+ * Growable buffer of 2D points, stored as a structure of arrays.
+ * 
+ * In contrast to arrays or lists of {@link Point2f}s, no objects are created
+ * for the points. The x and y coordinates are stored in two float arrays,
+ * which are transformed in place by the bulk operations, like
+ * {@link #translate(float, float)}, {@link #scale(float, float)} or
+ * {@link #rotate(float)}. This allows to transform many points without
+ * creating garbage, and the JIT compiler can vectorize the loops.
+ * 
+ * This buffer is mutable and not thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public final class PointBuffer {
+
+	private float[] xs;
+	private float[] ys;
+	private int size = 0;
+
+
+	/**
+	 * Creates an empty buffer.
+	 */
+	public PointBuffer() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty buffer with the given initial capacity.
+	 */
+	public PointBuffer(int initialCapacity) {
+		xs = new float[initialCapacity];
+		ys = new float[initialCapacity];
+	}
+
+	/**
+	 * Creates a buffer with the given points.
+	 */
+	public static PointBuffer pointBuffer(Point2f... points) {
+		PointBuffer ret = new PointBuffer(points.length);
+		for (Point2f p : points)
+			ret.add(p);
+		return ret;
+	}
+
+	public void add(float x, float y) {
+		ensureCapacity(size + 1);
+		xs[size] = x;
+		ys[size] = y;
+		size++;
+	}
+
+	public void add(Point2f p) {
+		add(p.x, p.y);
+	}
+
+	public void addAll(PointBuffer points) {
+		ensureCapacity(size + points.size);
+		System.arraycopy(points.xs, 0, xs, size, points.size);
+		System.arraycopy(points.ys, 0, ys, size, points.size);
+		size += points.size;
+	}
+
+	/**
+	 * Adds the given number of points on the given cubic Bézier curve, at
+	 * equidistant t values from 0 to 1, like {@link com.xenoage.utils.math.MathUtils#bezier}.
+	 * The curve is defined by the start and end point (named p1 and p2)
+	 * and two control points (named c1 and c2). At least 2 points must be added.
+	 */
+	public void addBezier(Point2f p1, Point2f p2, Point2f c1, Point2f c2, int count) {
+		if (count < 2)
+			throw new IllegalArgumentException("At least 2 points are required");
+		ensureCapacity(size + count);
+		//polynomial coefficients, evaluated with the Horner scheme
+		float ax = -p1.x + 3 * c1.x - 3 * c2.x + p2.x, ay = -p1.y + 3 * c1.y - 3 * c2.y + p2.y;
+		float bx = 3 * p1.x - 6 * c1.x + 3 * c2.x, by = 3 * p1.y - 6 * c1.y + 3 * c2.y;
+		float cx = -3 * p1.x + 3 * c1.x, cy = -3 * p1.y + 3 * c1.y;
+		float dt = 1f / (count - 1);
+		for (int i = 0; i < count; i++) {
+			float t = i * dt;
+			xs[size + i] = ((ax * t + bx) * t + cx) * t + p1.x;
+			ys[size + i] = ((ay * t + by) * t + cy) * t + p1.y;
+		}
+		size += count;
+	}
+
+	public float getX(int index) {
+		checkIndex(index);
+		return xs[index];
+	}
+
+	public float getY(int index) {
+		checkIndex(index);
+		return ys[index];
+	}
+
+	public Point2f get(int index) {
+		checkIndex(index);
+		return new Point2f(xs[index], ys[index]);
+	}
+
+	public void set(int index, float x, float y) {
+		checkIndex(index);
+		xs[index] = x;
+		ys[index] = y;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all points, but keeps the allocated memory.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Moves all points by the given offset.
+	 */
+	public PointBuffer translate(float dx, float dy) {
+		for (int i = 0; i < size; i++)
+			xs[i] += dx;
+		for (int i = 0; i < size; i++)
+			ys[i] += dy;
+		return this;
+	}
+
+	/**
+	 * Scales all points by the given factor.
+	 */
+	public PointBuffer scale(float f) {
+		return scale(f, f);
+	}
+
+	/**
+	 * Scales all points by the given horizontal and vertical factors.
+	 */
+	public PointBuffer scale(float fx, float fy) {
+		for (int i = 0; i < size; i++)
+			xs[i] *= fx;
+		for (int i = 0; i < size; i++)
+			ys[i] *= fy;
+		return this;
+	}
+
+	/**
+	 * Rotates all points by the given angle in degrees in counter
+	 * clockwise order around the origin, like
+	 * {@link com.xenoage.utils.math.MathUtils#rotate(Point2f, float)}.
+	 */
+	public PointBuffer rotate(float angle) {
+		if (angle == 0f)
+			return this;
+		double rot = angle * Math.PI / 180f;
+		float cos = (float) Math.cos(rot);
+		float sin = (float) Math.sin(rot);
+		for (int i = 0; i < size; i++) {
+			float x = xs[i], y = ys[i];
+			xs[i] = x * cos + y * sin;
+			ys[i] = -x * sin + y * cos;
+		}
+		return this;
+	}
+
+	/**
+	 * Rotates all points by the given angle in degrees in counter
+	 * clockwise order around the given center.
+	 */
+	public PointBuffer rotate(float angle, Point2f center) {
+		return translate(-center.x, -center.y).rotate(angle).translate(center.x, center.y);
+	}
+
+	/**
+	 * Gets the smallest rectangle which encloses all points,
+	 * or null if the buffer is empty.
+	 */
+	public Rectangle2f getBounds() {
+		if (size == 0)
+			return null;
+		float minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0];
+		for (int i = 1; i < size; i++) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+		}
+		for (int i = 1; i < size; i++) {
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		return new Rectangle2f(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Gets the x coordinates. Only the first {@link #size()} values are used.
+	 * This is the internal array, which allows direct access for custom kernels.
+	 * It is replaced when the buffer grows.
+	 */
+	public float[] getXs() {
+		return xs;
+	}
+
+	/**
+	 * Gets the y coordinates. Only the first {@link #size()} values are used.
+	 * This is the internal array, which allows direct access for custom kernels.
+	 * It is replaced when the buffer grows.
+	 */
+	public float[] getYs() {
+		return ys;
+	}
+
+	/**
+	 * Returns a copy of the points as an array of {@link Point2f}s.
+	 */
+	public Point2f[] toArray() {
+		Point2f[] ret = new Point2f[size];
+		for (int i = 0; i < size; i++)
+			ret[i] = new Point2f(xs[i], ys[i]);
+		return ret;
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > xs.length) {
+			int capacity = Math.max(minCapacity, xs.length * 3 / 2 + 1);
+			float[] newXs = new float[capacity];
+			float[] newYs = new float[capacity];
+			System.arraycopy(xs, 0, newXs, 0, size);
+			System.arraycopy(ys, 0, newYs, 0, size);
+			xs = newXs;
+			ys = newYs;
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	@Override public String toString() {
+		StringBuilder ret = new StringBuilder();
+		ret.append("{size:").append(size).append(", data:[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				ret.append(", ");
+			ret.append("(").append(xs[i]).append(", ").append(ys[i]).append(")");
+		}
+		ret.append("]}");
+		return ret.toString();
+	}
+
+}
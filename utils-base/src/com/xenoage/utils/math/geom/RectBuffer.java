@@ -0,0 +1,300 @@
+package com.xenoage.utils.math.geom;
+
+import com.xenoage.utils.collections.IntList;
+
+/**
+ * Growable buffer of 2D rectangles, stored as a structure of arrays.
+ * 
+ * In contrast to arrays or lists of {@link Rectangle2f}s, no objects are created
+ * for the rectangles. The coordinates of the corners (x1, y1) and (x2, y2) are
+ * stored in four float arrays, which are transformed in place by the bulk
+ * operations, like {@link #translate(float, float)} or {@link #scale(float, float)}.
+ * Hit-testing with {@link #indexOf(float, float)} or {@link #findAll(float, float, IntList)}
+ * only needs comparisons. This allows to work with many rectangles, like glyph
+ * boxes, without creating garbage, and the JIT compiler can vectorize the loops.
+ * 
+ * Like in {@link Rectangle2f}, negative sizes are converted, so that
+ * x1 &lt;= x2 and y1 &lt;= y2 is always true.
+ * 
+ * This buffer is mutable and not thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public final class RectBuffer {
+
+	private float[] x1s, y1s, x2s, y2s;
+	private int size = 0;
+
+
+	/**
+	 * Creates an empty buffer.
+	 */
+	public RectBuffer() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty buffer with the given initial capacity.
+	 */
+	public RectBuffer(int initialCapacity) {
+		x1s = new float[initialCapacity];
+		y1s = new float[initialCapacity];
+		x2s = new float[initialCapacity];
+		y2s = new float[initialCapacity];
+	}
+
+	/**
+	 * Creates a buffer with the given rectangles.
+	 */
+	public static RectBuffer rectBuffer(Rectangle2f... rects) {
+		RectBuffer ret = new RectBuffer(rects.length);
+		for (Rectangle2f r : rects)
+			ret.add(r);
+		return ret;
+	}
+
+	public void add(float x, float y, float width, float height) {
+		ensureCapacity(size + 1);
+		set0(size, x, y, width, height);
+		size++;
+	}
+
+	public void add(Rectangle2f r) {
+		add(r.position.x, r.position.y, r.size.width, r.size.height);
+	}
+
+	public void addAll(RectBuffer rects) {
+		ensureCapacity(size + rects.size);
+		System.arraycopy(rects.x1s, 0, x1s, size, rects.size);
+		System.arraycopy(rects.y1s, 0, y1s, size, rects.size);
+		System.arraycopy(rects.x2s, 0, x2s, size, rects.size);
+		System.arraycopy(rects.y2s, 0, y2s, size, rects.size);
+		size += rects.size;
+	}
+
+	public void set(int index, float x, float y, float width, float height) {
+		checkIndex(index);
+		set0(index, x, y, width, height);
+	}
+
+	public void set(int index, Rectangle2f r) {
+		set(index, r.position.x, r.position.y, r.size.width, r.size.height);
+	}
+
+	private void set0(int index, float x, float y, float width, float height) {
+		//convert negative size
+		x1s[index] = (width < 0 ? x + width : x);
+		x2s[index] = (width < 0 ? x : x + width);
+		y1s[index] = (height < 0 ? y + height : y);
+		y2s[index] = (height < 0 ? y : y + height);
+	}
+
+	public Rectangle2f get(int index) {
+		checkIndex(index);
+		return Rectangle2f.fromX1Y1X2Y2(x1s[index], y1s[index], x2s[index], y2s[index]);
+	}
+
+	public float getX1(int index) {
+		checkIndex(index);
+		return x1s[index];
+	}
+
+	public float getY1(int index) {
+		checkIndex(index);
+		return y1s[index];
+	}
+
+	public float getX2(int index) {
+		checkIndex(index);
+		return x2s[index];
+	}
+
+	public float getY2(int index) {
+		checkIndex(index);
+		return y2s[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all rectangles, but keeps the allocated memory.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Moves all rectangles by the given offset.
+	 */
+	public RectBuffer translate(float dx, float dy) {
+		add(x1s, dx);
+		add(x2s, dx);
+		add(y1s, dy);
+		add(y2s, dy);
+		return this;
+	}
+
+	/**
+	 * Scales all rectangles (position and size) by the given factor.
+	 */
+	public RectBuffer scale(float f) {
+		return scale(f, f);
+	}
+
+	/**
+	 * Scales all rectangles (position and size) by the given
+	 * horizontal and vertical factors.
+	 */
+	public RectBuffer scale(float fx, float fy) {
+		mult(x1s, fx);
+		mult(x2s, fx);
+		mult(y1s, fy);
+		mult(y2s, fy);
+		//negative factors swap the corners
+		if (fx < 0) {
+			float[] swap = x1s;
+			x1s = x2s;
+			x2s = swap;
+		}
+		if (fy < 0) {
+			float[] swap = y1s;
+			y1s = y2s;
+			y2s = swap;
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the smallest rectangle which encloses all rectangles,
+	 * like {@link Rectangle2f#extend(Rectangle2f)} applied to all of them,
+	 * or null if the buffer is empty.
+	 */
+	public Rectangle2f getBounds() {
+		if (size == 0)
+			return null;
+		float minX = x1s[0], minY = y1s[0], maxX = x2s[0], maxY = y2s[0];
+		for (int i = 1; i < size; i++)
+			minX = Math.min(minX, x1s[i]);
+		for (int i = 1; i < size; i++)
+			minY = Math.min(minY, y1s[i]);
+		for (int i = 1; i < size; i++)
+			maxX = Math.max(maxX, x2s[i]);
+		for (int i = 1; i < size; i++)
+			maxY = Math.max(maxY, y2s[i]);
+		return Rectangle2f.fromX1Y1X2Y2(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Returns true, if the rectangle at the given index contains the given point,
+	 * like {@link Rectangle2f#contains(Point2f)}.
+	 */
+	public boolean contains(int index, float x, float y) {
+		checkIndex(index);
+		return x >= x1s[index] && y >= y1s[index] && x <= x2s[index] && y <= y2s[index];
+	}
+
+	/**
+	 * Gets the index of the first rectangle which contains the given point,
+	 * or -1 if there is none.
+	 */
+	public int indexOf(float x, float y) {
+		for (int i = 0; i < size; i++)
+			if (x >= x1s[i] && y >= y1s[i] && x <= x2s[i] && y <= y2s[i])
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Gets the index of the last rectangle which contains the given point,
+	 * or -1 if there is none. When the rectangles are drawn in the order of
+	 * the buffer, this is the topmost one.
+	 */
+	public int lastIndexOf(float x, float y) {
+		for (int i = size - 1; i >= 0; i--)
+			if (x >= x1s[i] && y >= y1s[i] && x <= x2s[i] && y <= y2s[i])
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Adds the indices of all rectangles which contain the given point
+	 * to the given list, in ascending order.
+	 */
+	public void findAll(float x, float y, IntList ret) {
+		for (int i = 0; i < size; i++)
+			if (x >= x1s[i] && y >= y1s[i] && x <= x2s[i] && y <= y2s[i])
+				ret.add(i);
+	}
+
+	/**
+	 * Adds the indices of all rectangles which intersect the given rectangle
+	 * (including touching edges) to the given list, in ascending order.
+	 */
+	public void findIntersecting(Rectangle2f r, IntList ret) {
+		float x1 = r.x1(), y1 = r.y1(), x2 = r.x2(), y2 = r.y2();
+		for (int i = 0; i < size; i++)
+			if (x1s[i] <= x2 && x2s[i] >= x1 && y1s[i] <= y2 && y2s[i] >= y1)
+				ret.add(i);
+	}
+
+	/**
+	 * Returns a copy of the rectangles as an array of {@link Rectangle2f}s.
+	 */
+	public Rectangle2f[] toArray() {
+		Rectangle2f[] ret = new Rectangle2f[size];
+		for (int i = 0; i < size; i++)
+			ret[i] = Rectangle2f.fromX1Y1X2Y2(x1s[i], y1s[i], x2s[i], y2s[i]);
+		return ret;
+	}
+
+	private void add(float[] values, float summand) {
+		for (int i = 0; i < size; i++)
+			values[i] += summand;
+	}
+
+	private void mult(float[] values, float factor) {
+		for (int i = 0; i < size; i++)
+			values[i] *= factor;
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > x1s.length) {
+			int capacity = Math.max(minCapacity, x1s.length * 3 / 2 + 1);
+			x1s = grow(x1s, capacity);
+			y1s = grow(y1s, capacity);
+			x2s = grow(x2s, capacity);
+			y2s = grow(y2s, capacity);
+		}
+	}
+
+	private float[] grow(float[] values, int capacity) {
+		float[] ret = new float[capacity];
+		System.arraycopy(values, 0, ret, 0, size);
+		return ret;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	@Override public String toString() {
+		StringBuilder ret = new StringBuilder();
+		ret.append("{size:").append(size).append(", data:[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				ret.append(", ");
+			ret.append("[(").append(x1s[i]).append(", ").append(y1s[i]).append(") / (")
+				.append(x2s[i]).append(", ").append(y2s[i]).append(")]");
+		}
+		ret.append("]}");
+		return ret.toString();
+	}
+
+}
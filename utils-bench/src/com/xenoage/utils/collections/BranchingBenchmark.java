@@ -0,0 +1,85 @@
+package com.xenoage.utils.collections;
+
+import static com.xenoage.utils.collections.CList.clist;
+import static com.xenoage.utils.collections.CMap.cmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the branching feature of {@link CList} and {@link CMap}.
+ * 
+ * Compares a full copy of a mutable collection with a branch
+ * of a closed one, with and without a write operation after branching.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BranchingBenchmark {
+
+	@Param({ "100", "10000" }) public int size;
+
+	private ArrayList<Integer> mutableList;
+	private IList<Integer> closedList;
+	private HashMap<Integer, Integer> mutableMap;
+	private IMap<Integer, Integer> closedMap;
+
+
+	@Setup public void setup() {
+		mutableList = new ArrayList<Integer>(size);
+		mutableMap = new HashMap<Integer, Integer>();
+		for (int i = 0; i < size; i++) {
+			mutableList.add(i);
+			mutableMap.put(i, i);
+		}
+		closedList = clist(mutableList).close();
+		closedMap = cmap(mutableMap).close();
+	}
+
+	@Benchmark public CList<Integer> listCopy() {
+		return clist(mutableList);
+	}
+
+	@Benchmark public CList<Integer> listBranch() {
+		return clist(closedList);
+	}
+
+	@Benchmark public CList<Integer> listBranchAndWrite() {
+		CList<Integer> ret = clist(closedList);
+		ret.set(0, -1);
+		return ret;
+	}
+
+	@Benchmark public CMap<Integer, Integer> mapCopy() {
+		return cmap(mutableMap);
+	}
+
+	@Benchmark public CMap<Integer, Integer> mapBranch() {
+		return cmap(closedMap);
+	}
+
+	@Benchmark public CMap<Integer, Integer> mapBranchAndWrite() {
+		CMap<Integer, Integer> ret = cmap(closedMap);
+		ret.put(0, -1);
+		return ret;
+	}
+
+}
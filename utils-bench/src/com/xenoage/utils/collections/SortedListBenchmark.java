@@ -0,0 +1,81 @@
+package com.xenoage.utils.collections;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link SortedList}: inserting unsorted values,
+ * indexed access and merging two lists.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SortedListBenchmark {
+
+	@Param({ "100", "5000" }) public int size;
+
+	private Integer[] values;
+	private SortedList<Integer> list1;
+	private SortedList<Integer> list2;
+
+
+	@Setup public void setup() {
+		Random random = new Random(42);
+		values = new Integer[size];
+		for (int i = 0; i < size; i++)
+			values[i] = random.nextInt(size * 10);
+		Integer[] sorted1 = new Integer[size];
+		Integer[] sorted2 = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			sorted1[i] = random.nextInt(size * 10);
+			sorted2[i] = random.nextInt(size * 10);
+		}
+		Arrays.sort(sorted1);
+		Arrays.sort(sorted2);
+		list1 = new SortedList<Integer>(sorted1, true);
+		list2 = new SortedList<Integer>(sorted2, true);
+	}
+
+	@Benchmark public SortedList<Integer> add() {
+		SortedList<Integer> ret = new SortedList<Integer>(true);
+		for (Integer value : values)
+			ret.add(value);
+		return ret;
+	}
+
+	@Benchmark public SortedList<Integer> addNoDuplicates() {
+		SortedList<Integer> ret = new SortedList<Integer>(false);
+		for (Integer value : values)
+			ret.add(value);
+		return ret;
+	}
+
+	@Benchmark public void get(Blackhole bh) {
+		for (int i = 0; i < size; i += 10)
+			bh.consume(list1.get(i));
+	}
+
+	@Benchmark public SortedList<Integer> merge() {
+		return list1.merge(list2, true);
+	}
+
+}
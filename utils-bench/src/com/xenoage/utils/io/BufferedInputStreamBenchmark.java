@@ -0,0 +1,101 @@
+package com.xenoage.utils.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xenoage.utils.jse.io.JseInputStream;
+
+/**
+ * Benchmarks for reading from a {@link BufferedInputStream},
+ * byte by byte, in blocks and with mark and reset.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BufferedInputStreamBenchmark {
+
+	@Param({ "65536", "1048576" }) public int size;
+
+	private byte[] data;
+	private byte[] block = new byte[4096];
+
+
+	@Setup public void setup() {
+		data = new byte[size];
+		for (int i = 0; i < size; i++)
+			data[i] = (byte) i;
+	}
+
+	private BufferedInputStream open() {
+		return new BufferedInputStream(new JseInputStream(new ByteArrayInputStream(data)));
+	}
+
+	@Benchmark public long readBytes()
+		throws IOException {
+		BufferedInputStream stream = open();
+		long sum = 0;
+		int b;
+		while ((b = stream.read()) != -1)
+			sum += b;
+		stream.close();
+		return sum;
+	}
+
+	@Benchmark public long readBlocks()
+		throws IOException {
+		BufferedInputStream stream = open();
+		long sum = 0;
+		int n;
+		while ((n = stream.read(block, 0, block.length)) > 0)
+			sum += n;
+		stream.close();
+		return sum;
+	}
+
+	/**
+	 * Marks the stream, reads 100 bytes, resets and reads them again,
+	 * like a parser looking ahead, until the end of the stream.
+	 */
+	@Benchmark public long readMarkReset()
+		throws IOException {
+		BufferedInputStream stream = open();
+		long sum = 0;
+		boolean end = false;
+		while (!end) {
+			stream.mark();
+			for (int i = 0; i < 100; i++)
+				stream.read();
+			stream.reset();
+			for (int i = 0; i < 100; i++) {
+				int b = stream.read();
+				if (b == -1) {
+					end = true;
+					break;
+				}
+				sum += b;
+			}
+			stream.unmark();
+		}
+		stream.close();
+		return sum;
+	}
+
+}
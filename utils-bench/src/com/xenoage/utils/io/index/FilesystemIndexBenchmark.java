@@ -0,0 +1,117 @@
+package com.xenoage.utils.io.index;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.xenoage.utils.io.FilesystemItem;
+import com.xenoage.utils.jse.io.index.MappedFilesystemIndex;
+import com.xenoage.utils.jse.io.index.MappedFilesystemIndexWriter;
+
+/**
+ * Benchmarks for finding items in a {@link FilesystemIndex}.
+ * 
+ * The index has a tree of directories, each containing some
+ * subdirectories and many files, similar to a bundle of resources.
+ * The same index is also queried as a {@link MappedFilesystemIndex}.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilesystemIndexBenchmark {
+
+	private static final int dirsPerDir = 10;
+	private static final int depth = 3;
+	private static final int queriesCount = 1000;
+
+	@Param({ "10", "100" }) public int filesPerDir;
+
+	private FilesystemIndex index;
+	private MappedFilesystemIndex mappedIndex;
+	private String[] existingPaths;
+	private String[] missingPaths;
+
+
+	@Setup public void setup()
+		throws IOException {
+		List<FilesystemItem> rootItems = alist();
+		createChildren(rootItems, 0);
+		index = new FilesystemIndex(rootItems);
+		ByteArrayOutputStream binaryIndex = new ByteArrayOutputStream();
+		MappedFilesystemIndexWriter.write(index, binaryIndex);
+		mappedIndex = new MappedFilesystemIndex(ByteBuffer.wrap(binaryIndex.toByteArray()));
+		//random queries
+		Random random = new Random(42);
+		existingPaths = new String[queriesCount];
+		missingPaths = new String[queriesCount];
+		for (int i = 0; i < queriesCount; i++) {
+			StringBuilder path = new StringBuilder();
+			int levels = random.nextInt(depth + 1);
+			for (int level = 0; level < levels; level++)
+				path.append("dir" + random.nextInt(dirsPerDir) + "/");
+			existingPaths[i] = path + "file" + random.nextInt(filesPerDir) + ".xml";
+			missingPaths[i] = path + "missing" + random.nextInt(filesPerDir) + ".xml";
+		}
+	}
+
+	private void createChildren(List<FilesystemItem> items, int level) {
+		for (int i = 0; i < filesPerDir; i++)
+			items.add(new IndexedFile("file" + i + ".xml", 1000L));
+		if (level < depth) {
+			for (int i = 0; i < dirsPerDir; i++) {
+				IndexedDirectory dir = new IndexedDirectory("dir" + i);
+				createChildren(dir.getChildren(), level + 1);
+				items.add(dir);
+			}
+		}
+	}
+
+	@Benchmark public void findExisting(Blackhole bh) {
+		for (String path : existingPaths)
+			bh.consume(index.findItem(path));
+	}
+
+	@Benchmark public void findMissing(Blackhole bh) {
+		for (String path : missingPaths)
+			bh.consume(index.findItem(path));
+	}
+
+	@Benchmark public void existsFile(Blackhole bh) {
+		for (String path : existingPaths)
+			bh.consume(index.existsFile(path));
+	}
+
+	@Benchmark public void existsFileMapped(Blackhole bh) {
+		for (String path : existingPaths)
+			bh.consume(mappedIndex.existsFile(path));
+	}
+
+	@Benchmark public void existsFileMappedMissing(Blackhole bh) {
+		for (String path : missingPaths)
+			bh.consume(mappedIndex.existsFile(path));
+	}
+
+}
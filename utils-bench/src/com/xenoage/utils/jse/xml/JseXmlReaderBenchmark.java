@@ -0,0 +1,92 @@
+package com.xenoage.utils.jse.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xenoage.utils.xml.XmlReader;
+
+/**
+ * Benchmarks for pull parsing with the {@link JseXmlReader}.
+ * 
+ * The document is generated in memory and looks like a simple
+ * score: parts, containing measures, containing notes with
+ * attributes and text content.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JseXmlReaderBenchmark {
+
+	@Param({ "100", "1000" }) public int measuresCount;
+
+	private byte[] data;
+
+
+	@Setup public void setup()
+		throws UnsupportedEncodingException {
+		StringBuilder xml = new StringBuilder();
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<score>\n");
+		for (int iPart = 0; iPart < 4; iPart++) {
+			xml.append("\t<part id=\"P" + iPart + "\">\n");
+			for (int iMeasure = 0; iMeasure < measuresCount; iMeasure++) {
+				xml.append("\t\t<measure number=\"" + iMeasure + "\">\n");
+				for (int iNote = 0; iNote < 4; iNote++) {
+					xml.append("\t\t\t<note duration=\"1/4\" voice=\"1\">");
+					xml.append("<pitch>C" + (iNote + 3) + "</pitch>");
+					xml.append("<lyric>la</lyric>");
+					xml.append("</note>\n");
+				}
+				xml.append("\t\t</measure>\n");
+			}
+			xml.append("\t</part>\n");
+		}
+		xml.append("</score>\n");
+		data = xml.toString().getBytes("UTF-8");
+	}
+
+	/**
+	 * Reads all elements, their attributes and texts.
+	 */
+	@Benchmark public int readAll() {
+		XmlReader reader = new JseXmlReader(new ByteArrayInputStream(data));
+		int count = 0;
+		reader.openNextChildElement(); //score
+		while (reader.openNextChildElement()) { //part
+			count += reader.getAttribute("id").length();
+			while (reader.openNextChildElement()) { //measure
+				count += reader.getAttributeInt("number");
+				while (reader.openNextChildElement()) { //note
+					count += reader.getAttributeCount();
+					while (reader.openNextChildElement()) { //pitch, lyric
+						count += reader.getText().length();
+						reader.closeElement();
+					}
+					reader.closeElement();
+				}
+				reader.closeElement();
+			}
+			reader.closeElement();
+		}
+		reader.close();
+		return count;
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.xenoage.utils.math;
+
+import static com.xenoage.utils.math.Fraction.fr;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the arithmetic of {@link Fraction}, using
+ * typical musical durations (1/1 to 1/64, dotted and triplets).
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FractionBenchmark {
+
+	private static final int count = 1000;
+
+	private Fraction[] durations;
+
+
+	@Setup public void setup() {
+		Fraction[] pool = { fr(1), fr(1, 2), fr(1, 4), fr(1, 8), fr(1, 16), fr(1, 32), fr(1, 64),
+			fr(3, 8), fr(3, 16), fr(1, 12), fr(1, 24) };
+		Random random = new Random(42);
+		durations = new Fraction[count];
+		for (int i = 0; i < count; i++)
+			durations[i] = pool[random.nextInt(pool.length)];
+	}
+
+	@Benchmark public Fraction sum() {
+		Fraction ret = Fraction._0;
+		for (Fraction duration : durations)
+			ret = ret.add(duration);
+		return ret;
+	}
+
+	@Benchmark public void sub(Blackhole bh) {
+		for (int i = 1; i < count; i++)
+			bh.consume(durations[i].sub(durations[i - 1]));
+	}
+
+	@Benchmark public void mult(Blackhole bh) {
+		for (int i = 1; i < count; i++)
+			bh.consume(durations[i].mult(durations[i - 1]));
+	}
+
+	@Benchmark public void divideBy(Blackhole bh) {
+		for (int i = 1; i < count; i++)
+			bh.consume(durations[i].divideBy(durations[i - 1]));
+	}
+
+	@Benchmark public void compareTo(Blackhole bh) {
+		for (int i = 1; i < count; i++)
+			bh.consume(durations[i].compareTo(durations[i - 1]));
+	}
+
+	@Benchmark public void create(Blackhole bh) {
+		for (int i = 1; i <= count; i++)
+			bh.consume(fr(i % 7, 64));
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.xenoage.utils.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xenoage.utils.jse.math.ParallelLUSolver;
+
+/**
+ * Benchmarks for solving systems of linear equations with {@link Gauss},
+ * {@link LUSolver} and {@link ParallelLUSolver}.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LUSolverBenchmark {
+
+	@Param({ "8", "64", "512" }) public int n;
+
+	private double[] a;
+	private double[][] aJagged;
+	private double[] b, x;
+	private LUSolver solver;
+	private ParallelLUSolver parallelSolver;
+
+
+	@Setup public void setup() {
+		Random random = new Random(42);
+		a = new double[n * n];
+		aJagged = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				a[i * n + j] = random.nextDouble() + (i == j ? n : 0);
+				aJagged[i][j] = a[i * n + j];
+			}
+		}
+		b = new double[n];
+		for (int i = 0; i < n; i++)
+			b[i] = random.nextDouble();
+		x = new double[n];
+		solver = new LUSolver(n);
+		solver.decompose(a);
+		parallelSolver = new ParallelLUSolver(n);
+	}
+
+	@Benchmark public double[] gauss() {
+		//Gauss modifies its input
+		double[][] aCopy = new double[n][];
+		for (int i = 0; i < n; i++)
+			aCopy[i] = aJagged[i].clone();
+		return Gauss.solve(aCopy, b.clone());
+	}
+
+	@Benchmark public double[] luSolver() {
+		return solver.decompose(a).solve(b, x);
+	}
+
+	@Benchmark public double[] parallelLuSolver() {
+		return parallelSolver.decompose(a).solve(b, x);
+	}
+
+	/**
+	 * Solving again for another right-hand side, reusing the decomposition.
+	 */
+	@Benchmark public double[] luSolverReuse() {
+		return solver.solve(b, x);
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.xenoage.utils.pdlib;
+
+import static com.xenoage.utils.pdlib.PList.plist;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the producers and accessors of {@link PList}.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PListBenchmark {
+
+	@Param({ "100", "10000" }) public int size;
+
+	private ArrayList<Integer> values;
+	private PList<Integer> list;
+
+
+	@Setup public void setup() {
+		values = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++)
+			values.add(i);
+		list = new PList<Integer>(values);
+	}
+
+	@Benchmark public PList<Integer> plus() {
+		PList<Integer> ret = plist();
+		for (int i = 0; i < size; i++)
+			ret = ret.plus(values.get(i));
+		return ret;
+	}
+
+	@Benchmark public PList<Integer> plusAll() {
+		return PList.<Integer>plist().plusAll(values);
+	}
+
+	@Benchmark public PList<Integer> plusAtMiddle() {
+		return list.plus(size / 2, -1);
+	}
+
+	@Benchmark public PList<Integer> minusAtMiddle() {
+		return list.minus(size / 2);
+	}
+
+	@Benchmark public PList<Integer> with() {
+		return list.with(size / 2, -1);
+	}
+
+	@Benchmark public void get(Blackhole bh) {
+		for (int i = 0; i < size; i++)
+			bh.consume(list.get(i));
+	}
+
+	@Benchmark public void iterate(Blackhole bh) {
+		for (Integer value : list)
+			bh.consume(value);
+	}
+
+	@Benchmark public Object split() {
+		return list.split(size / 2);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.xenoage.utils.pdlib;
+
+import static com.xenoage.utils.pdlib.PMap.pmap;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the producers and accessors of {@link PMap}.
+ * 
+ * @author Andreas Wenger
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PMapBenchmark {
+
+	@Param({ "100", "10000" }) public int size;
+
+	private String[] keys;
+	private PMap<String, Integer> map;
+
+
+	@Setup public void setup() {
+		Random random = new Random(42);
+		keys = new String[size];
+		map = pmap();
+		for (int i = 0; i < size; i++) {
+			keys[i] = "key" + random.nextInt();
+			map = map.plus(keys[i], i);
+		}
+	}
+
+	@Benchmark public PMap<String, Integer> plus() {
+		PMap<String, Integer> ret = pmap();
+		for (int i = 0; i < size; i++)
+			ret = ret.plus(keys[i], i);
+		return ret;
+	}
+
+	@Benchmark public PMap<String, Integer> plusExisting() {
+		return map.plus(keys[size / 2], -1);
+	}
+
+	@Benchmark public PMap<String, Integer> minus() {
+		PMap<String, Integer> ret = map;
+		for (int i = 0; i < size; i += 10)
+			ret = ret.minus(keys[i]);
+		return ret;
+	}
+
+	@Benchmark public void get(Blackhole bh) {
+		for (int i = 0; i < size; i++)
+			bh.consume(map.get(keys[i]));
+	}
+
+	@Benchmark public void getMissing(Blackhole bh) {
+		for (int i = 0; i < size; i++)
+			bh.consume(map.get("missing"));
+	}
+
+}
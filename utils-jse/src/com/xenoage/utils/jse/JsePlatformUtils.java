@@ -1,5 +1,7 @@
 package com.xenoage.utils.jse;
 
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+
 import java.io.IOException;
 import java.util.List;
 
@@ -89,6 +91,19 @@ public class JsePlatformUtils
 		return ThreadUtils.getCaller(level + 1);
 	}
 
+	/**
+	 * Captures the current stack trace in a {@link Throwable}.
+	 * The VM still fills in its stack trace when it is created, but the
+	 * {@link StackTraceElement}s are only created when it is resolved.
+	 */
+	@Override public Object captureStackTrace() {
+		return new Throwable();
+	}
+
+	@Override public List<StackTraceElement> resolveStackTrace(Object capturedStackTrace) {
+		return alist(((Throwable) capturedStackTrace).getStackTrace());
+	}
+
 	@Override public TextMeasurer getTextMeasurer() {
 		return textMeasurer;
 	}
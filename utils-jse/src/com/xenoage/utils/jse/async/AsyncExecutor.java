@@ -0,0 +1,155 @@
+package com.xenoage.utils.jse.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.xenoage.utils.annotations.MaybeNull;
+import com.xenoage.utils.async.AsyncResult;
+
+/**
+ * Runs blocking tasks for asynchronous methods, like the ones of
+ * {@link com.xenoage.utils.io.FilesystemInput}, and reports their results
+ * to an {@link AsyncResult}.
+ * 
+ * The tasks are run by an I/O executor, so that many of them can overlap.
+ * The callbacks are either called directly in the I/O thread, or they are
+ * handed over to a callback executor, e.g. one which posts them to the
+ * event dispatch thread of the user interface.
+ * 
+ * @author Andreas Wenger
+ */
+public final class AsyncExecutor {
+
+	/**
+	 * Runs the tasks and the callbacks immediately within the calling thread.
+	 */
+	public static final AsyncExecutor synchronous = new AsyncExecutor(null, null);
+
+	private static AsyncExecutor defaultInstance = null;
+
+	@MaybeNull private final Executor ioExecutor;
+	@MaybeNull private final Executor callbackExecutor;
+
+
+	/**
+	 * Gets the shared default instance. It runs the tasks on virtual threads,
+	 * when the JDK supports them, and otherwise on a bounded pool of daemon threads
+	 * (see {@link #createIoExecutor(int)}). The callbacks are called in the I/O threads.
+	 */
+	public static synchronized AsyncExecutor getDefault() {
+		if (defaultInstance == null)
+			defaultInstance = new AsyncExecutor(createIoExecutor(
+				Math.max(4, Runtime.getRuntime().availableProcessors() * 2)), null);
+		return defaultInstance;
+	}
+
+	/**
+	 * Creates a new {@link AsyncExecutor}.
+	 * @param ioExecutor        the executor for the blocking tasks, or null to run them
+	 *                          in the calling thread
+	 * @param callbackExecutor  the executor for calling the {@link AsyncResult}, or null
+	 *                          to call it in the thread which has run the task
+	 */
+	public AsyncExecutor(@MaybeNull Executor ioExecutor, @MaybeNull Executor callbackExecutor) {
+		this.ioExecutor = ioExecutor;
+		this.callbackExecutor = callbackExecutor;
+	}
+
+	/**
+	 * Creates an executor for blocking I/O tasks. When the JDK supports virtual threads
+	 * (Java 21 and newer), one virtual thread is started per task. Otherwise,
+	 * a pool with up to the given number of daemon threads is used, which are stopped
+	 * after some time without work.
+	 */
+	public static ExecutorService createIoExecutor(int maxThreads) {
+		//virtual threads, using reflection to support older JDKs
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception ex) {
+			//not available
+		}
+		//bounded pool
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "AsyncExecutor-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * Runs the given task and reports its result or its exception
+	 * to the given {@link AsyncResult}.
+	 */
+	public <T> void execute(final Callable<T> task, final AsyncResult<T> result) {
+		if (ioExecutor == null) {
+			run(task, result);
+			return;
+		}
+		try {
+			ioExecutor.execute(new Runnable() {
+
+				@Override public void run() {
+					AsyncExecutor.this.run(task, result);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			deliverFailure(result, ex);
+		}
+	}
+
+	private <T> void run(Callable<T> task, AsyncResult<T> result) {
+		T data;
+		try {
+			data = task.call();
+		} catch (Exception ex) {
+			deliverFailure(result, ex);
+			return;
+		}
+		deliverSuccess(result, data);
+	}
+
+	private <T> void deliverSuccess(final AsyncResult<T> result, final T data) {
+		if (callbackExecutor == null) {
+			result.onSuccess(data);
+		}
+		else {
+			callbackExecutor.execute(new Runnable() {
+
+				@Override public void run() {
+					result.onSuccess(data);
+				}
+			});
+		}
+	}
+
+	private <T> void deliverFailure(final AsyncResult<T> result, final Exception ex) {
+		if (callbackExecutor == null) {
+			result.onFailure(ex);
+		}
+		else {
+			callbackExecutor.execute(new Runnable() {
+
+				@Override public void run() {
+					result.onFailure(ex);
+				}
+			});
+		}
+	}
+
+}
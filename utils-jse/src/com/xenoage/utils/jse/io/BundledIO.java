@@ -1,8 +1,11 @@
 package com.xenoage.utils.jse.io;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.URL;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.xenoage.utils.async.AsyncResult;
 import com.xenoage.utils.io.FileFilter;
@@ -10,7 +13,9 @@ import com.xenoage.utils.io.FileUtils;
 import com.xenoage.utils.io.FilesystemInput;
 import com.xenoage.utils.io.InputStream;
 import com.xenoage.utils.io.index.FilesystemIndex;
+import com.xenoage.utils.jse.async.AsyncExecutor;
 import com.xenoage.utils.io.index.FilesystemIndexReader;
+import com.xenoage.utils.jse.io.index.MappedFilesystemIndex;
 import com.xenoage.utils.jse.xml.JseXmlReader;
 
 /**
@@ -20,6 +25,8 @@ import com.xenoage.utils.jse.xml.JseXmlReader;
  * Since the contents of the JAR files can not be listed out of the box,
  * a {@link FilesystemIndex} file must be available in the classpath.
  * If not existing, files from the JAR archives can not be listed or read.
+ * When a binary index file ({@link MappedFilesystemIndex#indexFile}) is available,
+ * it is preferred, since it can be used without parsing it.
  *
  * @author Andreas Wenger
  */
@@ -27,6 +34,7 @@ public class BundledIO
 	implements FilesystemInput {
 
 	private FilesystemIndex index = null;
+	private AsyncExecutor asyncExecutor = AsyncExecutor.getDefault();
 
 	
 	/**
@@ -47,6 +55,22 @@ public class BundledIO
 	}
 	
 	private static FilesystemIndex readIndex() {
+		//binary index
+		try {
+			URL url = BundledIO.class.getClassLoader().getResource(MappedFilesystemIndex.indexFile);
+			if (url != null) {
+				if (url.getProtocol().equals("file"))
+					return MappedFilesystemIndex.map(new File(url.toURI()));
+				else
+					return MappedFilesystemIndex.read(url.openStream());
+			}
+		}
+		catch (Exception ex) {
+			//logging or error handling is not initialized at this point
+			//so print to console. try the XML index instead.
+			ex.printStackTrace();
+		}
+		//XML index
 		try {
 			JseInputStream indexStream = openFileUnchecked(FilesystemIndex.indexFile);
 			return FilesystemIndexReader.read(new JseXmlReader(indexStream));
@@ -62,8 +86,27 @@ public class BundledIO
 		return null;
 	}
 	
-	@Override public void existsFileAsync(String filePath, AsyncResult<Boolean> exists) {
-		exists.onSuccess(existsFile(filePath));
+	/**
+	 * Sets the {@link AsyncExecutor}, which runs the asynchronous methods
+	 * of this class and calls their callbacks.
+	 * By default, {@link AsyncExecutor#getDefault()} is used.
+	 * Use {@link AsyncExecutor#synchronous} to run them in the calling thread.
+	 */
+	public void setAsyncExecutor(AsyncExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+	
+	public AsyncExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+	
+	@Override public void existsFileAsync(final String filePath, AsyncResult<Boolean> exists) {
+		asyncExecutor.execute(new Callable<Boolean>() {
+
+			@Override public Boolean call() {
+				return existsFile(filePath);
+			}
+		}, exists);
 	}
 
 	/**
@@ -73,8 +116,13 @@ public class BundledIO
 		return index.existsFile(filePath);
 	}
 	
-	@Override public void existsDirectoryAsync(String dirPath, AsyncResult<Boolean> exists) {
-		exists.onSuccess(existsDirectory(dirPath));
+	@Override public void existsDirectoryAsync(final String dirPath, AsyncResult<Boolean> exists) {
+		asyncExecutor.execute(new Callable<Boolean>() {
+
+			@Override public Boolean call() {
+				return existsDirectory(dirPath);
+			}
+		}, exists);
 	}
 
 	/**
@@ -84,8 +132,13 @@ public class BundledIO
 		return index.existsDirectory(dirPath);
 	}
 	
-	@Override public void listFilesAsync(String dirPath, AsyncResult<List<String>> fileNames) {
-		fileNames.onSuccess(listFiles(dirPath));
+	@Override public void listFilesAsync(final String dirPath, AsyncResult<List<String>> fileNames) {
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listFiles(dirPath);
+			}
+		}, fileNames);
 	}
 
 	/**
@@ -95,9 +148,14 @@ public class BundledIO
 		return FileUtils.getNames(index.listFiles(dirPath));
 	}
 	
-	@Override public void listFilesAsync(String dirPath, FileFilter filter,
+	@Override public void listFilesAsync(final String dirPath, final FileFilter filter,
 		AsyncResult<List<String>> fileNames) {
-		fileNames.onSuccess(listFiles(dirPath, filter));
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listFiles(dirPath, filter);
+			}
+		}, fileNames);
 	}
 
 	/**
@@ -107,8 +165,13 @@ public class BundledIO
 		return FileUtils.getNames(index.listFiles(dirPath, filter));
 	}
 	
-	@Override public void listDirectoriesAsync(String dirPath, AsyncResult<List<String>> dirNames) {
-		dirNames.onSuccess(listDirectories(dirPath));
+	@Override public void listDirectoriesAsync(final String dirPath, AsyncResult<List<String>> dirNames) {
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listDirectories(dirPath);
+			}
+		}, dirNames);
 	}
 
 	/**
@@ -118,12 +181,14 @@ public class BundledIO
 		return FileUtils.getNames(index.listDirectories(dirPath));
 	}
 
-	@Override public void openFileAsync(String filePath, AsyncResult<InputStream> inputStream) {
-		try {
-			inputStream.onSuccess(openFile(filePath));
-		} catch (IOException ex) {
-			inputStream.onFailure(ex);
-		}
+	@Override public void openFileAsync(final String filePath, AsyncResult<InputStream> inputStream) {
+		asyncExecutor.execute(new Callable<InputStream>() {
+
+			@Override public InputStream call()
+				throws IOException {
+				return openFile(filePath);
+			}
+		}, inputStream);
 	}
 	
 	/**
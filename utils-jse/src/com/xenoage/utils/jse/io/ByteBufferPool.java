@@ -0,0 +1,57 @@
+package com.xenoage.utils.jse.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of direct {@link ByteBuffer}s of the same size.
+ * 
+ * Allocating direct buffers is expensive and their memory is only freed
+ * when they are garbage collected, so it is better to reuse them
+ * for I/O operations which run often.
+ * 
+ * This class is thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public class ByteBufferPool {
+
+	private final int bufferSize;
+	private final ArrayBlockingQueue<ByteBuffer> buffers;
+
+
+	/**
+	 * Creates a pool for buffers of the given size in bytes, which keeps
+	 * up to the given number of unused buffers.
+	 */
+	public ByteBufferPool(int bufferSize, int maxPooledBuffers) {
+		this.bufferSize = bufferSize;
+		this.buffers = new ArrayBlockingQueue<ByteBuffer>(maxPooledBuffers);
+	}
+
+	/**
+	 * Gets a cleared buffer from the pool, or a new one if the pool is empty.
+	 * Return it by calling {@link #release(ByteBuffer)} when it is not used any more.
+	 */
+	public ByteBuffer acquire() {
+		ByteBuffer ret = buffers.poll();
+		if (ret == null)
+			ret = ByteBuffer.allocateDirect(bufferSize);
+		ret.clear();
+		return ret;
+	}
+
+	/**
+	 * Returns the given buffer to the pool. When the pool is full,
+	 * the buffer is left to the garbage collector.
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer.capacity() == bufferSize)
+			buffers.offer(buffer);
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+}
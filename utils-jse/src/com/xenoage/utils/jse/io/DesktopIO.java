@@ -7,12 +7,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.xenoage.utils.async.AsyncResult;
 import com.xenoage.utils.io.FileFilter;
 import com.xenoage.utils.io.FilesystemInput;
 import com.xenoage.utils.io.InputStream;
 import com.xenoage.utils.jse.JsePlatformUtils;
+import com.xenoage.utils.jse.async.AsyncExecutor;
 
 /**
  * Some useful input/output methods for a JSE based desktop
@@ -39,6 +41,7 @@ public class DesktopIO
 
 	private FilesIO filesIO;
 	private BundledIO bundledIO;
+	private AsyncExecutor asyncExecutor = AsyncExecutor.getDefault();
 
 	
 	public DesktopIO(String programName) {
@@ -58,8 +61,27 @@ public class DesktopIO
 		this.bundledIO = bundledIO;
 	}
 	
-	@Override public void existsFileAsync(String filePath, AsyncResult<Boolean> exists) {
-		exists.onSuccess(existsFile(filePath));
+	/**
+	 * Sets the {@link AsyncExecutor}, which runs the asynchronous methods
+	 * of this class and calls their callbacks.
+	 * By default, {@link AsyncExecutor#getDefault()} is used.
+	 * Use {@link AsyncExecutor#synchronous} to run them in the calling thread.
+	 */
+	public void setAsyncExecutor(AsyncExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+	
+	public AsyncExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+	
+	@Override public void existsFileAsync(final String filePath, AsyncResult<Boolean> exists) {
+		asyncExecutor.execute(new Callable<Boolean>() {
+
+			@Override public Boolean call() {
+				return existsFile(filePath);
+			}
+		}, exists);
 	}
 
 	/**
@@ -70,8 +92,13 @@ public class DesktopIO
 			(bundledIO != null && bundledIO.existsFile(filePath));
 	}
 	
-	@Override public void existsDirectoryAsync(String dirPath, AsyncResult<Boolean> exists) {
-		exists.onSuccess(existsDirectory(dirPath));
+	@Override public void existsDirectoryAsync(final String dirPath, AsyncResult<Boolean> exists) {
+		asyncExecutor.execute(new Callable<Boolean>() {
+
+			@Override public Boolean call() {
+				return existsDirectory(dirPath);
+			}
+		}, exists);
 	}
 
 	/**
@@ -82,8 +109,13 @@ public class DesktopIO
 			(bundledIO != null && bundledIO.existsDirectory(directory));
 	}
 	
-	@Override public void listFilesAsync(String dirPath, AsyncResult<List<String>> fileNames) {
-		fileNames.onSuccess(listFiles(dirPath));
+	@Override public void listFilesAsync(final String dirPath, AsyncResult<List<String>> fileNames) {
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listFiles(dirPath);
+			}
+		}, fileNames);
 	}
 
 	/**
@@ -97,9 +129,14 @@ public class DesktopIO
 			return mergeNoDuplicates(bundledIO.listFiles(dirPath), fileNames);
 	}
 	
-	@Override public void listFilesAsync(String dirPath, FileFilter filter,
+	@Override public void listFilesAsync(final String dirPath, final FileFilter filter,
 		AsyncResult<List<String>> fileNames) {
-		fileNames.onSuccess(listFiles(dirPath, filter));
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listFiles(dirPath, filter);
+			}
+		}, fileNames);
 	}
 
 	/**
@@ -113,9 +150,13 @@ public class DesktopIO
 			return mergeNoDuplicates(bundledIO.listFiles(dirPath, filter), fileNames);
 	}
 	
-	@Override public void listDirectoriesAsync(String dirPath,
-		AsyncResult<List<String>> dirNames) {
-		dirNames.onSuccess(listDirectories(dirPath));
+	@Override public void listDirectoriesAsync(final String dirPath, AsyncResult<List<String>> dirNames) {
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listDirectories(dirPath);
+			}
+		}, dirNames);
 	}
 
 	/**
@@ -129,12 +170,14 @@ public class DesktopIO
 			return mergeNoDuplicates(bundledIO.listDirectories(dirPath), dirNames);
 	}
 
-	@Override public void openFileAsync(String filePath, AsyncResult<InputStream> inputStream) {
-		try {
-			inputStream.onSuccess(openFile(filePath));
-		} catch (IOException ex) {
-			inputStream.onFailure(ex);
-		}
+	@Override public void openFileAsync(final String filePath, AsyncResult<InputStream> inputStream) {
+		asyncExecutor.execute(new Callable<InputStream>() {
+
+			@Override public InputStream call()
+				throws IOException {
+				return openFile(filePath);
+			}
+		}, inputStream);
 	}
 	
 	/**
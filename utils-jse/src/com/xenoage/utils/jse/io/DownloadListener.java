@@ -0,0 +1,18 @@
+package com.xenoage.utils.jse.io;
+
+/**
+ * Listener for the progress of a download by the {@link DownloadTools}.
+ * 
+ * @author Andreas Wenger
+ */
+public interface DownloadListener {
+
+	/**
+	 * This method is called after each received block of data.
+	 * @param downloadedBytes  the number of bytes of the target file, which are
+	 *                         already downloaded, including resumed data
+	 * @param totalBytes       the total size of the file in bytes, or -1 if unknown
+	 */
+	public void progress(long downloadedBytes, long totalBytes);
+
+}
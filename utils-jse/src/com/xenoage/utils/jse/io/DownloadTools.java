@@ -1,20 +1,32 @@
 package com.xenoage.utils.jse.io;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import com.xenoage.utils.annotations.MaybeNull;
 
 /**
- * This class provides a method to download a file.
+ * This class provides methods to download a file.
+ * 
+ * The data is streamed directly into the target file, so the used memory
+ * does not depend on the size of the file.
  * 
  * @author Andreas Wenger
  */
 public class DownloadTools {
 
+	private static final int bufferSize = 64 * 1024;
+	private static final ByteBufferPool bufferPool = new ByteBufferPool(bufferSize, 4);
+
+
 	/**
 	 * Downloads the file behind the given path.
 	 * This is done in the current thread, so the method blocks.
@@ -22,32 +34,104 @@ public class DownloadTools {
 	 */
 	public static void downloadFile(String source, File target)
 		throws IOException {
-		URL url = new URL(source);
-		URLConnection urlc = url.openConnection();
-		InputStream raw = urlc.getInputStream();
-		int contentLength = urlc.getContentLength();
-		if (contentLength == -1) {
-			throw new IOException("Unknown file length (content-length header field)");
+		downloadFile(source, target, false, null);
+	}
+
+	/**
+	 * Downloads the file behind the given path and returns its size in bytes.
+	 * This is done in the current thread, so the method blocks.
+	 * 
+	 * Responses with unknown length (e.g. chunked transfer encoding) are supported.
+	 * When resume is true and the target file already exists, only the missing
+	 * part is requested from an HTTP server, using a Range request. If the server
+	 * does not support this, the whole file is downloaded again.
+	 * 
+	 * If an error occurs, an {@link IOException} is thrown. The already downloaded
+	 * data remains in the target file, so that the download can be resumed.
+	 * @param listener  receives the progress of the download, or null
+	 */
+	public static long downloadFile(String source, File target, boolean resume,
+		@MaybeNull DownloadListener listener)
+		throws IOException {
+		long start = (resume && target.isFile() ? target.length() : 0);
+		URLConnection connection = new URL(source).openConnection();
+		HttpURLConnection http = (connection instanceof HttpURLConnection ?
+			(HttpURLConnection) connection : null);
+		if (start > 0 && http != null)
+			http.setRequestProperty("Range", "bytes=" + start + "-");
+		long contentLength = connection.getContentLengthLong();
+		if (http != null) {
+			int responseCode = http.getResponseCode();
+			if (start > 0 && responseCode == 416) {
+				//range not satisfiable: the file is already complete, if its size is right
+				long totalSize = getContentRangeTotal(http.getHeaderField("Content-Range"));
+				http.disconnect();
+				if (totalSize == start) {
+					if (listener != null)
+						listener.progress(start, start);
+					return start;
+				}
+				throw new IOException("Existing file is longer than the requested file");
+			}
+			else if (start > 0 && responseCode == 206) {
+				//partial content. check that it begins at the requested position
+				String contentRange = http.getHeaderField("Content-Range");
+				if (contentRange == null || false == contentRange.startsWith("bytes " + start + "-")) {
+					http.disconnect();
+					throw new IOException("Unexpected Content-Range: " + contentRange);
+				}
+			}
+			else {
+				//whole file (or an error, which is thrown when the stream is opened)
+				start = 0;
+			}
 		}
-		InputStream in = new BufferedInputStream(raw);
-		byte[] data = new byte[contentLength];
-		int bytesRead = 0;
-		int offset = 0;
-		while (offset < contentLength) {
-			bytesRead = in.read(data, offset, data.length - offset);
-			if (bytesRead == -1)
-				break;
-			offset += bytesRead;
+		else {
+			start = 0;
 		}
-		in.close();
-		if (offset != contentLength) {
-			throw new IOException("Only read " + offset + " bytes, but expected " + contentLength +
+		long totalSize = (contentLength > -1 ? start + contentLength : -1);
+		//stream into the file
+		ReadableByteChannel in = Channels.newChannel(connection.getInputStream());
+		RandomAccessFile out = new RandomAccessFile(target, "rw");
+		ByteBuffer buffer = bufferPool.acquire();
+		long position = start;
+		try {
+			FileChannel channel = out.getChannel();
+			channel.truncate(start);
+			channel.position(start);
+			while (in.read(buffer) > -1) {
+				buffer.flip();
+				while (buffer.hasRemaining())
+					position += channel.write(buffer);
+				buffer.clear();
+				if (listener != null)
+					listener.progress(position, totalSize);
+			}
+		} finally {
+			bufferPool.release(buffer);
+			in.close();
+			out.close();
+		}
+		if (totalSize > -1 && position != totalSize) {
+			throw new IOException("Only read " + position + " bytes, but expected " + totalSize +
 				" bytes");
 		}
-		FileOutputStream out = new FileOutputStream(target);
-		out.write(data);
-		out.flush();
-		out.close();
+		return position;
+	}
+
+	/**
+	 * Gets the total size from the given Content-Range header value
+	 * like "bytes 0-99/1234" or "bytes *&#47;1234", or -1 if unknown.
+	 */
+	private static long getContentRangeTotal(@MaybeNull String contentRange) {
+		if (contentRange == null)
+			return -1;
+		int slashPos = contentRange.lastIndexOf('/');
+		try {
+			return Long.parseLong(contentRange.substring(slashPos + 1).trim());
+		} catch (NumberFormatException ex) {
+			return -1;
+		}
 	}
 
 }
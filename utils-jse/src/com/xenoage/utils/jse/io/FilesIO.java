@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.Set;
 
 import com.xenoage.utils.annotations.MaybeNull;
@@ -21,6 +22,7 @@ import com.xenoage.utils.io.FileFilter;
 import com.xenoage.utils.io.FilesystemInput;
 import com.xenoage.utils.io.InputStream;
 import com.xenoage.utils.io.index.FilesystemIndex;
+import com.xenoage.utils.jse.async.AsyncExecutor;
 
 /**
  * Some useful input/output methods for files on the filesystem
@@ -50,6 +52,9 @@ import com.xenoage.utils.io.index.FilesystemIndex;
  * This allows files to be overwritten by individual users, e.g.
  * to replace some provided files with own ones, without destroying
  * the original installation.
+ * 
+ * Optionally, the resolution of relative paths can be cached,
+ * see {@link #setResolutionCacheEnabled(boolean)}.
  *
  * @author Andreas Wenger
  */
@@ -59,6 +64,10 @@ public class FilesIO
 	private File userDir;
 	private File systemDir;
 	private File sharedDir;
+	//user, system and shared directory, in the order in which they are searched
+	private File[] layers;
+	private LayerResolutionCache resolutionCache = null;
+	private AsyncExecutor asyncExecutor = AsyncExecutor.getDefault();
 
 	
 	/**
@@ -102,6 +111,41 @@ public class FilesIO
 			userDir = systemDir;
 		}
 		this.sharedDir = sharedDir;
+		this.layers = new File[] { userDir, this.systemDir, sharedDir };
+	}
+	
+	/**
+	 * Enables or disables the cache for the resolution of relative paths.
+	 * When enabled, it is remembered in which of the directories a queried path
+	 * exists (or that it exists nowhere), so that repeated queries need no
+	 * access to the filesystem. The cache is updated when changes in the
+	 * directories are reported by the filesystem, and when files are
+	 * created or deleted by this class. Changes made by other means
+	 * may become visible with a short delay.
+	 * By default, the cache is disabled.
+	 */
+	public void setResolutionCacheEnabled(boolean enabled) {
+		if (enabled && resolutionCache == null) {
+			resolutionCache = new LayerResolutionCache(layers);
+		}
+		else if (false == enabled && resolutionCache != null) {
+			resolutionCache.close();
+			resolutionCache = null;
+		}
+	}
+	
+	public boolean isResolutionCacheEnabled() {
+		return resolutionCache != null;
+	}
+	
+	/**
+	 * Removes the given relative path and all paths below it from the resolution cache.
+	 * Call this method after the path was changed by other means than this class,
+	 * when the change has to be visible immediately.
+	 */
+	public void invalidateResolutionCache(String path) {
+		if (resolutionCache != null)
+			resolutionCache.invalidate(path);
 	}
 	
 	/**
@@ -130,8 +174,27 @@ public class FilesIO
 		return new FilesIO("xenoage/" + s, null, sharedDir);
 	}
 	
-	@Override public void existsFileAsync(String filePath, AsyncResult<Boolean> exists) {
-		exists.onSuccess(existsFile(filePath));
+	/**
+	 * Sets the {@link AsyncExecutor}, which runs the asynchronous methods
+	 * of this class and calls their callbacks.
+	 * By default, {@link AsyncExecutor#getDefault()} is used.
+	 * Use {@link AsyncExecutor#synchronous} to run them in the calling thread.
+	 */
+	public void setAsyncExecutor(AsyncExecutor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+	
+	public AsyncExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+	
+	@Override public void existsFileAsync(final String filePath, AsyncResult<Boolean> exists) {
+		asyncExecutor.execute(new Callable<Boolean>() {
+
+			@Override public Boolean call() {
+				return existsFile(filePath);
+			}
+		}, exists);
 	}
 
 	/**
@@ -145,13 +208,17 @@ public class FilesIO
 		}
 		else {
 			//relative path
-			return new File(userDir, filePath).exists() || new File(systemDir, filePath).exists() ||
-				(sharedDir != null ? new File(sharedDir, filePath).exists() : false);
+			return findLayer(filePath, false) > -1;
 		}
 	}
 	
-	@Override public void existsDirectoryAsync(String dirPath, AsyncResult<Boolean> exists) {
-		exists.onSuccess(existsDirectory(dirPath));
+	@Override public void existsDirectoryAsync(final String dirPath, AsyncResult<Boolean> exists) {
+		asyncExecutor.execute(new Callable<Boolean>() {
+
+			@Override public Boolean call() {
+				return existsDirectory(dirPath);
+			}
+		}, exists);
 	}
 
 	/**
@@ -165,23 +232,17 @@ public class FilesIO
 		}
 		else {
 			//relative path
-			File userFile = new File(userDir, directory);
-			if (userFile.exists() && userFile.isDirectory())
-				return true;
-			File systemFile = new File(systemDir, directory);
-			if (systemFile.exists() && systemFile.isDirectory())
-				return true;
-			if (sharedDir != null) {
-				File sharedFile = new File(sharedDir, directory);
-				if (sharedFile.exists() && sharedFile.isDirectory())
-					return true;
-			}
+			return findLayer(directory, true) > -1;
 		}
-		return false;
 	}
 	
-	@Override public void listFilesAsync(String dirPath, AsyncResult<List<String>> fileNames) {
-		fileNames.onSuccess(listFiles(dirPath));
+	@Override public void listFilesAsync(final String dirPath, AsyncResult<List<String>> fileNames) {
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listFiles(dirPath);
+			}
+		}, fileNames);
 	}
 
 	/**
@@ -191,9 +252,14 @@ public class FilesIO
 		return listFiles(dirPath, null);
 	}
 	
-	@Override public void listFilesAsync(String dirPath, FileFilter filter,
+	@Override public void listFilesAsync(final String dirPath, final FileFilter filter,
 		AsyncResult<List<String>> fileNames) {
-		fileNames.onSuccess(listFiles(dirPath, filter));
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listFiles(dirPath, filter);
+			}
+		}, fileNames);
 	}
 
 	/**
@@ -209,24 +275,9 @@ public class FilesIO
 		else {
 			//relative path
 			Set<String> ret = new HashSet<String>();
-			for (int iDir = 0; iDir < 3; iDir++) {
-				File baseDir = null;
-				switch (iDir) {
-					case 0:
-						baseDir = userDir;
-						break;
-					case 1:
-						baseDir = systemDir;
-						break;
-					case 2:
-						baseDir = sharedDir;
-						break;
-				}
-				if (baseDir != null) {
-					File dir = new File(baseDir, dirPath);
-					if (dir.exists())
-						ret.addAll(listFiles(dir, jseFilenameFilter));
-				}
+			for (int iLayer = 0; iLayer < layers.length; iLayer++) {
+				if (existsInLayer(iLayer, dirPath))
+					ret.addAll(listFiles(new File(layers[iLayer], dirPath), jseFilenameFilter));
 			}
 			return alist(ret);
 		}
@@ -240,8 +291,13 @@ public class FilesIO
 			return Collections.<String>emptyList();
 	}
 	
-	@Override public void listDirectoriesAsync(String dirPath, AsyncResult<List<String>> dirNames) {
-		dirNames.onSuccess(listDirectories(dirPath));
+	@Override public void listDirectoriesAsync(final String dirPath, AsyncResult<List<String>> dirNames) {
+		asyncExecutor.execute(new Callable<List<String>>() {
+
+			@Override public List<String> call() {
+				return listDirectories(dirPath);
+			}
+		}, dirNames);
 	}
 
 	/**
@@ -256,24 +312,9 @@ public class FilesIO
 		else {
 			//relative path
 			Set<String> ret = new HashSet<String>();
-			for (int iDir = 0; iDir < 3; iDir++) {
-				File baseDir = null;
-				switch (iDir) {
-					case 0:
-						baseDir = userDir;
-						break;
-					case 1:
-						baseDir = systemDir;
-						break;
-					case 2:
-						baseDir = sharedDir;
-						break;
-				}
-				if (baseDir != null) {
-					File dir = new File(baseDir, dirPath);
-					if (dir.exists())
-						ret.addAll(listDirectories(dir));
-				}
+			for (int iLayer = 0; iLayer < layers.length; iLayer++) {
+				if (existsInLayer(iLayer, dirPath))
+					ret.addAll(listDirectories(new File(layers[iLayer], dirPath)));
 			}
 			return alist(ret);
 		}
@@ -293,12 +334,14 @@ public class FilesIO
 		}
 	}
 
-	@Override public void openFileAsync(String filePath, AsyncResult<InputStream> inputStream) {
-		try {
-			inputStream.onSuccess(openFile(filePath));
-		} catch (IOException ex) {
-			inputStream.onFailure(ex);
-		}
+	@Override public void openFileAsync(final String filePath, AsyncResult<InputStream> inputStream) {
+		asyncExecutor.execute(new Callable<InputStream>() {
+
+			@Override public InputStream call()
+				throws IOException {
+				return openFile(filePath);
+			}
+		}, inputStream);
 	}
 	
 	/**
@@ -331,30 +374,51 @@ public class FilesIO
 		}
 		else {
 			//relative path
-			file = new File(userDir, filePath);
-			if (!file.exists())
-				file = new File(systemDir, filePath);
-			if (!file.exists() && sharedDir != null)
-				file = new File(sharedDir, filePath);
-			if (file.exists())
-				return file;
-			else
-				return null;
+			return findFileInLayers(filePath);
+		}
+	}
+	
+	/**
+	 * Gets the file at the given relative path in the first directory where it exists,
+	 * or null if it exists in no directory.
+	 */
+	private File findFileInLayers(String filePath) {
+		int layer = findLayer(filePath, false);
+		return (layer > -1 ? new File(layers[layer], filePath) : null);
+	}
+	
+	/**
+	 * Gets the index of the first directory where the given relative path exists
+	 * (and is a directory, if requested), or -1 if there is no such directory.
+	 */
+	private int findLayer(String path, boolean directory) {
+		if (resolutionCache != null)
+			return (directory ? resolutionCache.findDirectoryLayer(path) : resolutionCache.findLayer(path));
+		for (int i = 0; i < layers.length; i++) {
+			if (layers[i] != null) {
+				File file = new File(layers[i], path);
+				if (file.exists() && (false == directory || file.isDirectory()))
+					return i;
+			}
 		}
+		return -1;
+	}
+	
+	/**
+	 * Returns true, if the given relative path exists in the directory with the given index.
+	 */
+	private boolean existsInLayer(int layer, String path) {
+		if (resolutionCache != null)
+			return resolutionCache.exists(layer, path);
+		return layers[layer] != null && new File(layers[layer], path).exists();
 	}
 	
 	/**
 	 * Gets the modification date of the given file, or null, if the date is unavailable.
 	 */
 	public Date getFileModificationDate(String filePath) {
-		File file = new File(userDir, filePath);
-		if (!file.exists()) {
-			file = new File(systemDir, filePath);
-		}
-		if (!file.exists() && sharedDir != null) {
-			file = new File(sharedDir, filePath);
-		}
-		if (file.exists()) {
+		File file = findFileInLayers(filePath);
+		if (file != null) {
 			return new Date(file.lastModified());
 		}
 		else {
@@ -369,8 +433,11 @@ public class FilesIO
 	 */
 	public File createFile(String filePath) {
 		File file = new File(filePath);
-		if (false == file.isAbsolute())
+		if (false == file.isAbsolute()) {
 			file = new File(userDir, filePath);
+			//the file is usually written soon, so it will exist in the user directory
+			invalidateResolutionCache(filePath);
+		}
 		//create the parent directory on demand
 		File parent = file.getParentFile();
 		if (parent != null && !parent.exists()) {
@@ -404,6 +471,7 @@ public class FilesIO
 				if (file.exists())
 					file.delete();
 			}
+			invalidateResolutionCache(filePath);
 		}
 	}
 
@@ -18,6 +18,8 @@ import java.util.regex.Matcher;
 import com.xenoage.utils.io.FileUtils;
 import com.xenoage.utils.jse.OSUtils;
 import com.xenoage.utils.jse.OSUtils.OS;
+import com.xenoage.utils.jse.security.DigestAlgorithm;
+import com.xenoage.utils.jse.security.Digests;
 import com.xenoage.utils.kernel.Tuple2;
 
 /**
@@ -221,20 +223,21 @@ public class JseFileUtils {
 	 */
 	public static void copyFile(String in, String out) {
 		try {
-			FileInputStream fis = new FileInputStream(in);
-			FileOutputStream fos = new FileOutputStream(out);
-			byte[] buf = new byte[1024];
-			int i = 0;
-			while ((i = fis.read(buf)) != -1) {
-				fos.write(buf, 0, i);
-			}
-			fis.close();
-			fos.close();
+			Digests.copy(new File(in), new File(out), null);
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
 	}
 
+	/**
+	 * Copies a file and returns the digest of its content
+	 * as a lowercase hexadecimal string. The file is read only once.
+	 */
+	public static String copyFile(File in, File out, DigestAlgorithm digestAlgorithm)
+		throws IOException {
+		return Digests.copyAndDigest(in, out, digestAlgorithm);
+	}
+
 	/**
 	 * Copies the given file into the given {@link OutputStream},
 	 * which is closed at the end.
@@ -23,7 +23,8 @@ import com.xenoage.utils.jse.zip.ZipUtils;
  * 
  * Currently, the data is stored in the main memory.
  * For bigger files this may be undesirable, so an extraction to
- * a temporary directory may be better. See {@link ZipUtils} in this case.
+ * a temporary directory may be better. See {@link ZipUtils} in this case,
+ * or use the {@link LazyZipReader}, which decompresses the files on demand.
  * 
  * @author Andreas Wenger
  */
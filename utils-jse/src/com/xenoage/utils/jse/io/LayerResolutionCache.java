@@ -0,0 +1,260 @@
+package com.xenoage.utils.jse.io;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.xenoage.utils.io.FileUtils;
+
+/**
+ * Cache for the resolution of relative paths within layered directories,
+ * like the user, system and shared directory of the {@link FilesIO}.
+ * 
+ * For each queried path, the cache remembers in which layers it exists
+ * and in which layers it is a directory. Negative results are cached too.
+ * 
+ * When possible, the directories containing the cached paths are watched
+ * by a {@link WatchService}, and the affected entries are evicted
+ * when items are created or deleted in these directories.
+ * Since the notifications arrive asynchronously, changes made by this program
+ * should be reported by calling {@link #invalidate(String)}.
+ * 
+ * This class is thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+class LayerResolutionCache {
+
+	private static final int exists = 1;
+	private static final int directory = 2;
+
+	//the layers, from the highest to the lowest priority. may contain null values
+	private final File[] layers;
+	//cached flags for each layer, by normalized relative path
+	private final Map<String, int[]> entries = new ConcurrentHashMap<String, int[]>();
+	//incremented before entries are evicted, so that resolutions which
+	//read the filesystem concurrently can detect that their result may be stale
+	private final AtomicInteger generation = new AtomicInteger();
+	//watched directories, as paths relative to their layer
+	private final Map<WatchKey, String> watchedDirs = new ConcurrentHashMap<WatchKey, String>();
+	private WatchService watchService = null;
+
+
+	/**
+	 * Creates a cache for the given layers, from the highest to the lowest priority.
+	 * Null values are allowed for missing layers.
+	 */
+	public LayerResolutionCache(File... layers) {
+		this.layers = layers;
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+		} catch (IOException ex) {
+			//not supported on this filesystem. invalidation only by invalidate
+		} catch (UnsupportedOperationException ex) {
+			//same as above
+		}
+		if (watchService != null) {
+			Thread thread = new Thread(new Runnable() {
+
+				@Override public void run() {
+					watch();
+				}
+			}, "LayerResolutionCache watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Gets the index of the first layer where the given relative path exists,
+	 * or -1 if it exists in no layer.
+	 */
+	public int findLayer(String path) {
+		return findLayer(path, exists);
+	}
+
+	/**
+	 * Gets the index of the first layer where the given relative path
+	 * is an existing directory, or -1 if there is no such layer.
+	 */
+	public int findDirectoryLayer(String path) {
+		return findLayer(path, directory);
+	}
+
+	/**
+	 * Returns true, if the given relative path exists in the layer with the given index.
+	 */
+	public boolean exists(int layer, String path) {
+		return (resolve(path)[layer] & exists) != 0;
+	}
+
+	/**
+	 * Removes the given relative path and all paths below it from the cache.
+	 */
+	public void invalidate(String path) {
+		evict(normalize(path));
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public void clear() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	/**
+	 * Stops watching the directories. The cache can still be used,
+	 * but is only invalidated by {@link #invalidate(String)} and {@link #clear()}.
+	 */
+	public void close() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException ex) {
+				//ignore
+			}
+		}
+	}
+
+	private int findLayer(String path, int flag) {
+		int[] flags = resolve(path);
+		for (int i = 0; i < flags.length; i++)
+			if ((flags[i] & flag) != 0)
+				return i;
+		return -1;
+	}
+
+	private int[] resolve(String path) {
+		String key = normalize(path);
+		int[] flags = entries.get(key);
+		if (flags == null) {
+			int startGeneration = generation.get();
+			//watch before the filesystem is read, so that no change is missed
+			watch(key);
+			flags = new int[layers.length];
+			for (int i = 0; i < layers.length; i++) {
+				if (layers[i] != null) {
+					File file = new File(layers[i], key);
+					if (file.exists())
+						flags[i] = exists | (file.isDirectory() ? directory : 0);
+				}
+			}
+			entries.put(key, flags);
+			//when entries were evicted in the meantime, the result may be outdated already.
+			//it is still returned to the caller, but not kept in the cache
+			if (generation.get() != startGeneration)
+				entries.remove(key);
+		}
+		return flags;
+	}
+
+	/**
+	 * Normalizes the given relative path: only "/" as delimiter,
+	 * no leading or trailing "/".
+	 */
+	private static String normalize(String path) {
+		path = FileUtils.cleanPath(path);
+		int start = 0, end = path.length();
+		while (start < end && path.charAt(start) == '/')
+			start++;
+		while (end > start && path.charAt(end - 1) == '/')
+			end--;
+		return path.substring(start, end);
+	}
+
+	/**
+	 * Registers the parent directory of the given relative path in each layer
+	 * at the {@link WatchService}. If it does not exist, the nearest existing
+	 * ancestor within the layer is watched instead, since the creation of the
+	 * missing directories will be reported there.
+	 */
+	private void watch(String key) {
+		if (watchService == null)
+			return;
+		for (File layer : layers) {
+			if (layer == null)
+				continue;
+			String dir = key;
+			while (true) {
+				int slashPos = dir.lastIndexOf('/');
+				dir = (slashPos > -1 ? dir.substring(0, slashPos) : "");
+				File file = (dir.length() > 0 ? new File(layer, dir) : layer);
+				if (file.isDirectory()) {
+					try {
+						watchedDirs.put(file.toPath().register(watchService, ENTRY_CREATE, ENTRY_DELETE), dir);
+					} catch (IOException ex) {
+						//can not watch this directory
+					}
+					break;
+				}
+				if (dir.length() == 0)
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Waits for events of the {@link WatchService} and evicts the affected entries,
+	 * until the {@link WatchService} is closed.
+	 */
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				String dir = watchedDirs.get(key);
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == OVERFLOW || dir == null) {
+						//events were lost
+						clear();
+					}
+					else {
+						String name = ((Path) event.context()).toString();
+						evict(dir.length() > 0 ? dir + "/" + name : name);
+					}
+				}
+				if (false == key.reset()) {
+					//directory is not accessible any more
+					watchedDirs.remove(key);
+					if (dir != null)
+						evict(dir);
+				}
+			}
+		} catch (ClosedWatchServiceException ex) {
+			//finished
+		} catch (InterruptedException ex) {
+			//finished
+		}
+	}
+
+	/**
+	 * Removes the given normalized relative path and all paths below it from the cache.
+	 */
+	private void evict(String key) {
+		if (key.length() == 0) {
+			clear();
+			return;
+		}
+		generation.incrementAndGet();
+		String prefix = key + "/";
+		for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+			String path = it.next();
+			if (path.equals(key) || path.startsWith(prefix))
+				it.remove();
+		}
+	}
+
+}
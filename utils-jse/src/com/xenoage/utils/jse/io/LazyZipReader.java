@@ -0,0 +1,371 @@
+package com.xenoage.utils.jse.io;
+
+import static com.xenoage.utils.collections.CList.clist;
+import static com.xenoage.utils.collections.CollectionUtils.map;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.xenoage.utils.collections.CList;
+import com.xenoage.utils.collections.IList;
+import com.xenoage.utils.io.FileNotFoundException;
+import com.xenoage.utils.io.InputStream;
+import com.xenoage.utils.io.ZipReader;
+
+/**
+ * Java SE implementation of a {@link ZipReader}, which reads only the
+ * central directory of the ZIP file when it is opened.
+ * 
+ * The entries are decompressed on demand, when they are opened,
+ * and directly streamed from the underlying buffer. This buffer is
+ * either a memory mapped file (see {@link #open(File, int)}) or contains
+ * the compressed ZIP data (see {@link #read(java.io.InputStream, int)}).
+ * 
+ * Optionally, the data of recently opened entries is cached,
+ * up to a given total number of bytes.
+ * 
+ * Only the deflate and the store compression methods are supported.
+ * ZIP64 archives and archives larger than 2 GB are rejected with an
+ * {@link IOException}; use the {@link JseZipReader} for them.
+ * Archives with leading data, like self-extracting archives, are supported.
+ * 
+ * This class is thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public class LazyZipReader
+	implements ZipReader {
+
+	private static final int localHeaderSignature = 0x04034b50;
+	private static final int centralHeaderSignature = 0x02014b50;
+	private static final int endSignature = 0x06054b50;
+	private static final int endSize = 22;
+	private static final int stored = 0, deflated = 8;
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	/**
+	 * Information about a file in the archive, from the central directory.
+	 */
+	private static final class Entry {
+		int method;
+		int compressedSize;
+		int size;
+		int localHeaderPos;
+	}
+
+	private ByteBuffer buffer;
+	private final IList<String> files;
+	private final Map<String, Entry> entries;
+	//cache of decompressed data, in access order
+	private final int cacheSize;
+	private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+	private int cachedBytes = 0;
+
+
+	/**
+	 * Opens the given ZIP file by mapping it into memory.
+	 * @param cacheSize  maximum number of bytes of decompressed data which is cached,
+	 *                   or 0 to disable caching
+	 */
+	public static LazyZipReader open(File file, int cacheSize)
+		throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("ZIP files larger than 2 GB are not supported");
+			return new LazyZipReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), cacheSize);
+		} finally {
+			//the mapping stays valid when the channel is closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the ZIP file from the given stream. Only the compressed data
+	 * is held in memory.
+	 * @param cacheSize  maximum number of bytes of decompressed data which is cached,
+	 *                   or 0 to disable caching
+	 */
+	public static LazyZipReader read(java.io.InputStream in, int cacheSize)
+		throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		byte[] buf = new byte[8192];
+		int n;
+		while ((n = in.read(buf)) > -1)
+			data.write(buf, 0, n);
+		in.close();
+		return new LazyZipReader(ByteBuffer.wrap(data.toByteArray()), cacheSize);
+	}
+
+	/**
+	 * Creates a reader for the ZIP file in the given buffer, from its position to its limit.
+	 * @param cacheSize  maximum number of bytes of decompressed data which is cached,
+	 *                   or 0 to disable caching
+	 */
+	public LazyZipReader(ByteBuffer buffer, int cacheSize)
+		throws IOException {
+		this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		this.cacheSize = cacheSize;
+		//find end of central directory record. it is followed by a comment
+		//of up to 65535 bytes
+		ByteBuffer b = this.buffer;
+		int endPos = -1;
+		for (int pos = b.limit() - endSize; pos >= 0 && pos >= b.limit() - endSize - 0xffff; pos--) {
+			if (b.getInt(pos) == endSignature) {
+				endPos = pos;
+				break;
+			}
+		}
+		if (endPos == -1)
+			throw new IOException("No ZIP file");
+		int entriesCount = b.getShort(endPos + 10) & 0xffff;
+		long dirSize = getUnsignedInt(b, endPos + 12);
+		long dirPos = getUnsignedInt(b, endPos + 16);
+		if (entriesCount == 0xffff || dirSize == 0xffffffffL || dirPos == 0xffffffffL)
+			throw new IOException("ZIP64 is not supported");
+		//the offsets in the archive are relative to its start. when there is leading data,
+		//like in self-extracting archives, the central directory is found at a later position,
+		//directly before the end record
+		long offset = endPos - dirSize - dirPos;
+		if (offset < 0)
+			throw new IOException("Invalid central directory");
+		int pos = (int) (offset + dirPos);
+		//read central directory
+		CList<String> files = clist();
+		Map<String, Entry> entries = map();
+		for (int i = 0; i < entriesCount; i++) {
+			if (pos < 0 || pos + 46 > b.limit() || b.getInt(pos) != centralHeaderSignature)
+				throw new IOException("Invalid central directory");
+			Entry entry = new Entry();
+			entry.method = b.getShort(pos + 10) & 0xffff;
+			long compressedSize = getUnsignedInt(b, pos + 20);
+			long size = getUnsignedInt(b, pos + 24);
+			int nameLength = b.getShort(pos + 28) & 0xffff;
+			int extraLength = b.getShort(pos + 30) & 0xffff;
+			int commentLength = b.getShort(pos + 32) & 0xffff;
+			long localHeaderPos = getUnsignedInt(b, pos + 42);
+			if (compressedSize == 0xffffffffL || size == 0xffffffffL || localHeaderPos == 0xffffffffL)
+				throw new IOException("ZIP64 is not supported");
+			//the whole archive fits into the buffer, so larger values are invalid
+			localHeaderPos += offset;
+			if (compressedSize > b.limit() || localHeaderPos > b.limit())
+				throw new IOException("Invalid central directory");
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("Files larger than 2 GB are not supported");
+			entry.compressedSize = (int) compressedSize;
+			entry.size = (int) size;
+			entry.localHeaderPos = (int) localHeaderPos;
+			byte[] name = new byte[nameLength];
+			ByteBuffer nameBuffer = b.duplicate();
+			nameBuffer.position(pos + 46);
+			nameBuffer.get(name);
+			String entryName = new String(name, utf8);
+			if (false == entryName.endsWith("/")) {
+				files.add(entryName);
+				entries.put(entryName, entry);
+			}
+			pos += 46 + nameLength + extraLength + commentLength;
+		}
+		this.files = files.close();
+		this.entries = entries;
+	}
+
+	@Override public List<String> getFiles() {
+		return files;
+	}
+
+	@Override public InputStream openFile(String file)
+		throws FileNotFoundException {
+		Entry entry = entries.get(file);
+		if (entry == null)
+			throw new FileNotFoundException(file);
+		try {
+			//cached data
+			synchronized (cache) {
+				byte[] data = cache.get(file);
+				if (data != null)
+					return new JseInputStream(new ByteArrayInputStream(data));
+			}
+			java.io.InputStream stream = openStream(entry);
+			//read and cache the entry, if it is small enough
+			if (entry.size <= cacheSize) {
+				byte[] data = readFully(stream, entry.size);
+				putCache(file, data);
+				return new JseInputStream(new ByteArrayInputStream(data));
+			}
+			return new JseInputStream(stream);
+		} catch (IOException ex) {
+			throw new FileNotFoundException(file + ": " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the decompressed size of the given file in bytes.
+	 */
+	public int getSize(String file)
+		throws FileNotFoundException {
+		Entry entry = entries.get(file);
+		if (entry == null)
+			throw new FileNotFoundException(file);
+		return entry.size;
+	}
+
+	@Override public void close() {
+		//a mapped buffer is unmapped, as soon as it is garbage collected
+		synchronized (cache) {
+			cache.clear();
+			cachedBytes = 0;
+		}
+	}
+
+	/**
+	 * Opens a stream for reading the decompressed data of the given entry.
+	 */
+	private java.io.InputStream openStream(Entry entry)
+		throws IOException {
+		ByteBuffer b = buffer;
+		int pos = entry.localHeaderPos;
+		if (pos < 0 || pos + 30 > b.limit() || b.getInt(pos) != localHeaderSignature)
+			throw new IOException("Invalid local header");
+		int dataPos = pos + 30 + (b.getShort(pos + 26) & 0xffff) + (b.getShort(pos + 28) & 0xffff);
+		if ((long) dataPos + entry.compressedSize > b.limit())
+			throw new IOException("Truncated entry");
+		ByteBuffer data = b.duplicate();
+		data.position(dataPos);
+		data.limit(dataPos + entry.compressedSize);
+		if (entry.method == stored) {
+			return new ByteBufferInputStream(data);
+		}
+		else if (entry.method == deflated) {
+			final Inflater inflater = new Inflater(true);
+			//the extra byte is required by the inflater when reading raw deflate data
+			return new InflaterInputStream(new ByteBufferInputStream(data, 1), inflater,
+				Math.max(512, Math.min(8192, entry.compressedSize + 1))) {
+
+				private boolean closed = false;
+
+				@Override public void close()
+					throws IOException {
+					if (false == closed) {
+						closed = true;
+						inflater.end();
+						super.close();
+					}
+				}
+			};
+		}
+		else {
+			throw new IOException("Unsupported compression method: " + entry.method);
+		}
+	}
+
+	private static long getUnsignedInt(ByteBuffer b, int pos) {
+		return b.getInt(pos) & 0xffffffffL;
+	}
+
+	private static byte[] readFully(java.io.InputStream stream, int size)
+		throws IOException {
+		byte[] ret = new byte[size];
+		int pos = 0;
+		while (pos < size) {
+			int n = stream.read(ret, pos, size - pos);
+			if (n == -1)
+				throw new EOFException();
+			pos += n;
+		}
+		stream.close();
+		return ret;
+	}
+
+	private void putCache(String file, byte[] data) {
+		synchronized (cache) {
+			if (cache.containsKey(file))
+				return;
+			cache.put(file, data);
+			cachedBytes += data.length;
+			//remove least recently used entries
+			Iterator<byte[]> it = cache.values().iterator();
+			while (cachedBytes > cacheSize && it.hasNext()) {
+				cachedBytes -= it.next().length;
+				it.remove();
+			}
+		}
+	}
+
+
+	/**
+	 * {@link java.io.InputStream} for the remaining bytes of a {@link ByteBuffer},
+	 * optionally followed by some zero bytes.
+	 */
+	private static final class ByteBufferInputStream
+		extends java.io.InputStream {
+
+		private final ByteBuffer buffer;
+		private int padding;
+
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this(buffer, 0);
+		}
+
+		ByteBufferInputStream(ByteBuffer buffer, int padding) {
+			this.buffer = buffer;
+			this.padding = padding;
+		}
+
+		@Override public int read() {
+			if (buffer.hasRemaining())
+				return buffer.get() & 0xff;
+			if (padding > 0) {
+				padding--;
+				return 0;
+			}
+			return -1;
+		}
+
+		@Override public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			int remaining = buffer.remaining();
+			if (remaining == 0) {
+				if (padding == 0)
+					return -1;
+				int n = Math.min(len, padding);
+				for (int i = 0; i < n; i++)
+					b[off + i] = 0;
+				padding -= n;
+				return n;
+			}
+			int n = Math.min(len, remaining);
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override public long skip(long n) {
+			int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override public int available() {
+			return buffer.remaining() + padding;
+		}
+
+	}
+
+}
@@ -0,0 +1,309 @@
+package com.xenoage.utils.jse.io.index;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import com.xenoage.utils.io.Directory;
+import com.xenoage.utils.io.FilesystemItem;
+import com.xenoage.utils.io.index.FilesystemIndex;
+import com.xenoage.utils.io.index.IndexedFile;
+import com.xenoage.utils.jse.io.JseStreamUtils;
+
+/**
+ * {@link FilesystemIndex} which is read directly from a binary index file,
+ * usually mapped into memory.
+ * 
+ * In contrast to the XML index file (see {@link com.xenoage.utils.io.index.FilesystemIndexReader}),
+ * nothing has to be parsed and no tree of items is built when the index is opened.
+ * All queries are answered from the buffer. Only the returned {@link FilesystemItem}s
+ * are created on demand.
+ * 
+ * Binary index files are created by the {@link MappedFilesystemIndexWriter}.
+ * The format is as follows (all values big endian):
+ * <pre>
+ * header:
+ *   int     magic number {@value #magic}
+ *   int     version {@value #version}
+ *   int     number of nodes
+ *   int     byte offset of the string table
+ *   int     length of the string table in chars
+ * nodes (28 bytes each), node 0 is the root directory:
+ *   int     start of the name in the string table (in chars)
+ *   int     length of the name (in chars)
+ *   int     type: 0 = file, 1 = directory
+ *   int     index of the first child node (directories only)
+ *   int     number of child nodes (directories only)
+ *   long    size in bytes (files only), -1 if unknown
+ * string table:
+ *   char[]  UTF-16 code units of all names
+ * </pre>
+ * The children of a directory are stored in consecutive nodes, sorted by their names,
+ * so each path element is found by a binary search.
+ * 
+ * Instances of this class are thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public class MappedFilesystemIndex
+	extends FilesystemIndex {
+
+	/** The name of the binary index file. */
+	public static final String indexFile = FilesystemIndex.indexFile + ".bin";
+
+	public static final int magic = 0x58494458; //"XIDX"
+	public static final int version = 1;
+
+	static final int headerSize = 20;
+	static final int nodeSize = 28;
+	static final int typeFile = 0;
+	static final int typeDirectory = 1;
+
+	//offsets within a node
+	private static final int nameStartOffset = 0;
+	private static final int nameLengthOffset = 4;
+	private static final int typeOffset = 8;
+	private static final int firstChildOffset = 12;
+	private static final int childrenCountOffset = 16;
+	private static final int sizeOffset = 20;
+
+	private final ByteBuffer buffer;
+	private final CharBuffer names;
+	private final int nodesCount;
+
+
+	/**
+	 * Maps the given binary index file into memory and returns the index.
+	 */
+	public static MappedFilesystemIndex map(File file)
+		throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			//the mapping stays valid after the channel is closed
+			return new MappedFilesystemIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the binary index from the given stream, e.g. for resources
+	 * within a JAR file which can not be mapped into memory.
+	 * The data is read in a single buffer, without parsing it.
+	 * The stream is closed afterwards.
+	 */
+	public static MappedFilesystemIndex read(InputStream stream)
+		throws IOException {
+		try {
+			return new MappedFilesystemIndex(ByteBuffer.wrap(JseStreamUtils.readToByteArray(stream)));
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Creates an index backed by the given buffer, which contains
+	 * the content of a binary index file.
+	 */
+	public MappedFilesystemIndex(ByteBuffer buffer)
+		throws IOException {
+		this.buffer = buffer;
+		if (buffer.capacity() < headerSize || buffer.getInt(0) != magic)
+			throw new IOException("No binary file index");
+		if (buffer.getInt(4) != version)
+			throw new IOException("Unsupported version of binary file index: " + buffer.getInt(4));
+		this.nodesCount = buffer.getInt(8);
+		int namesOffset = buffer.getInt(12);
+		int namesLength = buffer.getInt(16);
+		if (nodesCount < 1 || headerSize + nodesCount * nodeSize > namesOffset ||
+			namesOffset + namesLength * 2 > buffer.capacity())
+			throw new IOException("Corrupt binary file index");
+		ByteBuffer namesBuffer = buffer.duplicate();
+		namesBuffer.position(namesOffset);
+		this.names = namesBuffer.slice().asCharBuffer();
+	}
+
+	@Override public FilesystemItem findItem(CharSequence path) {
+		int node = findNode(path);
+		return (node > -1 ? createItem(node) : null);
+	}
+
+	@Override public boolean existsFile(CharSequence filePath) {
+		int node = findNode(filePath);
+		return node > -1 && getType(node) == typeFile;
+	}
+
+	@Override public boolean existsDirectory(CharSequence dirPath) {
+		int node = findNode(dirPath);
+		return node > -1 && getType(node) == typeDirectory;
+	}
+
+	@Override public List<com.xenoage.utils.io.File> listFiles(String dirPath) {
+		List<com.xenoage.utils.io.File> ret = alist();
+		int node = findNode(dirPath);
+		if (node > -1 && getType(node) == typeDirectory) {
+			int first = getInt(node, firstChildOffset);
+			int count = getInt(node, childrenCountOffset);
+			for (int child = first; child < first + count; child++)
+				if (getType(child) == typeFile)
+					ret.add(createFile(child));
+		}
+		return ret;
+	}
+
+	@Override public List<Directory> listDirectories(String dirPath) {
+		List<Directory> ret = alist();
+		int node = findNode(dirPath);
+		if (node > -1 && getType(node) == typeDirectory) {
+			int first = getInt(node, firstChildOffset);
+			int count = getInt(node, childrenCountOffset);
+			for (int child = first; child < first + count; child++)
+				if (getType(child) == typeDirectory)
+					ret.add(new MappedDirectory(child));
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the index of the node at the given path, or -1 if not found.
+	 * The same rules as in {@link FilesystemIndex#findItem(CharSequence)} apply.
+	 */
+	private int findNode(CharSequence path) {
+		//ignore leading and trailing whitespace
+		int start = 0, end = path.length();
+		while (start < end && path.charAt(start) <= ' ')
+			start++;
+		while (end > start && path.charAt(end - 1) <= ' ')
+			end--;
+		//resolve name after name, beginning at the root node
+		int node = 0;
+		int nameStart = start;
+		while (nameStart < end) {
+			int nameEnd = nameStart;
+			while (nameEnd < end && path.charAt(nameEnd) != '/' && path.charAt(nameEnd) != '\\')
+				nameEnd++;
+			//empty names (leading, trailing or double delimiters) are ignored
+			if (nameEnd > nameStart) {
+				if (getType(node) != typeDirectory)
+					return -1;
+				node = findChildNode(node, path, nameStart, nameEnd);
+				if (node == -1)
+					return -1;
+			}
+			nameStart = nameEnd + 1;
+		}
+		return node;
+	}
+
+	/**
+	 * Binary search for the child of the given directory node with the
+	 * given name. Returns its node index or -1 if not found.
+	 */
+	private int findChildNode(int dirNode, CharSequence s, int start, int end) {
+		int low = getInt(dirNode, firstChildOffset);
+		int high = low + getInt(dirNode, childrenCountOffset) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int compare = compareName(mid, s, start, end);
+			if (compare < 0)
+				low = mid + 1;
+			else if (compare > 0)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares the name of the given node with the given region of the
+	 * given {@link CharSequence} like {@link String#compareTo(String)}.
+	 */
+	private int compareName(int node, CharSequence s, int start, int end) {
+		int nameStart = getInt(node, nameStartOffset);
+		int nameLength = getInt(node, nameLengthOffset);
+		int length = end - start;
+		int minLength = Math.min(nameLength, length);
+		for (int i = 0; i < minLength; i++) {
+			char c1 = names.get(nameStart + i);
+			char c2 = s.charAt(start + i);
+			if (c1 != c2)
+				return c1 - c2;
+		}
+		return nameLength - length;
+	}
+
+	private FilesystemItem createItem(int node) {
+		if (getType(node) == typeFile)
+			return createFile(node);
+		else
+			return new MappedDirectory(node);
+	}
+
+	private IndexedFile createFile(int node) {
+		long size = buffer.getLong(nodeOffset(node) + sizeOffset);
+		return new IndexedFile(getName(node), (size > -1 ? size : null));
+	}
+
+	private String getName(int node) {
+		int nameStart = getInt(node, nameStartOffset);
+		int nameLength = getInt(node, nameLengthOffset);
+		char[] chars = new char[nameLength];
+		for (int i = 0; i < nameLength; i++)
+			chars[i] = names.get(nameStart + i);
+		return new String(chars);
+	}
+
+	private int getType(int node) {
+		return getInt(node, typeOffset);
+	}
+
+	private int getInt(int node, int offset) {
+		return buffer.getInt(nodeOffset(node) + offset);
+	}
+
+	private int nodeOffset(int node) {
+		if (node < 0 || node >= nodesCount)
+			throw new IllegalStateException("Corrupt binary file index: node " + node);
+		return headerSize + node * nodeSize;
+	}
+
+
+	/**
+	 * A directory within the {@link MappedFilesystemIndex}.
+	 * The children are created when requested.
+	 */
+	private class MappedDirectory
+		implements Directory {
+
+		private final int node;
+
+
+		public MappedDirectory(int node) {
+			this.node = node;
+		}
+
+		@Override public String getName() {
+			return MappedFilesystemIndex.this.getName(node);
+		}
+
+		@Override public List<FilesystemItem> getChildren() {
+			int first = getInt(node, firstChildOffset);
+			int count = getInt(node, childrenCountOffset);
+			List<FilesystemItem> ret = alist(count);
+			for (int child = first; child < first + count; child++)
+				ret.add(createItem(child));
+			return ret;
+		}
+
+	}
+
+}
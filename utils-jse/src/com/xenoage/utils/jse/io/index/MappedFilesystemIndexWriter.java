@@ -0,0 +1,156 @@
+package com.xenoage.utils.jse.io.index;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+import static com.xenoage.utils.collections.CollectionUtils.map;
+import static com.xenoage.utils.jse.io.index.MappedFilesystemIndex.headerSize;
+import static com.xenoage.utils.jse.io.index.MappedFilesystemIndex.magic;
+import static com.xenoage.utils.jse.io.index.MappedFilesystemIndex.nodeSize;
+import static com.xenoage.utils.jse.io.index.MappedFilesystemIndex.typeDirectory;
+import static com.xenoage.utils.jse.io.index.MappedFilesystemIndex.typeFile;
+import static com.xenoage.utils.jse.io.index.MappedFilesystemIndex.version;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.xenoage.utils.io.Directory;
+import com.xenoage.utils.io.FilesystemItem;
+import com.xenoage.utils.io.index.FilesystemIndex;
+import com.xenoage.utils.io.index.FilesystemIndexReader;
+import com.xenoage.utils.jse.xml.JseXmlReader;
+
+/**
+ * Writes a {@link FilesystemIndex} as a binary index file,
+ * which can be read by the {@link MappedFilesystemIndex}.
+ * 
+ * Usually, the binary file is created from the XML index file at build time,
+ * e.g. by calling the {@link #main(String...)} method.
+ * 
+ * @author Andreas Wenger
+ */
+public class MappedFilesystemIndexWriter {
+
+	private static final Comparator<FilesystemItem> nameComparator = new Comparator<FilesystemItem>() {
+
+		@Override public int compare(FilesystemItem item1, FilesystemItem item2) {
+			return item1.getName().compareTo(item2.getName());
+		}
+	};
+
+	//all nodes in the order they are written
+	private List<FilesystemItem> nodes = alist();
+	//for each directory node: index of the first child node
+	private Map<Integer, Integer> firstChildren = map();
+	//string table
+	private StringBuilder names = new StringBuilder();
+	private Map<String, Integer> nameStarts = map();
+
+
+	/**
+	 * Converts the given XML index file into the given binary index file.
+	 * Call with the paths of the XML index file and the binary index file.
+	 */
+	public static void main(String... args)
+		throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: " + MappedFilesystemIndexWriter.class.getSimpleName() +
+				" <XML index file> <binary index file>");
+			return;
+		}
+		convert(new File(args[0]), new File(args[1]));
+	}
+
+	/**
+	 * Converts the given XML index file into the given binary index file.
+	 */
+	public static void convert(File xmlIndexFile, File binaryIndexFile)
+		throws IOException {
+		FilesystemIndex index = FilesystemIndexReader.read(
+			new JseXmlReader(new FileInputStream(xmlIndexFile)));
+		OutputStream out = new FileOutputStream(binaryIndexFile);
+		try {
+			write(index, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the given index into the given stream.
+	 * The stream is flushed, but not closed.
+	 */
+	public static void write(FilesystemIndex index, OutputStream out)
+		throws IOException {
+		new MappedFilesystemIndexWriter().writeIndex(index.findDirectory(""), out);
+	}
+
+	private void writeIndex(Directory root, OutputStream out)
+		throws IOException {
+		//collect the nodes breadth-first, so that the children
+		//of each directory are stored in consecutive nodes
+		nodes.add(root);
+		addName(root.getName());
+		for (int iNode = 0; iNode < nodes.size(); iNode++) {
+			FilesystemItem item = nodes.get(iNode);
+			if (item instanceof Directory) {
+				firstChildren.put(iNode, nodes.size());
+				ArrayList<FilesystemItem> children = new ArrayList<FilesystemItem>(
+					((Directory) item).getChildren());
+				Collections.sort(children, nameComparator);
+				for (FilesystemItem child : children) {
+					nodes.add(child);
+					addName(child.getName());
+				}
+			}
+		}
+		//write header
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(magic);
+		data.writeInt(version);
+		data.writeInt(nodes.size());
+		data.writeInt(headerSize + nodes.size() * nodeSize);
+		data.writeInt(names.length());
+		//write nodes
+		for (int iNode = 0; iNode < nodes.size(); iNode++) {
+			FilesystemItem item = nodes.get(iNode);
+			data.writeInt(nameStarts.get(item.getName()));
+			data.writeInt(item.getName().length());
+			if (item instanceof Directory) {
+				data.writeInt(typeDirectory);
+				data.writeInt(firstChildren.get(iNode));
+				data.writeInt(((Directory) item).getChildren().size());
+				data.writeLong(-1);
+			}
+			else {
+				Long size = ((com.xenoage.utils.io.File) item).getSizeInBytes();
+				data.writeInt(typeFile);
+				data.writeInt(0);
+				data.writeInt(0);
+				data.writeLong(size != null ? size : -1);
+			}
+		}
+		//write string table
+		data.writeChars(names.toString());
+		data.flush();
+	}
+
+	/**
+	 * Adds the given name to the string table, if not already there.
+	 */
+	private void addName(String name) {
+		if (false == nameStarts.containsKey(name)) {
+			nameStarts.put(name, names.length());
+			names.append(name);
+		}
+	}
+
+}
@@ -1,16 +1,18 @@
 package com.xenoage.utils.jse.lang;
 
 import static com.xenoage.utils.NullUtils.notNull;
+import static com.xenoage.utils.collections.CollectionUtils.alist;
 import static com.xenoage.utils.collections.CollectionUtils.map;
 import static com.xenoage.utils.io.FileFilters.orFilter;
 import static com.xenoage.utils.io.FileFilters.poFilter;
 import static com.xenoage.utils.io.FileFilters.xmlFilter;
 import static com.xenoage.utils.jse.JsePlatformUtils.io;
+import static com.xenoage.utils.log.Level.Remark;
 import static com.xenoage.utils.log.Log.log;
-import static com.xenoage.utils.log.Report.remark;
 import static com.xenoage.utils.log.Report.warning;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -18,10 +20,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import com.xenoage.utils.annotations.MaybeNull;
 import com.xenoage.utils.jse.io.DesktopIO;
 import com.xenoage.utils.jse.io.JseInputStream;
 import com.xenoage.utils.jse.xml.XMLReader;
@@ -51,6 +59,10 @@ import com.xenoage.utils.lang.Language;
  */
 public class LanguageReader {
 
+	private static final String vocPrefix = "{voc:";
+	private static final int maxVocDepth = 8;
+
+
 	/**
 	 * Creates a {@link Language} from all .xml and .po files in the folder <code>basePath/id</code>.
 	 * If the language pack can not be loaded, an {@link IOException} is thrown.
@@ -59,7 +71,28 @@ public class LanguageReader {
 	 */
 	public static Language read(String basePath, String id)
 		throws IOException {
-		log(remark("Loading language pack \"" + id + "\" from folder \"" + basePath + "\"..."));
+		return read(basePath, id, null);
+	}
+
+	/**
+	 * Creates a {@link Language} from all .xml and .po files in the folder <code>basePath/id</code>.
+	 * If the language pack can not be loaded, an {@link IOException} is thrown.
+	 * 
+	 * The files are parsed in parallel. When the same key is found in more than one file,
+	 * the file which is listed later wins, like when the files are read one after another.
+	 * 
+	 * When a snapshot file is given, the resolved entries are stored in this file.
+	 * On the next call, they are loaded from there with a single read, as long as
+	 * the id, the absolute paths, sizes and modification dates of the language files
+	 * and the registered {@link Lang} tokens are still the same. Snapshots are not used for bundled files.
+	 * 
+	 * @param path          path to the language pack directory (without trailing slash)
+	 * @param id            id of the language pack
+	 * @param snapshotFile  file for the binary snapshot of the language pack, or null
+	 */
+	public static Language read(String basePath, String id, @MaybeNull File snapshotFile)
+		throws IOException {
+		log(Remark, "Loading language pack \"{}\" from folder \"{}\"...", id, basePath);
 
 		//check if language exists
 		String dir = basePath + "/" + id;
@@ -70,25 +103,29 @@ public class LanguageReader {
 		List<String> langFiles = io().listFiles(dir, orFilter(xmlFilter, poFilter));
 		langFiles.remove("id.xml");
 
-		//load entries
+		//use snapshot, if up to date
+		String snapshotKey = null;
+		if (snapshotFile != null) {
+			snapshotKey = createSnapshotKey(id, dir, langFiles);
+			if (snapshotKey != null) {
+				HashMap<String, String> entries = LanguageSnapshot.read(snapshotFile, snapshotKey);
+				if (entries != null) {
+					log(Remark, "Language pack loaded from snapshot. Entries: {}", entries.size());
+					return new Language(id, entries);
+				}
+			}
+		}
+
+		//read XML or PO files in parallel
+		List<HashMap<String, String>> filesEntries = readFiles(dir, langFiles);
+
+		//insert vocabulary data in the order of the files
 		HashMap<String, String> entries = map();
 		int entriesCount = 0;
 		int entriesOverwrittenCount = 0;
-		
-		for (String langFileName : langFiles) {
-			JseInputStream langStream = io().openFile(dir + "/" + langFileName);
-			//read XML or PO file
-			HashMap<String, String> fileEntries = null;
-			if (langFileName.endsWith(".po")) {
-				log(remark("Reading PO language file \"" + langFileName + "\""));
-				fileEntries = readPO(langStream);
-			}
-			else {
-				log(remark("Reading XML language file \"" + langFileName + "\""));
-				fileEntries = readXML(langStream);
-			}
-
-			//insert vocabulary data
+		for (HashMap<String, String> fileEntries : filesEntries) {
+			if (fileEntries == null)
+				continue;
 			for (Entry<String, String> fileEntry : fileEntries.entrySet()) {
 				String oldValue = entries.put(fileEntry.getKey(), fileEntry.getValue());
 				if (oldValue == null)
@@ -99,8 +136,8 @@ public class LanguageReader {
 				}
 			}
 		}
-		log(remark("Language pack loaded. Entries: " + entriesCount + ". Overwritten entries: " +
-			entriesOverwrittenCount));
+		log(Remark, "Language pack loaded. Entries: {}. Overwritten entries: {}", entriesCount,
+			entriesOverwrittenCount);
 
 		//replace all tokens
 		for (String key : entries.keySet()) {
@@ -110,9 +147,109 @@ public class LanguageReader {
 			}
 		}
 
+		//store snapshot for the next time
+		if (snapshotKey != null) {
+			try {
+				LanguageSnapshot.write(snapshotFile, snapshotKey, entries);
+			} catch (IOException ex) {
+				log(warning("Could not write language snapshot", ex));
+			}
+		}
+
 		return new Language(id, entries);
 	}
 
+	/**
+	 * Reads the entries of the given XML or PO files, using one thread per processor.
+	 * The results are returned in the order of the given files.
+	 */
+	private static List<HashMap<String, String>> readFiles(final String dir, List<String> langFiles)
+		throws IOException {
+		List<HashMap<String, String>> ret = alist(langFiles.size());
+		int threads = Math.min(langFiles.size(), Runtime.getRuntime().availableProcessors());
+		if (threads < 2) {
+			for (String langFileName : langFiles)
+				ret.add(readFile(dir, langFileName));
+			return ret;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<HashMap<String, String>>> results = alist(langFiles.size());
+			for (final String langFileName : langFiles) {
+				results.add(executor.submit(new Callable<HashMap<String, String>>() {
+
+					@Override public HashMap<String, String> call()
+						throws IOException {
+						return readFile(dir, langFileName);
+					}
+				}));
+			}
+			for (Future<HashMap<String, String>> result : results) {
+				try {
+					ret.add(result.get());
+				} catch (ExecutionException ex) {
+					executor.shutdownNow();
+					if (ex.getCause() instanceof IOException)
+						throw (IOException) ex.getCause();
+					throw new IOException(ex.getCause());
+				} catch (InterruptedException ex) {
+					executor.shutdownNow();
+					throw new IOException(ex);
+				}
+			}
+			return ret;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Reads the entries of the given XML or PO file.
+	 */
+	private static HashMap<String, String> readFile(String dir, String langFileName)
+		throws IOException {
+		JseInputStream langStream = io().openFile(dir + "/" + langFileName);
+		try {
+			if (langFileName.endsWith(".po")) {
+				log(Remark, "Reading PO language file \"{}\"", langFileName);
+				return readPO(langStream);
+			}
+			else {
+				log(Remark, "Reading XML language file \"{}\"", langFileName);
+				return readXML(langStream);
+			}
+		} finally {
+			langStream.close();
+		}
+	}
+
+	/**
+	 * Creates the key for the snapshot of the given language files, containing the id
+	 * of the language pack, the absolute paths, sizes and modification dates of the files
+	 * and the registered {@link Lang} tokens. So a snapshot file, which is shared by
+	 * several language packs or directories, is never used for the wrong one.
+	 * If the files are not normal files (e.g. bundled), null is returned.
+	 */
+	@MaybeNull private static String createSnapshotKey(String id, String dir,
+		List<String> langFiles)
+		throws IOException {
+		StringBuilder ret = new StringBuilder();
+		ret.append("id\t").append(id).append('\n');
+		List<String> files = alist(langFiles.size() + 1);
+		files.add("id.xml");
+		files.addAll(langFiles);
+		for (String fileName : files) {
+			File file = io().findNormalFile(dir + "/" + fileName);
+			if (file == null)
+				return null;
+			ret.append("file\t").append(file.getAbsolutePath()).append('\t')
+				.append(file.length()).append('\t').append(file.lastModified()).append('\n');
+		}
+		for (Tuple2<String, String> t : Lang.getTokens())
+			ret.append("token\t").append(t.get1()).append('\t').append(t.get2()).append('\n');
+		return ret.toString();
+	}
+
 	/**
 	 * Returns all key-value pairs from the given XML language file.
 	 */
@@ -211,22 +348,43 @@ public class LanguageReader {
 	 * </ul>
 	 */
 	private static String replaceTokens(String s, Map<String, String> entries) {
-		String ret = s;
-		for (Tuple2<String, String> t : Lang.getTokens()) {
-			ret = ret.replace(t.get1(), t.get2());
-		}
-		int pos;
-		while ((pos = ret.indexOf("{voc:")) > -1) {
-			int pos2 = ret.indexOf("}", pos + 1);
-			if (pos2 > -1) {
-				String id = ret.substring(pos + 5, pos2);
-				ret = ret.replaceFirst("\\{voc:" + id + "\\}", notNull(entries.get(id), "?"));
-			}
-			else {
-				ret = ret.replaceFirst("\\{voc:", "");
+		String ret = replaceLangTokens(s);
+		if (ret.indexOf(vocPrefix) == -1)
+			return ret;
+		StringBuilder sb = new StringBuilder(ret.length() + 32);
+		appendWithVocs(ret, entries, sb, 0);
+		return sb.toString();
+	}
+
+	private static String replaceLangTokens(String s) {
+		for (Tuple2<String, String> t : Lang.getTokens())
+			s = s.replace(t.get1(), t.get2());
+		return s;
+	}
+
+	/**
+	 * Appends the given String to the given {@link StringBuilder}, where each {voc:xyz} is
+	 * replaced by the vocabulary with ID "xyz", or "?" if unknown. The inserted vocabulary
+	 * is resolved in the same way, up to a maximum depth, to stop at cyclic references.
+	 * An unclosed "{voc:" is removed.
+	 */
+	private static void appendWithVocs(String s, Map<String, String> entries, StringBuilder ret,
+		int depth) {
+		int start = 0, pos;
+		while ((pos = s.indexOf(vocPrefix, start)) > -1) {
+			ret.append(s, start, pos);
+			start = pos + vocPrefix.length();
+			int end = s.indexOf('}', start);
+			if (end > -1) {
+				String voc = notNull(entries.get(s.substring(start, end)), "?");
+				if (depth < maxVocDepth)
+					appendWithVocs(replaceLangTokens(voc), entries, ret, depth + 1);
+				else
+					ret.append(voc);
+				start = end + 1;
 			}
 		}
-		return ret;
+		ret.append(s, start, s.length());
 	}
 
 }
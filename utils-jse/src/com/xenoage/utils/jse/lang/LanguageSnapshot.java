@@ -0,0 +1,123 @@
+package com.xenoage.utils.jse.lang;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.xenoage.utils.annotations.MaybeNull;
+
+/**
+ * Binary snapshot of the resolved entries of a language pack,
+ * used by the {@link LanguageReader}.
+ * 
+ * The snapshot contains a key, which describes the state of the source files
+ * (e.g. their names, sizes and timestamps). It is only used when the key
+ * is still the same. The whole file is read at once.
+ * 
+ * @author Andreas Wenger
+ */
+class LanguageSnapshot {
+
+	private static final int magic = 0x4C414E47; //"LANG"
+	private static final int version = 1;
+
+
+	/**
+	 * Reads the entries from the given snapshot file, if it exists and
+	 * was created with the given key. Otherwise, null is returned.
+	 */
+	@MaybeNull static HashMap<String, String> read(File file, String key) {
+		if (false == file.isFile())
+			return null;
+		try {
+			//read the whole file at once
+			byte[] data = new byte[(int) file.length()];
+			InputStream in = new FileInputStream(file);
+			try {
+				int pos = 0, n;
+				while (pos < data.length && (n = in.read(data, pos, data.length - pos)) > -1)
+					pos += n;
+				if (pos < data.length)
+					return null;
+			} finally {
+				in.close();
+			}
+			DataInputStream din = new DataInputStream(new ByteArrayInputStream(data));
+			if (din.readInt() != magic || din.readInt() != version)
+				return null;
+			if (false == key.equals(readString(din)))
+				return null;
+			int count = din.readInt();
+			HashMap<String, String> ret = new HashMap<String, String>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++)
+				ret.put(readString(din), readString(din));
+			return ret;
+		} catch (IOException ex) {
+			//corrupt snapshot
+			return null;
+		} catch (RuntimeException ex) {
+			//corrupt snapshot, e.g. negative lengths
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given entries with the given key into the given snapshot file.
+	 * The file is first written to a temporary file, which is then renamed,
+	 * so that concurrent readers never see an incomplete snapshot.
+	 */
+	static void write(File file, String key, Map<String, String> entries)
+		throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (dir != null)
+			dir.mkdirs();
+		File temp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+			new FileOutputStream(temp), 64 * 1024));
+		try {
+			out.writeInt(magic);
+			out.writeInt(version);
+			writeString(out, key);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				writeString(out, entry.getKey());
+				writeString(out, entry.getValue());
+			}
+		} finally {
+			out.close();
+		}
+		//on some platforms, an existing file can not be replaced by renaming
+		if (false == temp.renameTo(file) && (false == file.delete() || false == temp.renameTo(file))) {
+			temp.delete();
+			throw new IOException("Could not write " + file);
+		}
+	}
+
+	/**
+	 * Writes the given string as its length and its UTF-8 bytes.
+	 * Unlike {@link DataOutputStream#writeUTF(String)}, strings longer
+	 * than 64 kB are supported.
+	 */
+	private static void writeString(DataOutputStream out, String s)
+		throws IOException {
+		byte[] bytes = s.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in)
+		throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+}
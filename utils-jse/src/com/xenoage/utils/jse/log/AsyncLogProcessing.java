@@ -0,0 +1,286 @@
+package com.xenoage.utils.jse.log;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.xenoage.utils.log.Level;
+import com.xenoage.utils.log.Log;
+import com.xenoage.utils.log.LogProcessing;
+import com.xenoage.utils.log.Report;
+
+/**
+ * {@link LogProcessing} decorator, which hands the {@link Report}s over to
+ * a background thread, which forwards them to another {@link LogProcessing}.
+ * 
+ * The calling threads only put the reports into a bounded lock-free ring buffer,
+ * so they are not blocked by disk I/O. The background thread writes the reports in
+ * batches and flushes the target, if it is {@link Flushable}, after each batch.
+ * For example, a {@link DesktopLogProcessing} without auto flush can be used as the target.
+ * 
+ * When the ring buffer is full, the {@link Overflow} policy decides what happens
+ * with new reports. Dropped reports are counted, and the number of dropped reports
+ * is logged as a warning, when the buffer is drained again.
+ * 
+ * The {@link #close()} method, which is called by {@link Log#close()}, writes all
+ * remaining reports and closes the target. Reports which are logged after
+ * closing are ignored.
+ * 
+ * @author Andreas Wenger
+ */
+public class AsyncLogProcessing
+	implements LogProcessing, Flushable {
+
+	/**
+	 * What to do with new reports, when the buffer is full.
+	 */
+	public enum Overflow {
+		/** The calling thread waits until there is space in the buffer. No report is lost. */
+		Block,
+		/** New reports are dropped while the buffer is full. */
+		Drop,
+		/**
+		 * Like {@link #Drop}, but already when the buffer is three quarters full,
+		 * only every n-th report is accepted, where n is the sample rate.
+		 * Reports of the levels {@link Level#Error} and {@link Level#Fatal} are
+		 * always accepted and wait for space like in {@link #Block}.
+		 */
+		Sample;
+	}
+
+	public static final int defaultCapacity = 8 * 1024;
+	public static final int defaultBatchSize = 256;
+	//maximum time a report waits in the buffer before it is written, in ms
+	private static final long maxDelayMs = 100;
+
+	private final LogProcessing target;
+	private final Overflow overflow;
+	private final int sampleRate;
+	private final int batchSize;
+
+	//ring buffer: each slot has a sequence number, which tells producers and the
+	//consumer if the slot is free for the given position or filled
+	private final int mask;
+	private final AtomicReferenceArray<Report> slots;
+	private final AtomicLongArray sequences;
+	//next position for producers
+	private final AtomicLong tail = new AtomicLong();
+	//next position for the consumer, only written by the writer thread
+	private volatile long head = 0;
+	//number of positions which were written and flushed
+	private volatile long written = 0;
+
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong sampleCounter = new AtomicLong();
+	private volatile boolean closed = false;
+	private volatile boolean writerWaiting = false;
+	private final Thread writer;
+
+
+	/**
+	 * Creates a new asynchronous logging with the default capacity and
+	 * batch size, which blocks when the buffer is full.
+	 */
+	public AsyncLogProcessing(LogProcessing target) {
+		this(target, defaultCapacity, defaultBatchSize, Overflow.Block, 1);
+	}
+
+	/**
+	 * Creates a new asynchronous logging.
+	 * @param target      the logging which writes the reports
+	 * @param capacity    the number of reports in the buffer, rounded up to a power of 2
+	 * @param batchSize   the maximum number of reports which are written before the target is flushed
+	 * @param overflow    what to do with new reports when the buffer is full
+	 * @param sampleRate  for {@link Overflow#Sample}: only every n-th report is accepted
+	 *                    when the buffer is nearly full
+	 */
+	public AsyncLogProcessing(LogProcessing target, int capacity, int batchSize, Overflow overflow,
+		int sampleRate) {
+		if (capacity < 2 || batchSize < 1 || sampleRate < 1)
+			throw new IllegalArgumentException();
+		this.target = target;
+		this.overflow = overflow;
+		this.sampleRate = sampleRate;
+		this.batchSize = batchSize;
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = size - 1;
+		this.slots = new AtomicReferenceArray<Report>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+		writer = new Thread(new Runnable() {
+
+			@Override public void run() {
+				runWriter();
+			}
+		}, "AsyncLogProcessing");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override public void log(Report report) {
+		if (closed)
+			return;
+		boolean block = (overflow == Overflow.Block);
+		if (overflow == Overflow.Sample) {
+			if (report.level.isIncludedIn(Level.Error)) {
+				block = true;
+			}
+			else if (tail.get() - head >= (mask + 1) * 3 / 4 &&
+				sampleCounter.getAndIncrement() % sampleRate != 0) {
+				dropped.incrementAndGet();
+				return;
+			}
+		}
+		while (false == offer(report)) {
+			if (false == block || closed) {
+				dropped.incrementAndGet();
+				return;
+			}
+			//wait for the writer
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(10000);
+		}
+		if (writerWaiting)
+			LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Waits until all reports which were logged before are written
+	 * and flushed by the background thread.
+	 */
+	@Override public void flush() {
+		long position = tail.get();
+		while (written < position && writer.isAlive()) {
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(100000);
+		}
+	}
+
+	/**
+	 * Writes all remaining reports, closes the target and stops the background thread.
+	 */
+	@Override public void close() {
+		if (closed)
+			return;
+		closed = true;
+		LockSupport.unpark(writer);
+		boolean interrupted = false;
+		while (writer.isAlive()) {
+			try {
+				writer.join();
+			} catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+		target.close();
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Gets the number of reports which were dropped, because the buffer was full.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Tries to put the given report into the buffer.
+	 * Returns false, if the buffer is full.
+	 */
+	private boolean offer(Report report) {
+		long pos = tail.get();
+		while (true) {
+			int index = (int) pos & mask;
+			long diff = sequences.get(index) - pos;
+			if (diff == 0) {
+				//slot is free, try to reserve it
+				if (tail.compareAndSet(pos, pos + 1)) {
+					slots.set(index, report);
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = tail.get();
+			}
+			else if (diff < 0) {
+				//slot still used by the report from the last round
+				return false;
+			}
+			else {
+				//another producer was faster
+				pos = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes the next report from the buffer, or returns null if there is
+	 * none yet. Only called by the writer thread.
+	 */
+	private Report poll() {
+		long pos = head;
+		int index = (int) pos & mask;
+		if (sequences.get(index) != pos + 1)
+			return null;
+		Report ret = slots.get(index);
+		slots.set(index, null);
+		sequences.set(index, pos + mask + 1);
+		head = pos + 1;
+		return ret;
+	}
+
+	private void runWriter() {
+		long reportedDropped = 0;
+		while (true) {
+			//write the next batch
+			int count = 0;
+			Report report;
+			while (count < batchSize && (report = poll()) != null) {
+				write(report);
+				count++;
+			}
+			if (count > 0) {
+				long droppedNow = dropped.get();
+				if (droppedNow > reportedDropped) {
+					write(new Report(Level.Warning, null, (droppedNow - reportedDropped) +
+						" log reports dropped", null, null, null));
+					reportedDropped = droppedNow;
+				}
+				flushTarget();
+				written = head;
+				continue;
+			}
+			//buffer is empty. all reserved slots are written, when the tail is reached
+			if (closed && tail.get() == head)
+				return;
+			writerWaiting = true;
+			if (sequences.get((int) head & mask) != head + 1 && false == closed)
+				LockSupport.parkNanos(this, maxDelayMs * 1000000);
+			writerWaiting = false;
+		}
+	}
+
+	private void write(Report report) {
+		try {
+			target.log(report);
+		} catch (RuntimeException ex) {
+			//a broken report must not stop the logging
+			ex.printStackTrace();
+		}
+	}
+
+	private void flushTarget() {
+		if (target instanceof Flushable) {
+			try {
+				((Flushable) target).flush();
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		}
+	}
+
+}
@@ -3,6 +3,9 @@ package com.xenoage.utils.jse.log;
 import static com.xenoage.utils.jse.JsePlatformUtils.io;
 import static com.xenoage.utils.log.Level.Remark;
 
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.Flushable;
 import java.io.PrintStream;
 import java.text.DateFormat;
 import java.util.Date;
@@ -17,15 +20,25 @@ import com.xenoage.utils.log.Report;
  * 
  * This class uses the {@link DesktopIO}, which must be initialized before.
  * 
+ * The log file is written through a buffer. By default, it is flushed after
+ * each message. When auto flush is disabled, it is only flushed when
+ * {@link #flush()} or {@link #close()} is called, which is useful
+ * as the target of an {@link AsyncLogProcessing}, which flushes after each batch.
+ * 
+ * To limit the size of the log files in long-running applications,
+ * a {@link RollingLogFile} can be used.
+ * 
  * @author Andreas Wenger
  */
 public class DesktopLogProcessing
-	implements LogProcessing {
+	implements LogProcessing, Flushable {
 
 	public static final String defaultFileName = "data/app.log";
 
-	private static String logFileName;
-	private static PrintStream writer = null;
+	private final String logFileName;
+	private final PrintStream writer;
+	private final boolean autoFlush;
+	private final DateFormat timeFormat = DateFormat.getTimeInstance(DateFormat.MEDIUM);
 
 
 	/**
@@ -39,9 +52,35 @@ public class DesktopLogProcessing
 	 * Initialize the logging class.
 	 */
 	public DesktopLogProcessing(String logFileName, String appNameAndVersion) {
+		this(logFileName, appNameAndVersion, true);
+	}
+
+	/**
+	 * Initialize the logging class.
+	 * @param autoFlush  true, to flush the log file after each message
+	 */
+	public DesktopLogProcessing(String logFileName, String appNameAndVersion, boolean autoFlush) {
+		this(logFileName, null, appNameAndVersion, autoFlush);
+	}
+
+	/**
+	 * Initialize the logging class, using the given rolling log file.
+	 * @param autoFlush  true, to flush the log file after each message
+	 */
+	public DesktopLogProcessing(RollingLogFile logFile, String appNameAndVersion, boolean autoFlush) {
+		this(logFile.getFile().getPath(), logFile, appNameAndVersion, autoFlush);
+	}
+
+	private DesktopLogProcessing(String logFileName, RollingLogFile logFile,
+		String appNameAndVersion, boolean autoFlush) {
+		this.logFileName = logFileName;
+		this.autoFlush = autoFlush;
 		try {
-			DesktopLogProcessing.logFileName = logFileName;
-			writer = new PrintStream(io().createFile(logFileName));
+			if (logFile != null)
+				writer = new PrintStream(logFile);
+			else
+				writer = new PrintStream(new BufferedOutputStream(new FileOutputStream(io().createFile(
+					logFileName)), 64 * 1024));
 			//start message
 			println(Remark, "Logging started for: " + appNameAndVersion);
 			//os
@@ -60,7 +99,11 @@ public class DesktopLogProcessing
 		println(report.level, report.toString());
 	}
 
-	@Override public void close() {
+	@Override public synchronized void flush() {
+		writer.flush();
+	}
+
+	@Override public synchronized void close() {
 		println(Remark, "Logging closed");
 		writer.close();
 	}
@@ -75,19 +118,19 @@ public class DesktopLogProcessing
 	/**
 	 * Returns the current time in the format HH:MM:SS.
 	 */
-	private static String time() {
-		DateFormat df = DateFormat.getTimeInstance(DateFormat.MEDIUM);
-		return df.format(new Date());
+	private String time() {
+		return timeFormat.format(new Date());
 	}
 
 	/**
 	 * Prints the current time, the given log level and message
-	 * into the log file and starts a new line. The buffer is immediately
-	 * flushed.
+	 * into the log file and starts a new line. If auto flush is enabled,
+	 * the buffer is immediately flushed.
 	 */
-	private void println(Level level, String s) {
+	private synchronized void println(Level level, String s) {
 		writer.println(time() + " " + level.getFixedString() + " " + s);
-		writer.flush();
+		if (autoFlush)
+			writer.flush();
 	}
 
 }
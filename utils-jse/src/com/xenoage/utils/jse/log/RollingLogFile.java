@@ -0,0 +1,314 @@
+package com.xenoage.utils.jse.log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Log file, which is rotated when it gets too large or too old.
+ * 
+ * The current segment is written to the given file, e.g. "data/app.log".
+ * The bytes are collected in a buffer, which is allocated only once and written
+ * to the file when it is full or when {@link #flush()} is called.
+ * When the segment reaches the maximum size or age, it is renamed to an archive
+ * with a timestamp, e.g. "data/app.log.20240131-235959-000.gz", and a new segment is started.
+ * The archive is compressed with gzip by a background thread. Only the newest
+ * archives are kept, the older ones are deleted. Archives which were not compressed,
+ * e.g. because the program was terminated before, are also counted and deleted.
+ * 
+ * Segments are only rotated at the beginning of a line, so lines are never split.
+ * Therefore, a segment may be a little bit larger than the maximum size.
+ * 
+ * This class is not thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public class RollingLogFile
+	extends OutputStream {
+
+	public static final long defaultMaxSize = 10 * 1024 * 1024;
+	public static final int defaultMaxArchives = 10;
+
+	private static final String archiveSuffix = ".gz";
+	private static final int bufferSize = 64 * 1024;
+
+	private final File file;
+	private final long maxSize;
+	private final long maxAgeMs;
+	private final int maxArchives;
+
+	private final byte[] buffer = new byte[bufferSize];
+	private int bufferPos = 0;
+	private OutputStream out;
+	//size of the current segment, including the buffer
+	private long size;
+	private long segmentStartTime;
+	private boolean atLineStart = true;
+	private String lastArchiveName = null;
+	private int lastArchiveIndex = 0;
+
+	private ExecutorService compressor = null;
+
+
+	/**
+	 * Creates a rolling log file with the default maximum size and number of archives,
+	 * without rotation by time.
+	 */
+	public RollingLogFile(File file)
+		throws IOException {
+		this(file, defaultMaxSize, 0, defaultMaxArchives);
+	}
+
+	/**
+	 * Creates a rolling log file. If the file already exists, it is continued.
+	 * @param file         the file of the current segment
+	 * @param maxSize      the size in bytes, after which a new segment is started
+	 * @param maxAgeMs     the age in ms, after which a new segment is started, or 0
+	 *                     for no rotation by time
+	 * @param maxArchives  the maximum number of compressed archives which are kept
+	 */
+	public RollingLogFile(File file, long maxSize, long maxAgeMs, int maxArchives)
+		throws IOException {
+		if (maxSize < 1 || maxAgeMs < 0 || maxArchives < 0)
+			throw new IllegalArgumentException();
+		this.file = file.getAbsoluteFile();
+		this.maxSize = maxSize;
+		this.maxAgeMs = maxAgeMs;
+		this.maxArchives = maxArchives;
+		File dir = this.file.getParentFile();
+		if (dir != null)
+			dir.mkdirs();
+		openSegment();
+	}
+
+	/**
+	 * Gets the file of the current segment.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	@Override public void write(int b)
+		throws IOException {
+		rotateIfNeeded();
+		if (bufferPos == bufferSize)
+			flushBuffer();
+		buffer[bufferPos++] = (byte) b;
+		size++;
+		atLineStart = (b == '\n');
+	}
+
+	@Override public void write(byte[] b, int off, int len)
+		throws IOException {
+		int end = off + len;
+		while (off < end) {
+			rotateIfNeeded();
+			//write until the end of the next line, so that we can rotate after it
+			int lineEnd = off;
+			while (lineEnd < end && b[lineEnd] != '\n')
+				lineEnd++;
+			if (lineEnd < end)
+				lineEnd++;
+			writeToBuffer(b, off, lineEnd - off);
+			atLineStart = (b[lineEnd - 1] == '\n');
+			off = lineEnd;
+		}
+	}
+
+	@Override public void flush()
+		throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * Writes the remaining data, closes the file and waits until all
+	 * archives are compressed.
+	 */
+	@Override public void close()
+		throws IOException {
+		if (out == null)
+			return;
+		flushBuffer();
+		out.close();
+		out = null;
+		if (compressor != null) {
+			compressor.shutdown();
+			try {
+				compressor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Starts a new segment now, if the current one is not empty.
+	 */
+	public void rotate()
+		throws IOException {
+		if (size == 0)
+			return;
+		flushBuffer();
+		out.close();
+		final File archive = createArchiveFile();
+		if (false == file.renameTo(archive))
+			throw new IOException("Could not rename " + file + " to " + archive);
+		openSegment();
+		//compress in the background
+		if (compressor == null) {
+			compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+				@Override public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "RollingLogFile");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		compressor.execute(new Runnable() {
+
+			@Override public void run() {
+				try {
+					//may already be deleted, when the maximum number of archives is very small
+					if (archive.exists())
+						compress(archive);
+					deleteOldArchives();
+				} catch (IOException ex) {
+					ex.printStackTrace();
+				}
+			}
+		});
+	}
+
+	private void rotateIfNeeded()
+		throws IOException {
+		if (atLineStart && size > 0 && (size >= maxSize ||
+			(maxAgeMs > 0 && System.currentTimeMillis() - segmentStartTime >= maxAgeMs)))
+			rotate();
+	}
+
+	private void openSegment()
+		throws IOException {
+		out = new FileOutputStream(file, true);
+		size = file.length();
+		segmentStartTime = System.currentTimeMillis();
+		atLineStart = true;
+	}
+
+	private void writeToBuffer(byte[] b, int off, int len)
+		throws IOException {
+		if (len > bufferSize - bufferPos) {
+			flushBuffer();
+			if (len > bufferSize) {
+				//too large for the buffer, write directly
+				out.write(b, off, len);
+				size += len;
+				return;
+			}
+		}
+		System.arraycopy(b, off, buffer, bufferPos, len);
+		bufferPos += len;
+		size += len;
+	}
+
+	private void flushBuffer()
+		throws IOException {
+		if (bufferPos > 0) {
+			out.write(buffer, 0, bufferPos);
+			bufferPos = 0;
+		}
+	}
+
+	/**
+	 * Creates a unique file for the next archive, with a name based on the current time
+	 * and a counter for rotations within the same second, like "app.log.20240131-235959-000".
+	 * The names can be sorted by their creation time. The counter is not stored, so names
+	 * of existing archives, compressed or not, e.g. from a previous run within the same
+	 * second, are skipped.
+	 */
+	private File createArchiveFile() {
+		String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+		if (time.equals(lastArchiveName)) {
+			lastArchiveIndex++;
+		}
+		else {
+			lastArchiveName = time;
+			lastArchiveIndex = 0;
+		}
+		while (true) {
+			String index = "00" + lastArchiveIndex;
+			File ret = new File(file.getPath() + "." + time + "-" + index.substring(index.length() - 3));
+			if (false == ret.exists() && false == new File(ret.getPath() + archiveSuffix).exists())
+				return ret;
+			lastArchiveIndex++;
+		}
+	}
+
+	/**
+	 * Compresses the given file with gzip and deletes the original.
+	 */
+	private static void compress(File source)
+		throws IOException {
+		File target = new File(source.getPath() + archiveSuffix);
+		InputStream in = new FileInputStream(source);
+		try {
+			OutputStream gzip = new GZIPOutputStream(new FileOutputStream(target), bufferSize);
+			try {
+				byte[] buffer = new byte[bufferSize];
+				int n;
+				while ((n = in.read(buffer)) > -1)
+					gzip.write(buffer, 0, n);
+			} finally {
+				gzip.close();
+			}
+		} finally {
+			in.close();
+		}
+		source.delete();
+	}
+
+	/**
+	 * Deletes the oldest archives, so that only the allowed number of archives is left.
+	 * Uncompressed archives are counted too. When both the uncompressed and the compressed
+	 * version of an archive exist, because the compression was interrupted, they are
+	 * counted as one archive.
+	 */
+	private void deleteOldArchives() {
+		final String prefix = file.getName() + ".";
+		final String pattern = "\\d{8}-\\d{6}-\\d{3,}(\\" + archiveSuffix + ")?";
+		String[] names = file.getParentFile().list(new FilenameFilter() {
+
+			@Override public boolean accept(File dir, String name) {
+				return name.startsWith(prefix) && name.substring(prefix.length()).matches(pattern);
+			}
+		});
+		if (names == null)
+			return;
+		//the names contain the timestamp, so they can be sorted by their names
+		TreeSet<String> archives = new TreeSet<String>();
+		for (String name : names)
+			archives.add(name.endsWith(archiveSuffix) ?
+				name.substring(0, name.length() - archiveSuffix.length()) : name);
+		int deleteCount = archives.size() - maxArchives;
+		for (String name : archives) {
+			if (deleteCount-- <= 0)
+				break;
+			new File(file.getParentFile(), name).delete();
+			new File(file.getParentFile(), name + archiveSuffix).delete();
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.xenoage.utils.jse.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.xenoage.utils.math.LUSolver;
+
+/**
+ * {@link LUSolver} which eliminates the rows of large matrices in parallel,
+ * using a {@link ForkJoinPool}.
+ * 
+ * In each elimination step, the remaining rows are independent of each other,
+ * so they are split into blocks which are processed by the pool.
+ * Small steps, like for small matrices or at the end of the decomposition,
+ * are computed in the calling thread, where the overhead of the pool would
+ * be higher than the gain.
+ * 
+ * @author Andreas Wenger
+ */
+public class ParallelLUSolver
+	extends LUSolver {
+
+	//minimum number of updated matrix elements for computing a step in parallel
+	private static final int parallelThreshold = 64 * 1024;
+	//minimum number of updated matrix elements in a block of rows
+	private static final int blockThreshold = 16 * 1024;
+
+	private static ForkJoinPool sharedPool = null;
+
+	private final ForkJoinPool pool;
+
+
+	/**
+	 * Creates a solver for n * n matrices, using a pool which is shared
+	 * by all instances and has as many threads as there are processors.
+	 */
+	public ParallelLUSolver(int n) {
+		this(n, getSharedPool());
+	}
+
+	/**
+	 * Creates a solver for n * n matrices, using the given pool.
+	 */
+	public ParallelLUSolver(int n, ForkJoinPool pool) {
+		super(n);
+		this.pool = pool;
+	}
+
+	private static synchronized ForkJoinPool getSharedPool() {
+		if (sharedPool == null)
+			sharedPool = new ForkJoinPool();
+		return sharedPool;
+	}
+
+	@Override protected void eliminate(int j) {
+		int rows = n - j - 1;
+		int columns = n - j;
+		if ((long) rows * columns < parallelThreshold || pool.getParallelism() < 2)
+			super.eliminate(j);
+		else
+			pool.invoke(new EliminateTask(j, j + 1, n, Math.max(1, blockThreshold / columns)));
+	}
+
+
+	/**
+	 * Eliminates a range of rows, split into halves as long as it is
+	 * larger than the given block size.
+	 */
+	private class EliminateTask
+		extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int j, rowStart, rowEnd, blockRows;
+
+
+		EliminateTask(int j, int rowStart, int rowEnd, int blockRows) {
+			this.j = j;
+			this.rowStart = rowStart;
+			this.rowEnd = rowEnd;
+			this.blockRows = blockRows;
+		}
+
+		@Override protected void compute() {
+			if (rowEnd - rowStart <= blockRows) {
+				eliminate(j, rowStart, rowEnd);
+			}
+			else {
+				int middle = (rowStart + rowEnd) >>> 1;
+				invokeAll(new EliminateTask(j, rowStart, middle, blockRows), new EliminateTask(j,
+					middle, rowEnd, blockRows));
+			}
+		}
+
+	}
+
+}
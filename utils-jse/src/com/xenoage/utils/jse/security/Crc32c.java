@@ -0,0 +1,47 @@
+package com.xenoage.utils.jse.security;
+
+import java.util.zip.Checksum;
+
+/**
+ * Table based CRC-32C (Castagnoli) implementation, used when the JDK
+ * provides no implementation.
+ * 
+ * @author Andreas Wenger
+ */
+class Crc32c
+	implements Checksum {
+
+	private static final int[] table = new int[256];
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			int crc = i;
+			for (int bit = 0; bit < 8; bit++)
+				crc = ((crc & 1) != 0 ? (crc >>> 1) ^ 0x82f63b78 : crc >>> 1);
+			table[i] = crc;
+		}
+	}
+
+	private int crc = 0xffffffff;
+
+
+	@Override public void update(int b) {
+		crc = (crc >>> 8) ^ table[(crc ^ b) & 0xff];
+	}
+
+	@Override public void update(byte[] b, int off, int len) {
+		int crc = this.crc;
+		for (int i = off; i < off + len; i++)
+			crc = (crc >>> 8) ^ table[(crc ^ b[i]) & 0xff];
+		this.crc = crc;
+	}
+
+	@Override public long getValue() {
+		return (~crc) & 0xffffffffL;
+	}
+
+	@Override public void reset() {
+		crc = 0xffffffff;
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.xenoage.utils.jse.security;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Checksum;
+
+/**
+ * Supported algorithms for the {@link Digests}.
+ * 
+ * @author Andreas Wenger
+ */
+public enum DigestAlgorithm {
+
+	/** MD5 message digest (16 bytes). */
+	MD5("MD5"),
+	/** SHA-256 message digest (32 bytes). */
+	SHA256("SHA-256"),
+	/**
+	 * CRC-32C checksum (4 bytes, big endian). Much faster than the message digests,
+	 * but only suitable for detecting accidental changes.
+	 * The hardware accelerated implementation of the JDK is used when
+	 * available (Java 9 and newer).
+	 */
+	CRC32C(null);
+
+	private final String messageDigestName;
+
+
+	private DigestAlgorithm(String messageDigestName) {
+		this.messageDigestName = messageDigestName;
+	}
+
+	/**
+	 * Creates a new {@link Digester} for this algorithm.
+	 */
+	public Digester createDigester() {
+		if (messageDigestName != null) {
+			try {
+				return new MessageDigestDigester(MessageDigest.getInstance(messageDigestName));
+			} catch (NoSuchAlgorithmException ex) {
+				//MD5 and SHA-256 are required on every Java platform
+				throw new IllegalStateException(ex);
+			}
+		}
+		else {
+			return new ChecksumDigester(createCrc32c());
+		}
+	}
+
+	private static Checksum createCrc32c() {
+		try {
+			return (Checksum) Class.forName("java.util.zip.CRC32C").getDeclaredConstructor().newInstance();
+		} catch (Exception ex) {
+			//not available before Java 9
+			return new Crc32c();
+		}
+	}
+
+
+	private static final class MessageDigestDigester
+		extends Digester {
+
+		private final MessageDigest md;
+
+
+		MessageDigestDigester(MessageDigest md) {
+			this.md = md;
+		}
+
+		@Override public void update(byte[] data, int offset, int length) {
+			md.update(data, offset, length);
+		}
+
+		@Override public void update(ByteBuffer data) {
+			md.update(data);
+		}
+
+		@Override public byte[] digest() {
+			return md.digest();
+		}
+
+	}
+
+
+	private static final class ChecksumDigester
+		extends Digester {
+
+		private final Checksum checksum;
+		private byte[] buffer = null;
+
+
+		ChecksumDigester(Checksum checksum) {
+			this.checksum = checksum;
+		}
+
+		@Override public void update(byte[] data, int offset, int length) {
+			checksum.update(data, offset, length);
+		}
+
+		@Override public void update(ByteBuffer data) {
+			if (data.hasArray()) {
+				checksum.update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+				data.position(data.limit());
+			}
+			else {
+				//copy direct or mapped data in blocks
+				if (buffer == null)
+					buffer = new byte[8192];
+				while (data.hasRemaining()) {
+					int n = Math.min(buffer.length, data.remaining());
+					data.get(buffer, 0, n);
+					checksum.update(buffer, 0, n);
+				}
+			}
+		}
+
+		@Override public byte[] digest() {
+			int value = (int) checksum.getValue();
+			checksum.reset();
+			return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8),
+				(byte) value };
+		}
+
+	}
+
+}
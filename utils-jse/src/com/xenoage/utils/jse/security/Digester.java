@@ -0,0 +1,55 @@
+package com.xenoage.utils.jse.security;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental computation of a digest or checksum, like MD5, SHA-256 or CRC32C.
+ * Use {@link DigestAlgorithm#createDigester()} to get an instance.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public abstract class Digester {
+
+	private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+
+
+	/**
+	 * Adds the given bytes.
+	 */
+	public abstract void update(byte[] data, int offset, int length);
+
+	/**
+	 * Adds the remaining bytes of the given buffer.
+	 * After the call, the position of the buffer is at its limit.
+	 */
+	public abstract void update(ByteBuffer data);
+
+	/**
+	 * Finishes the computation and returns the digest.
+	 * After the call, the digester is reset and can be used again.
+	 */
+	public abstract byte[] digest();
+
+	/**
+	 * Like {@link #digest()}, but returns the digest as a
+	 * lowercase hexadecimal string.
+	 */
+	public String digestHex() {
+		return toHex(digest());
+	}
+
+	/**
+	 * Converts the given bytes into a lowercase hexadecimal string.
+	 */
+	public static String toHex(byte[] data) {
+		char[] ret = new char[data.length * 2];
+		for (int i = 0; i < data.length; i++) {
+			ret[i * 2] = hexDigits[(data[i] >> 4) & 0xf];
+			ret[i * 2 + 1] = hexDigits[data[i] & 0xf];
+		}
+		return new String(ret);
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.xenoage.utils.jse.security;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.xenoage.utils.annotations.MaybeNull;
+
+/**
+ * This class computes digests and checksums of streams and files,
+ * using the algorithms of {@link DigestAlgorithm}.
+ * 
+ * Files are read through memory mapped {@link FileChannel}s.
+ * The digest of many files can be computed in parallel,
+ * and a file can be digested while it is copied.
+ * 
+ * @author Andreas Wenger
+ */
+public class Digests {
+
+	//files are mapped in parts of this size
+	private static final long mapSize = 64 * 1024 * 1024;
+
+
+	/**
+	 * Computes the digest of the given file as a lowercase hexadecimal string.
+	 */
+	public static String digest(File file, DigestAlgorithm algorithm)
+		throws IOException {
+		Digester digester = algorithm.createDigester();
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			for (long pos = 0; pos < size; pos += mapSize)
+				digester.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(mapSize, size - pos)));
+		} finally {
+			in.close();
+		}
+		return digester.digestHex();
+	}
+
+	/**
+	 * Computes the digest of the remaining data of the given stream as a
+	 * lowercase hexadecimal string. The stream is not closed.
+	 */
+	public static String digest(InputStream in, DigestAlgorithm algorithm)
+		throws IOException {
+		Digester digester = algorithm.createDigester();
+		byte[] buffer = new byte[64 * 1024];
+		int n;
+		while ((n = in.read(buffer)) > -1)
+			digester.update(buffer, 0, n);
+		return digester.digestHex();
+	}
+
+	/**
+	 * Computes the digests of the given files in parallel, using the given number
+	 * of threads. The digests are returned as lowercase hexadecimal strings,
+	 * in the order of the given files. If a file can not be read,
+	 * an {@link IOException} is thrown.
+	 */
+	public static Map<File, String> digestAll(List<File> files, final DigestAlgorithm algorithm,
+		int threads)
+		throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1,
+			Math.min(threads, files.size())));
+		try {
+			List<Future<String>> results = alist(files.size());
+			for (final File file : files) {
+				results.add(executor.submit(new Callable<String>() {
+
+					@Override public String call()
+						throws IOException {
+						return digest(file, algorithm);
+					}
+				}));
+			}
+			Map<File, String> ret = new LinkedHashMap<File, String>();
+			for (int i = 0; i < files.size(); i++) {
+				try {
+					ret.put(files.get(i), results.get(i).get());
+				} catch (ExecutionException ex) {
+					executor.shutdownNow();
+					if (ex.getCause() instanceof IOException)
+						throw (IOException) ex.getCause();
+					throw new IOException(ex.getCause());
+				} catch (InterruptedException ex) {
+					executor.shutdownNow();
+					throw new IOException(ex);
+				}
+			}
+			return ret;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Copies the given file and computes the digest of its content at the same time,
+	 * so that the data is read only once. The digest is returned as a
+	 * lowercase hexadecimal string.
+	 */
+	public static String copyAndDigest(File source, File target, DigestAlgorithm algorithm)
+		throws IOException {
+		Digester digester = algorithm.createDigester();
+		copy(source, target, digester);
+		return digester.digestHex();
+	}
+
+	/**
+	 * Copies the given file, using memory mapped {@link FileChannel}s.
+	 * If a {@link Digester} is given, it is updated with the content of the file.
+	 */
+	public static void copy(File source, File target, @MaybeNull Digester digester)
+		throws IOException {
+		FileInputStream in = new FileInputStream(source);
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(target);
+			FileChannel inChannel = in.getChannel();
+			FileChannel outChannel = out.getChannel();
+			long size = inChannel.size();
+			for (long pos = 0; pos < size; pos += mapSize) {
+				MappedByteBuffer data = inChannel.map(FileChannel.MapMode.READ_ONLY, pos,
+					Math.min(mapSize, size - pos));
+				if (digester != null)
+					digester.update(data.duplicate());
+				while (data.hasRemaining())
+					outChannel.write(data);
+			}
+		} finally {
+			in.close();
+			if (out != null)
+				out.close();
+		}
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.xenoage.utils.jse.zip;
+
+/**
+ * Listener for the progress of {@link ZipUtils#extractAll(java.io.File, java.io.File, int, ZipExtractionListener)}.
+ * 
+ * The methods are called from the extracting threads, so they may be called
+ * concurrently and implementations must be thread-safe.
+ * 
+ * @author Andreas Wenger
+ */
+public interface ZipExtractionListener {
+
+	/**
+	 * This method is called when a file of the archive was extracted.
+	 * @param entryName       the path of the file within the archive
+	 * @param size            the number of written bytes
+	 * @param extractedCount  the number of files extracted so far, including this one
+	 * @param totalCount      the total number of files in the archive
+	 */
+	public void entryExtracted(String entryName, long size, int extractedCount, int totalCount);
+
+}
@@ -1,14 +1,35 @@
 package com.xenoage.utils.jse.zip;
 
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import com.xenoage.utils.annotations.MaybeNull;
+import com.xenoage.utils.jse.io.ByteBufferPool;
+
 /**
  * Useful methods for working with ZIP data and files.
  * 
@@ -16,6 +37,11 @@ import java.util.zip.ZipOutputStream;
  */
 public class ZipUtils {
 
+	//direct buffers for extracting files, shared by all extraction threads
+	private static final ByteBufferPool bufferPool = new ByteBufferPool(256 * 1024,
+		Runtime.getRuntime().availableProcessors() * 2);
+
+
 	/**
 	 * Extracts all files within the given ZIP stream
 	 * into the given directory.
@@ -47,6 +73,148 @@ public class ZipUtils {
 		zipinputstream.close();
 	}
 
+	/**
+	 * Extracts all files within the given ZIP file into the given directory,
+	 * using one thread for each available processor.
+	 * See {@link #extractAll(File, File, int, ZipExtractionListener)}.
+	 */
+	public static void extractAll(File zipFile, File destDir)
+		throws IOException {
+		extractAll(zipFile, destDir, Runtime.getRuntime().availableProcessors(), null);
+	}
+
+	/**
+	 * Extracts all files within the given ZIP file into the given directory.
+	 * Since the file allows random access, the entries are extracted in parallel
+	 * by the given number of threads, beginning with the largest ones.
+	 * The listener, if not null, is notified after each extracted file.
+	 * If an entry would be extracted outside of the destination directory
+	 * or if an entry can not be extracted, an {@link IOException} is thrown
+	 * and the remaining entries are not extracted. The partially written file
+	 * of a failed entry is deleted, but the files which were already
+	 * extracted completely are kept.
+	 */
+	public static void extractAll(File zipFile, File destDir, int threads,
+		@MaybeNull final ZipExtractionListener listener)
+		throws IOException {
+		final ZipFile zip = new ZipFile(zipFile);
+		ExecutorService executor = null;
+		try {
+			//create directories first, then collect files
+			String destPath = destDir.getCanonicalPath() + File.separator;
+			final List<ZipEntry> entries = alist();
+			for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+				ZipEntry entry = e.nextElement();
+				File file = new File(destDir, entry.getName());
+				if (false == file.getCanonicalPath().startsWith(destPath))
+					throw new IOException("Entry outside of target directory: " + entry.getName());
+				if (entry.isDirectory()) {
+					file.mkdirs();
+				}
+				else {
+					file.getParentFile().mkdirs();
+					entries.add(entry);
+				}
+			}
+			//large entries first, so that they do not delay the end
+			Collections.sort(entries, new Comparator<ZipEntry>() {
+
+				@Override public int compare(ZipEntry e1, ZipEntry e2) {
+					return Long.compare(e2.getSize(), e1.getSize());
+				}
+			});
+			//extract in parallel
+			executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, entries.size())));
+			final AtomicInteger extractedCount = new AtomicInteger();
+			List<Future<Void>> results = alist(entries.size());
+			for (final ZipEntry entry : entries) {
+				final File file = new File(destDir, entry.getName());
+				results.add(executor.submit(new Callable<Void>() {
+
+					@Override public Void call()
+						throws IOException {
+						long size = extract(zip, entry, file);
+						if (listener != null)
+							listener.entryExtracted(entry.getName(), size,
+								extractedCount.incrementAndGet(), entries.size());
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				try {
+					result.get();
+				} catch (ExecutionException ex) {
+					executor.shutdownNow();
+					if (ex.getCause() instanceof IOException)
+						throw (IOException) ex.getCause();
+					throw new IOException(ex.getCause());
+				} catch (InterruptedException ex) {
+					executor.shutdownNow();
+					throw new IOException(ex);
+				}
+			}
+		} finally {
+			//the running tasks must be finished, before the ZIP file can be closed
+			if (executor != null) {
+				executor.shutdown();
+				awaitTermination(executor);
+			}
+			zip.close();
+		}
+	}
+
+	/**
+	 * Waits until all tasks of the given shut down executor are finished.
+	 * When the current thread is interrupted while waiting, the waiting is continued
+	 * and the interrupted status is set again afterwards.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.SECONDS))
+					break;
+			} catch (InterruptedException ex) {
+				interrupted = true;
+				executor.shutdownNow();
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Extracts the given entry into the given file, using a pooled direct buffer,
+	 * and returns the number of written bytes.
+	 * If the extraction fails, the partially written file is deleted.
+	 */
+	private static long extract(ZipFile zip, ZipEntry entry, File file)
+		throws IOException {
+		ReadableByteChannel in = Channels.newChannel(zip.getInputStream(entry));
+		FileOutputStream outStream = new FileOutputStream(file);
+		FileChannel out = outStream.getChannel();
+		ByteBuffer buffer = bufferPool.acquire();
+		long size = 0;
+		boolean complete = false;
+		try {
+			while (in.read(buffer) > -1) {
+				buffer.flip();
+				while (buffer.hasRemaining())
+					size += out.write(buffer);
+				buffer.clear();
+			}
+			complete = true;
+		} finally {
+			bufferPool.release(buffer);
+			in.close();
+			outStream.close();
+			if (false == complete)
+				file.delete();
+		}
+		return size;
+	}
+
 	/**
 	 * Zips the contents of the given directory and saves it in the given ZIP file.
 	 * Subdirectories are ignored (no recursion).
@@ -0,0 +1,19 @@
+package com.xenoage.utils.kernel;
+
+/**
+ * Operation on a primitive <code>int</code> value, e.g. for
+ * {@link Range#forEachInt(IntConsumer)}.
+ * 
+ * Unlike <code>java.util.function.IntConsumer</code>, this interface
+ * is also available on Java 7 and GWT.
+ * 
+ * @author Andreas Wenger
+ */
+public interface IntConsumer {
+
+	/**
+	 * Performs this operation on the given value.
+	 */
+	public void accept(int value);
+
+}
@@ -13,6 +13,17 @@ import java.util.Iterator;
  *   System.out.print(i + " "); // 0 1 2 3 4
  * </pre>
  * 
+ * Since the iterator returns boxed {@link Integer}s, hot loops should
+ * use {@link #forEachInt(IntConsumer)} instead, which works on primitive values:
+ * 
+ * <pre>
+ * range(0, 4).forEachInt(new IntConsumer() {
+ *   public void accept(int i) {
+ *     System.out.print(i + " "); // 0 1 2 3 4
+ *   }
+ * });
+ * </pre>
+ * 
  * @author Andreas Wenger
  * @author Uli Teschemacher
  */
@@ -150,6 +161,21 @@ public final class Range
 		};
 	}
 
+	/**
+	 * Calls the given consumer for each number of this range, without
+	 * creating {@link Integer} objects.
+	 */
+	public void forEachInt(IntConsumer consumer) {
+		if (step > 0) {
+			for (int i = start; i <= stop; i += step)
+				consumer.accept(i);
+		}
+		else {
+			for (int i = start; i >= stop; i += step)
+				consumer.accept(i);
+		}
+	}
+
 	/**
 	 * Gets the first number.
 	 */
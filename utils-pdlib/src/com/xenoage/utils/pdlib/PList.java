@@ -3,13 +3,12 @@ package com.xenoage.utils.pdlib;
 import static com.xenoage.utils.iterators.It.it;
 import static com.xenoage.utils.kernel.Tuple2.t;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.ListIterator;
 
-import org.pcollections.TreePVector;
+import org.pcollections.RadixPVector;
 
 import com.xenoage.utils.collections.CList;
 import com.xenoage.utils.collections.IList;
@@ -24,7 +23,12 @@ import com.xenoage.utils.kernel.Tuple2;
  * If this is unneeded, because the list will never change, use
  * {@link CList} instead for performance reasons.
  * 
- * Currently logarithmic-time querying, setting, insertion and removal.
+ * Currently logarithmic-time querying, setting, insertion, removal,
+ * splitting and sublists, and amortized constant-time appending
+ * (see {@link RadixPVector}).
+ * 
+ * To create a list from many single elements, use a {@link Builder},
+ * which does not create a new persistent list for each added element.
  * 
  * Deprecated annotations are used to warn the programmer of calling
  * unsupported methods.
@@ -34,22 +38,22 @@ import com.xenoage.utils.kernel.Tuple2;
 public final class PList<T>
 	implements IList<T> {
 
-	private final TreePVector<T> data;
+	private final RadixPVector<T> data;
 
 
 	public PList(Collection<T> data) {
-		this.data = TreePVector.from(data);
+		this.data = RadixPVector.from(data);
 	}
 
 	@SafeVarargs public PList(T... data) {
-		ArrayList<T> array = new ArrayList<T>(data.length);
+		RadixPVector.Builder<T> builder = RadixPVector.builder();
 		for (T o : data)
-			array.add(o);
-		this.data = TreePVector.from(array);
+			builder.add(o);
+		this.data = builder.build();
 	}
 
 	public PList() {
-		this.data = TreePVector.empty();
+		this.data = RadixPVector.empty();
 	}
 
 	public static <T2> PList<T2> plist() {
@@ -64,10 +68,24 @@ public final class PList<T>
 		return new PList<T2>(data);
 	}
 
-	private PList(TreePVector<T> data) {
+	private PList(RadixPVector<T> data) {
 		this.data = data;
 	}
 
+	/**
+	 * Creates a builder for a new list.
+	 */
+	public static <T2> Builder<T2> builder() {
+		return new Builder<T2>(RadixPVector.<T2>builder());
+	}
+
+	/**
+	 * Creates a builder, which appends to the elements of this list.
+	 */
+	public Builder<T> toBuilder() {
+		return new Builder<T>(data.toBuilder());
+	}
+
 	@Override public T getFirst() {
 		return data.get(0);
 	}
@@ -229,10 +247,13 @@ public final class PList<T>
 	 * and the gaps are filled with the given fillElement.
 	 */
 	public PList<T> withExtend(int index, T element, T fillElement) {
-		TreePVector<T> data = this.data;
-		while (index >= data.size())
-			data = data.plus(fillElement);
-		return new PList<T>(data.with(index, element));
+		if (index < data.size())
+			return with(index, element);
+		RadixPVector.Builder<T> builder = data.toBuilder();
+		for (int i = data.size(); i < index; i++)
+			builder.add(fillElement);
+		builder.add(element);
+		return new PList<T>(builder.build());
 	}
 
 	/**
@@ -271,17 +292,12 @@ public final class PList<T>
 	/**
 	 * Splits this list at the given position. The given index
 	 * is the first element of the second part.
-	 * This is a costly operation (linear runtime complexity, no memory reuse).
+	 * Both parts share most of their memory with this list
+	 * (logarithmic runtime complexity).
 	 */
 	public Tuple2<PList<T>, PList<T>> split(int index) {
 		index = (index < 0 ? 0 : (index > size() ? size() : index));
-		PList<T> p1 = plist();
-		PList<T> p2 = plist();
-		for (int i = 0; i < index; i++)
-			p1 = p1.plus(get(i));
-		for (int i = index; i < size(); i++)
-			p2 = p2.plus(get(i));
-		return t(p1, p2);
+		return t(subList(0, index), subList(index, size()));
 	}
 
 	@Override public PList<T> subList(int fromIndex, int toIndex) {
@@ -312,4 +328,49 @@ public final class PList<T>
 		return "{size:" + data.size() + ", data:" + data.toString() + "}";
 	}
 
+
+	/**
+	 * Mutable builder for a {@link PList}, which appends elements.
+	 * {@link #build()} creates the persistent list in logarithmic time.
+	 * The builder is not thread-safe.
+	 */
+	public static final class Builder<T> {
+
+		private final RadixPVector.Builder<T> data;
+
+
+		private Builder(RadixPVector.Builder<T> data) {
+			this.data = data;
+		}
+
+		/**
+		 * Adds the given element at the end of the list.
+		 */
+		public Builder<T> add(T e) {
+			data.add(e);
+			return this;
+		}
+
+		/**
+		 * Adds the given elements at the end of the list.
+		 */
+		public Builder<T> addAll(Collection<? extends T> c) {
+			data.addAll(c);
+			return this;
+		}
+
+		public int size() {
+			return data.size();
+		}
+
+		/**
+		 * Returns a persistent list with the elements added so far.
+		 * The builder can still be used afterwards.
+		 */
+		public PList<T> build() {
+			return new PList<T>(data.build());
+		}
+
+	}
+
 }
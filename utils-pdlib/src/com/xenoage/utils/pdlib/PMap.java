@@ -6,17 +6,19 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Set;
 
-import org.pcollections.HashPMap;
-import org.pcollections.HashTreePMap;
+import org.pcollections.HashTrieMap;
 
 import com.xenoage.utils.collections.IMap;
 
 /**
- * Persistent hash map.
+ * Persistent hash map, backed by a {@link HashTrieMap}.
  * 
  * This map contains efficient producers to create modified
  * versions of this one.
  * 
+ * To create a map from many single mappings, use a {@link Builder},
+ * which does not create a new persistent map for each added mapping.
+ * 
  * Deprecated annotations are used to warn the programmer of calling
  * unsupported methods.
  * 
@@ -25,21 +27,21 @@ import com.xenoage.utils.collections.IMap;
 public final class PMap<K, V>
 	implements IMap<K, V> {
 
-	private final HashPMap<K, V> data;
+	private final HashTrieMap<K, V> data;
 
 	//cache for sorted keys
 	private PList<K> keysSorted = null;
 
 
 	public PMap(IMap<? extends K, ? extends V> map) {
-		this.data = HashTreePMap.from(map);
+		this.data = HashTrieMap.from(map);
 	}
 
 	public PMap() {
-		this.data = HashTreePMap.empty();
+		this.data = HashTrieMap.empty();
 	}
 
-	private PMap(HashPMap<K, V> data) {
+	private PMap(HashTrieMap<K, V> data) {
 		this.data = data;
 	}
 
@@ -47,6 +49,20 @@ public final class PMap<K, V>
 		return new PMap<K, V>();
 	}
 
+	/**
+	 * Creates a builder for a new map.
+	 */
+	public static <K, V> Builder<K, V> builder() {
+		return new Builder<K, V>(HashTrieMap.<K, V>builder());
+	}
+
+	/**
+	 * Creates a builder, which starts with the mappings of this map.
+	 */
+	public Builder<K, V> toBuilder() {
+		return new Builder<K, V>(data.toBuilder());
+	}
+
 	@Deprecated @Override public V put(K key, V value) {
 		throw new UnsupportedOperationException("Use plus method instead");
 	}
@@ -117,12 +133,12 @@ public final class PMap<K, V>
 	 * Linear runtime complexity.
 	 */
 	public PMap<K, V> minusValue(V value) {
-		HashPMap<K, V> ret = data;
-		for (K key : ret.keySet()) {
-			if (ret.get(key).equals(value))
-				ret = ret.minus(key);
+		HashTrieMap.Builder<K, V> ret = data.toBuilder();
+		for (K key : data.keySet()) {
+			if (data.get(key).equals(value))
+				ret.remove(key);
 		}
-		return new PMap<K, V>(ret);
+		return new PMap<K, V>(ret.build());
 	}
 
 	/**
@@ -131,12 +147,12 @@ public final class PMap<K, V>
 	 * Linear runtime complexity.
 	 */
 	public PMap<K, V> replaceValue(V oldValue, V newValue) {
-		HashPMap<K, V> ret = data;
-		for (K key : ret.keySet()) {
-			if (ret.get(key).equals(oldValue))
-				ret = ret.plus(key, newValue);
+		HashTrieMap.Builder<K, V> ret = data.toBuilder();
+		for (K key : data.keySet()) {
+			if (data.get(key).equals(oldValue))
+				ret.put(key, newValue);
 		}
-		return new PMap<K, V>(ret);
+		return new PMap<K, V>(ret.build());
 	}
 
 	@Override public int size() {
@@ -185,4 +201,65 @@ public final class PMap<K, V>
 		return data.toString();
 	}
 
+
+	/**
+	 * Mutable builder for a {@link PMap}.
+	 * {@link #build()} creates the persistent map in constant time.
+	 * The builder is not thread-safe.
+	 */
+	public static final class Builder<K, V> {
+
+		private final HashTrieMap.Builder<K, V> data;
+
+
+		private Builder(HashTrieMap.Builder<K, V> data) {
+			this.data = data;
+		}
+
+		/**
+		 * Adds or replaces the given mapping.
+		 */
+		public Builder<K, V> put(K key, V value) {
+			data.put(key, value);
+			return this;
+		}
+
+		/**
+		 * Adds or replaces all mappings of the given map.
+		 */
+		public Builder<K, V> putAll(IMap<? extends K, ? extends V> map) {
+			data.putAll(map);
+			return this;
+		}
+
+		/**
+		 * Removes the mapping of the given key, if there is one.
+		 */
+		public Builder<K, V> remove(Object key) {
+			data.remove(key);
+			return this;
+		}
+
+		public V get(Object key) {
+			return data.get(key);
+		}
+
+		public boolean containsKey(Object key) {
+			return data.containsKey(key);
+		}
+
+		public int size() {
+			return data.size();
+		}
+
+		/**
+		 * Returns a persistent map with the mappings of this builder.
+		 * The builder can still be used afterwards.
+		 */
+		public PMap<K, V> build() {
+			return new PMap<K, V>(data.build());
+		}
+
+	}
+
 }
@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 
 import org.pcollections.HashTreePSet;
+import org.pcollections.HashTrieMap;
 import org.pcollections.MapPSet;
 
 import com.xenoage.utils.collections.ISet;
@@ -15,6 +16,9 @@ import com.xenoage.utils.collections.ISet;
  * This map contains efficient producers to create modified
  * versions of this one.
  * 
+ * To create a set from many single elements, use a {@link Builder},
+ * which does not create a new persistent set for each added element.
+ * 
  * Deprecated annotations are used to warn the programmer of calling
  * unsupported methods.
  * 
@@ -34,6 +38,21 @@ public class PSet<T>
 		this.data = data;
 	}
 
+	/**
+	 * Creates a builder for a new set.
+	 */
+	public static <T2> Builder<T2> builder() {
+		return new Builder<T2>(HashTrieMap.<T2, Object>builder());
+	}
+
+	/**
+	 * Creates a builder with the elements of this set.
+	 * The nodes of this set are shared with the builder, until they are changed.
+	 */
+	public Builder<T> toBuilder() {
+		return new Builder<T>(data.toBuilder());
+	}
+
 	@Deprecated @Override public boolean add(T e) {
 		throw new UnsupportedOperationException("Use plus method instead");
 	}
@@ -106,4 +125,54 @@ public class PSet<T>
 		return new HashSet<T>(data).toString(); //TIDY
 	}
 
+
+	/**
+	 * Mutable builder for a {@link PSet}.
+	 * {@link #build()} creates the persistent set in constant time.
+	 * The builder is not thread-safe.
+	 */
+	public static final class Builder<T> {
+
+		//the elements are the keys, the values are always MapPSet.PRESENT
+		private final HashTrieMap.Builder<T, Object> data;
+
+
+		private Builder(HashTrieMap.Builder<T, Object> data) {
+			this.data = data;
+		}
+
+		public Builder<T> add(T element) {
+			data.put(element, MapPSet.PRESENT);
+			return this;
+		}
+
+		public Builder<T> addAll(Collection<? extends T> elements) {
+			for (T element : elements)
+				data.put(element, MapPSet.PRESENT);
+			return this;
+		}
+
+		public Builder<T> remove(Object element) {
+			data.remove(element);
+			return this;
+		}
+
+		public boolean contains(Object element) {
+			return data.containsKey(element);
+		}
+
+		public int size() {
+			return data.size();
+		}
+
+		/**
+		 * Returns a persistent set with the elements of this builder.
+		 * The builder can still be used afterwards.
+		 */
+		public PSet<T> build() {
+			return new PSet<T>(MapPSet.from(data.build()));
+		}
+
+	}
+
 }
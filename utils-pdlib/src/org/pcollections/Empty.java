@@ -26,7 +26,7 @@ public final class Empty {
 	}
 	
 	public static <E> PVector<E> vector() {
-		return TreePVector.empty();
+		return RadixPVector.empty();
 	}
 	
 	public static <E> PSet<E> set() {
@@ -42,6 +42,6 @@ public final class Empty {
 	}
 	
 	public static <K,V> PMap<K,V> map() {
-		return HashTreePMap.empty();
+		return HashTrieMap.empty();
 	}
 }
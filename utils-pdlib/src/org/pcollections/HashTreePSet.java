@@ -9,7 +9,7 @@ import java.util.Collection;
  *
  * A static convenience class for creating efficient persistent sets.
  * <p>
- * This class simply creates MapPSets backed by HashTreePMaps.
+ * This class simply creates MapPSets backed by HashTrieMaps.
  * 
  * @author harold
  */
@@ -17,7 +17,7 @@ public final class HashTreePSet {
 	// not instantiable (or subclassable):
 	private HashTreePSet() {}
 	
-	private static final MapPSet<Object> EMPTY = MapPSet.from(HashTreePMap.empty());
+	private static final MapPSet<Object> EMPTY = MapPSet.from(HashTrieMap.empty());
 
 	/**
 	 * @param <E>
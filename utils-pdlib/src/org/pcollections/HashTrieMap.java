@@ -0,0 +1,583 @@
+package org.pcollections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+
+
+/**
+ * 
+ * A persistent map from non-null keys to non-null values, implemented
+ * as a hash array mapped trie.
+ * <p>
+ * Each node uses 5 bits of the hashcode of the key and contains only
+ * the used slots, which are found by two 32 bit bitmaps: one for the key-value
+ * pairs stored directly in the node, and one for the subnodes. Keys and
+ * values are stored inline in the node array, so no entry objects are
+ * created by plus. Only the nodes on the path to the key are copied,
+ * and get only follows array indices.
+ * Keys with equal hashcodes are stored in collision nodes, so if all
+ * elements have the same hashcode, performance is reduced to that of an
+ * association list.
+ * <p>
+ * For bulk changes, a {@link Builder} can be used. It modifies the nodes
+ * it has created itself in place, instead of copying them again for each
+ * change, and is turned into a persistent map in constant time.
+ * <p>
+ * This implementation is thread-safe, although its iterators may not be.
+ * 
+ * @author Andreas Wenger
+ *
+ * @param <K>
+ * @param <V>
+ */
+public final class HashTrieMap<K,V> extends AbstractMap<K,V> implements PMap<K,V> {
+//// STATIC FACTORY METHODS ////
+	private static final HashTrieMap<Object,Object> EMPTY
+		= new HashTrieMap<Object,Object>(BitmapNode.EMPTY, 0);
+	private static final int BUILDER_THRESHOLD = 4;
+
+	/**
+	 * @param <K>
+	 * @param <V>
+	 * @return an empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K,V> HashTrieMap<K,V> empty() {
+		return (HashTrieMap<K,V>)EMPTY; }
+
+	/**
+	 * @param <K>
+	 * @param <V>
+	 * @param key
+	 * @param value
+	 * @return empty().plus(key, value)
+	 */
+	public static <K,V> HashTrieMap<K,V> singleton(final K key, final V value) {
+		return HashTrieMap.<K,V>empty().plus(key, value); }
+
+	/**
+	 * @param <K>
+	 * @param <V>
+	 * @return a builder for a new map
+	 */
+	public static <K,V> Builder<K,V> builder() {
+		return new Builder<K,V>(HashTrieMap.<K,V>empty()); }
+
+	/**
+	 * @param <K>
+	 * @param <V>
+	 * @param map
+	 * @return empty().plusAll(map)
+	 */
+	public static <K,V> HashTrieMap<K,V> from(final Map<? extends K, ? extends V> map) {
+		return HashTrieMap.<K,V>empty().plusAll(map); }
+
+
+//// PRIVATE CONSTRUCTORS ////
+	private final Node root;
+	private final int size;
+	// not externally instantiable (or subclassable):
+	private HashTrieMap(final Node root, final int size) {
+		this.root = root; this.size = size; }
+
+
+//// REQUIRED METHODS FROM AbstractMap ////
+	// these cache variables are thread-safe since assignment in Java is atomic:
+	private Set<Entry<K,V>> entrySet = null;
+	private Set<K> keySet = null;
+	@Override
+	public Set<Entry<K,V>> entrySet() {
+		if(entrySet==null)
+			entrySet = new AbstractSet<Entry<K,V>>() {
+				// REQUIRED METHODS OF AbstractSet //
+				@Override
+				public int size() {
+					return size; }
+				@Override
+				public Iterator<Entry<K,V>> iterator() {
+					return new TrieIterator<Entry<K,V>>(root) {
+						@Override Entry<K,V> create(final Object key, final Object value) {
+							return new SimpleImmutableEntry<K,V>(this.<K>cast(key), this.<V>cast(value)); }
+					}; }
+				// OVERRIDDEN METHODS OF AbstractSet //
+				@Override
+				public boolean contains(final Object e) {
+					if(!(e instanceof Entry))
+						return false;
+					V value = get(((Entry<?,?>)e).getKey());
+					return value!=null && value.equals(((Entry<?,?>)e).getValue());
+				}
+			};
+		return entrySet;
+	}
+
+
+//// OVERRIDDEN METHODS FROM AbstractMap ////
+	@Override
+	public int size() {
+		return size; }
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return root.get(key, key.hashCode(), 0)!=NOT_FOUND; }
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(final Object key) {
+		Object value = root.get(key, key.hashCode(), 0);
+		return value==NOT_FOUND ? null : (V)value; }
+
+	@Override
+	public Set<K> keySet() {
+		// iterate over the keys without creating entries
+		if(keySet==null)
+			keySet = new AbstractSet<K>() {
+				@Override
+				public int size() {
+					return size; }
+				@Override
+				public Iterator<K> iterator() {
+					return new TrieIterator<K>(root) {
+						@Override K create(final Object key, final Object value) {
+							return cast(key); }
+					}; }
+				@Override
+				public boolean contains(final Object key) {
+					return containsKey(key); }
+			};
+		return keySet;
+	}
+
+
+//// IMPLEMENTED METHODS OF PMap////
+	public HashTrieMap<K,V> plusAll(final Map<? extends K, ? extends V> map) {
+		if(map.size()<BUILDER_THRESHOLD) {
+			HashTrieMap<K,V> result = this;
+			for(Entry<? extends K,? extends V> entry : map.entrySet())
+				result = result.plus(entry.getKey(), entry.getValue());
+			return result;
+		}
+		return toBuilder().putAll(map).build();
+	}
+
+	public HashTrieMap<K,V> minusAll(final Collection<?> keys) {
+		if(keys.size()<BUILDER_THRESHOLD) {
+			HashTrieMap<K,V> result = this;
+			for(Object key : keys)
+				result = result.minus(key);
+			return result;
+		}
+		final Builder<K,V> builder = toBuilder();
+		for(Object key : keys)
+			builder.remove(key);
+		return builder.build();
+	}
+
+	public HashTrieMap<K,V> plus(final K key, final V value) {
+		Change change = new Change();
+		Node newRoot = root.plus(key, value, key.hashCode(), 0, change, null);
+		if(newRoot==root)
+			return this;
+		return new HashTrieMap<K,V>(newRoot, change.added ? size+1 : size);
+	}
+
+	public HashTrieMap<K,V> minus(final Object key) {
+		Node newRoot = root.minus(key, key.hashCode(), 0, new Change(), null);
+		if(newRoot==root) // key not in this
+			return this;
+		return new HashTrieMap<K,V>(newRoot, size-1);
+	}
+
+	/**
+	 * @return a builder, which starts with the content of this map
+	 */
+	public Builder<K,V> toBuilder() {
+		return new Builder<K,V>(this); }
+
+
+//// BUILDER ////
+	/**
+	 * Mutable builder for a {@link HashTrieMap}.
+	 * <p>
+	 * Each builder owns the nodes it has created. These nodes are modified in place,
+	 * all other nodes are copied on the first change, like in the persistent map.
+	 * {@link #build()} runs in constant time: it gives up the ownership of the nodes, so
+	 * further changes on this builder do not affect the built map.
+	 * <p>
+	 * A builder is not thread-safe. The built maps are, when they are passed to
+	 * other threads in a thread-safe way.
+	 *
+	 * @param <K>
+	 * @param <V>
+	 */
+	public static final class Builder<K,V> {
+		private Node root;
+		private int size;
+		// owner of the nodes which may be modified in place
+		private Object edit = new Object();
+		private final Change change = new Change();
+
+		private Builder(final HashTrieMap<K,V> map) {
+			this.root = map.root; this.size = map.size; }
+
+		/**
+		 * Adds or replaces the given mapping.
+		 */
+		public Builder<K,V> put(final K key, final V value) {
+			change.added = false;
+			root = root.plus(key, value, key.hashCode(), 0, change, edit);
+			if(change.added)
+				size++;
+			return this;
+		}
+
+		/**
+		 * Adds or replaces all mappings of the given map.
+		 */
+		public Builder<K,V> putAll(final Map<? extends K, ? extends V> map) {
+			for(Entry<? extends K,? extends V> entry : map.entrySet())
+				put(entry.getKey(), entry.getValue());
+			return this;
+		}
+
+		/**
+		 * Removes the mapping of the given key, if there is one.
+		 */
+		public Builder<K,V> remove(final Object key) {
+			change.removed = false;
+			root = root.minus(key, key.hashCode(), 0, change, edit);
+			if(change.removed)
+				size--;
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		public V get(final Object key) {
+			Object value = root.get(key, key.hashCode(), 0);
+			return value==NOT_FOUND ? null : (V)value; }
+
+		public boolean containsKey(final Object key) {
+			return root.get(key, key.hashCode(), 0)!=NOT_FOUND; }
+
+		public int size() {
+			return size; }
+
+		/**
+		 * @return a persistent map with the current content of this builder
+		 */
+		public HashTrieMap<K,V> build() {
+			edit = new Object();
+			return size==0 ? HashTrieMap.<K,V>empty() : new HashTrieMap<K,V>(root, size);
+		}
+	}
+
+
+//// PRIVATE CLASSES ////
+	/** Result of Node.get, when the key is not contained. */
+	private static final Object NOT_FOUND = new Object();
+
+	/** Reports whether plus added a new key or replaced a value, and whether minus removed a key. */
+	private static final class Change {
+		boolean added = false;
+		boolean removed = false; }
+
+	/**
+	 * Node of the trie. The key-value pairs are stored in the array as k0,v0,k1,v1,...
+	 * Nodes with an edit object are owned by the builder with this edit object,
+	 * and may only be modified in place by this builder.
+	 */
+	private static abstract class Node {
+		Object[] array;
+		final Object edit;
+		Node(final Object[] array, final Object edit) {
+			this.array = array; this.edit = edit; }
+		/** @return the value for the key, or NOT_FOUND */
+		abstract Object get(Object key, int hash, int shift);
+		/** @return the node with the given mapping, or this if unchanged or modified in place */
+		abstract Node plus(Object key, Object value, int hash, int shift, Change change, Object edit);
+		/** @return the node without the key, or this if the key is not contained or removed in place */
+		abstract Node minus(Object key, int hash, int shift, Change change, Object edit);
+		/** @return number of key-value pairs stored directly in this node */
+		abstract int dataCount();
+		/** @return number of subnodes */
+		abstract int nodeCount();
+		/** @return the subnode with the given index */
+		final Node node(final int index) {
+			return (Node)array[array.length-1-index]; }
+		/** @return true, if this node may be modified in place with the given edit object */
+		final boolean isOwned(final Object edit) {
+			return edit!=null && this.edit==edit; }
+	}
+
+	/**
+	 * Node with bitmaps for the key-value pairs and the subnodes.
+	 * The subnodes are stored in reverse order at the end of the array.
+	 */
+	private static final class BitmapNode extends Node {
+		static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0], null);
+		int dataMap, nodeMap;
+		BitmapNode(final int dataMap, final int nodeMap, final Object[] array, final Object edit) {
+			super(array, edit); this.dataMap = dataMap; this.nodeMap = nodeMap; }
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			final int bit = bit(hash, shift);
+			if((dataMap & bit)!=0) {
+				final int i = 2*index(dataMap, bit);
+				return array[i].equals(key) ? array[i+1] : NOT_FOUND;
+			}
+			if((nodeMap & bit)!=0)
+				return node(index(nodeMap, bit)).get(key, hash, shift+5);
+			return NOT_FOUND;
+		}
+
+		@Override
+		Node plus(final Object key, final Object value, final int hash, final int shift,
+			final Change change, final Object edit) {
+			final int bit = bit(hash, shift);
+			if((dataMap & bit)!=0) {
+				final int i = 2*index(dataMap, bit);
+				final Object key0 = array[i];
+				if(key0.equals(key)) {
+					// replace value
+					if(array[i+1]==value)
+						return this;
+					return set(i+1, value, edit);
+				}
+				// move both pairs into a new subnode
+				change.added = true;
+				Node sub = merge(key0, array[i+1], key0.hashCode(), key, value, hash, shift+5, edit);
+				Object[] a = new Object[array.length-1];
+				final int nodePos = array.length-2-index(nodeMap, bit);
+				System.arraycopy(array, 0, a, 0, i);
+				System.arraycopy(array, i+2, a, i, nodePos-i);
+				a[nodePos] = sub;
+				System.arraycopy(array, nodePos+2, a, nodePos+1, array.length-nodePos-2);
+				return update(dataMap ^ bit, nodeMap | bit, a, edit);
+			}
+			if((nodeMap & bit)!=0) {
+				final int pos = array.length-1-index(nodeMap, bit);
+				final Node sub = (Node)array[pos];
+				final Node newSub = sub.plus(key, value, hash, shift+5, change, edit);
+				if(newSub==sub)
+					return this;
+				return set(pos, newSub, edit);
+			}
+			// insert new pair
+			change.added = true;
+			final int i = 2*index(dataMap, bit);
+			Object[] a = new Object[array.length+2];
+			System.arraycopy(array, 0, a, 0, i);
+			a[i] = key;
+			a[i+1] = value;
+			System.arraycopy(array, i, a, i+2, array.length-i);
+			return update(dataMap | bit, nodeMap, a, edit);
+		}
+
+		@Override
+		Node minus(final Object key, final int hash, final int shift, final Change change,
+			final Object edit) {
+			final int bit = bit(hash, shift);
+			if((dataMap & bit)!=0) {
+				final int i = 2*index(dataMap, bit);
+				if(!array[i].equals(key))
+					return this;
+				change.removed = true;
+				Object[] a = new Object[array.length-2];
+				System.arraycopy(array, 0, a, 0, i);
+				System.arraycopy(array, i+2, a, i, array.length-i-2);
+				return update(dataMap ^ bit, nodeMap, a, edit);
+			}
+			if((nodeMap & bit)!=0) {
+				final int pos = array.length-1-index(nodeMap, bit);
+				final Node sub = (Node)array[pos];
+				final Node newSub = sub.minus(key, hash, shift+5, change, edit);
+				if(newSub==sub && false==change.removed)
+					return this;
+				if(newSub.dataCount()==1 && newSub.nodeCount()==0) {
+					// inline the remaining pair of the subnode
+					final int i = 2*index(dataMap, bit);
+					Object[] a = new Object[array.length+1];
+					System.arraycopy(array, 0, a, 0, i);
+					a[i] = newSub.array[0];
+					a[i+1] = newSub.array[1];
+					System.arraycopy(array, i, a, i+2, pos-i);
+					System.arraycopy(array, pos+1, a, pos+2, array.length-pos-1);
+					return update(dataMap | bit, nodeMap ^ bit, a, edit);
+				}
+				if(newSub==sub) // removed in place
+					return this;
+				return set(pos, newSub, edit);
+			}
+			return this;
+		}
+
+		@Override
+		int dataCount() {
+			return Integer.bitCount(dataMap); }
+
+		@Override
+		int nodeCount() {
+			return Integer.bitCount(nodeMap); }
+
+		/** @return this node or a copy of it, where the given array element is replaced */
+		private Node set(final int i, final Object o, final Object edit) {
+			if(isOwned(edit)) {
+				array[i] = o;
+				return this;
+			}
+			Object[] a = array.clone();
+			a[i] = o;
+			return new BitmapNode(dataMap, nodeMap, a, edit);
+		}
+
+		/** @return this node or a new node, with the given bitmaps and array */
+		private Node update(final int dataMap, final int nodeMap, final Object[] array, final Object edit) {
+			if(isOwned(edit)) {
+				this.dataMap = dataMap;
+				this.nodeMap = nodeMap;
+				this.array = array;
+				return this;
+			}
+			return new BitmapNode(dataMap, nodeMap, array, edit);
+		}
+	}
+
+	/** Node for keys with the same hashcode. It is always copied on changes. */
+	private static final class CollisionNode extends Node {
+		final int hash;
+		CollisionNode(final int hash, final Object[] array) {
+			super(array, null); this.hash = hash; }
+
+		@Override
+		Object get(final Object key, final int hash, final int shift) {
+			final int i = indexOf(key);
+			return i==-1 ? NOT_FOUND : array[i+1]; }
+
+		@Override
+		Node plus(final Object key, final Object value, final int hash, final int shift,
+			final Change change, final Object edit) {
+			final int i = indexOf(key);
+			if(i!=-1) {
+				if(array[i+1]==value)
+					return this;
+				Object[] a = array.clone();
+				a[i+1] = value;
+				return new CollisionNode(hash, a);
+			}
+			change.added = true;
+			Object[] a = new Object[array.length+2];
+			System.arraycopy(array, 0, a, 0, array.length);
+			a[array.length] = key;
+			a[array.length+1] = value;
+			return new CollisionNode(hash, a);
+		}
+
+		@Override
+		Node minus(final Object key, final int hash, final int shift, final Change change,
+			final Object edit) {
+			final int i = indexOf(key);
+			if(i==-1)
+				return this;
+			change.removed = true;
+			Object[] a = new Object[array.length-2];
+			System.arraycopy(array, 0, a, 0, i);
+			System.arraycopy(array, i+2, a, i, array.length-i-2);
+			return new CollisionNode(hash, a);
+		}
+
+		@Override
+		int dataCount() {
+			return array.length/2; }
+
+		@Override
+		int nodeCount() {
+			return 0; }
+
+		private int indexOf(final Object key) {
+			for(int i=0; i<array.length; i+=2)
+				if(array[i].equals(key))
+					return i;
+			return -1;
+		}
+	}
+
+	/** Iterator over the key-value pairs of the trie, depth first. */
+	private static abstract class TrieIterator<E> implements Iterator<E> {
+		// 7 levels of bitmap nodes and one level of collision nodes
+		private final Node[] nodes = new Node[8];
+		private final int[] dataPos = new int[8], nodePos = new int[8];
+		private int level = 0;
+		TrieIterator(final Node root) {
+			nodes[0] = root; }
+
+		abstract E create(Object key, Object value);
+
+		@SuppressWarnings("unchecked")
+		final <T> T cast(final Object o) {
+			return (T)o; }
+
+		public boolean hasNext() {
+			while(level>=0) {
+				Node node = nodes[level];
+				if(dataPos[level]<node.dataCount())
+					return true;
+				if(nodePos[level]<node.nodeCount()) {
+					// descend
+					Node sub = node.node(nodePos[level]++);
+					level++;
+					nodes[level] = sub;
+					dataPos[level] = 0;
+					nodePos[level] = 0;
+				}
+				else {
+					nodes[level] = null;
+					level--;
+				}
+			}
+			return false;
+		}
+
+		public E next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			final Object[] a = nodes[level].array;
+			final int i = 2*dataPos[level]++;
+			return create(a[i], a[i+1]);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException(); }
+	}
+
+
+//// PRIVATE STATIC UTILITIES ////
+	private static int bit(final int hash, final int shift) {
+		return 1 << ((hash >>> shift) & 31); }
+
+	private static int index(final int bitmap, final int bit) {
+		return Integer.bitCount(bitmap & (bit-1)); }
+
+	/** @return a node containing both given pairs, with different keys, owned by the given edit object */
+	private static Node merge(final Object key0, final Object value0, final int hash0,
+		final Object key1, final Object value1, final int hash1, final int shift, final Object edit) {
+		if(shift>=32) // all bits are used
+			return new CollisionNode(hash0, new Object[]{key0, value0, key1, value1});
+		final int mask0 = (hash0 >>> shift) & 31, mask1 = (hash1 >>> shift) & 31;
+		final int bit0 = 1 << mask0, bit1 = 1 << mask1;
+		if(bit0!=bit1) {
+			Object[] a = (mask0<mask1) ?
+				new Object[]{key0, value0, key1, value1} : new Object[]{key1, value1, key0, value0};
+			return new BitmapNode(bit0 | bit1, 0, a, edit);
+		}
+		return new BitmapNode(0, bit0,
+			new Object[]{merge(key0, value0, hash0, key1, value1, hash1, shift+5, edit)}, edit);
+	}
+}
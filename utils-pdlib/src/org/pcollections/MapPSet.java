@@ -72,9 +72,30 @@ public final class MapPSet<E> extends AbstractSet<E> implements PSet<E> {
 //// IMPLEMENTED METHODS OF PSet ////
 	private static enum In {IN}
 	
+	/**
+	 * The value which is stored in the backing map for each element.
+	 * Builders of sets must use it too, since {@link HashTrieMap#plus}
+	 * compares the values by identity.
+	 */
+	public static final Object PRESENT = In.IN;
+	
+	/**
+	 * @return a builder with the elements of this set. If the backing map is a
+	 * {@link HashTrieMap}, its nodes are shared with the builder until they are changed
+	 */
+	@SuppressWarnings("unchecked")
+	public HashTrieMap.Builder<E,Object> toBuilder() {
+		if(map instanceof HashTrieMap)
+			return ((HashTrieMap<E,Object>)map).toBuilder();
+		final HashTrieMap.Builder<E,Object> builder = HashTrieMap.builder();
+		for(E e : this)
+			builder.put(e, PRESENT);
+		return builder;
+	}
+	
 	public MapPSet<E> plus(final E e) {
 		if(contains(e)) return this;
-		return new MapPSet<E>(map.plus(e, In.IN));
+		return new MapPSet<E>(map.plus(e, PRESENT));
 	}
 	
 	public MapPSet<E> minus(final Object e) {
@@ -83,9 +104,16 @@ public final class MapPSet<E> extends AbstractSet<E> implements PSet<E> {
 	}
 
 	public MapPSet<E> plusAll(final Collection<? extends E> list) {
+		if(map instanceof HashTrieMap) {
+			// change the nodes in place
+			final HashTrieMap.Builder<E,Object> builder = ((HashTrieMap<E,Object>)map).toBuilder();
+			for(E e : list)
+				builder.put(e, PRESENT);
+			return from(builder.build());
+		}
 		PMap<E,Object> map = this.map;
 		for(E e : list)
-			map = map.plus(e, In.IN);
+			map = map.plus(e, PRESENT);
 		return from(map);
 	}
 	
@@ -0,0 +1,651 @@
+package org.pcollections;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+
+/**
+ *
+ * A persistent vector of elements, implemented as a 32-way branching tree.
+ * <p>
+ * The elements are stored in leaf arrays of up to 32 elements, and each
+ * inner node stores the cumulated sizes of its up to 32 children, so that
+ * nodes do not need to be completely filled. All leaves have the same depth.
+ * The last up to 32 elements are kept in a separate tail array, so that
+ * appending at the end usually only copies the tail.
+ * <p>
+ * Querying and setting take time logarithmic to base 32. Appending is amortized
+ * constant time. Insertion and removal at any position, subList and
+ * concatenation (plusAll with another RadixPVector) take logarithmic time,
+ * since only the nodes on the affected paths are copied and all other nodes
+ * are shared. Iteration reads the leaf arrays sequentially.
+ * <p>
+ * For appending many elements, a {@link Builder} can be used. It fills
+ * the leaves and inner nodes from left to right without creating any
+ * intermediate vectors.
+ * <p>
+ * This implementation is thread-safe (assuming Java's AbstractList is thread-safe)
+ * although its iterators may not be.
+ *
+ * @author Andreas Wenger
+ *
+ * @param <E>
+ */
+public final class RadixPVector<E> extends AbstractList<E> implements PVector<E> {
+//// STATIC FACTORY METHODS ////
+	private static final int WIDTH = 32;
+	private static final Object[] NO_ELEMENTS = new Object[0];
+	private static final RadixPVector<Object> EMPTY = new RadixPVector<Object>(null, 0, NO_ELEMENTS, 0);
+
+	/**
+	 * @param <E>
+	 * @return an empty vector
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> RadixPVector<E> empty() {
+		return (RadixPVector<E>)EMPTY; }
+
+	/**
+	 * @param <E>
+	 * @param e
+	 * @return empty().plus(e)
+	 */
+	public static <E> RadixPVector<E> singleton(final E e) {
+		return RadixPVector.<E>empty().plus(e); }
+
+	/**
+	 * @param <E>
+	 * @return a builder for a new vector
+	 */
+	public static <E> Builder<E> builder() {
+		return new Builder<E>(RadixPVector.<E>empty()); }
+
+	/**
+	 * @param <E>
+	 * @param list
+	 * @return empty().plusAll(list)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> RadixPVector<E> from(final Collection<? extends E> list) {
+		if(list instanceof RadixPVector)
+			return (RadixPVector<E>)list; // immutable, so we can not mess someone else up
+		return RadixPVector.<E>empty().plusAll(list);
+	}
+
+
+//// PRIVATE CONSTRUCTORS ////
+	// tree with all elements except the tail, or null. height 0 means that root is a leaf
+	private final Node root;
+	private final int height;
+	// last elements. may be empty, even if the tree is not
+	private final Object[] tail;
+	private final int size;
+	private RadixPVector(final Node root, final int height, final Object[] tail, final int size) {
+		this.root = root; this.height = height; this.tail = tail; this.size = size; }
+
+	/** @return a vector with the given tree and tail, where single-child roots are removed */
+	private static <E> RadixPVector<E> create(Node root, int height, final Object[] tail) {
+		while(root!=null && height>0 && ((Branch)root).children.length==1) {
+			root = ((Branch)root).children[0];
+			height--;
+		}
+		if(root==null && tail.length==0)
+			return empty();
+		return new RadixPVector<E>(root, root==null ? 0 : height, tail,
+				(root==null ? 0 : root.size()) + tail.length);
+	}
+
+
+//// REQUIRED METHODS FROM AbstractList ////
+	@Override
+	public int size() {
+		return size; }
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if(index<0 || index>=size)
+			throw new IndexOutOfBoundsException();
+		final int treeSize = size-tail.length;
+		if(index>=treeSize)
+			return (E)tail[index-treeSize];
+		Node node = root;
+		while(node instanceof Branch) {
+			final Branch branch = (Branch)node;
+			final int k = branch.childIndex(index);
+			index -= branch.offset(k);
+			node = branch.children[k];
+		}
+		return (E)((Leaf)node).items[index];
+	}
+
+
+//// OVERRIDDEN METHODS FROM AbstractList ////
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private int index = 0;
+			// current leaf and the index of its first element
+			private Object[] items = NO_ELEMENTS;
+			private int itemsStart = 0;
+
+			public boolean hasNext() {
+				return index<size; }
+
+			@SuppressWarnings("unchecked")
+			public E next() {
+				if(index>=size)
+					throw new NoSuchElementException();
+				if(index-itemsStart>=items.length) {
+					// find next leaf
+					final int treeSize = size-tail.length;
+					if(index>=treeSize) {
+						items = tail;
+						itemsStart = treeSize;
+					}
+					else {
+						int i = index;
+						Node node = root;
+						while(node instanceof Branch) {
+							final Branch branch = (Branch)node;
+							final int k = branch.childIndex(i);
+							i -= branch.offset(k);
+							node = branch.children[k];
+						}
+						items = ((Leaf)node).items;
+						itemsStart = index-i;
+					}
+				}
+				return (E)items[index++ - itemsStart];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException(); }
+		};
+	}
+
+	@Override
+	public RadixPVector<E> subList(final int start, final int end) {
+		if(start<0 || end>size || start>end)
+			throw new IndexOutOfBoundsException();
+		if(start==0 && end==size)
+			return this;
+		if(start==end)
+			return empty();
+		final int treeSize = size-tail.length;
+		final Node newRoot = (start<treeSize) ? slice(root, start, Math.min(end, treeSize)) : null;
+		final Object[] newTail = (end>treeSize) ?
+			copyOfRange(tail, Math.max(start-treeSize, 0), end-treeSize) : NO_ELEMENTS;
+		return create(newRoot, height, newTail);
+	}
+
+
+//// IMPLEMENTED METHODS OF PVector ////
+	public RadixPVector<E> plus(final E e) {
+		if(tail.length<WIDTH) {
+			final Object[] newTail = new Object[tail.length+1];
+			System.arraycopy(tail, 0, newTail, 0, tail.length);
+			newTail[tail.length] = e;
+			return new RadixPVector<E>(root, height, newTail, size+1);
+		}
+		// move the full tail into the tree
+		return RadixPVector.<E>join(root, height, new Leaf(tail), 0, new Object[]{e});
+	}
+
+	public RadixPVector<E> plus(final int i, final E e) {
+		if(i<0 || i>size)
+			throw new IndexOutOfBoundsException();
+		if(i==size)
+			return plus(e);
+		final int treeSize = size-tail.length;
+		if(i>=treeSize) {
+			// insert into tail
+			final Object[] newTail = insert(tail, i-treeSize, e);
+			if(newTail.length<=WIDTH)
+				return new RadixPVector<E>(root, height, newTail, size+1);
+			// move the first 32 elements into the tree
+			return RadixPVector.<E>join(root, height, new Leaf(copyOfRange(newTail, 0, WIDTH)), 0,
+				new Object[]{newTail[WIDTH]});
+		}
+		final Node[] nodes = insert(root, i, e);
+		if(nodes.length==1)
+			return new RadixPVector<E>(nodes[0], height, tail, size+1);
+		return new RadixPVector<E>(new Branch(nodes), height+1, tail, size+1);
+	}
+
+	public RadixPVector<E> minus(final Object e) {
+		final int i = indexOf(e);
+		if(i==-1)
+			return this;
+		return minus(i);
+	}
+
+	public RadixPVector<E> minus(final int i) {
+		if(i<0 || i>=size)
+			throw new IndexOutOfBoundsException();
+		final int treeSize = size-tail.length;
+		if(i>=treeSize) {
+			if(size==1)
+				return empty();
+			return new RadixPVector<E>(root, height, remove(tail, i-treeSize), size-1);
+		}
+		return create(remove(root, height, i), height, tail);
+	}
+
+	public RadixPVector<E> plusAll(final Collection<? extends E> list) {
+		if(list.size()==0)
+			return this;
+		if(list instanceof RadixPVector && list.size()>WIDTH) {
+			// concatenate the trees
+			final RadixPVector<?> other = (RadixPVector<?>)list;
+			RadixPVector<E> left = this;
+			if(tail.length>0)
+				left = join(root, height, new Leaf(tail), 0, NO_ELEMENTS);
+			return join(left.root, left.height, other.root, other.height, other.tail);
+		}
+		return toBuilder().addAll(list).build();
+	}
+
+	public RadixPVector<E> minusAll(final Collection<?> list) {
+		RadixPVector<E> result = this;
+		for(Object e : list)
+			result = result.minus(e);
+		return result;
+	}
+
+	public RadixPVector<E> plusAll(final int i, final Collection<? extends E> list) {
+		if(i<0 || i>size)
+			throw new IndexOutOfBoundsException();
+		if(list.size()==0)
+			return this;
+		if(i==size)
+			return plusAll(list);
+		return subList(0, i).plusAll(list).plusAll(subList(i, size));
+	}
+
+	public RadixPVector<E> with(int i, final E e) {
+		if(i<0 || i>=size)
+			throw new IndexOutOfBoundsException();
+		final int treeSize = size-tail.length;
+		if(i>=treeSize) {
+			i -= treeSize;
+			if(tail[i]==e)
+				return this;
+			final Object[] newTail = tail.clone();
+			newTail[i] = e;
+			return new RadixPVector<E>(root, height, newTail, size);
+		}
+		final Node newRoot = with(root, i, e);
+		if(newRoot==root)
+			return this;
+		return new RadixPVector<E>(newRoot, height, tail, size);
+	}
+
+	/**
+	 * @return a builder, which appends to the elements of this vector
+	 */
+	public Builder<E> toBuilder() {
+		return new Builder<E>(this); }
+
+
+//// BUILDER ////
+	/**
+	 * Mutable builder for a {@link RadixPVector}, which appends elements.
+	 * <p>
+	 * The elements are collected in a leaf buffer. Full leaves are collected
+	 * in a buffer for the next level of the tree, and so on, so each node is
+	 * created only once. {@link #build()} creates only the nodes on the
+	 * rightmost path of the tree, which is logarithmic time. The builder can be
+	 * used further after building.
+	 * <p>
+	 * A builder is not thread-safe.
+	 *
+	 * @param <E>
+	 */
+	public static final class Builder<E> {
+		// vector to append to
+		private final RadixPVector<E> base;
+		private Object[] leaf = new Object[WIDTH];
+		private int leafSize = 0;
+		// levels[l] collects up to 31 full nodes of height l
+		private Node[][] levels = new Node[0][];
+		private int[] levelSizes = new int[0];
+		private int size = 0;
+
+		private Builder(final RadixPVector<E> base) {
+			this.base = base; }
+
+		/**
+		 * Appends the given element.
+		 */
+		public Builder<E> add(final E e) {
+			if(leafSize==WIDTH) {
+				push(new Leaf(leaf), 0);
+				leaf = new Object[WIDTH];
+				leafSize = 0;
+			}
+			leaf[leafSize++] = e;
+			size++;
+			return this;
+		}
+
+		/**
+		 * Appends all elements of the given collection.
+		 */
+		public Builder<E> addAll(final Collection<? extends E> list) {
+			for(E e : list)
+				add(e);
+			return this;
+		}
+
+		/**
+		 * Gets the number of elements, including the ones of the vector
+		 * this builder was created from.
+		 */
+		public int size() {
+			return base.size+size; }
+
+		/**
+		 * @return a persistent vector with the current content of this builder
+		 */
+		public RadixPVector<E> build() {
+			// collect the nodes of each level into a node of the next level
+			Node node = null;
+			int height = 0;
+			for(int l=0; l<levels.length; l++) {
+				final int count = levelSizes[l] + (node!=null ? 1 : 0);
+				if(count>0) {
+					final Node[] children = new Node[count];
+					System.arraycopy(levels[l], 0, children, 0, levelSizes[l]);
+					if(node!=null)
+						children[count-1] = node;
+					node = new Branch(children);
+					height = l+1;
+				}
+			}
+			final Object[] tail = copyOfRange(leaf, 0, leafSize);
+			if(base.size==0)
+				return create(node, height, tail);
+			if(node==null && base.tail.length+leafSize<=WIDTH) {
+				final Object[] newTail = new Object[base.tail.length+leafSize];
+				System.arraycopy(base.tail, 0, newTail, 0, base.tail.length);
+				System.arraycopy(leaf, 0, newTail, base.tail.length, leafSize);
+				return new RadixPVector<E>(base.root, base.height, newTail, base.size+leafSize);
+			}
+			// append to the base vector
+			RadixPVector<E> left = base;
+			if(base.tail.length>0)
+				left = join(base.root, base.height, new Leaf(base.tail), 0, NO_ELEMENTS);
+			return join(left.root, left.height, node, height, tail);
+		}
+
+		/** Adds the given full node of the given height to the next level. */
+		private void push(final Node node, final int height) {
+			if(height==levels.length) {
+				final Node[][] newLevels = new Node[height+1][];
+				System.arraycopy(levels, 0, newLevels, 0, height);
+				newLevels[height] = new Node[WIDTH];
+				levels = newLevels;
+				final int[] newLevelSizes = new int[height+1];
+				System.arraycopy(levelSizes, 0, newLevelSizes, 0, height);
+				levelSizes = newLevelSizes;
+			}
+			levels[height][levelSizes[height]++] = node;
+			if(levelSizes[height]==WIDTH) {
+				push(new Branch(levels[height]), height+1);
+				levels[height] = new Node[WIDTH];
+				levelSizes[height] = 0;
+			}
+		}
+	}
+
+
+//// PRIVATE CLASSES ////
+	private static abstract class Node {
+		abstract int size(); }
+
+	private static final class Leaf extends Node {
+		final Object[] items;
+		Leaf(final Object[] items) {
+			this.items = items; }
+		@Override
+		int size() {
+			return items.length; }
+	}
+
+	private static final class Branch extends Node {
+		final Node[] children;
+		// sizes[k] is the number of elements in the children 0 to k
+		final int[] sizes;
+		Branch(final Node[] children) {
+			this.children = children;
+			this.sizes = new int[children.length];
+			int sum = 0;
+			for(int k=0; k<children.length; k++)
+				sizes[k] = (sum += children[k].size());
+		}
+		Branch(final Node[] children, final int[] sizes) {
+			this.children = children; this.sizes = sizes; }
+		@Override
+		int size() {
+			return sizes[sizes.length-1]; }
+		/** @return the index of the child containing the element at the given index */
+		int childIndex(final int index) {
+			int low = 0, high = sizes.length-1;
+			while(low<high) {
+				final int mid = (low+high)>>>1;
+				if(sizes[mid]>index)
+					high = mid;
+				else
+					low = mid+1;
+			}
+			return low;
+		}
+		/** @return the index of the first element of the given child */
+		int offset(final int k) {
+			return k==0 ? 0 : sizes[k-1]; }
+	}
+
+
+//// PRIVATE STATIC UTILITIES ////
+	/** @return a vector with the concatenation of the given trees and the given tail */
+	private static <E> RadixPVector<E> join(final Node a, final int heightA, final Node b,
+		final int heightB, final Object[] tail) {
+		if(a==null)
+			return create(b, heightB, tail);
+		if(b==null)
+			return create(a, heightA, tail);
+		final Node[] nodes = (heightA>=heightB) ? joinRight(a, heightA, b, heightB) :
+			joinLeft(a, heightA, b, heightB);
+		final int height = Math.max(heightA, heightB);
+		if(nodes.length==1)
+			return create(nodes[0], height, tail);
+		return create(new Branch(nodes), height+1, tail);
+	}
+
+	/** @return one or two nodes of height heightA, containing a followed by b */
+	private static Node[] joinRight(final Node a, final int heightA, final Node b, final int heightB) {
+		if(heightA==heightB)
+			return joinSameHeight(a, b);
+		final Branch branch = (Branch)a;
+		final int last = branch.children.length-1;
+		final Node[] nodes = joinRight(branch.children[last], heightA-1, b, heightB);
+		return replaceChildren(branch, last, nodes, false);
+	}
+
+	/** @return one or two nodes of height heightB, containing a followed by b */
+	private static Node[] joinLeft(final Node a, final int heightA, final Node b, final int heightB) {
+		if(heightA==heightB)
+			return joinSameHeight(a, b);
+		final Branch branch = (Branch)b;
+		final Node[] nodes = joinLeft(a, heightA, branch.children[0], heightB-1);
+		return replaceChildren(branch, 0, nodes, false);
+	}
+
+	/** @return one node with the content of both nodes, if it fits, otherwise both nodes */
+	private static Node[] joinSameHeight(final Node a, final Node b) {
+		if(a instanceof Leaf) {
+			final Object[] itemsA = ((Leaf)a).items, itemsB = ((Leaf)b).items;
+			if(itemsA.length+itemsB.length>WIDTH)
+				return new Node[]{a, b};
+			final Object[] items = new Object[itemsA.length+itemsB.length];
+			System.arraycopy(itemsA, 0, items, 0, itemsA.length);
+			System.arraycopy(itemsB, 0, items, itemsA.length, itemsB.length);
+			return new Node[]{new Leaf(items)};
+		}
+		final Node[] childrenA = ((Branch)a).children, childrenB = ((Branch)b).children;
+		if(childrenA.length+childrenB.length>WIDTH)
+			return new Node[]{a, b};
+		final Node[] children = new Node[childrenA.length+childrenB.length];
+		System.arraycopy(childrenA, 0, children, 0, childrenA.length);
+		System.arraycopy(childrenB, 0, children, childrenA.length, childrenB.length);
+		return new Node[]{new Branch(children)};
+	}
+
+	/**
+	 * @return one or two branches, where the child at index k of the given branch
+	 * 	is replaced by the given nodes. If the branch overflows, it is split in the middle
+	 * 	if splitHalf is true, otherwise after the first 32 children
+	 */
+	private static Node[] replaceChildren(final Branch branch, final int k, final Node[] nodes,
+		final boolean splitHalf) {
+		final Node[] old = branch.children;
+		final Node[] children = new Node[old.length-1+nodes.length];
+		System.arraycopy(old, 0, children, 0, k);
+		System.arraycopy(nodes, 0, children, k, nodes.length);
+		System.arraycopy(old, k+1, children, k+nodes.length, old.length-k-1);
+		if(children.length<=WIDTH)
+			return new Node[]{new Branch(children)};
+		final int split = splitHalf ? children.length/2 : WIDTH;
+		return new Node[]{new Branch(copyOfRange(children, 0, split)),
+			new Branch(copyOfRange(children, split, children.length))};
+	}
+
+	/** @return the given node, where the element at the given index is replaced */
+	private static Node with(final Node node, final int index, final Object e) {
+		if(node instanceof Leaf) {
+			final Object[] items = ((Leaf)node).items;
+			if(items[index]==e)
+				return node;
+			final Object[] newItems = items.clone();
+			newItems[index] = e;
+			return new Leaf(newItems);
+		}
+		final Branch branch = (Branch)node;
+		final int k = branch.childIndex(index);
+		final Node child = branch.children[k];
+		final Node newChild = with(child, index-branch.offset(k), e);
+		if(newChild==child)
+			return node;
+		final Node[] children = branch.children.clone();
+		children[k] = newChild;
+		return new Branch(children, branch.sizes);
+	}
+
+	/** @return one or two nodes, containing the given node with the inserted element */
+	private static Node[] insert(final Node node, final int index, final Object e) {
+		if(node instanceof Leaf) {
+			final Object[] items = insert(((Leaf)node).items, index, e);
+			if(items.length<=WIDTH)
+				return new Node[]{new Leaf(items)};
+			final int split = items.length/2;
+			return new Node[]{new Leaf(copyOfRange(items, 0, split)),
+				new Leaf(copyOfRange(items, split, items.length))};
+		}
+		final Branch branch = (Branch)node;
+		final int k = branch.childIndex(index);
+		return replaceChildren(branch, k, insert(branch.children[k], index-branch.offset(k), e), true);
+	}
+
+	/** @return the given node without the element at the given index, or null if it gets empty */
+	private static Node remove(final Node node, final int height, final int index) {
+		if(node instanceof Leaf) {
+			final Object[] items = ((Leaf)node).items;
+			if(items.length==1)
+				return null;
+			return new Leaf(remove(items, index));
+		}
+		final Branch branch = (Branch)node;
+		final int k = branch.childIndex(index);
+		final Node newChild = remove(branch.children[k], height-1, index-branch.offset(k));
+		if(newChild==null) {
+			if(branch.children.length==1)
+				return null;
+			return new Branch(remove(branch.children, k));
+		}
+		if(height==1 && branch.children.length>1 && newChild.size()<WIDTH/4) {
+			// merge small leaf with a neighbor
+			final int n = (k>0) ? k-1 : k+1;
+			final int first = Math.min(k, n);
+			final Node a = (first==k) ? newChild : branch.children[first];
+			final Node b = (first==k) ? branch.children[first+1] : newChild;
+			final Node[] merged = joinSameHeight(a, b);
+			if(merged.length==1) {
+				final Node[] children = remove(branch.children, first+1);
+				children[first] = merged[0];
+				return new Branch(children);
+			}
+		}
+		final Node[] children = branch.children.clone();
+		children[k] = newChild;
+		return new Branch(children);
+	}
+
+	/** @return a node with the elements from start (inclusive) to end (exclusive) of the given node */
+	private static Node slice(final Node node, final int start, final int end) {
+		if(start==0 && end==node.size())
+			return node;
+		if(node instanceof Leaf)
+			return new Leaf(copyOfRange(((Leaf)node).items, start, end));
+		final Branch branch = (Branch)node;
+		final int k0 = branch.childIndex(start), k1 = branch.childIndex(end-1);
+		final int offset0 = branch.offset(k0), offset1 = branch.offset(k1);
+		final Node[] children = new Node[k1-k0+1];
+		if(k0==k1) {
+			children[0] = slice(branch.children[k0], start-offset0, end-offset0);
+		}
+		else {
+			children[0] = slice(branch.children[k0], start-offset0, branch.children[k0].size());
+			System.arraycopy(branch.children, k0+1, children, 1, k1-k0-1);
+			children[k1-k0] = slice(branch.children[k1], 0, end-offset1);
+		}
+		return new Branch(children);
+	}
+
+	private static Object[] insert(final Object[] a, final int index, final Object e) {
+		final Object[] ret = new Object[a.length+1];
+		System.arraycopy(a, 0, ret, 0, index);
+		ret[index] = e;
+		System.arraycopy(a, index, ret, index+1, a.length-index);
+		return ret;
+	}
+
+	private static Object[] remove(final Object[] a, final int index) {
+		final Object[] ret = new Object[a.length-1];
+		System.arraycopy(a, 0, ret, 0, index);
+		System.arraycopy(a, index+1, ret, index, a.length-index-1);
+		return ret;
+	}
+
+	private static Node[] remove(final Node[] a, final int index) {
+		final Node[] ret = new Node[a.length-1];
+		System.arraycopy(a, 0, ret, 0, index);
+		System.arraycopy(a, index+1, ret, index, a.length-index-1);
+		return ret;
+	}
+
+	private static Object[] copyOfRange(final Object[] a, final int start, final int end) {
+		final Object[] ret = new Object[end-start];
+		System.arraycopy(a, start, ret, 0, end-start);
+		return ret;
+	}
+
+	private static Node[] copyOfRange(final Node[] a, final int start, final int end) {
+		final Node[] ret = new Node[end-start];
+		System.arraycopy(a, start, ret, 0, end-start);
+		return ret;
+	}
+}
@@ -2,6 +2,11 @@ package com.xenoage.utils.collections;
 
 import static com.xenoage.utils.collections.BiMap.biMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -38,5 +43,68 @@ public class BiMapTest {
 		assertEquals("1", map.get1("3"));
 		assertEquals("3", map.get2("1"));
 	}
+	
+	/**
+	 * Compares the behavior with two {@link HashMap}s, also for
+	 * removals and the {@link IntObjectBiMap}.
+	 */
+	@Test public void testRandom() {
+		BiMap<Integer, String> map = biMap();
+		IntObjectBiMap<String> intMap = IntObjectBiMap.intObjectBiMap();
+		Map<Integer, String> expected1 = new HashMap<Integer, String>();
+		Map<String, Integer> expected2 = new HashMap<String, Integer>();
+		Random r = new Random();
+		for (int i = 0; i < 20000; i++) {
+			int value1 = r.nextInt(1000);
+			String value2 = "" + r.nextInt(1000);
+			int op = r.nextInt(4);
+			if (op < 2) {
+				map.put(value1, value2);
+				intMap.put(value1, value2);
+				if (expected1.containsKey(value1))
+					expected2.remove(expected1.remove(value1));
+				if (expected2.containsKey(value2))
+					expected1.remove(expected2.remove(value2));
+				expected1.put(value1, value2);
+				expected2.put(value2, value1);
+			}
+			else if (op == 2) {
+				map.remove1(value1);
+				intMap.remove1(value1);
+				if (expected1.containsKey(value1))
+					expected2.remove(expected1.remove(value1));
+			}
+			else {
+				map.remove2(value2);
+				intMap.remove2(value2);
+				if (expected2.containsKey(value2))
+					expected1.remove(expected2.remove(value2));
+			}
+			assertEquals(expected1.size(), map.size());
+			assertEquals(expected1.size(), intMap.size());
+			value1 = r.nextInt(1000);
+			value2 = "" + r.nextInt(1000);
+			assertEquals(expected1.get(value1), map.get2(value1));
+			assertEquals(expected1.get(value1), intMap.get2(value1));
+			assertEquals(expected2.get(value2), map.get1(value2));
+			Integer id = expected2.get(value2);
+			assertEquals(id != null ? id : -1, intMap.get1(value2));
+		}
+		//batch insert
+		BiMap<Integer, String> copy = biMap();
+		copy.putAll(expected1);
+		BiMap<Integer, String> copy2 = biMap();
+		copy2.putAll(copy);
+		IntObjectBiMap<String> intCopy = new IntObjectBiMap<String>(0);
+		intCopy.putAll(intMap);
+		for (Map.Entry<Integer, String> e : expected1.entrySet()) {
+			assertEquals(e.getKey(), copy2.get1(e.getValue()));
+			assertEquals(e.getValue(), copy2.get2(e.getKey()));
+			assertEquals((int) e.getKey(), intCopy.get1(e.getValue()));
+		}
+		assertEquals(expected1.size(), copy2.size());
+		assertEquals(expected1.size(), intCopy.size());
+		assertNull(copy2.get2(null));
+	}
 
 }
@@ -1,9 +1,12 @@
 package com.xenoage.utils.collections;
 
 import static com.xenoage.utils.collections.CList.clist;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -69,4 +72,59 @@ public class CListTest {
 		return new long[] { durationNoBranch, durationBranch };
 	}
 
+	/**
+	 * Writing the original list after branching must not change the branch.
+	 */
+	@Test public void testWriteOriginalAfterBranch() {
+		CList<Integer> original = clist(1, 2, 3);
+		CList<Integer> branch = clist((IList<Integer>) original);
+		original.set(0, 5);
+		assertEquals(1, (int) branch.get(0));
+		branch.add(4);
+		assertEquals(3, original.size());
+		assertEquals(5, (int) original.get(0));
+		CMap<Integer, Integer> originalMap = CMap.cmap();
+		originalMap.put(1, 1);
+		CMap<Integer, Integer> branchMap = CMap.cmap((IMap<Integer, Integer>) originalMap);
+		originalMap.put(1, 2);
+		assertEquals(1, (int) branchMap.get(1));
+	}
+
+	/**
+	 * Branches of a closed list are created and written in many threads.
+	 */
+	@Test public void testConcurrentBranches()
+		throws Exception {
+		final CList<Integer> original = new CList<Integer>();
+		for (int i = 0; i < 1000; i++)
+			original.add(i);
+		original.close();
+		final AtomicInteger errors = new AtomicInteger();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int iThread = 0; iThread < 8; iThread++) {
+			final int id = iThread;
+			Thread thread = new Thread() {
+
+				@Override public void run() {
+					for (int i = 0; i < 200; i++) {
+						CList<Integer> branch = clist((IList<Integer>) original);
+						CList<Integer> branch2 = clist((IList<Integer>) branch);
+						branch.set(i, -id);
+						branch2.add(id);
+						if (branch.get(i) != -id || original.get(i) != i || branch2.get(i) != i ||
+							branch2.size() != 1001 || branch.size() != 1000)
+							errors.incrementAndGet();
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(0, errors.get());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, (int) original.get(i));
+	}
+
 }
@@ -0,0 +1,74 @@
+package com.xenoage.utils.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link IntIntMap} and {@link IntObjectMap}.
+ * 
+ * @author Andreas Wenger
+ */
+public class IntIntMapTest {
+
+	/**
+	 * Compares the behavior with a {@link HashMap}, with many removals
+	 * and keys with regular patterns.
+	 */
+	@Test public void randomTest() {
+		IntIntMap map = new IntIntMap();
+		IntObjectMap<String> objectMap = new IntObjectMap<String>();
+		final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		Random r = new Random();
+		for (int i = 0; i < 50000; i++) {
+			int key = (r.nextBoolean() ? r.nextInt(500) * 1024 : r.nextInt());
+			if (r.nextInt(3) > 0) {
+				int value = r.nextInt();
+				map.put(key, value);
+				objectMap.put(key, "" + value);
+				expected.put(key, value);
+			}
+			else {
+				assertEquals(expected.containsKey(key), map.remove(key));
+				objectMap.remove(key);
+				expected.remove(key);
+			}
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.size(), objectMap.size());
+			key = r.nextInt(500) * 1024;
+			Integer value = expected.get(key);
+			assertEquals(value != null ? value : -1, map.get(key, -1));
+			assertEquals(value != null ? "" + value : null, objectMap.get(key));
+		}
+		final int[] count = { 0 };
+		map.forEach(new IntIntMap.EntryConsumer() {
+
+			@Override public void accept(int key, int value) {
+				assertEquals((int) expected.get(key), value);
+				count[0]++;
+			}
+		});
+		assertEquals(expected.size(), count[0]);
+		assertEquals(expected.size(), map.getKeys().size());
+	}
+
+	@Test public void closeTest() {
+		IntObjectMap<String> map = new IntObjectMap<String>();
+		map.put(5, "a");
+		map.close();
+		try {
+			map.put(6, "b");
+			fail();
+		} catch (IllegalStateException ex) {
+		}
+		assertEquals("a", map.get(5));
+		assertNull(map.get(6));
+	}
+
+}
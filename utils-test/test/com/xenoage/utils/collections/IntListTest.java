@@ -0,0 +1,81 @@
+package com.xenoage.utils.collections;
+
+import static com.xenoage.utils.collections.IntList.iIntList;
+import static com.xenoage.utils.collections.IntList.intList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.xenoage.utils.kernel.IntConsumer;
+
+/**
+ * Tests for {@link IntList} and {@link FloatList}.
+ * 
+ * @author Andreas Wenger
+ */
+public class IntListTest {
+
+	@Test public void test() {
+		IntList list = new IntList(2);
+		for (int i = 0; i < 100; i++)
+			list.add(i);
+		assertEquals(100, list.size());
+		assertEquals(99, list.get(99));
+		list.add(0, -1);
+		assertEquals(-1, list.get(0));
+		assertEquals(50, list.removeAt(51));
+		assertEquals(-1, list.indexOf(50));
+		assertEquals(0, list.set(1, 5));
+		assertTrue(list.contains(5));
+		assertFalse(list.contains(1000));
+		assertEquals(100, list.size());
+		assertEquals(intList(1, 2, 3), intList(new int[] { 1, 2, 3 }));
+		assertArrayEquals(new int[] { 1, 2, 3 }, intList(1, 2, 3).toArray());
+		try {
+			list.get(100);
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+		}
+	}
+
+	@Test public void forEachTest() {
+		final int[] sum = { 0 };
+		intList(1, 2, 3, 4).forEach(new IntConsumer() {
+
+			@Override public void accept(int value) {
+				sum[0] += value;
+			}
+		});
+		assertEquals(10, sum[0]);
+		assertEquals(10, intList(1, 2, 3, 4).sum());
+	}
+
+	@Test public void closeTest() {
+		IntList list = iIntList(1, 2);
+		try {
+			list.add(3);
+			fail();
+		} catch (IllegalStateException ex) {
+		}
+		try {
+			list.set(0, 3);
+			fail();
+		} catch (IllegalStateException ex) {
+		}
+		assertEquals(2, list.size());
+		FloatList floats = FloatList.floatList(1.5f, 2.5f);
+		floats.add(1);
+		assertEquals(5f, floats.sum(), 0);
+		floats.close();
+		try {
+			floats.removeAt(0);
+			fail();
+		} catch (IllegalStateException ex) {
+		}
+	}
+
+}
@@ -1,6 +1,16 @@
 package com.xenoage.utils.collections;
 
+import static com.xenoage.utils.collections.CollectionUtils.alist;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -135,6 +145,86 @@ public class SortedListTest {
 	}
 	
 	
+	@Test public void kWayMergeTest() {
+		List<SortedList<Comp>> lists = alist();
+		for (int iList = 0; iList < 3; iList++) {
+			Comp[] entries = new Comp[4];
+			for (int i = 0; i < 4; i++)
+				entries[i] = new Comp(i * (iList + 1), iList);
+			lists.add(new SortedList<Comp>(entries, false));
+		}
+		lists.add(new SortedList<Comp>(false));
+		//with duplicates, equal entries are ordered by their list
+		SortedList<Comp> merged = SortedList.merge(lists, true);
+		int[] ids = { 0, 0, 0, 1, 2, 2, 3, 3, 4, 6, 6, 9 };
+		int[] values = { 0, 1, 2, 0, 0, 1, 0, 2, 1, 1, 2, 2 };
+		assertEquals(12, merged.getSize());
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], merged.get(i).id);
+			assertEquals(values[i], merged.get(i).value);
+		}
+		//without duplicates, the entry of the first list wins
+		merged = SortedList.merge(lists, false);
+		assertEquals(7, merged.getSize());
+		assertEquals(0, merged.get(0).value);
+		assertEquals(0, merged.get(3).value);
+		assertEquals(1, merged.get(4).value);
+	}
+
+	@Test public void presortedTest() {
+		try {
+			new SortedList<Integer>(new Integer[] { 1, 2, 2 }, false);
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+		try {
+			new SortedList<Integer>(new Integer[] { 1, 3, 2 }, true);
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+		SortedList<Integer> list = new SortedList<Integer>(new Integer[] { 1, 2, 2, 5 }, true);
+		assertEquals(4, list.getSize());
+		assertEquals(5, list.get(3).intValue());
+		list.add(3);
+		assertEquals(3, list.get(3).intValue());
+	}
+
+	/**
+	 * Compares the list with a sorted {@link ArrayList}.
+	 */
+	@Test public void randomTest() {
+		Random random = new Random();
+		for (boolean duplicates : new boolean[] { true, false }) {
+			SortedList<Integer> list = new SortedList<Integer>(duplicates);
+			ArrayList<Integer> expected = alist();
+			for (int i = 0; i < 3000; i++) {
+				Integer e = random.nextInt(1000);
+				list.add(e);
+				int pos = Collections.binarySearch(expected, e);
+				if (pos < 0)
+					expected.add(-pos - 1, e);
+				else if (duplicates)
+					expected.add(pos, e);
+				assertEquals(expected.size(), list.getSize());
+				Integer query = random.nextInt(1000);
+				int rank = 0;
+				while (rank < expected.size() && expected.get(rank) < query)
+					rank++;
+				assertEquals(rank, list.getRank(query));
+				assertEquals(expected.indexOf(query), list.indexOf(query));
+				assertEquals(expected.contains(query), list.contains(query));
+			}
+			for (int i = 0; i < expected.size(); i++)
+				assertEquals(expected.get(i), list.get(i));
+			Iterator<Integer> it = list.iterator();
+			for (Integer e : expected)
+				assertEquals(e, it.next());
+			assertFalse(it.hasNext());
+			assertTrue(expected.equals(list.getLinkedList()));
+		}
+	}
+	
+	
 	@Test public void getFirstAndGetLastTest() {
 		SortedList<Integer> list = new SortedList<Integer>(false);
 		list.add(2);
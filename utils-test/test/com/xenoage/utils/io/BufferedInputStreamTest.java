@@ -93,5 +93,60 @@ public class BufferedInputStreamTest {
 		}
 		assertEquals(-1, stream.read());
 	}
+	
+	/**
+	 * Tests bulk reads, mixed with single reads, mark and reset,
+	 * with blocks smaller and larger than the buffer.
+	 */
+	@Test public void testBulk()
+		throws IOException {
+		int length = 100000;
+		BufferedInputStream stream = new BufferedInputStream(new TestInputStream(length), 100);
+		int[] blockSizes = { 1, 7, 100, 128, 1000, 3 };
+		int nextExpected = 0;
+		int markedAt = -1;
+		for (int i = 0; nextExpected < length; i++) {
+			if (i % 5 == 0) {
+				stream.mark();
+				markedAt = nextExpected;
+			}
+			else if (i % 7 == 0 && markedAt > -1) {
+				stream.reset();
+				nextExpected = markedAt;
+			}
+			else if (i % 11 == 0) {
+				stream.unmark();
+				markedAt = -1;
+			}
+			byte[] b = new byte[blockSizes[i % blockSizes.length] + 2];
+			int n = StreamUtils.readFully(stream, b, 1, b.length - 2);
+			assertEquals(Math.min(b.length - 2, length - nextExpected), n);
+			for (int iByte = 0; iByte < n; iByte++)
+				assertEquals((byte) (nextExpected + iByte), b[1 + iByte]);
+			nextExpected += n;
+			if (nextExpected < length)
+				assertEquals(nextExpected++ % 256, stream.read());
+		}
+		assertEquals(-1, stream.read(new byte[10], 0, 10));
+		assertEquals(-1, stream.read());
+	}
+	
+	/**
+	 * Tests a reset after reading much more data than the initial buffer size.
+	 */
+	@Test public void testGrowingBuffer()
+		throws IOException {
+		int length = 50000;
+		BufferedInputStream stream = new BufferedInputStream(new TestInputStream(length), 16);
+		for (int i = 0; i < 10; i++)
+			assertEquals(i, stream.read());
+		stream.mark();
+		byte[] b = new byte[length];
+		assertEquals(length - 10, StreamUtils.readFully(stream, b, 0, b.length));
+		stream.reset();
+		for (int i = 10; i < length; i++)
+			assertEquals(i % 256, stream.read());
+		assertEquals(-1, stream.read());
+	}
 
 }
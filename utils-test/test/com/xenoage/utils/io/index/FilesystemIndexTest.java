@@ -2,7 +2,10 @@ package com.xenoage.utils.io.index;
 
 import static com.xenoage.utils.collections.CollectionUtils.alist;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.List;
 
@@ -66,6 +69,59 @@ public class FilesystemIndexTest {
 		assertEquals(false, index.existsDirectory("folder/foofolder/"));
 	}
 
+	@Test public void findItemTest() {
+		//root
+		assertTrue(index.findItem("") instanceof Directory);
+		assertTrue(index.findItem("/") instanceof Directory);
+		//backslashes, double slashes and whitespace
+		assertEquals("file1", index.findItem("folder\\subfolder\\file1").getName());
+		assertEquals("file1", index.findItem("folder//subfolder/file1").getName());
+		assertEquals("file1", index.findItem(" /folder/subfolder/file1 ").getName());
+		//path within another char sequence, e.g. a StringBuilder
+		StringBuilder path = new StringBuilder("folder/");
+		path.append("subfolder/file2");
+		assertEquals("file2", index.findItem(path).getName());
+		//item below a file
+		assertNull(index.findItem("rootfile1/foo"));
+	}
+	
+	@Test public void findItemInLargeDirectoryTest() {
+		IndexedDirectory dir = new IndexedDirectory("large");
+		for (int i = 0; i < 10000; i++)
+			dir.addChild(new IndexedFile("file" + i, (long) i));
+		FilesystemIndex index = new FilesystemIndex(alist((FilesystemItem) dir));
+		for (int i = 0; i < 10000; i++)
+			assertEquals((Long) (long) i, index.findFile("large/file" + i).getSizeInBytes());
+		assertNull(index.findItem("large/file10000"));
+	}
+	
+	@Test public void addDuplicateChildTest() {
+		IndexedDirectory dir = new IndexedDirectory("dir");
+		dir.addChild(new IndexedFile("file", null));
+		try {
+			dir.addChild(new IndexedDirectory("file"));
+			fail();
+		} catch (IllegalStateException ex) {
+		}
+		assertEquals(1, dir.getChildren().size());
+	}
+
+	@Test public void modifyChildrenTest() {
+		IndexedDirectory dir = new IndexedDirectory("dir");
+		dir.addChild(new IndexedFile("a", null));
+		dir.addChild(new IndexedFile("b", null));
+		assertNotNull(dir.getChild("a"));
+		//replace a child, without changing the number of children
+		dir.getChildren().set(0, new IndexedFile("c", null));
+		assertNull(dir.getChild("a"));
+		assertNotNull(dir.getChild("c"));
+		//remove and add a child
+		dir.getChildren().remove(1);
+		dir.getChildren().add(new IndexedFile("d", null));
+		assertNull(dir.getChild("b"));
+		assertNotNull(dir.getChild("d"));
+	}
+
 	@Test public void listFilesTest() {
 		//folder "/"
 		List<File> files = index.listFiles("/");
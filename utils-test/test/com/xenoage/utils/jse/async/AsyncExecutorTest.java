@@ -0,0 +1,137 @@
+package com.xenoage.utils.jse.async;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.xenoage.utils.async.AsyncProducer;
+import com.xenoage.utils.async.AsyncResult;
+import com.xenoage.utils.jse.io.FilesIO;
+
+/**
+ * Tests for {@link AsyncExecutor}.
+ * 
+ * @author Andreas Wenger
+ */
+public class AsyncExecutorTest {
+
+	@Test public void synchronousTest() {
+		final Thread caller = Thread.currentThread();
+		final boolean[] called = { false };
+		AsyncExecutor.synchronous.execute(new Callable<String>() {
+
+			@Override public String call() {
+				assertEquals(caller, Thread.currentThread());
+				return "ok";
+			}
+		}, new AsyncResult<String>() {
+
+			@Override public void onSuccess(String data) {
+				assertEquals("ok", data);
+				called[0] = true;
+			}
+
+			@Override public void onFailure(Exception ex) {
+				fail();
+			}
+		});
+		assertTrue(called[0]);
+	}
+
+	@Test public void overlappingTest()
+		throws Exception {
+		//all tasks wait for each other, so they can only finish when they run in parallel
+		final int tasksCount = 4;
+		final CountDownLatch started = new CountDownLatch(tasksCount);
+		final CountDownLatch finished = new CountDownLatch(tasksCount);
+		ExecutorService ioExecutor = AsyncExecutor.createIoExecutor(tasksCount);
+		AsyncExecutor executor = new AsyncExecutor(ioExecutor, null);
+		for (int i = 0; i < tasksCount; i++) {
+			executor.execute(new Callable<Boolean>() {
+
+				@Override public Boolean call()
+					throws Exception {
+					started.countDown();
+					return started.await(5, TimeUnit.SECONDS);
+				}
+			}, new AsyncResult<Boolean>() {
+
+				@Override public void onSuccess(Boolean data) {
+					if (data)
+						finished.countDown();
+				}
+
+				@Override public void onFailure(Exception ex) {
+				}
+			});
+		}
+		assertTrue(finished.await(10, TimeUnit.SECONDS));
+		ioExecutor.shutdown();
+	}
+
+	@Test public void callbackExecutorTest()
+		throws Exception {
+		//callbacks are queued and run later in this thread
+		final LinkedBlockingQueue<Runnable> callbacks = new LinkedBlockingQueue<Runnable>();
+		Executor callbackExecutor = new Executor() {
+
+			@Override public void execute(Runnable command) {
+				callbacks.add(command);
+			}
+		};
+		ExecutorService ioExecutor = AsyncExecutor.createIoExecutor(1);
+		AsyncExecutor executor = new AsyncExecutor(ioExecutor, callbackExecutor);
+		final Thread caller = Thread.currentThread();
+		final Exception[] failure = { null };
+		executor.execute(new Callable<String>() {
+
+			@Override public String call()
+				throws Exception {
+				throw new IOException("failed");
+			}
+		}, new AsyncResult<String>() {
+
+			@Override public void onSuccess(String data) {
+				fail();
+			}
+
+			@Override public void onFailure(Exception ex) {
+				assertEquals(caller, Thread.currentThread());
+				failure[0] = ex;
+			}
+		});
+		Runnable callback = callbacks.poll(10, TimeUnit.SECONDS);
+		assertNotNull(callback);
+		callback.run();
+		assertTrue(failure[0] instanceof IOException);
+		ioExecutor.shutdown();
+	}
+
+	@Test public void filesIOTest()
+		throws Exception {
+		final FilesIO io = new FilesIO(null, null, null);
+		assertTrue(Sync.sync(new AsyncProducer<Boolean>() {
+
+			@Override public void produce(AsyncResult<Boolean> result) {
+				io.existsFileAsync("test", result);
+			}
+		}));
+		List<String> dirs = Sync.sync(new AsyncProducer<List<String>>() {
+
+			@Override public void produce(AsyncResult<List<String>> result) {
+				io.listDirectoriesAsync(".", result);
+			}
+		});
+		assertTrue(dirs.contains("test"));
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.xenoage.utils.jse.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for {@link DownloadTools}, using a local HTTP server.
+ * 
+ * @author Andreas Wenger
+ */
+public class DownloadToolsTest {
+
+	private HttpServer server;
+	private String baseUrl;
+	private byte[] data;
+	private File target;
+	//range header of the last request
+	private String lastRange;
+
+
+	@Before public void setUp()
+		throws IOException {
+		data = new byte[300000];
+		new Random(8).nextBytes(data);
+		target = File.createTempFile("DownloadToolsTest", ".bin");
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		//file with known length, supporting range requests
+		server.createContext("/ranged", new HttpHandler() {
+
+			@Override public void handle(HttpExchange exchange)
+				throws IOException {
+				lastRange = exchange.getRequestHeaders().getFirst("Range");
+				int start = 0;
+				if (lastRange != null)
+					start = Integer.parseInt(lastRange.substring("bytes=".length(), lastRange.indexOf('-')));
+				if (start >= data.length) {
+					exchange.getResponseHeaders().set("Content-Range", "bytes */" + data.length);
+					exchange.sendResponseHeaders(416, -1);
+				}
+				else if (start > 0) {
+					exchange.getResponseHeaders().set("Content-Range",
+						"bytes " + start + "-" + (data.length - 1) + "/" + data.length);
+					exchange.sendResponseHeaders(206, data.length - start);
+				}
+				else {
+					exchange.sendResponseHeaders(200, data.length);
+				}
+				if (start < data.length)
+					write(exchange, start);
+			}
+		});
+		//file with unknown length (chunked), without range support
+		server.createContext("/chunked", new HttpHandler() {
+
+			@Override public void handle(HttpExchange exchange)
+				throws IOException {
+				lastRange = exchange.getRequestHeaders().getFirst("Range");
+				exchange.sendResponseHeaders(200, 0);
+				write(exchange, 0);
+			}
+		});
+		server.start();
+		baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@After public void tearDown() {
+		server.stop(0);
+		target.delete();
+	}
+
+	@Test public void downloadTest()
+		throws IOException {
+		final long[] lastProgress = { 0, 0 };
+		long size = DownloadTools.downloadFile(baseUrl + "/ranged", target, false, new DownloadListener() {
+
+			@Override public void progress(long downloadedBytes, long totalBytes) {
+				assertTrue(downloadedBytes >= lastProgress[0]);
+				lastProgress[0] = downloadedBytes;
+				lastProgress[1] = totalBytes;
+			}
+		});
+		assertEquals(data.length, size);
+		assertEquals(data.length, lastProgress[0]);
+		assertEquals(data.length, lastProgress[1]);
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test public void downloadChunkedTest()
+		throws IOException {
+		final long[] totalSize = { 0 };
+		DownloadTools.downloadFile(baseUrl + "/chunked", target, false, new DownloadListener() {
+
+			@Override public void progress(long downloadedBytes, long totalBytes) {
+				totalSize[0] = totalBytes;
+			}
+		});
+		assertEquals(-1, totalSize[0]);
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test public void resumeTest()
+		throws IOException {
+		writePart(1000);
+		assertEquals(data.length, DownloadTools.downloadFile(baseUrl + "/ranged", target, true, null));
+		assertEquals("bytes=1000-", lastRange);
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+		//already complete
+		assertEquals(data.length, DownloadTools.downloadFile(baseUrl + "/ranged", target, true, null));
+		assertEquals("bytes=" + data.length + "-", lastRange);
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test public void resumeUnsupportedTest()
+		throws IOException {
+		//server ignores the range, so the whole file is downloaded again
+		writePart(1000);
+		DownloadTools.downloadFile(baseUrl + "/chunked", target, true, null);
+		assertEquals("bytes=1000-", lastRange);
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+	}
+
+	@Test public void notFoundTest() {
+		try {
+			DownloadTools.downloadFile(baseUrl + "/missing", target);
+			fail();
+		} catch (IOException ex) {
+			//expected
+		}
+	}
+
+	private void write(HttpExchange exchange, int start)
+		throws IOException {
+		OutputStream out = exchange.getResponseBody();
+		//write in small parts, so that the client receives several blocks
+		for (int pos = start; pos < data.length; pos += 10000)
+			out.write(data, pos, Math.min(10000, data.length - pos));
+		out.close();
+	}
+
+	private void writePart(int length)
+		throws IOException {
+		FileOutputStream out = new FileOutputStream(target);
+		out.write(data, 0, length);
+		out.close();
+	}
+
+}
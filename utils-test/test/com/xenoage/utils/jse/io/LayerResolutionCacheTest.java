@@ -0,0 +1,94 @@
+package com.xenoage.utils.jse.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LayerResolutionCache}.
+ * 
+ * @author Andreas Wenger
+ */
+public class LayerResolutionCacheTest {
+
+	private File user, system, shared;
+	private LayerResolutionCache cache;
+
+
+	@Before public void setUp()
+		throws IOException {
+		user = JseFileUtils.createNewTempFolder();
+		system = JseFileUtils.createNewTempFolder();
+		shared = JseFileUtils.createNewTempFolder();
+		createFile(user, "a/user.txt");
+		createFile(user, "a/both.txt");
+		createFile(system, "a/both.txt");
+		createFile(system, "a/b/system.txt");
+		createFile(shared, "shared.txt");
+		cache = new LayerResolutionCache(user, system, null, shared);
+	}
+
+	@After public void tearDown() {
+		cache.close();
+		JseFileUtils.deleteDirectory(user);
+		JseFileUtils.deleteDirectory(system);
+		JseFileUtils.deleteDirectory(shared);
+	}
+
+	@Test public void findLayerTest() {
+		assertEquals(0, cache.findLayer("a/user.txt"));
+		assertEquals(0, cache.findLayer("a/both.txt"));
+		assertEquals(1, cache.findLayer("a/b/system.txt"));
+		assertEquals(1, cache.findLayer("a\\b//system.txt"));
+		assertEquals(3, cache.findLayer("shared.txt"));
+		assertEquals(-1, cache.findLayer("a/missing.txt"));
+		assertEquals(-1, cache.findLayer("missing/missing.txt"));
+		//directories
+		assertEquals(0, cache.findLayer("a"));
+		assertEquals(0, cache.findDirectoryLayer("a/"));
+		assertEquals(1, cache.findDirectoryLayer("a/b"));
+		assertEquals(-1, cache.findDirectoryLayer("a/user.txt"));
+		//single layers
+		assertTrue(cache.exists(0, "a/both.txt"));
+		assertTrue(cache.exists(1, "a/both.txt"));
+		assertFalse(cache.exists(2, "a/both.txt"));
+		assertFalse(cache.exists(3, "a/both.txt"));
+	}
+
+	@Test public void invalidateTest()
+		throws IOException {
+		assertEquals(-1, cache.findLayer("a/b/new.txt"));
+		assertEquals(1, cache.findLayer("a/b/system.txt"));
+		createFile(user, "a/b/new.txt");
+		new File(system, "a/b/system.txt").delete();
+		cache.invalidate("a/b");
+		assertEquals(0, cache.findLayer("a/b/new.txt"));
+		assertEquals(-1, cache.findLayer("a/b/system.txt"));
+	}
+
+	@Test public void watchTest()
+		throws Exception {
+		//negative result is cached
+		assertEquals(-1, cache.findLayer("c/d/new.txt"));
+		//create the file, including the missing parent directories.
+		//the cache must notice the change without calling invalidate
+		createFile(shared, "c/d/new.txt");
+		long timeout = System.currentTimeMillis() + 10000;
+		while (cache.findLayer("c/d/new.txt") == -1 && System.currentTimeMillis() < timeout)
+			Thread.sleep(20);
+		assertEquals(3, cache.findLayer("c/d/new.txt"));
+	}
+
+	private void createFile(File layer, String path)
+		throws IOException {
+		File file = new File(layer, path);
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.xenoage.utils.jse.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.xenoage.utils.io.FileNotFoundException;
+import com.xenoage.utils.io.InputStream;
+
+/**
+ * Tests for {@link LazyZipReader}.
+ * 
+ * @author Andreas Wenger
+ */
+public class LazyZipReaderTest {
+
+	private File zipFile;
+	private byte[] small, large, storedData;
+
+
+	@Before public void setUp()
+		throws IOException {
+		small = "Hello World!".getBytes("UTF-8");
+		large = new byte[200000];
+		Random random = new Random(5);
+		for (int i = 0; i < large.length; i++)
+			large[i] = (byte) ('a' + random.nextInt(4));
+		storedData = new byte[1000];
+		random.nextBytes(storedData);
+		zipFile = File.createTempFile("LazyZipReaderTest", ".zip");
+		ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile));
+		zip.putNextEntry(new ZipEntry("dir/"));
+		zip.closeEntry();
+		writeEntry(zip, "dir/small.txt", small);
+		writeEntry(zip, "large.txt", large);
+		ZipEntry stored = new ZipEntry("stored.bin");
+		stored.setMethod(ZipEntry.STORED);
+		stored.setSize(storedData.length);
+		CRC32 crc = new CRC32();
+		crc.update(storedData);
+		stored.setCrc(crc.getValue());
+		zip.putNextEntry(stored);
+		zip.write(storedData);
+		zip.closeEntry();
+		zip.setComment("Some comment");
+		zip.close();
+	}
+
+	@After public void tearDown() {
+		zipFile.delete();
+	}
+
+	@Test public void mappedTest()
+		throws IOException {
+		LazyZipReader reader = LazyZipReader.open(zipFile, 0);
+		checkReader(reader);
+		reader.close();
+	}
+
+	@Test public void streamTest()
+		throws IOException {
+		LazyZipReader reader = LazyZipReader.read(new FileInputStream(zipFile), 1000);
+		checkReader(reader);
+		//read again, partly from the cache
+		checkReader(reader);
+		reader.close();
+	}
+
+	@Test public void prefixTest()
+		throws IOException {
+		//leading data, like the executable of a self-extracting archive
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		data.write(small);
+		FileInputStream in = new FileInputStream(zipFile);
+		byte[] buf = new byte[8192];
+		int n;
+		while ((n = in.read(buf)) > -1)
+			data.write(buf, 0, n);
+		in.close();
+		LazyZipReader reader = LazyZipReader.read(new java.io.ByteArrayInputStream(data.toByteArray()), 0);
+		checkReader(reader);
+		reader.close();
+	}
+
+	@Test public void invalidDataTest() {
+		try {
+			LazyZipReader.read(new java.io.ByteArrayInputStream(small), 0);
+			fail();
+		} catch (IOException ex) {
+			//expected
+		}
+	}
+
+	private void checkReader(LazyZipReader reader)
+		throws IOException {
+		assertEquals(3, reader.getFiles().size());
+		assertEquals("dir/small.txt", reader.getFiles().get(0));
+		assertEquals("large.txt", reader.getFiles().get(1));
+		assertEquals("stored.bin", reader.getFiles().get(2));
+		assertEquals(large.length, reader.getSize("large.txt"));
+		assertArrayEquals(small, readAll(reader.openFile("dir/small.txt")));
+		assertArrayEquals(large, readAll(reader.openFile("large.txt")));
+		assertArrayEquals(storedData, readAll(reader.openFile("stored.bin")));
+		try {
+			reader.openFile("dir/");
+			fail();
+		} catch (FileNotFoundException ex) {
+			//expected
+		}
+	}
+
+	private static void writeEntry(ZipOutputStream zip, String name, byte[] data)
+		throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(data);
+		zip.closeEntry();
+	}
+
+	private static byte[] readAll(InputStream in)
+		throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[777];
+		int n;
+		while ((n = in.read(buf, 0, buf.length)) > -1)
+			out.write(buf, 0, n);
+		in.close();
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.xenoage.utils.jse.io.index;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+import static com.xenoage.utils.io.index.FilesystemIndexTest.containsItem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.xenoage.utils.io.Directory;
+import com.xenoage.utils.io.FilesystemItem;
+import com.xenoage.utils.io.index.FilesystemIndex;
+import com.xenoage.utils.io.index.IndexedDirectory;
+import com.xenoage.utils.io.index.IndexedFile;
+import com.xenoage.utils.jse.io.JseFileUtils;
+
+/**
+ * Tests for {@link MappedFilesystemIndex} and {@link MappedFilesystemIndexWriter}.
+ * 
+ * @author Andreas Wenger
+ */
+public class MappedFilesystemIndexTest {
+
+	@Test public void convertTest()
+		throws IOException {
+		File file = new File(JseFileUtils.getTempFolder(), getClass().getName() + ".index.bin");
+		try {
+			MappedFilesystemIndexWriter.convert(new File("data/test/index/FilesystemIndexReaderTest.xml"), file);
+			MappedFilesystemIndex index = MappedFilesystemIndex.map(file);
+			//same checks as in FilesystemIndexReaderTest
+			List<? extends FilesystemItem> items;
+			assertEquals(0, index.listFiles("/").size());
+			assertEquals(2, (items = index.listDirectories("/")).size());
+			assertTrue(containsItem(items, "dir"));
+			assertTrue(containsItem(items, "dirempty"));
+			assertEquals(2, (items = index.listFiles("/dir/")).size());
+			assertTrue(containsItem(items, "file1"));
+			assertTrue(containsItem(items, "file2"));
+			assertEquals(1000, (long) index.findFile("dir/file1").getSizeInBytes());
+			assertEquals(2000, (long) index.findFile("/dir/file2").getSizeInBytes());
+			assertEquals(1, index.listDirectories("/dir/").size());
+			assertEquals(1, index.listDirectories("/dir/subdir").size());
+			assertEquals(0, index.listDirectories("/dir/deadend").size());
+			assertEquals(0, index.listFiles("dirempty").size());
+			assertEquals(0, index.listDirectories("dirempty").size());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test public void findTest()
+		throws IOException {
+		//index with many unsorted items, some with equal names and without size
+		List<FilesystemItem> items = alist();
+		IndexedDirectory dir = new IndexedDirectory("dir");
+		for (int i = 999; i >= 0; i--)
+			dir.addChild(new IndexedFile("file" + i, (long) i));
+		dir.addChild(new IndexedFile("nosize", null));
+		IndexedDirectory subdir = new IndexedDirectory("file");
+		subdir.addChild(new IndexedFile("file1", 5L));
+		dir.addChild(subdir);
+		items.add(dir);
+		items.add(new IndexedFile("äöü.txt", 1L));
+		MappedFilesystemIndex index = writeAndRead(new FilesystemIndex(items));
+		//files
+		for (int i = 0; i < 1000; i++)
+			assertEquals((Long) (long) i, index.findFile("dir/file" + i).getSizeInBytes());
+		assertNull(index.findFile("dir/nosize").getSizeInBytes());
+		assertEquals((Long) 5L, index.findFile("dir\\file\\file1").getSizeInBytes());
+		assertTrue(index.existsFile("äöü.txt"));
+		assertFalse(index.existsFile("dir/file"));
+		assertFalse(index.existsFile("dir/file1000"));
+		assertFalse(index.existsFile("dir/file1/foo"));
+		//directories
+		assertTrue(index.existsDirectory(""));
+		assertTrue(index.existsDirectory("dir/file/"));
+		assertFalse(index.existsDirectory("dir/file1"));
+		Directory found = index.findDirectory("/dir");
+		assertEquals("dir", found.getName());
+		assertEquals(1002, found.getChildren().size());
+		assertEquals(1001, index.listFiles("dir").size());
+	}
+
+	@Test public void invalidDataTest() {
+		try {
+			MappedFilesystemIndex.read(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+			fail();
+		} catch (IOException ex) {
+		}
+	}
+
+	private MappedFilesystemIndex writeAndRead(FilesystemIndex index)
+		throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MappedFilesystemIndexWriter.write(index, out);
+		return MappedFilesystemIndex.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+}
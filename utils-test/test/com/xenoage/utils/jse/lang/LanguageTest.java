@@ -2,9 +2,18 @@ package com.xenoage.utils.jse.lang;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.HashMap;
 
 import org.junit.Test;
 
+import com.xenoage.utils.jse.io.JseFileUtils;
+import com.xenoage.utils.lang.Lang;
 import com.xenoage.utils.lang.Language;
 import com.xenoage.utils.lang.VocID;
 
@@ -56,4 +65,74 @@ public class LanguageTest {
 			l.get(TestVocabulary.TestVoc2, tokens));
 	}
 
+	/**
+	 * Tests loading a language pack with a snapshot file.
+	 */
+	@Test public void snapshot()
+		throws Exception {
+		File dir = JseFileUtils.createNewTempFolder();
+		try {
+			File snapshotFile = new File(dir, "testlang.bin");
+			//first time: read from files and create snapshot
+			Language l1 = LanguageReader.read("data/test/lang", "testlang", snapshotFile);
+			assertTrue(snapshotFile.exists());
+			//second time: read from snapshot. to check this, change the snapshot data
+			DataInputStream in = new DataInputStream(new FileInputStream(snapshotFile));
+			in.readInt();
+			in.readInt();
+			byte[] key = new byte[in.readInt()];
+			in.readFully(key);
+			in.close();
+			//the key identifies the language pack and its directory
+			String keyText = new String(key, "UTF-8");
+			assertTrue(keyText.startsWith("id\ttestlang\n"));
+			File idFile = new File(keyText.split("\n")[1].split("\t")[1]);
+			assertTrue(idFile.isAbsolute());
+			assertEquals("testlang", idFile.getParentFile().getName());
+			HashMap<String, String> entries = new HashMap<String, String>(l1.entries);
+			entries.put("TestVoc", "From snapshot");
+			LanguageSnapshot.write(snapshotFile, keyText, entries);
+			Language l2 = LanguageReader.read("data/test/lang", "testlang", snapshotFile);
+			assertEquals("From snapshot", l2.get(TestVocabulary.TestVoc));
+			assertEquals(l1.get(TestVocabulary.TestVoc2, "a", "b", "c"),
+				l2.get(TestVocabulary.TestVoc2, "a", "b", "c"));
+			assertEquals(l1.getAllKeys(), l2.getAllKeys());
+			//corrupt snapshot: read from files again
+			FileOutputStream out = new FileOutputStream(snapshotFile);
+			out.write(new byte[] { 1, 2, 3 });
+			out.close();
+			Language l3 = LanguageReader.read("data/test/lang", "testlang", snapshotFile);
+			assertEquals("This is a test vocabulary.", l3.get(TestVocabulary.TestVoc));
+			assertTrue(snapshotFile.length() > 3);
+		} finally {
+			JseFileUtils.deleteDirectory(dir);
+		}
+	}
+
+	/**
+	 * Tests replacements in changed entries and in {@link Lang}.
+	 */
+	@Test public void get3() {
+		Language l = new Language("test", new HashMap<String, String>());
+		l.add("About", "About {1}");
+		assertEquals("About me", l.get(TestVocabulary.About, "me"));
+		l.add("About", "{1} about");
+		assertEquals("me about", l.get(TestVocabulary.About, "me"));
+		//changed directly in the map
+		l.entries.put("About", "Over {1}");
+		assertEquals("Over me", l.get(TestVocabulary.About, "me"));
+		assertEquals("NotExisting", l.get(TestVocabulary.NotExisting, "me"));
+		//Lang with tokens
+		try {
+			Lang.setCurrentLanguage(l);
+			Lang.registerToken("{test.app}", "App");
+			l.add("Another", "{test.app} {1}");
+			assertEquals("App {1}", Lang.get(TestVocabulary.Another));
+			assertEquals("App {test.app}", Lang.get(TestVocabulary.Another, "{test.app}"));
+			assertEquals("NotExisting_Val", Lang.get(TestVocabulary.NotExisting, "x"));
+		} finally {
+			Lang.setCurrentLanguage(null);
+		}
+	}
+
 }
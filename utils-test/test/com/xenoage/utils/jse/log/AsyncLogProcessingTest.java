@@ -0,0 +1,158 @@
+package com.xenoage.utils.jse.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.xenoage.utils.jse.log.AsyncLogProcessing.Overflow;
+import com.xenoage.utils.log.Level;
+import com.xenoage.utils.log.LogProcessing;
+import com.xenoage.utils.log.Report;
+
+/**
+ * Tests for {@link AsyncLogProcessing}.
+ *
+ * @author Andreas Wenger
+ */
+public class AsyncLogProcessingTest {
+
+	/**
+	 * Collects the messages. Can be blocked, to simulate slow I/O.
+	 */
+	private static class TestLogProcessing
+		implements LogProcessing, Flushable {
+
+		final List<String> messages = new ArrayList<String>();
+		int flushes = 0;
+		boolean closed = false;
+		CountDownLatch block = new CountDownLatch(0);
+
+
+		@Override public void log(Report report) {
+			try {
+				block.await();
+			} catch (InterruptedException ex) {
+			}
+			synchronized (this) {
+				messages.add(report.message);
+			}
+		}
+
+		@Override public synchronized void flush() {
+			flushes++;
+		}
+
+		@Override public synchronized void close() {
+			closed = true;
+		}
+
+	}
+
+
+	@Test public void testBlock()
+		throws Exception {
+		final TestLogProcessing target = new TestLogProcessing();
+		final AsyncLogProcessing log = new AsyncLogProcessing(target, 16, 4, Overflow.Block, 1);
+		//many threads, small buffer: nothing may get lost and the order per thread is kept
+		final int threadsCount = 4, reportsCount = 500;
+		Thread[] threads = new Thread[threadsCount];
+		for (int iThread = 0; iThread < threadsCount; iThread++) {
+			final int t = iThread;
+			threads[iThread] = new Thread() {
+
+				@Override public void run() {
+					for (int i = 0; i < reportsCount; i++)
+						log.log(report(Level.Remark, t + ":" + i));
+				}
+			};
+			threads[iThread].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		log.flush();
+		synchronized (target) {
+			assertEquals(threadsCount * reportsCount, target.messages.size());
+			int[] next = new int[threadsCount];
+			for (String message : target.messages) {
+				String[] parts = message.split(":");
+				int t = Integer.parseInt(parts[0]);
+				assertEquals(next[t]++, Integer.parseInt(parts[1]));
+			}
+			assertTrue(target.flushes > 0);
+		}
+		assertEquals(0, log.getDroppedCount());
+		log.close();
+		assertTrue(target.closed);
+	}
+
+	@Test public void testDrop()
+		throws Exception {
+		TestLogProcessing target = new TestLogProcessing();
+		target.block = new CountDownLatch(1);
+		AsyncLogProcessing log = new AsyncLogProcessing(target, 8, 4, Overflow.Drop, 1);
+		for (int i = 0; i < 100; i++)
+			log.log(report(Level.Remark, "" + i));
+		//at most the buffer and the report which is currently written are kept
+		assertTrue(log.getDroppedCount() >= 100 - 8 - 1);
+		target.block.countDown();
+		log.close();
+		long dropped = log.getDroppedCount();
+		assertEquals(100 - dropped + 1, target.messages.size());
+		//a warning about the dropped reports was written
+		assertTrue(target.messages.contains(dropped + " log reports dropped"));
+	}
+
+	@Test public void testSample()
+		throws Exception {
+		TestLogProcessing target = new TestLogProcessing();
+		target.block = new CountDownLatch(1);
+		AsyncLogProcessing log = new AsyncLogProcessing(target, 16, 4, Overflow.Sample, 1000);
+		for (int i = 0; i < 100; i++)
+			log.log(report(Level.Remark, "remark"));
+		//errors are never dropped
+		final AsyncLogProcessing finalLog = log;
+		Thread errorThread = new Thread() {
+
+			@Override public void run() {
+				for (int i = 0; i < 10; i++)
+					finalLog.log(report(Level.Error, "error"));
+			}
+		};
+		errorThread.start();
+		Thread.sleep(50);
+		target.block.countDown();
+		errorThread.join();
+		log.close();
+		int errorsCount = 0;
+		for (String message : target.messages)
+			if ("error".equals(message))
+				errorsCount++;
+		assertEquals(10, errorsCount);
+		assertTrue(log.getDroppedCount() > 0);
+	}
+
+	@Test public void testClose() {
+		TestLogProcessing target = new TestLogProcessing();
+		AsyncLogProcessing log = new AsyncLogProcessing(target);
+		for (int i = 0; i < 1000; i++)
+			log.log(report(Level.Remark, "" + i));
+		log.close();
+		//all reports are written when closing
+		assertEquals(1000, target.messages.size());
+		assertTrue(target.closed);
+		//reports after closing are ignored
+		log.log(report(Level.Remark, "after"));
+		assertEquals(1000, target.messages.size());
+	}
+
+	private static Report report(Level level, String message) {
+		return new Report(level, null, message, null, null, null);
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.xenoage.utils.jse.log;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.xenoage.utils.jse.io.JseFileUtils;
+import com.xenoage.utils.log.Level;
+import com.xenoage.utils.log.Report;
+
+/**
+ * Tests for {@link RollingLogFile}.
+ *
+ * @author Andreas Wenger
+ */
+public class RollingLogFileTest {
+
+	private File dir;
+
+
+	@Before public void setUp() {
+		dir = JseFileUtils.createNewTempFolder();
+	}
+
+	@After public void tearDown() {
+		JseFileUtils.deleteDirectory(dir);
+	}
+
+	@Test public void rotateBySizeTest()
+		throws IOException {
+		File file = new File(dir, "app.log");
+		RollingLogFile log = new RollingLogFile(file, 1000, 0, 3);
+		PrintStream out = new PrintStream(log);
+		//each line has 10 bytes, so 100 lines fill one segment
+		for (int i = 0; i < 1000; i++)
+			out.print(String.format("line %04d\n", i));
+		out.close();
+		//current segment and 3 compressed archives are left
+		String[] archives = getArchives();
+		assertEquals(3, archives.length);
+		assertEquals(1000, file.length());
+		//newest archive contains the lines before the current segment, lines are not split
+		String newest = readGzip(new File(dir, archives[2]));
+		assertTrue(newest.startsWith("line 0800\n"));
+		assertTrue(newest.endsWith("line 0899\n"));
+		assertTrue(readFile(file).startsWith("line 0900\n"));
+	}
+
+	@Test public void rotateByTimeTest()
+		throws Exception {
+		File file = new File(dir, "app.log");
+		RollingLogFile log = new RollingLogFile(file, 1000000, 50, 10);
+		log.write("first\n".getBytes("UTF-8"));
+		log.flush();
+		Thread.sleep(100);
+		log.write("second\n".getBytes("UTF-8"));
+		log.close();
+		assertEquals("second\n", readFile(file));
+		String[] archives = getArchives();
+		assertEquals(1, archives.length);
+		assertEquals("first\n", readGzip(new File(dir, archives[0])));
+	}
+
+	@Test public void desktopLogProcessingTest()
+		throws IOException {
+		File file = new File(dir, "app.log");
+		DesktopLogProcessing log = new DesktopLogProcessing(new RollingLogFile(file, 2000, 0, 100),
+			"test", false);
+		for (int i = 0; i < 200; i++)
+			log.log(new Report(Level.Remark, null, "Message " + i, null, null, null));
+		log.close();
+		assertTrue(getArchives().length > 0);
+		assertTrue(readFile(file).contains("Logging closed"));
+	}
+
+	@Test public void existingArchivesTest()
+		throws IOException {
+		File file = new File(dir, "app.log");
+		//uncompressed archive left by a crash
+		File leftover = new File(dir, "app.log.20000101-000000-000");
+		write(leftover, "leftover\n");
+		//archives of a previous run within the same seconds
+		SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss");
+		long now = System.currentTimeMillis();
+		List<File> previous = alist();
+		for (int i = 0; i < 3; i++) {
+			File archive = new File(dir, "app.log." + format.format(new Date(now + i * 1000)) + "-000.gz");
+			write(archive, "previous");
+			previous.add(archive);
+		}
+		RollingLogFile log = new RollingLogFile(file, 1000000, 0, 10);
+		log.write("first\n".getBytes("UTF-8"));
+		log.rotate();
+		log.close();
+		//existing archives are not overwritten
+		for (File archive : previous)
+			assertEquals("previous", readFile(archive));
+		assertEquals(4, getArchives().length);
+		assertTrue(leftover.exists());
+		//uncompressed archives are also deleted, when they are too old
+		log = new RollingLogFile(file, 1000000, 0, 1);
+		log.write("second\n".getBytes("UTF-8"));
+		log.rotate();
+		log.close();
+		assertFalse(leftover.exists());
+		assertEquals(1, getArchives().length);
+	}
+
+	private void write(File file, String text)
+		throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(text.getBytes("UTF-8"));
+		out.close();
+	}
+
+	private String[] getArchives() {
+		String[] ret = dir.list(new FilenameFilter() {
+
+			@Override public boolean accept(File dir, String name) {
+				return name.startsWith("app.log.") && name.endsWith(".gz");
+			}
+		});
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	private String readFile(File file)
+		throws IOException {
+		return read(new FileInputStream(file));
+	}
+
+	private String readGzip(File file)
+		throws IOException {
+		return read(new GZIPInputStream(new FileInputStream(file)));
+	}
+
+	private String read(InputStream in)
+		throws IOException {
+		try {
+			ByteArrayOutputStream ret = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) > -1)
+				ret.write(buffer, 0, n);
+			return ret.toString("UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.xenoage.utils.jse.math;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.xenoage.utils.math.LUSolver;
+
+/**
+ * Test cases for {@link ParallelLUSolver}.
+ *
+ * @author Andreas Wenger
+ */
+public class ParallelLUSolverTest {
+
+	@Test public void solveTest() {
+		Random random = new Random(3);
+		int n = 400;
+		double[] a = new double[n * n];
+		for (int i = 0; i < a.length; i++)
+			a[i] = random.nextDouble() * 2 - 1;
+		double[] b = new double[n];
+		for (int i = 0; i < n; i++)
+			b[i] = random.nextDouble();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			//same result as the sequential solver, since the rows are computed in the same way
+			double[] expected = new LUSolver(n).decompose(a).solve(b, null);
+			double[] x = new ParallelLUSolver(n, pool).decompose(a).solve(b, null);
+			assertArrayEquals(expected, x, 0);
+			//small matrix, computed sequentially
+			double[] small = { 4, 1, 2, 3 };
+			assertArrayEquals(new LUSolver(2).decompose(small).solve(new double[] { 1, 2 }), new ParallelLUSolver(2,
+				pool).decompose(small).solve(new double[] { 1, 2 }, null), 0);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.xenoage.utils.jse.security;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.xenoage.utils.jse.io.JseFileUtils;
+
+/**
+ * Tests for {@link Digests}, {@link DigestAlgorithm} and {@link Md5Sum}.
+ * 
+ * @author Andreas Wenger
+ */
+public class DigestsTest {
+
+	private File dir;
+
+
+	@Before public void setUp() {
+		dir = JseFileUtils.createNewTempFolder();
+	}
+
+	@After public void tearDown() {
+		JseFileUtils.deleteDirectory(dir);
+	}
+
+	@Test public void algorithmsTest()
+		throws IOException {
+		byte[] abc = "abc".getBytes("UTF-8");
+		assertEquals("900150983cd24fb0d6963f7d28e17f72", digest(abc, DigestAlgorithm.MD5));
+		assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+			digest(abc, DigestAlgorithm.SHA256));
+		byte[] digits = "123456789".getBytes("UTF-8");
+		assertEquals("e3069283", digest(digits, DigestAlgorithm.CRC32C));
+		//software implementation
+		Crc32c crc = new Crc32c();
+		crc.update(digits, 0, 4);
+		crc.update(digits, 4, 5);
+		assertEquals(0xe3069283L, crc.getValue());
+	}
+
+	@Test public void incrementalTest() {
+		byte[] data = createData(100000);
+		for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+			Digester digester = algorithm.createDigester();
+			digester.update(data, 0, data.length);
+			String expected = digester.digestHex();
+			//same result in parts, also from direct buffers, after reset
+			digester.update(data, 0, 1000);
+			ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+			direct.put(data).flip().position(1000);
+			digester.update(direct);
+			assertEquals(expected, digester.digestHex());
+		}
+	}
+
+	@Test public void filesTest()
+		throws IOException {
+		List<File> files = alist();
+		for (int i = 0; i < 5; i++) {
+			File file = new File(dir, i + ".bin");
+			FileOutputStream out = new FileOutputStream(file);
+			out.write(createData(i * 50000));
+			out.close();
+			files.add(file);
+		}
+		Map<File, String> digests = Digests.digestAll(files, DigestAlgorithm.SHA256, 3);
+		assertEquals(files.size(), digests.size());
+		for (File file : files) {
+			String expected = digest(Files.readAllBytes(file.toPath()), DigestAlgorithm.SHA256);
+			assertEquals(expected, digests.get(file));
+			assertEquals(expected, Digests.digest(file, DigestAlgorithm.SHA256));
+		}
+		//MD5 sum of a file
+		assertEquals(digest(Files.readAllBytes(files.get(1).toPath()), DigestAlgorithm.MD5),
+			Md5Sum.GetMd5Sum(files.get(1)));
+		//missing file
+		try {
+			Digests.digestAll(alist(new File(dir, "missing.bin")), DigestAlgorithm.MD5, 2);
+			fail();
+		} catch (IOException ex) {
+			//expected
+		}
+	}
+
+	@Test public void copyTest()
+		throws IOException {
+		File source = new File(dir, "source.bin");
+		File target = new File(dir, "target.bin");
+		byte[] data = createData(123456);
+		FileOutputStream out = new FileOutputStream(source);
+		out.write(data);
+		out.close();
+		String crc = JseFileUtils.copyFile(source, target, DigestAlgorithm.CRC32C);
+		assertEquals(digest(data, DigestAlgorithm.CRC32C), crc);
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+	}
+
+	private static String digest(byte[] data, DigestAlgorithm algorithm)
+		throws IOException {
+		return Digests.digest(new ByteArrayInputStream(data), algorithm);
+	}
+
+	private static byte[] createData(int length) {
+		byte[] ret = new byte[length];
+		new Random(length).nextBytes(ret);
+		return ret;
+	}
+
+}
@@ -1,10 +1,17 @@
 package com.xenoage.utils.jse.zip;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
@@ -37,6 +44,38 @@ public class ZipUtilsTest {
 		assertTrue(new File(dir, "SchbAvMaSample.xml").exists());
 	}
 
+	@Test public void extractAllParallelTest()
+		throws IOException {
+		//extract sequentially for comparison
+		File sequentialDir = new File(dir, "sequential");
+		sequentialDir.mkdir();
+		ZipUtils.extractAll(new FileInputStream("data/test/zip/album.zip"), sequentialDir);
+		//extract in parallel
+		final File parallelDir = new File(dir, "parallel");
+		final Set<String> extracted = Collections.synchronizedSet(new HashSet<String>());
+		ZipUtils.extractAll(new File("data/test/zip/album.zip"), parallelDir, 3,
+			new ZipExtractionListener() {
+
+				@Override public void entryExtracted(String entryName, long size, int extractedCount,
+					int totalCount) {
+					assertEquals(new File(parallelDir, entryName).length(), size);
+					extracted.add(entryName);
+				}
+			});
+		List<File> files = JseFileUtils.listFilesDeep(sequentialDir, null);
+		int filesCount = 0;
+		for (File file : files) {
+			if (file.isDirectory())
+				continue;
+			filesCount++;
+			String path = file.getPath().substring(sequentialDir.getPath().length() + 1);
+			assertTrue(extracted.contains(path.replace(File.separatorChar, '/')));
+			assertArrayEquals(Files.readAllBytes(file.toPath()),
+				Files.readAllBytes(new File(parallelDir, path).toPath()));
+		}
+		assertEquals(filesCount, extracted.size());
+	}
+
 	@After public void cleanUp() {
 		JseFileUtils.deleteDirectory(dir);
 	}
@@ -107,4 +107,18 @@ public class RangeTest {
 		assertEquals(3, r.getCount());
 	}
 
+	@Test public void forEachIntTest() {
+		final StringBuilder s = new StringBuilder();
+		IntConsumer append = new IntConsumer() {
+
+			@Override public void accept(int value) {
+				s.append(value);
+			}
+		};
+		range(1, 4).forEachInt(append);
+		rangeReverse(3).forEachInt(append);
+		range(0).forEachInt(append);
+		assertEquals("1234210", s.toString());
+	}
+
 }
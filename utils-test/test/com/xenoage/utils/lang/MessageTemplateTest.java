@@ -0,0 +1,43 @@
+package com.xenoage.utils.lang;
+
+import static com.xenoage.utils.lang.MessageTemplate.compile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test cases for {@link MessageTemplate}.
+ *
+ * @author Andreas Wenger
+ */
+public class MessageTemplateTest {
+
+	@Test public void renderTest() {
+		MessageTemplate t = compile("This ({1}) text has some {3} tokens in it {2}.");
+		assertTrue(t.hasPlaceholders());
+		assertEquals("This (stupid) text has some crazy tokens in it - haha.",
+			t.render("stupid", "- haha", "crazy"));
+		//missing replacements are kept, additional ones are ignored
+		assertEquals("This (a) text has some {3} tokens in it b.", t.render("a", "b"));
+		assertEquals("This ({1}) text has some {3} tokens in it {2}.", t.render());
+		//placeholders at the borders and repeated placeholders
+		assertEquals("xyx", compile("{1}{2}{1}").render("x", "y"));
+		assertEquals("10th", compile("{10}th").render("1", "2", "3", "4", "5", "6", "7", "8", "9",
+			"10"));
+		//replacement text is not interpreted, unlike in String.replaceAll
+		assertEquals("$1 \\ {2}", compile("{1}").render("$1 \\ {2}", "no"));
+	}
+
+	@Test public void literalTest() {
+		String text = "No {placeholders} {0} {01} {-1} {1 } { or {";
+		MessageTemplate t = compile(text);
+		assertFalse(t.hasPlaceholders());
+		assertSame(text, t.render("a", "b"));
+		assertSame(text, t.getText());
+		assertEquals("{x} a {y}", compile("{x} {1} {y}").render("a"));
+	}
+
+}
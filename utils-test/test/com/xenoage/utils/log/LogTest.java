@@ -0,0 +1,97 @@
+package com.xenoage.utils.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Log} and {@link Report}.
+ *
+ * @author Andreas Wenger
+ */
+public class LogTest {
+
+	private List<Report> reports = new ArrayList<Report>();
+
+
+	@Before public void setUp() {
+		Log.init(new LogProcessing() {
+
+			@Override public void log(Report report) {
+				reports.add(report);
+			}
+
+			@Override public void close() {
+			}
+		});
+		Log.setLoggingLevel(Level.Remark);
+	}
+
+	@After public void cleanUp() {
+		Log.initNoLog();
+		Log.setLoggingLevel(Level.Remark);
+	}
+
+	@Test public void testLevelGuard() {
+		Log.setLoggingLevel(Level.Warning);
+		assertTrue(Log.isLoggable(Level.Error));
+		assertFalse(Log.isLoggable(Level.Remark));
+		Log.log(Level.Remark, "a");
+		Log.log(Level.Remark, "{}", "a");
+		Log.log(Level.Remark, new MessageSupplier() {
+
+			@Override public String get() {
+				fail("supplier may not be called");
+				return null;
+			}
+		});
+		assertEquals(0, reports.size());
+		Log.log(Level.Warning, new MessageSupplier() {
+
+			@Override public String get() {
+				return "supplied";
+			}
+		});
+		assertEquals(1, reports.size());
+		assertEquals("supplied", reports.get(0).message);
+		assertEquals(Level.Warning, reports.get(0).level);
+	}
+
+	@Test public void testFormat() {
+		Log.log(Level.Remark, "{} is executed...", "Command");
+		Log.log(Level.Remark, "{} + {} = {}", 1, 2, 3);
+		Log.log(Level.Remark, "{} and {}", "one");
+		Log.log(Level.Remark, "no placeholder", "ignored", "ignored");
+		assertEquals("Command is executed...", reports.get(0).message);
+		assertEquals("1 + 2 = 3", reports.get(1).message);
+		assertEquals("one and {}", reports.get(2).message);
+		assertEquals("no placeholder", reports.get(3).message);
+	}
+
+	@SuppressWarnings("deprecation") @Test public void testCaller() {
+		Log.log(Level.Warning, "warning");
+		Log.log(Report.warning("warning"));
+		Log.log(Level.Remark, "remark");
+		//caller is the method which logged the report
+		for (int i = 0; i < 2; i++) {
+			StackTraceElement caller = reports.get(i).getCaller();
+			assertEquals(LogTest.class.getName(), caller.getClassName());
+			assertEquals("testCaller", caller.getMethodName());
+			assertTrue(reports.get(i).toString().contains("testCaller"));
+			//still available in the deprecated field, after it was resolved
+			assertEquals(caller, reports.get(i).caller);
+		}
+		//no caller for remarks
+		assertNull(reports.get(2).getCaller());
+	}
+
+}
@@ -105,4 +105,54 @@ public class FractionTest {
 		assertEquals(fr(-2, 7), fr(4, -14));
 	}
 
+	@Test public void testCache() {
+		assertSame(fr(3, 8), fr(6, 16));
+		assertSame(Fraction._1$4, fr(1, 8).add(fr(1, 8)));
+		assertSame(Fraction._0, fr(3, 4).sub(fr(3, 4)));
+		assertEquals(fr(-3, 8), fr(3, -8));
+		assertEquals(fr(1000, 3), fr(2000, 6));
+	}
+
+	@Test public void testOverflow() {
+		Fraction big = fr(Integer.MAX_VALUE, 2);
+		//result can be cancelled to an int fraction
+		assertEquals(fr(Integer.MAX_VALUE), big.add(big));
+		assertEquals(fr(Integer.MAX_VALUE - 1, 2), big.sub(fr(1, 2)));
+		assertEquals(-1, fr(Integer.MAX_VALUE - 1, Integer.MAX_VALUE).compareTo(
+			fr(Integer.MAX_VALUE, Integer.MAX_VALUE - 1)));
+		//result does not fit into int values
+		try {
+			big.add(fr(1, 3));
+			fail();
+		} catch (ArithmeticException ex) {
+		}
+		try {
+			big.mult(big);
+			fail();
+		} catch (ArithmeticException ex) {
+		}
+	}
+
+	@Test public void testAccumulator() {
+		FractionAccumulator sum = new FractionAccumulator();
+		assertEquals(fr(0), sum.get());
+		for (int i = 0; i < 16; i++)
+			sum.add(fr(1, 16));
+		assertSame(fr(1), sum.get());
+		sum.add(fr(1, 3)).add(fr(1, 5)).sub(fr(1, 2)).add(null);
+		assertEquals(fr(31, 30), sum.get());
+		assertEquals(1, sum.compareTo(fr(1)));
+		assertEquals(0, sum.compareTo(fr(62, 60)));
+		//intermediate sums beyond int are allowed
+		sum.reset();
+		Fraction big = fr(Integer.MAX_VALUE, 2);
+		sum.add(big).add(big).add(big).sub(big).sub(big);
+		assertEquals(big, sum.get());
+		//many different denominators
+		sum.reset();
+		for (int i = 1; i <= 30; i++)
+			sum.add(fr(1, i)).sub(fr(1, i));
+		assertSame(Fraction._0, sum.get());
+	}
+
 }
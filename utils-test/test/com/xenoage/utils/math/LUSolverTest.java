@@ -0,0 +1,123 @@
+package com.xenoage.utils.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test cases for {@link LUSolver}.
+ *
+ * @author Andreas Wenger
+ */
+public class LUSolverTest {
+
+	private static final double delta = 1e-9;
+
+
+	@Test public void solveTest() {
+		double[] a = { 1, 2, 3, 2, 5, 7, 8, 2, 1 };
+		double[] b = { 1, 7, 3 };
+		double[] x = new LUSolver(3).decompose(a).solve(b);
+		assertArrayEquals(b, mult(a, x, 3), delta);
+		//same result as Gauss
+		double[] expected = Gauss.solve(new double[][] { { 1, 2, 3 }, { 2, 5, 7 }, { 8, 2, 1 } },
+			new double[] { 1, 7, 3 });
+		assertArrayEquals(expected, x, delta);
+		//input is not modified
+		assertArrayEquals(new double[] { 1, 2, 3, 2, 5, 7, 8, 2, 1 }, a, 0);
+		assertArrayEquals(new double[] { 1, 7, 3 }, b, 0);
+	}
+
+	@Test public void reuseTest() {
+		Random random = new Random(7);
+		int n = 20;
+		LUSolver solver = new LUSolver(n);
+		for (int iMatrix = 0; iMatrix < 5; iMatrix++) {
+			double[] a = randomMatrix(random, n);
+			solver.decompose(a);
+			double[] x = new double[n];
+			for (int iVector = 0; iVector < 5; iVector++) {
+				double[] b = randomVector(random, n);
+				assertSame(x, solver.solve(b, x));
+				assertArrayEquals(b, mult(a, x, n), delta);
+			}
+			//solve in place
+			double[] b = randomVector(random, n);
+			double[] bCopy = b.clone();
+			assertSame(b, solver.solve(b, b));
+			assertArrayEquals(bCopy, mult(a, b, n), delta);
+		}
+	}
+
+	@Test public void jaggedTest() {
+		double[][] a = { { 0, 1 }, { 1, 0 } };
+		LUSolver solver = new LUSolver(2).decompose(a);
+		assertArrayEquals(new double[] { 4, 3 }, solver.solve(new double[] { 3, 4 }, null), delta);
+		assertEquals(-1, solver.getDeterminant(), delta);
+	}
+
+	@Test public void determinantTest() {
+		LUSolver solver = new LUSolver(3).decompose(new double[] { 2, 0, 1, 1, 3, 2, 1, 1, 2 });
+		assertEquals(6, solver.getDeterminant(), delta);
+	}
+
+	@Test public void errorTest() {
+		LUSolver solver = new LUSolver(2);
+		//not decomposed yet
+		try {
+			solver.solve(new double[] { 1, 2 }, null);
+			fail();
+		} catch (IllegalStateException ex) {
+		}
+		//singular matrix
+		try {
+			solver.decompose(new double[] { 1, 2, 2, 4 });
+			fail();
+		} catch (ArithmeticException ex) {
+		}
+		//wrong sizes
+		try {
+			solver.decompose(new double[] { 1, 2, 3 });
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+		solver.decompose(new double[] { 1, 2, 3, 4 });
+		try {
+			solver.solve(new double[] { 1, 2, 3 }, null);
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+	}
+
+	static double[] randomMatrix(Random random, int n) {
+		double[] ret = randomVector(random, n * n);
+		//make diagonally dominant, so it is well-conditioned
+		for (int i = 0; i < n; i++)
+			ret[i * n + i] += n;
+		return ret;
+	}
+
+	static double[] randomVector(Random random, int n) {
+		double[] ret = new double[n];
+		for (int i = 0; i < n; i++)
+			ret[i] = random.nextDouble() * 2 - 1;
+		return ret;
+	}
+
+	/**
+	 * Returns A * x for the given n * n matrix A in row-major order.
+	 */
+	static double[] mult(double[] a, double[] x, int n) {
+		double[] ret = new double[n];
+		for (int i = 0; i < n; i++)
+			for (int k = 0; k < n; k++)
+				ret[i] += a[i * n + k] * x[k];
+		return ret;
+	}
+
+}
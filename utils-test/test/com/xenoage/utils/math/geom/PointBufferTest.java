@@ -0,0 +1,79 @@
+package com.xenoage.utils.math.geom;
+
+import static com.xenoage.utils.math.Delta.DELTA_FLOAT_ROUGH;
+import static com.xenoage.utils.math.Delta.Df;
+import static com.xenoage.utils.math.geom.Point2f.p;
+import static com.xenoage.utils.math.geom.PointBuffer.pointBuffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.xenoage.utils.math.MathUtils;
+
+/**
+ * Test cases for {@link PointBuffer}.
+ *
+ * @author Andreas Wenger
+ */
+public class PointBufferTest {
+
+	@Test public void addTest() {
+		PointBuffer points = new PointBuffer(1);
+		for (int i = 0; i < 100; i++)
+			points.add(i, -i);
+		assertEquals(100, points.size());
+		assertEquals(p(42, -42), points.get(42));
+		points.set(42, 1, 2);
+		assertEquals(1, points.getX(42), Df);
+		assertEquals(2, points.getY(42), Df);
+		try {
+			points.get(100);
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+		}
+		points.clear();
+		assertEquals(0, points.size());
+		assertNull(points.getBounds());
+	}
+
+	@Test public void transformTest() {
+		Point2f[] original = { p(1, 2), p(-3, 4), p(0, 0), p(5.5f, -1) };
+		PointBuffer points = pointBuffer(original);
+		points.translate(2, 3).scale(2, -1).rotate(30);
+		for (int i = 0; i < original.length; i++) {
+			Point2f expected = MathUtils.rotate(p((original[i].x + 2) * 2, (original[i].y + 3) * -1), 30);
+			assertEquals(expected.x, points.getX(i), DELTA_FLOAT_ROUGH);
+			assertEquals(expected.y, points.getY(i), DELTA_FLOAT_ROUGH);
+		}
+		//rotate around a center
+		points = pointBuffer(p(2, 1));
+		points.rotate(90, p(1, 1));
+		assertEquals(p(1, 0).x, points.getX(0), Df);
+		assertEquals(p(1, 0).y, points.getY(0), Df);
+	}
+
+	@Test public void getBoundsTest() {
+		PointBuffer points = pointBuffer(p(1, 2), p(-3, 4), p(0, 0), p(5, -1));
+		Rectangle2f bounds = points.getBounds();
+		assertEquals(-3, bounds.x1(), Df);
+		assertEquals(-1, bounds.y1(), Df);
+		assertEquals(5, bounds.x2(), Df);
+		assertEquals(4, bounds.y2(), Df);
+	}
+
+	@Test public void addBezierTest() {
+		Point2f p1 = p(0, 0), p2 = p(10, 0), c1 = p(2, 5), c2 = p(8, 5);
+		PointBuffer points = new PointBuffer();
+		points.add(-1, -1);
+		points.addBezier(p1, p2, c1, c2, 11);
+		assertEquals(12, points.size());
+		for (int i = 0; i <= 10; i++) {
+			Point2f expected = MathUtils.bezier(p1, p2, c1, c2, i / 10f);
+			assertEquals(expected.x, points.getX(i + 1), DELTA_FLOAT_ROUGH);
+			assertEquals(expected.y, points.getY(i + 1), DELTA_FLOAT_ROUGH);
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.xenoage.utils.math.geom;
+
+import static com.xenoage.utils.collections.IntList.intList;
+import static com.xenoage.utils.math.Delta.Df;
+import static com.xenoage.utils.math.geom.RectBuffer.rectBuffer;
+import static com.xenoage.utils.math.geom.Rectangle2f.rf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.xenoage.utils.collections.IntList;
+
+/**
+ * Test cases for {@link RectBuffer}.
+ *
+ * @author Andreas Wenger
+ */
+public class RectBufferTest {
+
+	@Test public void addTest() {
+		RectBuffer rects = new RectBuffer(1);
+		rects.add(rf(1, 2, 3, 4));
+		//negative size is converted
+		rects.add(5, 5, -2, -3);
+		assertEquals(2, rects.size());
+		assertRect(rf(1, 2, 3, 4), rects.get(0));
+		assertRect(rf(3, 2, 2, 3), rects.get(1));
+		rects.clear();
+		assertNull(rects.getBounds());
+	}
+
+	@Test public void transformTest() {
+		Rectangle2f[] original = { rf(1, 2, 3, 4), rf(-5, 0, 1, 1), rf(0, 0, 0, 0) };
+		RectBuffer rects = rectBuffer(original);
+		rects.translate(1, -1).scale(2, -3);
+		for (int i = 0; i < original.length; i++)
+			assertRect(original[i].move(1, -1).scale(2, -3), rects.get(i));
+	}
+
+	@Test public void getBoundsTest() {
+		Rectangle2f[] original = { rf(1, 2, 3, 4), rf(-5, 0, 1, 1), rf(2, 8, 1, 1) };
+		Rectangle2f expected = original[0];
+		for (Rectangle2f r : original)
+			expected = expected.extend(r);
+		assertRect(expected, rectBuffer(original).getBounds());
+	}
+
+	@Test public void hitTest() {
+		RectBuffer rects = rectBuffer(rf(0, 0, 10, 10), rf(5, 5, 10, 10), rf(20, 20, 1, 1));
+		assertEquals(0, rects.indexOf(7, 7));
+		assertEquals(1, rects.lastIndexOf(7, 7));
+		assertEquals(1, rects.indexOf(12, 12));
+		assertEquals(-1, rects.indexOf(18, 18));
+		assertTrue(rects.contains(2, 21, 21));
+		assertFalse(rects.contains(2, 21.5f, 21));
+		IntList found = new IntList();
+		rects.findAll(7, 7, found);
+		assertEquals(intList(0, 1), found);
+		found.clear();
+		rects.findIntersecting(rf(9, 9, 11, 11), found);
+		assertEquals(intList(0, 1, 2), found);
+	}
+
+	private void assertRect(Rectangle2f expected, Rectangle2f r) {
+		assertEquals(expected.x1(), r.x1(), Df);
+		assertEquals(expected.y1(), r.y1(), Df);
+		assertEquals(expected.x2(), r.x2(), Df);
+		assertEquals(expected.y2(), r.y2(), Df);
+	}
+
+}
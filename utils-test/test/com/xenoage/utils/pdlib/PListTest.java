@@ -51,4 +51,21 @@ public class PListTest
 		assertEquals(t(v, plist()), v.split(6));
 	}
 
+
+	@Test public void builderTest()
+	{
+		PList<Integer> v = plist(1, 2);
+		PList.Builder<Integer> builder = v.toBuilder();
+		for (int i = 3; i <= 2000; i++)
+			builder.add(i);
+		PList<Integer> v1 = builder.build();
+		builder.add(2001);
+		assertEquals(2, v.size());
+		assertEquals(2000, v1.size());
+		for (int i = 0; i < v1.size(); i++)
+			assertEquals(i + 1, (int) v1.get(i));
+		assertEquals(v1.plus(2001), builder.build());
+		assertEquals(plist(5, 6), PList.<Integer>builder().add(5).add(6).build());
+	}
+
 }
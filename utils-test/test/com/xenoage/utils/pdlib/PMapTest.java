@@ -40,4 +40,20 @@ public class PMapTest {
 		assertEquals(5, (int) map.get(4));
 	}
 
+	@Test public void builderTest() {
+		PMap<Integer, Integer> map = pmap();
+		map = map.plus(1, 10);
+		PMap.Builder<Integer, Integer> builder = map.toBuilder();
+		for (int i = 2; i <= 1000; i++)
+			builder.put(i, i * 10);
+		builder.remove(1);
+		PMap<Integer, Integer> map1 = builder.build();
+		builder.put(2, 0);
+		assertEquals(1, map.size());
+		assertEquals(10, (int) map.get(1));
+		assertEquals(999, map1.size());
+		assertEquals(20, (int) map1.get(2));
+		assertEquals(0, (int) builder.build().get(2));
+	}
+
 }
@@ -0,0 +1,48 @@
+package com.xenoage.utils.pdlib;
+
+import static com.xenoage.utils.collections.CollectionUtils.alist;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link PSet} class.
+ * 
+ * @author Andreas Wenger
+ */
+public class PSetTest {
+
+	@Test public void builderTest() {
+		PSet.Builder<Integer> builder = PSet.builder();
+		for (int i = 1; i <= 1000; i++)
+			builder.add(i);
+		builder.remove(1);
+		PSet<Integer> set = builder.build();
+		assertEquals(999, set.size());
+		assertFalse(set.contains(1));
+		assertTrue(set.contains(1000));
+		//adding existing elements does not change the set
+		assertEquals(999, set.plusAll(alist(2, 3, 4)).size());
+	}
+
+	@Test public void toBuilderTest() {
+		PSet<Integer> set = new PSet<Integer>().plus(1);
+		PSet.Builder<Integer> builder = set.toBuilder();
+		for (int i = 2; i <= 1000; i++)
+			builder.add(i);
+		builder.remove(1);
+		PSet<Integer> set1 = builder.build();
+		builder.add(1);
+		assertEquals(1, set.size());
+		assertTrue(set.contains(1));
+		assertEquals(999, set1.size());
+		assertFalse(set1.contains(1));
+		assertTrue(builder.build().contains(1));
+		//unchanged builder
+		PSet<Integer> set2 = set1.toBuilder().build();
+		assertEquals(999, set2.size());
+	}
+
+}
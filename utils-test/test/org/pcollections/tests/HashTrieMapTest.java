@@ -0,0 +1,185 @@
+package org.pcollections.tests;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.pcollections.HashTrieMap;
+import org.pcollections.PMap;
+
+import junit.framework.TestCase;
+
+
+public class HashTrieMapTest
+	extends TestCase
+{
+
+	/**
+	 * Compares the behavior of java.util.HashMap to the behavior of HashTrieMap.
+	 */
+	public void testRandomlyAgainstJavaMap()
+	{
+		PMap<Integer, Integer> pmap = HashTrieMap.empty();
+		Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+		Random r = new Random();
+		for (int i = 0; i < 5000; i++) {
+			if (pmap.size() == 0 || r.nextBoolean()) { // add
+				//small keys to get some replacements, large keys for deep tries
+				int k = (r.nextBoolean() ? r.nextInt(1000) : r.nextInt()), v = r.nextInt();
+
+				assertEquals(map.containsKey(k), pmap.containsKey(k));
+				assertEquals(map.get(k), pmap.get(k));
+
+				map.put(k, v);
+				pmap = pmap.plus(k, v);
+			}
+			else { // remove a random key
+				int j = r.nextInt(pmap.size());
+				for (Entry<Integer, Integer> e : pmap.entrySet()) {
+					int k = e.getKey();
+
+					assertTrue(map.containsKey(k));
+					assertTrue(pmap.containsKey(k));
+					assertEquals(map.get(k), pmap.get(k));
+					assertTrue(pmap.entrySet().contains(e));
+
+					if (j-- == 0) {
+						map.remove(k);
+						pmap = pmap.minus(k);
+						assertFalse(pmap.entrySet().contains(e));
+						break;
+					}
+				}
+			}
+
+			// also try to remove a _totally_ random key:
+			int k = r.nextInt();
+			assertEquals(map.containsKey(k), pmap.containsKey(k));
+			map.remove(k);
+			pmap = pmap.minus(k);
+
+			// and try out a non-Integer:
+			String s = Integer.toString(k);
+			assertFalse(pmap.containsKey(s));
+			assertEquals(null, pmap.get(s));
+			pmap = pmap.minus(s);
+
+			assertEquals(map.size(), pmap.size());
+			if (i % 50 == 0) {
+				UtilityTest.assertEqualsAndHash(map, pmap);
+				UtilityTest.assertEqualsAndHash(map.keySet(), pmap.keySet());
+				UtilityTest.assertEqualsAndHash(pmap, HashTrieMap.from(pmap));
+				UtilityTest.assertEqualsAndHash(HashTrieMap.empty(), pmap.minusAll(pmap.keySet()));
+				UtilityTest.assertEqualsAndHash(pmap, pmap.plusAll(pmap));
+			}
+		}
+	}
+
+	/**
+	 * Tests keys with equal hashcodes.
+	 */
+	public void testCollisions()
+	{
+		PMap<Colliding, Integer> pmap = HashTrieMap.empty();
+		Map<Colliding, Integer> map = new HashMap<Colliding, Integer>();
+		for (int i = 0; i < 100; i++) {
+			Colliding k = new Colliding(i, i % 3);
+			pmap = pmap.plus(k, i);
+			map.put(k, i);
+		}
+		UtilityTest.assertEqualsAndHash(map, pmap);
+		//replace and remove
+		pmap = pmap.plus(new Colliding(5, 2), -5);
+		assertEquals(-5, (int) pmap.get(new Colliding(5, 2)));
+		assertEquals(100, pmap.size());
+		for (int i = 0; i < 100; i += 2)
+			pmap = pmap.minus(new Colliding(i, i % 3));
+		assertEquals(50, pmap.size());
+		for (int i = 0; i < 100; i++)
+			assertEquals(i % 2 == 1, pmap.containsKey(new Colliding(i, i % 3)));
+		for (int i = 1; i < 100; i += 2)
+			pmap = pmap.minus(new Colliding(i, i % 3));
+		assertEquals(0, pmap.size());
+		assertEquals(HashTrieMap.empty(), pmap);
+	}
+
+	/**
+	 * Tests that unchanged maps are returned when nothing is modified.
+	 */
+	public void testIdentity()
+	{
+		PMap<String, String> pmap = HashTrieMap.<String, String>empty().plus("a", "1").plus("b", "2");
+		assertSame(pmap, pmap.minus("c"));
+		assertSame(pmap, pmap.plus("a", pmap.get("a")));
+		Set<String> keys = new HashSet<String>(pmap.keySet());
+		assertEquals(2, keys.size());
+		assertTrue(keys.contains("a") && keys.contains("b"));
+	}
+
+
+	/**
+	 * Tests the builder against java.util.HashMap, and checks that maps built
+	 * before are not modified by further changes of the builder.
+	 */
+	public void testBuilder()
+	{
+		Map<Object, Integer> map = new HashMap<Object, Integer>();
+		HashTrieMap.Builder<Object, Integer> builder = HashTrieMap.builder();
+		HashTrieMap<Object, Integer> built = builder.build();
+		Map<Object, Integer> builtCopy = new HashMap<Object, Integer>();
+		Random r = new Random();
+		for (int i = 0; i < 20000; i++) {
+			//some colliding keys, small keys for replacements, large keys for deep tries
+			int n = r.nextInt(10);
+			Object k = (n == 0 ? new Colliding(r.nextInt(10), 5) :
+				(n < 5 ? r.nextInt(1000) : r.nextInt()));
+			if (r.nextInt(3) > 0) {
+				int v = r.nextInt();
+				map.put(k, v);
+				builder.put(k, v);
+			}
+			else {
+				map.remove(k);
+				builder.remove(k);
+			}
+			assertEquals(map.size(), builder.size());
+			assertEquals(map.get(k), builder.get(k));
+			if (i % 1000 == 0) {
+				assertEquals(builtCopy, built);
+				built = builder.build();
+				builtCopy = new HashMap<Object, Integer>(map);
+				assertEquals(map, built);
+			}
+		}
+		assertEquals(builtCopy, built);
+		assertEquals(map, builder.build());
+		UtilityTest.assertEqualsAndHash(map, HashTrieMap.from(map));
+		UtilityTest.assertEqualsAndHash(HashTrieMap.empty(), HashTrieMap.from(map).minusAll(map.keySet()));
+	}
+
+
+	/**
+	 * Key with a given hashcode.
+	 */
+	private static class Colliding
+	{
+		final int id, hash;
+
+		Colliding(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override public int hashCode() {
+			return hash;
+		}
+
+		@Override public boolean equals(Object o) {
+			return o instanceof Colliding && ((Colliding) o).id == id;
+		}
+	}
+
+}
@@ -0,0 +1,221 @@
+package org.pcollections.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.pcollections.PVector;
+import org.pcollections.RadixPVector;
+
+import junit.framework.TestCase;
+
+
+public class RadixPVectorTest
+	extends TestCase
+{
+
+	/**
+	 * Compares the behavior of java.util.ArrayList to the behavior of RadixPVector.
+	 */
+	public void testRandomlyAgainstJavaList()
+	{
+		PVector<Integer> pvec = RadixPVector.empty();
+		List<Integer> list = new ArrayList<Integer>();
+		Random r = new Random();
+		for (int i = 0; i < 1000; i++) {
+			if (pvec.size() == 0 || r.nextBoolean()) { // add
+				if (r.nextBoolean()) { // append
+					Integer v = r.nextInt();
+
+					assertEquals(list.contains(v), pvec.contains(v));
+
+					list.add(v);
+					pvec = pvec.plus(v);
+				}
+				else { // insert
+					int k = r.nextInt(pvec.size() + 1);
+					Integer v = r.nextInt();
+
+					assertEquals(list.contains(v), pvec.contains(v));
+					if (k < pvec.size())
+						assertEquals(list.get(k), pvec.get(k));
+
+					list.add(k, v);
+					pvec = pvec.plus(k, v);
+				}
+			}
+			else if (r.nextBoolean()) { // replace
+				int k = r.nextInt(pvec.size());
+				Integer v = r.nextInt();
+				list.set(k, v);
+				pvec = pvec.with(k, v);
+			}
+			else { // remove a random element
+				int j = r.nextInt(pvec.size()), k = 0;
+				for (Integer e : pvec) {
+
+					assertTrue(list.contains(e));
+					assertTrue(pvec.contains(e));
+					assertEquals(e, pvec.get(k));
+					assertEquals(list.get(k), pvec.get(k));
+					UtilityTest.assertEqualsAndHash(pvec, pvec.minus(k).plus(k, pvec.get(k)));
+					UtilityTest.assertEqualsAndHash(pvec, pvec.plus(k, 10).minus(k));
+
+					if (k == j) {
+						list.remove(k);
+						pvec = pvec.minus(k);
+						k--; // indices are now smaller
+						j = -1; // don't remove again
+					}
+					k++;
+				}
+			}
+
+			// also try to remove a _totally_ random value:
+			Integer v = r.nextInt();
+			assertEquals(list.contains(v), pvec.contains(v));
+			list.remove(v);
+			pvec = pvec.minus(v);
+
+			// and try out a non-Integer:
+			String s = Integer.toString(v);
+			assertFalse(pvec.contains(v));
+			pvec = pvec.minus(s);
+
+			assertEquals(list.size(), pvec.size());
+			UtilityTest.assertEqualsAndHash(list, pvec);
+
+			UtilityTest.assertEqualsAndHash(pvec, RadixPVector.from(pvec));
+			UtilityTest.assertEqualsAndHash(RadixPVector.empty(), pvec.minusAll(pvec));
+			UtilityTest.assertEqualsAndHash(pvec, RadixPVector.empty().plusAll(pvec));
+			UtilityTest.assertEqualsAndHash(pvec, RadixPVector.singleton(10).plusAll(1, pvec)
+				.minus(0));
+
+			int end = r.nextInt(pvec.size() + 1), start = r.nextInt(end + 1);
+			UtilityTest.assertEqualsAndHash(pvec.subList(start, end), list.subList(start, end));
+		}
+	}
+
+
+	/**
+	 * Compares the behavior of java.util.ArrayList to the behavior of RadixPVector
+	 * for large vectors, which are sliced and concatenated.
+	 */
+	public void testSliceAndConcat()
+	{
+		List<Integer> list = new ArrayList<Integer>();
+		for (int i = 0; i < 100000; i++)
+			list.add(i);
+		RadixPVector<Integer> pvec = RadixPVector.from(list);
+		UtilityTest.assertEqualsAndHash(list, pvec);
+		Random r = new Random();
+		for (int i = 0; i < 200; i++) {
+			int op = r.nextInt(4);
+			if (op == 0) { // cut a random piece
+				int end = r.nextInt(pvec.size() + 1), start = r.nextInt(end + 1);
+				list = new ArrayList<Integer>(list.subList(start, end));
+				pvec = pvec.subList(start, end);
+			}
+			else if (op == 1) { // move the front to the back
+				int k = r.nextInt(pvec.size() + 1);
+				List<Integer> front = list.subList(0, k);
+				List<Integer> newList = new ArrayList<Integer>(list.subList(k, list.size()));
+				newList.addAll(front);
+				list = newList;
+				pvec = pvec.subList(k, pvec.size()).plusAll(pvec.subList(0, k));
+			}
+			else if (op == 2) { // insert a copy of itself at a random position
+				int k = r.nextInt(pvec.size() + 1);
+				list.addAll(k, new ArrayList<Integer>(list));
+				pvec = pvec.plusAll(k, pvec);
+			}
+			else { // insert and remove at random positions
+				for (int j = 0; j < 100; j++) {
+					int k = r.nextInt(pvec.size() + 1);
+					list.add(k, -j);
+					pvec = pvec.plus(k, -j);
+					if (pvec.size() > 0) {
+						k = r.nextInt(pvec.size());
+						list.remove(k);
+						pvec = pvec.minus(k);
+					}
+				}
+			}
+			if (list.size() > 1000000 || list.size() < 1000) {
+				list = new ArrayList<Integer>();
+				for (int j = 0; j < 100000; j++)
+					list.add(j);
+				pvec = RadixPVector.from(list);
+			}
+			assertEquals(list.size(), pvec.size());
+			for (int j = 0; j < 100; j++) {
+				int k = r.nextInt(pvec.size());
+				assertEquals(list.get(k), pvec.get(k));
+			}
+		}
+		UtilityTest.assertEqualsAndHash(list, pvec);
+	}
+
+
+	/**
+	 * Compares sublists of various ranges, within the tree and the tail,
+	 * to the sublists of a java.util.ArrayList.
+	 */
+	public void testSubListIntInt()
+	{
+		List<Integer> list = new ArrayList<Integer>();
+		for (int i = 0; i < 5000; i++)
+			list.add(i);
+		PVector<Integer> pvec = RadixPVector.from(list);
+		Random r = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			int start = r.nextInt(list.size() + 1);
+			int end = start + r.nextInt(list.size() - start + 1);
+			PVector<Integer> sub = pvec.subList(start, end);
+			UtilityTest.assertEqualsAndHash(list.subList(start, end), sub);
+			//the sublist can be modified
+			if (sub.size() > 0) {
+				assertEquals(sub.size() - 1, sub.minus(0).size());
+				assertEquals(list.get(start), sub.get(0));
+			}
+			assertEquals(sub.size() + 1, sub.plus(-1).size());
+		}
+		assertSame(pvec, pvec.subList(0, pvec.size()));
+		assertEquals(0, pvec.subList(10, 10).size());
+		try {
+			pvec.subList(10, 9);
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+		}
+		try {
+			pvec.subList(0, pvec.size() + 1);
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+		}
+	}
+
+
+	/**
+	 * Compares the removal of elements to the behavior of java.util.ArrayList.
+	 * Only the first occurrence of an element is removed.
+	 */
+	public void testMinusObject()
+	{
+		List<Integer> list = new ArrayList<Integer>();
+		Random r = new Random(4);
+		for (int i = 0; i < 2000; i++)
+			list.add(r.nextInt(500));
+		PVector<Integer> pvec = RadixPVector.from(list);
+		for (int i = 0; i < 1000; i++) {
+			Integer v = r.nextInt(600);
+			PVector<Integer> pvecNew = pvec.minus(v);
+			if (list.remove(v))
+				assertEquals(list.size(), pvecNew.size());
+			else
+				assertSame(pvec, pvecNew);
+			pvec = pvecNew;
+		}
+		UtilityTest.assertEqualsAndHash(list, pvec);
+	}
+
+}